@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -56,6 +57,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/login", "/api/auth/signup", "/api/auth/refresh").permitAll() // Specific public auth endpoints
                 .requestMatchers("/api/admin/**").authenticated() // Secure admin endpoints
                 .requestMatchers("/api/auth/users/**").authenticated() // Secure user-specific info under /api/auth/users
+                .requestMatchers(HttpMethod.GET, "/api/surveys/images/**").permitAll() // Images of public surveys, by unguessable content hash, loaded by <img> tags
                 .requestMatchers("/api/surveys/**").authenticated() // Surveys endpoints require authentication
                 .requestMatchers("/h2-console/**").permitAll() // Allow H2 console
                 .anyRequest().authenticated() // All other requests need authentication
@@ -0,0 +1,38 @@
+package mcc.survey.creator.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mcc.survey.creator.service.SurveyDefinitionValidator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Rejects survey create and update requests whose declared length could not hold an acceptable
+ * definition, before the body is read or bound. Bodies without a declared length are still bounded
+ * while the definition is read (see {@link mcc.survey.creator.util.ValidatingSurveyJsonDeserializer}).
+ */
+@Configuration
+public class SurveyRequestLimitConfig implements WebMvcConfigurer {
+
+    private final long maxRequestBytes;
+
+    public SurveyRequestLimitConfig(SurveyDefinitionValidator surveyDefinitionValidator) {
+        // Leave room for the survey's own fields around the largest definition we accept
+        this.maxRequestBytes = surveyDefinitionValidator.getMaxBytes() + 64 * 1024;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (request.getContentLengthLong() > maxRequestBytes) {
+                    throw new IllegalArgumentException("Request body larger than " + maxRequestBytes + " bytes.");
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/surveys/createSurvey", "/api/surveys/*");
+    }
+}
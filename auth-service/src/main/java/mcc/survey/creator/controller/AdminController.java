@@ -1,12 +1,24 @@
 package mcc.survey.creator.controller;
 
 import mcc.survey.creator.dto.AdminResetPasswordRequest; // Import new DTO
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.dto.CacheRegionStatsDTO;
 import mcc.survey.creator.dto.CreateUserRequest;
 import mcc.survey.creator.dto.EditUserRequest;
+import mcc.survey.creator.dto.DefinitionCacheStatsDTO;
+import mcc.survey.creator.dto.MessageResponseDto;
 import mcc.survey.creator.dto.UpdateUserStatusRequest;
 import mcc.survey.creator.exception.ResourceNotFoundException;
 import mcc.survey.creator.model.Role;
 import mcc.survey.creator.model.User;
+import mcc.survey.creator.service.CatalogCacheService;
+import mcc.survey.creator.service.SurveyArchiveService;
+import mcc.survey.creator.service.SurveyDefinitionCacheService;
+import mcc.survey.creator.service.SurveyImageService;
+import mcc.survey.creator.service.SurveyDefinitionMigrationService;
+import mcc.survey.creator.service.SurveyMetricsBackfillService;
+import mcc.survey.creator.service.SurveyReadModelService;
+import mcc.survey.creator.service.SurveySearchService;
 import mcc.survey.creator.service.UserService;
 
 import org.slf4j.Logger;
@@ -32,6 +44,30 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SurveySearchService surveySearchService;
+
+    @Autowired
+    private SurveyArchiveService surveyArchiveService;
+
+    @Autowired
+    private SurveyDefinitionCacheService surveyDefinitionCacheService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private SurveyImageService surveyImageService;
+
+    @Autowired
+    private SurveyMetricsBackfillService surveyMetricsBackfillService;
+
+    @Autowired
+    private SurveyDefinitionMigrationService surveyDefinitionMigrationService;
+
+    @Autowired
+    private SurveyReadModelService surveyReadModelService;
+
     // Helper method to convert User entity to UserDTO
     private UserDTO convertToUserDTO(User user) {
         if (user == null) {
@@ -139,4 +175,83 @@ public class AdminController {
         // Consider returning updated user DTO
         return ResponseEntity.ok("User status updated successfully for user ID: " + userId + ". New status: " + updatedUser.isActive());
     }
+
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> rebuildSearchIndex() {
+        int indexed = surveySearchService.rebuild();
+        surveySearchService.writeSnapshot();
+        return ResponseEntity.ok(new MessageResponseDto("Survey search index rebuilt with " + indexed + " surveys."));
+    }
+
+    @GetMapping("/cache/definitions")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<DefinitionCacheStatsDTO> getDefinitionCacheStats() {
+        return ResponseEntity.ok(surveyDefinitionCacheService.getStats());
+    }
+
+    @GetMapping("/cache/regions")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheRegionStats() {
+        return ResponseEntity.ok(catalogCacheService.getRegionStats());
+    }
+
+    @PostMapping("/surveys/images/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> startImageMigration() {
+        if (!surveyImageService.startMigration()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponseDto("A survey image migration is already running."));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponseDto("Survey image migration started."));
+    }
+
+    @GetMapping("/surveys/images/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<BackgroundJobStatusDTO> getImageMigrationStatus() {
+        return ResponseEntity.ok(surveyImageService.getMigrationStatus());
+    }
+
+    @PostMapping("/surveys/metrics/backfill")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> startMetricsBackfill() {
+        if (!surveyMetricsBackfillService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponseDto("A survey metrics backfill is already running."));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponseDto("Survey metrics backfill started."));
+    }
+
+    @GetMapping("/surveys/metrics/backfill")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<BackgroundJobStatusDTO> getMetricsBackfillStatus() {
+        return ResponseEntity.ok(surveyMetricsBackfillService.getStatus());
+    }
+
+    @PostMapping("/surveys/definitions/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> startDefinitionMigration() {
+        if (!surveyDefinitionMigrationService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponseDto("A survey definition migration is already running."));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponseDto("Survey definition migration started."));
+    }
+
+    @GetMapping("/surveys/definitions/migrate")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<BackgroundJobStatusDTO> getDefinitionMigrationStatus() {
+        return ResponseEntity.ok(surveyDefinitionMigrationService.getStatus());
+    }
+
+    @PostMapping("/surveys/read-model/rebuild")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> rebuildSurveyReadModel() {
+        int rendered = surveyReadModelService.rebuild();
+        return ResponseEntity.ok(new MessageResponseDto("Survey read model rebuilt with " + rendered + " surveys."));
+    }
+
+    @PostMapping("/surveys/archive")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> archiveExpiredSurveys() {
+        int archived = surveyArchiveService.archiveExpired();
+        return ResponseEntity.ok(new MessageResponseDto("Archived " + archived + " expired surveys."));
+    }
 }
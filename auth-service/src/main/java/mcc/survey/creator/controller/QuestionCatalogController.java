@@ -0,0 +1,68 @@
+package mcc.survey.creator.controller;
+
+import mcc.survey.creator.dto.MessageResponseDto;
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.dto.QuestionTypeCountDTO;
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.service.SurveyQuestionCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/question-catalog")
+public class QuestionCatalogController {
+
+    @Autowired
+    private SurveyQuestionCatalogService questionCatalogService;
+
+    @GetMapping("/types")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS')")
+    public ResponseEntity<List<QuestionTypeCountDTO>> getQuestionTypeCounts() {
+        return ResponseEntity.ok(questionCatalogService.countQuestionsByType());
+    }
+
+    @GetMapping("/types/{type}/surveys")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS')")
+    public ResponseEntity<List<SurveySummaryDTO>> getSurveysUsingType(@PathVariable String type,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(questionCatalogService.findSurveysUsingType(type, page, size));
+    }
+
+    @GetMapping("/questions")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS')")
+    public ResponseEntity<List<SurveyQuestionDTO>> findQuestions(@RequestParam(required = false) String type,
+                                                                 @RequestParam(required = false) String name,
+                                                                 @RequestParam(required = false) String titleHash,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(questionCatalogService.findQuestions(type, name, titleHash, page, size));
+    }
+
+    @GetMapping("/surveys/{surveyId}/questions")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS')")
+    public ResponseEntity<List<SurveyQuestionDTO>> getQuestionsForSurvey(@PathVariable Long surveyId) {
+        return ResponseEntity.ok(questionCatalogService.getQuestionsForSurvey(surveyId));
+    }
+
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<MessageResponseDto> startBackfill() {
+        if (!questionCatalogService.startBackfill()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponseDto("A question catalog backfill is already running."));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponseDto("Question catalog backfill started."));
+    }
+
+    @GetMapping("/backfill")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ResponseEntity<BackgroundJobStatusDTO> getBackfillStatus() {
+        return ResponseEntity.ok(questionCatalogService.getBackfillStatus());
+    }
+}
@@ -1,21 +1,54 @@
 package mcc.survey.creator.controller;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.dto.BulkSurveyStatusRequest;
+import mcc.survey.creator.dto.EditLeaseDTO;
+import mcc.survey.creator.dto.SurveyChangesDTO;
 import mcc.survey.creator.dto.SurveyDTO; // Added
-import mcc.survey.creator.dto.UserDTO;   // Added
+import mcc.survey.creator.dto.SurveyImportResultDTO;
+import mcc.survey.creator.dto.SurveyListFilter;
+import mcc.survey.creator.dto.SurveyPageDTO;
+import mcc.survey.creator.dto.SurveyShareRequest;
+import mcc.survey.creator.dto.SurveyShareResultDTO;
+import mcc.survey.creator.dto.SurveyStatusChangeResultDTO;
+import mcc.survey.creator.dto.SurveyStatusRequest;
+import mcc.survey.creator.dto.SurveySummaryDTO;
 import mcc.survey.creator.model.Survey;
 import mcc.survey.creator.model.User;
 import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.SurveyVersionView;
 import mcc.survey.creator.repository.UserRepository;
+import mcc.survey.creator.service.EditLeaseService;
+import mcc.survey.creator.service.SurveyArchiveService;
+import mcc.survey.creator.service.SurveyAutosaveService;
+import mcc.survey.creator.service.SurveyChangeFeedService;
+import mcc.survey.creator.service.SurveyDefinitionCacheService;
+import mcc.survey.creator.service.SurveyDefinitionIngestService;
+import mcc.survey.creator.service.SurveyExportService;
+import mcc.survey.creator.service.SurveyImageService;
+import mcc.survey.creator.service.SurveyImportService;
+import mcc.survey.creator.service.SurveyReadModelService;
+import mcc.survey.creator.service.SurveySearchService;
+import mcc.survey.creator.service.SurveyShareService;
 import mcc.survey.creator.service.SurveyService;
 import mcc.survey.creator.exception.ResourceNotFoundException; // Ensure this exists
+import mcc.survey.creator.util.ByteRange;
+import mcc.survey.creator.util.SurveyDefinitionMetrics;
+import mcc.survey.creator.util.SurveyDefinitionNavigator;
+import mcc.survey.creator.util.SurveyJsonCanonicalizer;
+import mcc.survey.creator.util.SurveyListSort;
+import mcc.survey.creator.util.SurveyLocaleProjector;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory; // Added
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -23,17 +56,28 @@ import org.springframework.security.core.context.SecurityContextHolder; // Keep
 import org.springframework.security.core.userdetails.UserDetails;      // Keep if getCurrentUserId() is kept
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid; // Added for @Valid on DTO
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
 import java.util.List; // Added
 import java.util.Optional;
-import java.util.Set;   // Added
-import java.util.stream.Collectors; // Added
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/surveys")
 public class SurveyController {
     private static final Logger logger = LoggerFactory.getLogger(SurveyController.class);
+    // Token of the caller's edit lease; saves without it are refused while someone else holds one
+    private static final String EDIT_LEASE_HEADER = "X-Edit-Lease";
 
     @Autowired
     private SurveyRepository surveyRepository;
@@ -43,6 +87,43 @@ public class SurveyController {
 
     @Autowired
     private SurveyService surveyService;
+
+    @Autowired
+    private SurveySearchService surveySearchService;
+
+    @Autowired
+    private SurveyExportService surveyExportService;
+
+    @Autowired
+    private SurveyImportService surveyImportService;
+
+    @Autowired
+    private SurveyArchiveService surveyArchiveService;
+
+    @Autowired
+    private SurveyDefinitionCacheService surveyDefinitionCacheService;
+
+    @Autowired
+    private SurveyImageService surveyImageService;
+
+    @Autowired
+    private SurveyDefinitionIngestService surveyDefinitionIngestService;
+
+    @Autowired
+    private SurveyAutosaveService surveyAutosaveService;
+
+    @Autowired
+    private EditLeaseService editLeaseService;
+
+    @Autowired
+    private SurveyChangeFeedService surveyChangeFeedService;
+
+    @Autowired
+    private SurveyReadModelService surveyReadModelService;
+
+    @Autowired
+    private SurveyShareService surveyShareService;
+
     // private final UserService userService; // Inject if using userService.getCurrentUserId()
 
     // Removed constructor SurveyController(SurveyService surveyService) to use field injection,
@@ -50,58 +131,14 @@ public class SurveyController {
     // For now, assuming field injection for surveyService as well, similar to repositories.
 
 
-    private UserDTO convertToUserDTO(User user) {
-        if (user == null) {
-            return null;
-        }
-        Set<String> roleNames = user.getRoles().stream()
-                                     .map(role -> role.getName()) // Assuming Role entity has getName()
-                                     .collect(Collectors.toSet());
-        return new UserDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getRank(),
-                user.getPost(),
-                user.getEnglishName(),
-                user.getChineseName(),
-                roleNames,
-                user.isActive()
-        );
+    private SurveyDTO convertToSurveyDTO(Survey survey) {
+        return survey != null ? surveyReadModelService.toDTO(survey) : null;
     }
 
-    private SurveyDTO convertToSurveyDTO(Survey survey) {
-        if (survey == null) {
-            return null;
-        }
-        SurveyDTO dto = new SurveyDTO();
-        dto.setId(survey.getId());
-        dto.setTitle(survey.getTitle());
-        dto.setDescription(survey.getDescription());
-    
-        try {
-            dto.setSurveyJson(new ObjectMapper().readTree(survey.getSurveyJson()));
-        } catch (JsonMappingException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (JsonProcessingException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } // Ensure surveyJson is a String
-        dto.setCreatedAt(survey.getCreatedAt());
-        dto.setUpdatedAt(survey.getUpdatedAt());
-        dto.setSurveyMode(survey.getSurveyMode());
-        dto.setDataClassification(survey.getDataClassification());
-        dto.setStatus(survey.getStatus());
-        if (survey.getOwner() != null) {
-            dto.setOwner(convertToUserDTO(survey.getOwner()));
-        }
-        if (survey.getSharedWithUsers() != null) {
-            dto.setSharedWithUsers(survey.getSharedWithUsers().stream()
-                                       .map(this::convertToUserDTO)
-                                       .collect(Collectors.toSet()));
-        }
-        return dto;
+    // A change to the shares is a new version of the survey. Changing only the share collection
+    // would leave the row clean; with updatedAt set it is written, and the entity listener reports it.
+    private static void touch(Survey survey) {
+        survey.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
     }
 
     @PostMapping("/createSurvey")
@@ -112,10 +149,11 @@ public class SurveyController {
         survey.setDescription(surveyDTO.getDescription()!= null ? surveyDTO.getDescription() : "No description provided");
         survey.setSurveyMode(surveyDTO.getSurveyMode());
         survey.setDataClassification(surveyDTO.getDataClassification());
-        survey.setStatus(surveyDTO.getStatus());
+        survey.setStatus(SurveyService.resolveSavedStatus(null, surveyDTO.getStatus())); // IllegalArgumentException -> 400
+        survey.setTemplate(Boolean.TRUE.equals(surveyDTO.getTemplate()));
         ObjectMapper objectMapper = new ObjectMapper();
         try {
-            survey.setSurveyJson(objectMapper.writeValueAsString(surveyDTO.getSurveyJson()));
+            survey.setSurveyJson(objectMapper.writeValueAsString(SurveyJsonCanonicalizer.canonicalize(surveyDTO.getSurveyJson())));
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             // Let GlobalExceptionHandler handle this as a generic Exception or a specific one if defined
             throw new RuntimeException("Error processing survey JSON: " + e.getMessage(), e);
@@ -124,6 +162,10 @@ public class SurveyController {
         String currentPrincipalName = authentication.getName();
         User user = userRepository.findByUsername(currentPrincipalName)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found for token: " + currentPrincipalName));
+        if (surveyDTO.getSurveyJson() != null) { // Validated while the request was read
+            survey.setSurveyJson(surveyImageService.extractImages(survey.getSurveyJson(), survey.getDataClassification()));
+        }
+        SurveyDefinitionMetrics.of(survey.getSurveyJson()).applyTo(survey);
         survey.setOwner(user);
         logger.info("Survey titled '{}' being created by user: {}", survey.getTitle(), user.getUsername());
         Survey savedSurvey = surveyRepository.save(survey);
@@ -133,26 +175,140 @@ public class SurveyController {
 
     @GetMapping("/")
     @PreAuthorize("hasAuthority('OP_VIEW_OWN_SURVEY')")
-    public ResponseEntity<List<SurveyDTO>> getAllSurveysForUser(Authentication authentication) {
+    public ResponseEntity<List<SurveySummaryDTO>> getAllSurveysForUser(Authentication authentication) {
         String currentPrincipalName = authentication.getName();
-        User user = userRepository.findByUsername(currentPrincipalName)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found for token: " + currentPrincipalName));
-        // This fetches surveys owned by the user.
-        List<Survey> surveys = surveyRepository.findByOwnerId(user.getId());
-        List<SurveyDTO> surveyDTOs = surveys.stream()
-                                           .map(this::convertToSurveyDTO)
-                                           .collect(Collectors.toList());
-        logger.info("User {} fetched {} surveys via getAllSurveysForUser.", currentPrincipalName, surveyDTOs.size());
-        return ResponseEntity.ok(surveyDTOs);
+        // Summary projection only; the full definition is fetched per survey via GET /{surveyId}.
+        List<SurveySummaryDTO> summaries = surveyService.getSurveySummariesByUsername(currentPrincipalName);
+        logger.info("User {} fetched {} surveys via getAllSurveysForUser.", currentPrincipalName, summaries.size());
+        return ResponseEntity.ok(summaries);
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasAuthority('OP_VIEW_OWN_SURVEY')")
+    public ResponseEntity<SurveyPageDTO> getSurveyPage(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestParam(required = false) String status,
+                                                       @RequestParam(required = false) String surveyMode,
+                                                       @RequestParam(required = false) String dataClassification,
+                                                       @RequestParam(required = false) String titlePrefix,
+                                                       @RequestParam(required = false) Integer minQuestions,
+                                                       @RequestParam(required = false) Integer maxQuestions,
+                                                       @RequestParam(required = false) Integer minPages,
+                                                       @RequestParam(required = false) Integer maxPages,
+                                                       @RequestParam(required = false) Integer minBytes,
+                                                       @RequestParam(required = false) Integer maxBytes,
+                                                       @RequestParam(required = false) Boolean hasLogic,
+                                                       @RequestParam(required = false) String sort,
+                                                       @RequestParam(required = false, defaultValue = "desc") String direction,
+                                                       Authentication authentication) {
+        String currentPrincipalName = authentication.getName();
+        SurveyListFilter filter = new SurveyListFilter(status, surveyMode, dataClassification, titlePrefix,
+                minQuestions, maxQuestions, minPages, maxPages, minBytes, maxBytes, hasLogic);
+        SurveyListSort order = SurveyListSort.parse(sort); // IllegalArgumentException -> 400
+        SurveyPageDTO page = surveyService.getSurveyPage(currentPrincipalName, filter, order, cursor, size, direction);
+        logger.info("User {} fetched a page of {} surveys (more: {}).", currentPrincipalName, page.getItems().size(), page.getNextCursor() != null);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasAuthority('OP_VIEW_OWN_SURVEY')")
+    public ResponseEntity<SurveyChangesDTO> getSurveyChanges(@RequestParam(required = false) String since,
+                                                             Authentication authentication) {
+        String currentPrincipalName = authentication.getName();
+        // Owned and shared surveys changed since the cursor, with tombstones for those gone from the list
+        SurveyChangesDTO changes = surveyChangeFeedService.changesSince(currentPrincipalName, since); // IllegalArgumentException -> 400
+        logger.info("User {} synced their survey list: {} changed, {} removed (reset: {}).", currentPrincipalName,
+                changes.getChanged().size(), changes.getRemoved().size(), changes.isReset());
+        return ResponseEntity.ok(changes);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SurveySummaryDTO>> searchSurveys(@RequestParam("q") String query,
+                                                                @RequestParam(required = false, defaultValue = "20") int limit,
+                                                                Authentication authentication) {
+        String currentPrincipalName = authentication.getName();
+        // Results are limited to surveys the caller owns or has been shared
+        List<SurveySummaryDTO> results = surveySearchService.search(currentPrincipalName, query, limit);
+        logger.info("User {} searched surveys for '{}' and got {} results.", currentPrincipalName, query, results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('OP_VIEW_OWN_SURVEY')")
+    public ResponseEntity<StreamingResponseBody> exportSurveys(@RequestParam(defaultValue = "false") boolean gzip,
+                                                               Authentication authentication) {
+        String currentPrincipalName = authentication.getName();
+        logger.info("User {} exporting their surveys (gzip: {}).", currentPrincipalName, gzip);
+        return exportResponse("surveys", gzip, out -> surveyExportService.exportOwnedSurveys(currentPrincipalName, out, gzip));
+    }
+
+    @GetMapping("/export/all")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS')")
+    public ResponseEntity<StreamingResponseBody> exportAllSurveys(@RequestParam(defaultValue = "false") boolean gzip,
+                                                                  Authentication authentication) {
+        logger.info("User {} exporting all surveys (gzip: {}).", authentication.getName(), gzip);
+        return exportResponse("all-surveys", gzip, out -> surveyExportService.exportAllSurveys(out, gzip));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String baseName, boolean gzip, StreamingResponseBody body) {
+        String fileName = baseName + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('OP_CREATE_SURVEY')")
+    public ResponseEntity<SurveyImportResultDTO> importSurveys(@RequestParam("file") MultipartFile file,
+                                                               Authentication authentication) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty.");
+        }
+        String currentPrincipalName = authentication.getName();
+        logger.info("User {} importing surveys from {} ({} bytes).", currentPrincipalName, file.getOriginalFilename(), file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(surveyImportService.importSurveys(currentPrincipalName, file.getOriginalFilename(), in));
+        }
+    }
+
+    @GetMapping("/templates")
+    @PreAuthorize("hasAuthority('OP_CREATE_SURVEY')")
+    public ResponseEntity<List<SurveySummaryDTO>> getTemplates() {
+        return ResponseEntity.ok(surveyService.getTemplateSummaries());
+    }
+
+    @PostMapping("/{surveyId}/clone")
+    @PreAuthorize("hasAuthority('OP_CREATE_SURVEY') and @surveySecurityService.canClone(authentication, #surveyId)")
+    public ResponseEntity<SurveyDTO> cloneSurvey(@PathVariable Long surveyId, Authentication authentication) {
+        String currentPrincipalName = authentication.getName();
+        Survey clone = surveyService.cloneSurvey(surveyId, currentPrincipalName);
+        logger.info("Survey ID {} cloned as survey ID {} by user {}.", surveyId, clone.getId(), currentPrincipalName);
+        return ResponseEntity.status(HttpStatus.CREATED).body(convertToSurveyDTO(clone));
     }
 
     @GetMapping("/{surveyId}")
     @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS') or " +
                   "(hasAuthority('OP_VIEW_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)) or " +
                   "@surveySecurityService.isSharedWith(authentication, #surveyId)")
-    public ResponseEntity<SurveyDTO> getSurveyById(@PathVariable Long surveyId, Authentication authentication) {
+    public ResponseEntity<?> getSurveyById(@PathVariable Long surveyId,
+                                           @RequestParam(required = false) String locale,
+                                           Authentication authentication) {
         String currentUsername = authentication.getName();
+        String projectedLocale = locale != null ? SurveyLocaleProjector.normalizeLocale(locale) : null; // IllegalArgumentException -> 400
         logger.info("User {} attempting to fetch survey with ID: {}", currentUsername, surveyId);
+        flushAutosavedDraft(surveyId);
+        if (projectedLocale == null) {
+            // Served as rendered when the survey last changed
+            Optional<byte[]> payload = surveyReadModelService.getPayload(surveyId);
+            if (payload.isEmpty()) {
+                logger.warn("Survey with ID: {} not found or deleted.", surveyId);
+                return ResponseEntity.notFound().build();
+            }
+            logger.info("User {} accessed survey ID {}.", currentUsername, surveyId);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(payload.get());
+        }
         Optional<Survey> surveyOptional = surveyRepository.findById(surveyId);
 
         if (surveyOptional.isEmpty()) {
@@ -161,15 +317,139 @@ public class SurveyController {
         }
 
         Survey survey = surveyOptional.get();
+        if (Survey.STATUS_DELETED.equals(survey.getStatus())) {
+            logger.warn("Survey with ID: {} is deleted.", surveyId);
+            return ResponseEntity.notFound().build();
+        }
         logger.info("User {} accessed survey: '{}' (ID: {}).", currentUsername, survey.getTitle(), surveyId);
         SurveyDTO surveyDTO = convertToSurveyDTO(survey);
+        surveyDTO.setSurveyJson(SurveyLocaleProjector.project(surveyDTO.getSurveyJson(), projectedLocale));
         return ResponseEntity.ok(surveyDTO);
     }
 
+    /**
+     * Just the SurveyJS definition, served as stored bytes from the definition cache, with an ETag
+     * so unchanged definitions are not sent again. With {@code ?locale=} the localizable strings
+     * are collapsed to that locale; projections are cached per version and locale as well.
+     * {@code ?page=N} or an RFC 6901 {@code ?pointer=} returns just that part of the definition
+     * (404 if it has none); the ETag is the definition's, since the part changes only with it.
+     */
+    @GetMapping("/{surveyId}/definition")
+    @PreAuthorize("hasAuthority('OP_VIEW_ALL_SURVEYS') or " +
+                  "(hasAuthority('OP_VIEW_OWN_SURVEY') and @surveySecurityService.canView(authentication, #surveyId))")
+    public ResponseEntity<StreamingResponseBody> getSurveyDefinition(@PathVariable Long surveyId,
+                                                                     @RequestParam(required = false) String locale,
+                                                                     @RequestParam(required = false) Integer page,
+                                                                     @RequestParam(required = false) String pointer,
+                                                                     WebRequest webRequest) throws IOException {
+        JsonPointer partPointer = partPointer(page, pointer, locale); // IllegalArgumentException -> 400
+        String projectedLocale = locale != null ? SurveyLocaleProjector.normalizeLocale(locale) : null; // IllegalArgumentException -> 400
+        flushAutosavedDraft(surveyId);
+        SurveyVersionView version = surveyDefinitionCacheService.getVersion(surveyId);
+        String etag = "\"" + surveyDefinitionCacheService.versionTag(version, projectedLocale) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 Not Modified has already been prepared
+        }
+        if (partPointer != null) {
+            SurveyDefinitionCacheService.DefinitionPart part = surveyDefinitionCacheService.openPart(version, partPointer);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> {
+                        try (part) {
+                            part.writeTo(out);
+                        }
+                    });
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> surveyDefinitionCacheService.writeDefinition(version, projectedLocale, out));
+    }
+
+    // A reader must not get an older definition than the editor last autosaved
+    private void flushAutosavedDraft(Long surveyId) {
+        try {
+            surveyAutosaveService.flush(surveyId);
+        } catch (IllegalArgumentException | ResourceNotFoundException e) {
+            // The draft was dropped; what is stored is still the latest definition
+        }
+    }
+
+    // Null when the whole definition is wanted
+    private static JsonPointer partPointer(Integer page, String pointer, String locale) {
+        if (page == null && pointer == null) {
+            return null;
+        }
+        if (page != null && pointer != null) {
+            throw new IllegalArgumentException("Use either 'page' or 'pointer', not both.");
+        }
+        if (locale != null) {
+            throw new IllegalArgumentException("'locale' cannot be combined with 'page' or 'pointer'.");
+        }
+        if (page != null) {
+            if (page < 0) {
+                throw new IllegalArgumentException("'page' must not be negative.");
+            }
+            return SurveyDefinitionNavigator.PAGES.appendIndex(page);
+        }
+        return JsonPointer.compile(pointer); // IllegalArgumentException on a malformed pointer
+    }
+
+    /**
+     * Serves an image extracted from a survey definition. Blobs are named by content hash, so they
+     * are cacheable forever; single byte ranges are honoured and the file is copied to the
+     * response with {@link FileChannel#transferTo}. No authentication is required: the SHA-256 name
+     * is the capability, and only public surveys have their images extracted.
+     */
+    @GetMapping("/images/{name}")
+    public ResponseEntity<StreamingResponseBody> getSurveyImage(@PathVariable String name,
+                                                                @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                                                                WebRequest webRequest) {
+        SurveyImageService.StoredImage image = surveyImageService.open(name);
+        String etag = "\"" + image.hash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 Not Modified has already been prepared
+        }
+        ByteRange range = ByteRange.parse(rangeHeader, image.size());
+        if (range != null && !range.isSatisfiable()) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size())
+                    .build();
+        }
+        long start = range != null ? range.getStart() : 0;
+        long length = range != null ? range.getLength() : image.size();
+        ResponseEntity.BodyBuilder response = range != null
+                ? ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + range.getStart() + "-" + range.getEnd() + "/" + image.size())
+                : ResponseEntity.ok();
+        return response
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .contentLength(length)
+                .body(out -> {
+                    try (FileChannel file = FileChannel.open(image.file(), StandardOpenOption.READ)) {
+                        WritableByteChannel target = Channels.newChannel(out);
+                        long position = start;
+                        long remaining = length;
+                        while (remaining > 0) {
+                            long sent = file.transferTo(position, remaining, target);
+                            if (sent <= 0) {
+                                break; // File shorter than its recorded size
+                            }
+                            position += sent;
+                            remaining -= sent;
+                        }
+                    }
+                });
+    }
+
     @PostMapping("/{id}/share/{userId}")
     @PreAuthorize("hasAuthority('OP_SHARE_SURVEY') and @surveySecurityService.isOwner(authentication, #id)")
     public ResponseEntity<SurveyDTO> shareSurvey(@PathVariable Long id, @PathVariable Long userId, Authentication authentication) {
-        Optional<Survey> surveyOptional = surveyRepository.findById(id);
+        Optional<Survey> surveyOptional = surveyRepository.findLiveById(id);
         if (surveyOptional.isEmpty()) {
             logger.warn("Share op failed: Survey ID {} not found.", id);
             return ResponseEntity.notFound().build();
@@ -191,6 +471,7 @@ public class SurveyController {
                 throw new IllegalArgumentException("Survey already shared with this user.");
             } else {
                 survey.getSharedWithUsers().add(userToShareWith);
+                touch(survey);
                 surveyRepository.save(survey);
 
                 logger.info("Survey ID {} successfully shared with user ID {}.", id, userId);
@@ -199,10 +480,25 @@ public class SurveyController {
         }
     }
 
+    /**
+     * Shares the survey with many users at once, by username or id; each gets an outcome of
+     * shared, already_shared, owner or not_found.
+     */
+    @PostMapping("/{surveyId}/shares")
+    @PreAuthorize("hasAuthority('OP_SHARE_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<SurveyShareResultDTO> shareSurveyWithUsers(@PathVariable Long surveyId,
+                                                                     @RequestBody SurveyShareRequest request,
+                                                                     Authentication authentication) {
+        SurveyShareResultDTO result = surveyShareService.share(surveyId, request.getUsernames(), request.getUserIds()); // IllegalArgumentException -> 400
+        logger.info("User {} shared survey ID {} with {} of {} requested users.", authentication.getName(), surveyId,
+                result.getSharedCount(), result.getResults().size());
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{id}/unshare/{userId}")
     @PreAuthorize("hasAuthority('OP_SHARE_SURVEY') and @surveySecurityService.isOwner(authentication, #id)")
     public ResponseEntity<SurveyDTO> unshareSurvey(@PathVariable Long id, @PathVariable Long userId, Authentication authentication) {
-        Optional<Survey> surveyOptional = surveyRepository.findById(id);
+        Optional<Survey> surveyOptional = surveyRepository.findLiveById(id);
         if (surveyOptional.isEmpty()) {
             logger.warn("Unshare op failed: Survey ID {} not found.", id);
             return ResponseEntity.notFound().build();
@@ -217,6 +513,7 @@ public class SurveyController {
         User userToUnshare = userToUnshareOptional.get();
 
         if (survey.getSharedWithUsers().remove(userToUnshare)) {
+            touch(survey);
             surveyRepository.save(survey);
             logger.info("Survey ID {} successfully unshared from user ID {}.", id, userId);
         } else {
@@ -230,26 +527,44 @@ public class SurveyController {
     @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
     public ResponseEntity<SurveyDTO> updateSurvey(@PathVariable Long surveyId,
                                                 @Valid @RequestBody SurveyDTO surveyDetailsDTO,
+                                                @RequestHeader(value = EDIT_LEASE_HEADER, required = false) String leaseToken,
                                                 Authentication authentication) throws JsonProcessingException {
         String currentUsername = authentication.getName();
         logger.info("User {} attempting to update survey ID {}.", currentUsername, surveyId);
+        editLeaseService.checkWritable(surveyId, leaseToken); // EditLeaseConflictException -> 409
+
+        // The definition was validated while the request was read; extract before touching the entity
+        String surveyJsonString = null;
+        if (surveyDetailsDTO.getSurveyJson() != null) { // Ensure surveyJson is not accidentally nulled if not provided
+            surveyJsonString = new ObjectMapper().writeValueAsString(SurveyJsonCanonicalizer.canonicalize(surveyDetailsDTO.getSurveyJson()));
+            surveyJsonString = surveyImageService.extractImages(surveyJsonString, surveyDetailsDTO.getDataClassification());
+        }
 
         Survey surveyToUpdate = surveyRepository.findById(surveyId)
+            .filter(survey -> !Survey.STATUS_DELETED.equals(survey.getStatus())) // Restore goes through /restore
             .orElseThrow(() -> {
                 logger.warn("Update failed: Survey ID {} not found for user {}.", surveyId, currentUsername);
                 return new ResourceNotFoundException("Survey not found with id " + surveyId);
             });
+        // Same lifecycle as POST /status, and the trash only through DELETE and /status
+        String status = SurveyService.resolveSavedStatus(surveyToUpdate.getStatus(), surveyDetailsDTO.getStatus());
 
         // Update fields from DTO
         surveyToUpdate.setTitle(surveyDetailsDTO.getTitle());
         surveyToUpdate.setDescription(surveyDetailsDTO.getDescription());
-        if (surveyDetailsDTO.getSurveyJson() != null) { // Ensure surveyJson is not accidentally nulled if not provided
-            String surveyJsonString = new ObjectMapper().writeValueAsString(surveyDetailsDTO.getSurveyJson());
+        if (surveyJsonString != null) {
+            surveyAutosaveService.discard(surveyId); // This save supersedes any autosaved draft
+            // Clones sharing this survey's definition keep the old one
+            surveyService.releaseSharedDefinition(surveyId);
             surveyToUpdate.setSurveyJson(surveyJsonString);
+            SurveyDefinitionMetrics.of(surveyJsonString).applyTo(surveyToUpdate);
+        }
+        if (surveyDetailsDTO.getTemplate() != null) {
+            surveyToUpdate.setTemplate(surveyDetailsDTO.getTemplate());
         }
         surveyToUpdate.setSurveyMode(surveyDetailsDTO.getSurveyMode());
         surveyToUpdate.setDataClassification(surveyDetailsDTO.getDataClassification());
-        surveyToUpdate.setStatus(surveyDetailsDTO.getStatus());
+        surveyToUpdate.setStatus(status);
         // Owner and sharedWithUsers are not updated via this method.
 
         // The service method surveyService.updateSurvey(Long surveyId, Survey surveyDetails, String userId)
@@ -261,6 +576,86 @@ public class SurveyController {
         return new ResponseEntity<>(updatedSurveyDTO, HttpStatus.OK);
     }
 
+    /**
+     * Replaces only the definition, reading it from the raw request body as it streams in, for
+     * definitions too large to go through {@link #updateSurvey}. The stored JSON is canonicalized as on
+     * that path. Returns the summary, not the definition just sent.
+     */
+    @PutMapping(value = "/{surveyId}/definition", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<SurveySummaryDTO> replaceSurveyDefinition(@PathVariable Long surveyId,
+                                                                    @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                                    @RequestHeader(value = EDIT_LEASE_HEADER, required = false) String leaseToken,
+                                                                    InputStream body,
+                                                                    Authentication authentication) {
+        editLeaseService.checkWritable(surveyId, leaseToken); // EditLeaseConflictException -> 409
+        surveyAutosaveService.discard(surveyId);
+        SurveySummaryDTO summary = surveyDefinitionIngestService.replaceDefinition(surveyId,
+                contentLength != null ? contentLength : -1, body);
+        logger.info("Survey ID {} definition replaced by user {} ({} bytes).", surveyId, authentication.getName(),
+                summary.getDefinitionBytes());
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Autosave from the editor: the definition is validated and kept as the survey's pending draft,
+     * and the request is acknowledged without touching the database. Drafts arriving faster than
+     * the flush interval replace each other, so only the latest is written; see
+     * {@link SurveyAutosaveService}. Only the definition is autosaved.
+     */
+    @PutMapping("/{surveyId}/autosave")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<Void> autosaveSurvey(@PathVariable Long surveyId,
+                                               @RequestBody JsonNode surveyJson,
+                                               @RequestHeader(value = EDIT_LEASE_HEADER, required = false) String leaseToken,
+                                               Authentication authentication) throws JsonProcessingException {
+        editLeaseService.checkWritable(surveyId, leaseToken); // EditLeaseConflictException -> 409
+        String surveyJsonString = new ObjectMapper().writeValueAsString(SurveyJsonCanonicalizer.canonicalize(surveyJson));
+        surveyAutosaveService.autosave(surveyId, surveyJsonString); // IllegalArgumentException -> 400
+        logger.debug("Survey ID {} autosaved by user {}.", surveyId, authentication.getName());
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Writes the survey's autosaved draft to the database now; 204 if it had none.
+     */
+    @PostMapping("/{surveyId}/autosave/flush")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<SurveySummaryDTO> flushAutosavedSurvey(@PathVariable Long surveyId, Authentication authentication) {
+        Optional<SurveySummaryDTO> summary = surveyAutosaveService.flush(surveyId);
+        summary.ifPresent(s -> logger.info("Survey ID {} autosaved draft written by user {}.", surveyId, authentication.getName()));
+        return summary.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Asks for the survey's edit lease. The response says who holds it; with {@code readOnly} set
+     * the editor must not save until a renewal grants it the lease. Only users who may save the
+     * survey can hold its lease, so a user it is merely shared with cannot lock its owner out.
+     */
+    @PostMapping("/{surveyId}/lease")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<EditLeaseDTO> acquireEditLease(@PathVariable Long surveyId, Authentication authentication) {
+        EditLeaseDTO lease = editLeaseService.acquire(surveyId, authentication.getName());
+        if (lease.isReadOnly()) {
+            logger.info("User {} opened survey ID {} read-only; {} is editing it.", authentication.getName(), surveyId, lease.getHolder());
+        }
+        return ResponseEntity.ok(lease);
+    }
+
+    @PutMapping("/{surveyId}/lease/{token}")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<EditLeaseDTO> renewEditLease(@PathVariable Long surveyId, @PathVariable String token,
+                                                       Authentication authentication) {
+        return ResponseEntity.ok(editLeaseService.renew(surveyId, token, authentication.getName()));
+    }
+
+    @DeleteMapping("/{surveyId}/lease/{token}")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<Void> releaseEditLease(@PathVariable Long surveyId, @PathVariable String token) {
+        editLeaseService.release(surveyId, token);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{surveyId}")
     @PreAuthorize("hasAuthority('OP_DELETE_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
     public ResponseEntity<Void> deleteSurvey(@PathVariable Long surveyId, Authentication authentication) {
@@ -268,27 +663,77 @@ public class SurveyController {
         String currentUsername = authentication.getName();
         logger.info("User {} attempting to delete survey ID: {}", currentUsername, surveyId);
         // ResourceNotFoundException will be thrown by the service if not found / not owned by this user (via surveySecurityService)
-        surveyService.deleteSurvey(surveyId, currentUsername); // Assuming deleteSurvey in service handles actual deletion
+        surveyService.deleteSurvey(surveyId, currentUsername); // Soft delete; the purge job removes the row later
         logger.info("Survey ID {} deleted by user {}", surveyId, currentUsername);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @PostMapping("/{surveyId}/rehydrate")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') and @surveySecurityService.isOwner(authentication, #surveyId)")
+    public ResponseEntity<SurveyDTO> rehydrateSurvey(@PathVariable Long surveyId, Authentication authentication) {
+        Survey survey = surveyArchiveService.rehydrate(surveyId);
+        logger.info("Survey ID {} rehydrated from the archive by user {}", surveyId, authentication.getName());
+        return ResponseEntity.ok(convertToSurveyDTO(survey));
+    }
+
+    /**
+     * Moves a survey to another status (draft, published, expired or deleted) with a single
+     * UPDATE; the definition is neither read nor rewritten.
+     */
+    @PostMapping("/{surveyId}/status")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') or hasAuthority('OP_DELETE_OWN_SURVEY')")
+    public ResponseEntity<SurveyStatusChangeResultDTO> changeSurveyStatus(@PathVariable Long surveyId,
+                                                                          @Valid @RequestBody SurveyStatusRequest request,
+                                                                          Authentication authentication) {
+        SurveyStatusChangeResultDTO result = surveyService.changeStatus(surveyId, request.getStatus(),
+                authentication.getName(), mayEdit(authentication), mayDelete(authentication));
+        logger.info("Survey ID {} moved to '{}' by user {}", surveyId, result.getStatus(), authentication.getName());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Moves several of the caller's surveys to another status at once. Surveys that cannot make
+     * the move are reported in {@code rejectedIds}; the others still move.
+     */
+    @PostMapping("/status")
+    @PreAuthorize("hasAuthority('OP_EDIT_OWN_SURVEY') or hasAuthority('OP_DELETE_OWN_SURVEY')")
+    public ResponseEntity<SurveyStatusChangeResultDTO> changeSurveyStatuses(@Valid @RequestBody BulkSurveyStatusRequest request,
+                                                                            Authentication authentication) {
+        return ResponseEntity.ok(surveyService.changeStatuses(request.getIds(), request.getStatus(),
+                authentication.getName(), mayEdit(authentication), mayDelete(authentication)));
+    }
+
+    // Moves to draft, published or expired need the edit permission, like PUT
+    private static boolean mayEdit(Authentication authentication) {
+        return hasAuthority(authentication, "OP_EDIT_OWN_SURVEY");
+    }
+
+    // Moves into or out of the trash need the delete permission, like DELETE and /restore
+    private static boolean mayDelete(Authentication authentication) {
+        return hasAuthority(authentication, "OP_DELETE_OWN_SURVEY");
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String name) {
+        return authentication.getAuthorities().stream().anyMatch(authority -> name.equals(authority.getAuthority()));
+    }
+
+    @PostMapping("/{surveyId}/restore")
+    @PreAuthorize("hasAuthority('OP_DELETE_OWN_SURVEY') and @surveySecurityService.isOwnerOfDeleted(authentication, #surveyId)")
+    public ResponseEntity<SurveySummaryDTO> restoreSurvey(@PathVariable Long surveyId, Authentication authentication) {
+        String currentUsername = authentication.getName();
+        SurveySummaryDTO restored = surveyService.restoreSurvey(surveyId, currentUsername);
+        logger.info("Survey ID {} restored by user {}", surveyId, currentUsername);
+        return ResponseEntity.ok(restored);
+    }
+
     @GetMapping
     // This maps to "/api/surveys" as per @RequestMapping at class level.
     @PreAuthorize("isAuthenticated()") // Ensures user is authenticated
-    public List<SurveyDTO> getSurveysForCurrentUser(Authentication authentication) {
+    public List<SurveySummaryDTO> getSurveysForCurrentUser(Authentication authentication) {
         String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        List<Survey> surveys = surveyRepository.findByOwnerId(user.getId()); // Explicitly fetching owned surveys.
-                                                                              // Change to surveyService.getSurveysByUsername(username)
-                                                                              // if that service method has more complex logic (e.g. includes shared)
-        
-        List<SurveyDTO> surveyDTOs = surveys.stream()
-                                           .map(this::convertToSurveyDTO)
-                                           .collect(Collectors.toList());
-        logger.info("User {} fetched {} surveys via getSurveysForCurrentUser.", username, surveyDTOs.size());
-        return surveyDTOs;
+        List<SurveySummaryDTO> summaries = surveyService.getSurveySummariesByUsername(username); // Owned surveys only
+        logger.info("User {} fetched {} surveys via getSurveysForCurrentUser.", username, summaries.size());
+        return summaries;
     }
 
 }
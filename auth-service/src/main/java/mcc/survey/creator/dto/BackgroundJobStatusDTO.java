@@ -0,0 +1,31 @@
+package mcc.survey.creator.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJobStatusDTO {
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    @JsonIgnore
+    private Map<String, Object> details = new LinkedHashMap<>(); // The job's counters and other figures, each sent as a field of its own
+
+    @JsonAnyGetter
+    public Map<String, Object> details() {
+        return details;
+    }
+
+    public int getCount(String name) {
+        return (Integer) details.get(name);
+    }
+}
@@ -0,0 +1,20 @@
+package mcc.survey.creator.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSurveyStatusRequest {
+    @NotEmpty(message = "At least one survey id is required")
+    private List<Long> ids;
+
+    @NotBlank(message = "Status is required")
+    private String status; // draft, published, expired or deleted
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DefinitionCacheStatsDTO {
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private long rejections; // Entries refused by size-aware admission
+    private int entries;
+    private long bytesHeld;
+    private long capacityBytes;
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EditLeaseDTO {
+    private Long surveyId;
+    private String holder; // Username of whoever holds the lease
+    private String token; // Only given to the holder; sent back to renew, release and save
+    private boolean readOnly; // Someone else is editing: the client must not save
+    private LocalDateTime expiresAt;
+    private long leaseSeconds; // Renew well within this
+}
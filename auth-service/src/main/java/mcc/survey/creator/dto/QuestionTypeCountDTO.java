@@ -0,0 +1,14 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionTypeCountDTO {
+    private String type;
+    private Long questionCount;
+    private Long surveyCount;
+}
@@ -0,0 +1,18 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyChangesDTO {
+    private String cursor; // Pass back as ?since= for the next call
+    private boolean reset; // The cursor could not be continued: changed is the whole list, replace what you have
+    private List<SurveySummaryDTO> changed; // Created, changed or shared with the user since the cursor
+    private List<Long> sharedIds; // Those of changed that the user sees through a share rather than owns
+    private List<Long> removed; // Tombstones: deleted or unshared since the cursor
+}
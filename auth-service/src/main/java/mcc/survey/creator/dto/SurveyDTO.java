@@ -8,6 +8,8 @@ import java.sql.Timestamp;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import mcc.survey.creator.util.ValidatingSurveyJsonDeserializer;
 
 @Data
 @NoArgsConstructor
@@ -16,12 +18,14 @@ public class SurveyDTO {
     private Long id;
     private String title;
     private String description;
+    @JsonDeserialize(using = ValidatingSurveyJsonDeserializer.class) // Validated as the request is read
     private JsonNode surveyJson;
     private Timestamp createdAt;
     private Timestamp updatedAt;
     private String surveyMode;
     private String dataClassification;
     private String status;
+    private Boolean template;
     private UserDTO owner;
     private Set<UserDTO> sharedWithUsers;
 }
@@ -0,0 +1,15 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyImportRecordResultDTO {
+    private String source; // e.g. "line 12" or "legacy/survey-7.json"
+    private boolean imported;
+    private Long surveyId;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyImportResultDTO {
+    private int totalRecords;
+    private int importedCount;
+    private int failedCount;
+    private List<SurveyImportRecordResultDTO> records;
+}
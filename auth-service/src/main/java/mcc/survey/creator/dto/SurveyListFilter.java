@@ -0,0 +1,33 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional filters for the paged survey listing. Null fields are not applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyListFilter {
+    private String status;
+    private String surveyMode;
+    private String dataClassification;
+    private String titlePrefix; // case-sensitive so the (owner, title) index can serve it
+    // Inclusive bounds on the derived definition metrics; surveys not yet backfilled never match them
+    private Integer minQuestions;
+    private Integer maxQuestions;
+    private Integer minPages;
+    private Integer maxPages;
+    private Integer minBytes;
+    private Integer maxBytes;
+    private Boolean hasLogic;
+
+    public SurveyListFilter(String status, String surveyMode, String dataClassification, String titlePrefix) {
+        this.status = status;
+        this.surveyMode = surveyMode;
+        this.dataClassification = dataClassification;
+        this.titlePrefix = titlePrefix;
+    }
+}
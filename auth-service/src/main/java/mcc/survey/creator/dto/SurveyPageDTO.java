@@ -0,0 +1,15 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyPageDTO {
+    private List<SurveySummaryDTO> items;
+    private String nextCursor; // null when there are no more results
+}
@@ -0,0 +1,18 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyQuestionDTO {
+    private Long surveyId;
+    private int pageIndex;
+    private String pageName;
+    private int position;
+    private String name;
+    private String type;
+    private String titleHash;
+}
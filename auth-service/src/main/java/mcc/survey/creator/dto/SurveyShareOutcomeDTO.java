@@ -0,0 +1,15 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyShareOutcomeDTO {
+    private String requested; // The username or id as given
+    private Long userId; // Null if no such user
+    private String username;
+    private String outcome; // shared, already_shared, owner or not_found
+}
@@ -0,0 +1,15 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyShareRequest {
+    private List<String> usernames; // Either or both may be given
+    private List<Long> userIds;
+}
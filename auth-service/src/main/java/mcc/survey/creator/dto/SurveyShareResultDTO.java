@@ -0,0 +1,16 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyShareResultDTO {
+    private Long surveyId;
+    private int sharedCount; // Users the survey was newly shared with
+    private List<SurveyShareOutcomeDTO> results; // One per requested user, in request order
+}
@@ -0,0 +1,16 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyStatusChangeResultDTO {
+    private String status;
+    private List<Long> updatedIds;
+    private List<Long> rejectedIds; // Not found, not owned, or not allowed to move to the status from their current one
+}
@@ -0,0 +1,14 @@
+package mcc.survey.creator.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyStatusRequest {
+    @NotBlank(message = "Status is required")
+    private String status; // draft, published, expired or deleted
+}
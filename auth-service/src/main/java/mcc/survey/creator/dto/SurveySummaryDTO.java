@@ -0,0 +1,30 @@
+package mcc.survey.creator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Lightweight list row for a survey. Populated directly by a JPQL constructor
+ * expression so the definition LOBs, owner roles and shared users are never loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveySummaryDTO {
+    private Long id;
+    private String title;
+    private String status;
+    private String surveyMode;
+    private String dataClassification;
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+    private Integer shareCount;
+    // Derived definition metrics; null for surveys not yet backfilled
+    private Integer pageCount;
+    private Integer questionCount;
+    private Integer definitionBytes;
+    private Boolean hasLogic;
+}
@@ -0,0 +1,38 @@
+package mcc.survey.creator.event;
+
+import mcc.survey.creator.model.Survey;
+
+/**
+ * Published whenever a survey row is inserted, updated or removed. Listeners that need to stay
+ * in step with the survey table (search index, derived data) subscribe to this instead of
+ * hooking into every controller and service that writes surveys.
+ */
+public class SurveyChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final Long surveyId;
+    private final Type type;
+    private final Survey survey; // The entity as written; null after a bulk query or if its definition was not loaded
+
+    public SurveyChangedEvent(Long surveyId, Type type, Survey survey) {
+        this.surveyId = surveyId;
+        this.type = type;
+        this.survey = survey;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Survey getSurvey() {
+        return survey;
+    }
+}
@@ -0,0 +1,36 @@
+package mcc.survey.creator.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import mcc.survey.creator.model.Survey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA lifecycle hooks for {@link Survey}, turned into {@link SurveyChangedEvent}s. Hibernate obtains
+ * this listener from the Spring bean container, so it can be injected like any other bean.
+ * Listeners should use {@code @TransactionalEventListener} so they only see committed changes.
+ * The entity only travels with a save event if its definition is loaded: listeners run after the
+ * persistence context may have closed, and would otherwise fail reading it. Without the entity
+ * they read what they need from the database, as they do for bulk changes.
+ */
+@Component
+public class SurveyEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(Survey survey) {
+        eventPublisher.publishEvent(new SurveyChangedEvent(survey.getId(), SurveyChangedEvent.Type.SAVED,
+                survey.isDefinitionLoaded() ? survey : null));
+    }
+
+    @PostRemove
+    public void afterRemove(Survey survey) {
+        eventPublisher.publishEvent(new SurveyChangedEvent(survey.getId(), SurveyChangedEvent.Type.DELETED, survey));
+    }
+}
@@ -0,0 +1,18 @@
+package mcc.survey.creator.event;
+
+/**
+ * Published when a user's profile, roles or active flag changed. Data derived from users, such as
+ * the owner and share details rendered into survey read models, listens for this.
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,11 @@
+package mcc.survey.creator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EditLeaseConflictException extends RuntimeException {
+    public EditLeaseConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An archived survey definition could not be read from its segment file, e.g. because the
+ * archive directory is not mounted. The survey row itself is intact.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SurveyArchiveUnavailableException extends RuntimeException {
+    public SurveyArchiveUnavailableException(String message) {
+        super(message);
+    }
+
+    public SurveyArchiveUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,12 +1,16 @@
 package mcc.survey.creator.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 
 @Entity
 @Table(name = "authorities")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.AUTHORITY)
 public class Authority {
 
     @Id
@@ -0,0 +1,17 @@
+package mcc.survey.creator.model;
+
+/**
+ * Names of the Hibernate second-level cache regions. Each one must also be declared in
+ * {@code ehcache.xml}; regions are not created on demand.
+ */
+public final class CacheRegions {
+
+    public static final String ROLE = "catalog.role";
+    public static final String AUTHORITY = "catalog.authority";
+    public static final String ROLE_AUTHORITIES = "catalog.role.authorities";
+    public static final String USER_ROLES = "catalog.user.roles";
+    public static final String CATALOG_QUERIES = "catalog.queries";
+
+    private CacheRegions() {
+    }
+}
@@ -3,11 +3,17 @@ package mcc.survey.creator.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import mcc.survey.creator.event.SurveyEntityListener;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -18,10 +24,35 @@ import java.util.Set;
 
 @Entity
 @Data
+@DynamicUpdate // Updates write only changed columns
+@EntityListeners(SurveyEntityListener.class)
+@Table(indexes = {
+        // Keyset pagination over (updatedAt, id) per owner, plus one index per list filter
+        @Index(name = "idx_survey_owner_updated", columnList = "user_id, updated_at, id"),
+        @Index(name = "idx_survey_owner_status_updated", columnList = "user_id, status, updated_at, id"),
+        @Index(name = "idx_survey_owner_mode_updated", columnList = "user_id, survey_mode, updated_at, id"),
+        @Index(name = "idx_survey_owner_class_updated", columnList = "user_id, data_classification, updated_at, id"),
+        @Index(name = "idx_survey_owner_title", columnList = "user_id, title"),
+        @Index(name = "idx_survey_definition_source", columnList = "definition_source_id"),
+        @Index(name = "idx_survey_template", columnList = "is_template"),
+        // Sorting and filtering by the derived definition metrics
+        @Index(name = "idx_survey_owner_questions", columnList = "user_id, question_count, id"),
+        @Index(name = "idx_survey_owner_pages", columnList = "user_id, page_count, id"),
+        @Index(name = "idx_survey_owner_size", columnList = "user_id, definition_bytes, id"),
+        @Index(name = "idx_survey_owner_logic_updated", columnList = "user_id, has_logic, updated_at, id")
+})
 public class Survey {
 
+    public static final String STATUS_DRAFT = "draft";
+    public static final String STATUS_PUBLISHED = "published";
+    public static final String STATUS_DELETED = "deleted"; // Soft-deleted; hard-deleted later by the purge job
+    public static final String STATUS_EXPIRED = "expired"; // Eligible for the cold archive
+    public static final String CLASSIFICATION_PUBLIC = "public"; // The only one whose images move to the blob store
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // A pooled sequence (not IDENTITY) lets Hibernate assign ids up front and batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "survey_seq")
+    @SequenceGenerator(name = "survey_seq", sequenceName = "survey_seq", allocationSize = 50)
     @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
     private Long id;
 
@@ -31,9 +62,6 @@ public class Survey {
     @Lob
     private String description;
 
-    @Lob
-    private String questionsJson; // Stores questions as a JSON string
-
     @CreationTimestamp
     private Timestamp createdAt;
 
@@ -59,8 +87,47 @@ public class Survey {
 
     private String status; // e.g., "drafted", "published", "expired", "deleted"
 
-    @Lob
-    private String surveyJson; // Store SurveyJS JSON definition
+    // The status a soft-deleted survey had before it went to the trash, to return to on restore
+    @Column(name = "status_before_delete")
+    private String statusBeforeDelete;
+
+    // The definition LOBs live in their own table and are only read when asked for; null on a clone
+    // that still shares its source's definition
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @JoinColumn(name = "definition_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private SurveyDefinition definition;
+
+    // Clones point here instead of copying the definition; cleared by the first write to surveyJson
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "definition_source_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Survey definitionSource;
+
+    // Set when the definition has been moved to the cold archive; surveyJson is then null (a stub row)
+    @Column(name = "archive_segment")
+    private Integer archiveSegment;
+
+    // Derived from the definition whenever it is written (see SurveyDefinitionMetrics); null until
+    // computed for rows that predate these columns
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "question_count")
+    private Integer questionCount;
+
+    @Column(name = "definition_bytes")
+    private Integer definitionBytes;
+
+    @Column(name = "has_logic")
+    private Boolean hasLogic;
+
+    @Column(name = "is_template", nullable = false)
+    private boolean template; // Templates can be cloned by any user
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -79,9 +146,68 @@ public class Survey {
         this.owner = owner;
         this.dataClassification = dataClassification;
         this.status = status;
-        this.surveyJson = surveyJson;
+        if (surveyJson != null) {
+            setSurveyJson(surveyJson);
+        }
     }
 
+    /**
+     * Returns this survey's definition, or the shared one of its source if it is an unedited clone.
+     * Reads the definition row on first use.
+     */
+    public String getSurveyJson() {
+        String surveyJson = definition != null ? definition.getSurveyJson() : null;
+        return surveyJson != null || definitionSource == null ? surveyJson : definitionSource.getSurveyJson();
+    }
+
+    /**
+     * Stores a definition of this survey's own; on a clone this is the copy-on-write point, and on
+     * an archived stub it brings the definition back into the table.
+     */
+    public void setSurveyJson(String surveyJson) {
+        ownDefinition().setSurveyJson(surveyJson);
+        this.definitionSource = null;
+        this.archiveSegment = null;
+        // The new definition is a new version of the survey, though only the definition row changed:
+        // a dirty survey row gets its @UpdateTimestamp and fires the entity listener
+        this.updatedAt = new Timestamp(System.currentTimeMillis());
+    }
+
+    public String getQuestionsJson() {
+        return definition != null ? definition.getQuestionsJson() : null;
+    }
+
+    public void setQuestionsJson(String questionsJson) {
+        if (definition != null || questionsJson != null) {
+            ownDefinition().setQuestionsJson(questionsJson);
+        }
+    }
+
+    /**
+     * Whether {@link #getSurveyJson()} can answer without going to the database, which it cannot do
+     * once the persistence context is closed.
+     */
+    @JsonIgnore
+    public boolean isDefinitionLoaded() {
+        if (!Hibernate.isInitialized(definition)) {
+            return false;
+        }
+        if (definitionSource == null || definition != null && definition.getSurveyJson() != null) {
+            return true;
+        }
+        return Hibernate.isInitialized(definitionSource) && definitionSource.isDefinitionLoaded();
+    }
+
+    private SurveyDefinition ownDefinition() {
+        if (definition == null) {
+            definition = new SurveyDefinition();
+        }
+        return definition;
+    }
+
+    public boolean isArchived() {
+        return archiveSegment != null;
+    }
 
-    // Getters and setters are automatically generated by Lombok @Data
+    // Other getters and setters are automatically generated by Lombok @Data
 }
@@ -0,0 +1,39 @@
+package mcc.survey.creator.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * The large columns of a {@link Survey}, kept in a table of their own. Survey rows stay small, and
+ * since {@code Survey.definition} is a lazy to-one association, loading a survey to check its
+ * owner, share it or change its status never reads these columns.
+ */
+@Entity
+@Data
+@Table(name = "survey_definition")
+public class SurveyDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "survey_definition_seq")
+    @SequenceGenerator(name = "survey_definition_seq", sequenceName = "survey_definition_seq", allocationSize = 50)
+    private Long id;
+
+    @Lob
+    @Column(name = "survey_json")
+    @ToString.Exclude
+    private String surveyJson; // SurveyJS JSON definition; null on an archived stub
+
+    @Lob
+    @Column(name = "questions_json")
+    @ToString.Exclude
+    private String questionsJson;
+
+    public SurveyDefinition() {
+    }
+
+    public SurveyDefinition(String surveyJson, String questionsJson) {
+        this.surveyJson = surveyJson;
+        this.questionsJson = questionsJson;
+    }
+}
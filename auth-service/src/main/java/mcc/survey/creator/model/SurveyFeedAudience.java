@@ -0,0 +1,30 @@
+package mcc.survey.creator.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One user who saw a survey as of its last change recorded by the change feed, so that the next
+ * change can tell who stopped seeing it. Kept in the database rather than in memory, and read one
+ * survey at a time. No foreign keys, so purging a survey or a user never waits on this table.
+ */
+@Entity
+@Data
+@Table(name = "survey_feed_audience", indexes = {
+        @Index(name = "idx_survey_feed_audience_survey", columnList = "survey_id")
+})
+public class SurveyFeedAudience {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "survey_id", nullable = false)
+    private Long surveyId;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "shared", nullable = false)
+    private boolean shared; // Sees it through a share rather than as its owner
+}
@@ -0,0 +1,53 @@
+package mcc.survey.creator.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One question of a survey definition, extracted from {@code Survey.surveyJson} on save so that
+ * catalog queries ("which surveys use a matrix question") run against indexed columns.
+ */
+@Entity
+@Data
+@Table(name = "survey_question", indexes = {
+        @Index(name = "idx_survey_question_survey", columnList = "survey_id"),
+        @Index(name = "idx_survey_question_type", columnList = "type, survey_id"),
+        @Index(name = "idx_survey_question_name", columnList = "name"),
+        @Index(name = "idx_survey_question_title_hash", columnList = "title_hash")
+})
+public class SurveyQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "survey_question_seq")
+    @SequenceGenerator(name = "survey_question_seq", sequenceName = "survey_question_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "survey_id", nullable = false)
+    private Long surveyId;
+
+    private int pageIndex;
+
+    private String pageName;
+
+    private int position; // Order of the question within the survey
+
+    private String name;
+
+    private String type;
+
+    @Column(name = "title_hash", length = 32)
+    private String titleHash;
+
+    public SurveyQuestion() {
+    }
+
+    public SurveyQuestion(Long surveyId, int pageIndex, String pageName, int position, String name, String type, String titleHash) {
+        this.surveyId = surveyId;
+        this.pageIndex = pageIndex;
+        this.pageName = pageName;
+        this.position = position;
+        this.name = name;
+        this.type = type;
+        this.titleHash = titleHash;
+    }
+}
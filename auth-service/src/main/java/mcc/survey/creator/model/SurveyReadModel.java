@@ -0,0 +1,35 @@
+package mcc.survey.creator.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+
+import java.sql.Timestamp;
+
+/**
+ * A survey as {@code GET /api/surveys/{id}} returns it, serialized when the survey, its shares or
+ * the profile of its owner or a share changed, so a read is one keyed fetch. Derived entirely from
+ * the survey tables; a missing row is rendered again on demand. No foreign key to the survey, so
+ * purging a survey never waits on this table.
+ */
+@Entity
+@Data
+@Table(name = "survey_read_model")
+public class SurveyReadModel {
+
+    @Id
+    @Column(name = "survey_id")
+    private Long surveyId;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    @ToString.Exclude
+    private byte[] payload; // UTF-8 JSON of the SurveyDTO
+
+    // The survey's updated_at when rendered; the row is outdated once they differ
+    @Column(name = "source_updated_at")
+    private Timestamp sourceUpdatedAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Timestamp refreshedAt;
+}
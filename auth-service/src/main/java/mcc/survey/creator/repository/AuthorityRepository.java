@@ -1,9 +1,22 @@
 package mcc.survey.creator.repository;
 
+import jakarta.persistence.QueryHint;
 import mcc.survey.creator.model.Authority;
+import mcc.survey.creator.model.CacheRegions;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface AuthorityRepository extends JpaRepository<Authority, Long> {
     Optional<Authority> findByName(String name);
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.CATALOG_QUERIES)
+    })
+    List<Authority> findAll();
 }
@@ -0,0 +1,18 @@
+package mcc.survey.creator.repository;
+
+import java.sql.Timestamp;
+
+/**
+ * Projection of what the archive job writes to a segment, plus the version it must still match
+ * when the row is stubbed. The image migration reads definitions the same way, and also needs the
+ * classification.
+ */
+public interface SurveyArchiveView {
+    Long getId();
+
+    Timestamp getUpdatedAt();
+
+    String getDataClassification();
+
+    String getSurveyJson();
+}
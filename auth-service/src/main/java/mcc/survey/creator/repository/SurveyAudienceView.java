@@ -0,0 +1,10 @@
+package mcc.survey.creator.repository;
+
+/**
+ * One user who sees a survey in their list, as its owner or through a share.
+ */
+public interface SurveyAudienceView {
+    Long getSurveyId();
+
+    String getUsername();
+}
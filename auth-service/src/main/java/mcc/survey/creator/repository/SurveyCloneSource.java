@@ -0,0 +1,31 @@
+package mcc.survey.creator.repository;
+
+/**
+ * Projection of the columns copied onto a clone, read without loading the definition LOB
+ * that the clone will share rather than copy.
+ */
+public interface SurveyCloneSource {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getSurveyMode();
+
+    String getDataClassification();
+
+    Long getDefinitionSourceId();
+
+    boolean getOwnsDefinition();
+
+    Integer getArchiveSegment();
+
+    Integer getPageCount();
+
+    Integer getQuestionCount();
+
+    Integer getDefinitionBytes();
+
+    Boolean getHasLogic();
+}
@@ -0,0 +1,32 @@
+package mcc.survey.creator.repository;
+
+import mcc.survey.creator.model.SurveyDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface SurveyDefinitionRepository extends JpaRepository<SurveyDefinition, Long> {
+
+    // Both address the definition row through the survey that owns it; callers check the survey row first
+
+    @Modifying
+    @Query("UPDATE SurveyDefinition d SET d.surveyJson = :surveyJson " +
+           "WHERE d.id = (SELECT s.definition.id FROM Survey s WHERE s.id = :surveyId)")
+    int replaceSurveyJsonOf(@Param("surveyId") Long surveyId, @Param("surveyJson") String surveyJson);
+
+    @Modifying
+    @Query("UPDATE SurveyDefinition d SET d.surveyJson = null " +
+           "WHERE d.id = (SELECT s.definition.id FROM Survey s WHERE s.id = :surveyId)")
+    int clearSurveyJsonOf(@Param("surveyId") Long surveyId);
+
+    // Definitions left behind by purged surveys; one handed over to a clone meanwhile is kept
+    @Modifying
+    @Query("DELETE FROM SurveyDefinition d WHERE d.id IN :ids " +
+           "AND NOT EXISTS (SELECT s.id FROM Survey s WHERE s.definition = d)")
+    int deleteUnreferencedByIdIn(@Param("ids") Collection<Long> ids);
+}
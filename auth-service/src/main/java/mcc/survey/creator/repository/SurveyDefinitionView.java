@@ -0,0 +1,13 @@
+package mcc.survey.creator.repository;
+
+/**
+ * Projection of a survey's effective definition for the metrics backfill and the image purge: its
+ * own, the shared one of its clone source, or none if it has been moved to the archive segment.
+ */
+public interface SurveyDefinitionView {
+    Long getId();
+
+    Integer getArchiveSegment();
+
+    String getSurveyJson();
+}
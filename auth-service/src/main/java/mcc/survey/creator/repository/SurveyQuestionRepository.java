@@ -0,0 +1,37 @@
+package mcc.survey.creator.repository;
+
+import mcc.survey.creator.dto.QuestionTypeCountDTO;
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import mcc.survey.creator.model.SurveyQuestion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SurveyQuestionRepository extends JpaRepository<SurveyQuestion, Long>, SurveyQuestionRepositoryCustom {
+
+    @Modifying
+    @Query("DELETE FROM SurveyQuestion q WHERE q.surveyId = :surveyId")
+    int deleteBySurveyId(@Param("surveyId") Long surveyId);
+
+    @Modifying
+    @Query("DELETE FROM SurveyQuestion q WHERE q.surveyId IN :surveyIds")
+    int deleteBySurveyIdIn(@Param("surveyIds") Collection<Long> surveyIds);
+
+    @Query("SELECT new mcc.survey.creator.dto.QuestionTypeCountDTO(q.type, COUNT(q), COUNT(DISTINCT q.surveyId)) " +
+           "FROM SurveyQuestion q GROUP BY q.type ORDER BY COUNT(q) DESC")
+    List<QuestionTypeCountDTO> countByType();
+
+    @Query("SELECT DISTINCT q.surveyId FROM SurveyQuestion q WHERE q.type = :type ORDER BY q.surveyId")
+    List<Long> findSurveyIdsByType(@Param("type") String type, Pageable pageable);
+
+    @Query("SELECT new mcc.survey.creator.dto.SurveyQuestionDTO(q.surveyId, q.pageIndex, q.pageName, q.position, q.name, q.type, q.titleHash) " +
+           "FROM SurveyQuestion q WHERE q.surveyId = :surveyId ORDER BY q.position")
+    List<SurveyQuestionDTO> findBySurveyIdOrdered(@Param("surveyId") Long surveyId);
+}
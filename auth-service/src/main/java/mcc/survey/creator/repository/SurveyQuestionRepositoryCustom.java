@@ -0,0 +1,15 @@
+package mcc.survey.creator.repository;
+
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface SurveyQuestionRepositoryCustom {
+
+    /**
+     * Fetches one page of catalog questions ordered by {@code (surveyId, position)}. Only the
+     * filters that are set end up in the WHERE clause, so each combination can use its own index.
+     */
+    List<SurveyQuestionDTO> findQuestions(String type, String name, String titleHash, Pageable pageable);
+}
@@ -0,0 +1,54 @@
+package mcc.survey.creator.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import mcc.survey.creator.model.SurveyQuestion;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SurveyQuestionRepositoryImpl implements SurveyQuestionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SurveyQuestionDTO> findQuestions(String type, String name, String titleHash, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SurveyQuestionDTO> query = cb.createQuery(SurveyQuestionDTO.class);
+        Root<SurveyQuestion> question = query.from(SurveyQuestion.class);
+
+        query.select(cb.construct(SurveyQuestionDTO.class,
+                question.get("surveyId"),
+                question.get("pageIndex"),
+                question.get("pageName"),
+                question.get("position"),
+                question.get("name"),
+                question.get("type"),
+                question.get("titleHash")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (type != null) {
+            predicates.add(cb.equal(question.get("type"), type));
+        }
+        if (name != null) {
+            predicates.add(cb.equal(question.get("name"), name));
+        }
+        if (titleHash != null) {
+            predicates.add(cb.equal(question.get("titleHash"), titleHash));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(question.get("surveyId")), cb.asc(question.get("position")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -1,16 +1,305 @@
 package mcc.survey.creator.repository;
 
+import mcc.survey.creator.dto.SurveySummaryDTO;
 import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.SurveyDefinition;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SurveyRepository extends JpaRepository<Survey, Long> {
+public interface SurveyRepository extends JpaRepository<Survey, Long>, SurveyRepositoryCustom {
+
+    // Soft-deleted surveys (status 'deleted') stay in the table until purged but are hidden from every read below
+    String NOT_DELETED = "(s.status IS NULL OR s.status <> 'deleted')";
+
+    // The survey's own definition (sd), else the one it shares with its clone source (dd); null on an
+    // archived stub, so projections carry archiveSegment for SurveyArchiveService.resolveDefinition
+    String DEFINITION_JOINS = "LEFT JOIN s.definition sd LEFT JOIN s.definitionSource d LEFT JOIN d.definition dd";
+    String SURVEY_JSON = "COALESCE(sd.surveyJson, dd.surveyJson)";
+
+    @Query("SELECT s FROM Survey s WHERE s.id = :id AND " + NOT_DELETED)
+    Optional<Survey> findLiveById(@Param("id") Long id);
+
+    @Query("SELECT s FROM Survey s WHERE s.owner.id = :ownerId AND " + NOT_DELETED)
+    List<Survey> findByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT s FROM Survey s WHERE s.id = :id AND s.owner.id = :ownerId AND " + NOT_DELETED)
+    Optional<Survey> findByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    // Summary rows for the list views; joins users only to match the owner's username.
+    @Query("SELECT new mcc.survey.creator.dto.SurveySummaryDTO(" +
+           "s.id, s.title, s.status, s.surveyMode, s.dataClassification, s.createdAt, s.updatedAt, SIZE(s.sharedWithUsers), " +
+           "s.pageCount, s.questionCount, s.definitionBytes, s.hasLogic) " +
+           "FROM Survey s WHERE s.owner.username = :username AND " + NOT_DELETED)
+    List<SurveySummaryDTO> findSummariesByOwnerUsername(@Param("username") String username);
+
+    @Query("SELECT new mcc.survey.creator.dto.SurveySummaryDTO(" +
+           "s.id, s.title, s.status, s.surveyMode, s.dataClassification, s.createdAt, s.updatedAt, SIZE(s.sharedWithUsers), " +
+           "s.pageCount, s.questionCount, s.definitionBytes, s.hasLogic) " +
+           "FROM Survey s WHERE s.id IN :ids AND " + NOT_DELETED)
+    List<SurveySummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // --- Id-only lookups used by the search index ---
+
+    @Query("SELECT s.id FROM Survey s WHERE " + NOT_DELETED)
+    List<Long> findAllIds();
+
+    @Query("SELECT s.id FROM Survey s WHERE s.updatedAt IS NULL OR s.updatedAt > :since")
+    List<Long> findIdsUpdatedSince(@Param("since") Timestamp since);
+
+    @Query("SELECT s.id FROM Survey s WHERE s.owner.username = :username AND " + NOT_DELETED)
+    List<Long> findIdsOwnedBy(@Param("username") String username);
+
+    @Query("SELECT s.id FROM Survey s JOIN s.sharedWithUsers u WHERE u.username = :username AND " + NOT_DELETED)
+    List<Long> findIdsSharedWith(@Param("username") String username);
+
+    @Query("SELECT s.id FROM Survey s WHERE s.owner.id = :userId AND " + NOT_DELETED)
+    List<Long> findIdsOwnedByUser(@Param("userId") Long userId);
+
+    @Query("SELECT s.id FROM Survey s JOIN s.sharedWithUsers u WHERE u.id = :userId AND " + NOT_DELETED)
+    List<Long> findIdsSharedWithUser(@Param("userId") Long userId);
+
+    @Query("SELECT s.owner.id FROM Survey s WHERE s.id = :id AND " + NOT_DELETED)
+    Optional<Long> findOwnerId(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM Survey s JOIN s.sharedWithUsers u WHERE s.id = :id AND u.id IN :userIds")
+    List<Long> findSharedUserIdsAmong(@Param("id") Long id, @Param("userIds") Collection<Long> userIds);
+
+    // --- Who sees which survey, for the change feed ---
+
+    @Query("SELECT s.id AS surveyId, o.username AS username FROM Survey s JOIN s.owner o WHERE s.id = :id AND " + NOT_DELETED)
+    List<SurveyAudienceView> findOwnerAudienceOf(@Param("id") Long id);
+
+    @Query("SELECT s.id AS surveyId, u.username AS username FROM Survey s JOIN s.sharedWithUsers u WHERE s.id = :id AND " + NOT_DELETED)
+    List<SurveyAudienceView> findSharedAudienceOf(@Param("id") Long id);
+
+    @Query("SELECT s.id AS id, s.title AS title, s.description AS description, s.archiveSegment AS archiveSegment, " +
+           SURVEY_JSON + " AS surveyJson FROM Survey s " + DEFINITION_JOINS + " WHERE s.id = :id AND " + NOT_DELETED)
+    Optional<SurveyTextView> findTextViewById(@Param("id") Long id);
+
+    @Query("SELECT s.id AS id, s.title AS title, s.description AS description, s.archiveSegment AS archiveSegment, " +
+           SURVEY_JSON + " AS surveyJson FROM Survey s " + DEFINITION_JOINS + " WHERE s.id IN :ids AND " + NOT_DELETED)
+    List<SurveyTextView> findTextViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id AS id, s.title AS title, s.description AS description, s.archiveSegment AS archiveSegment, " +
+           SURVEY_JSON + " AS surveyJson FROM Survey s " + DEFINITION_JOINS +
+           " WHERE s.id > :afterId AND " + NOT_DELETED + " ORDER BY s.id")
+    List<SurveyTextView> findTextViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // --- Streaming reads for export; callers must hold a transaction and detach rows as they go ---
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM Survey s LEFT JOIN FETCH s.definition LEFT JOIN FETCH s.definitionSource d LEFT JOIN FETCH d.definition " +
+           "WHERE s.owner.username = :username AND " + NOT_DELETED + " ORDER BY s.id")
+    Stream<Survey> streamByOwnerUsername(@Param("username") String username);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM Survey s LEFT JOIN FETCH s.definition LEFT JOIN FETCH s.definitionSource d LEFT JOIN FETCH d.definition " +
+           "WHERE " + NOT_DELETED + " ORDER BY s.id")
+    Stream<Survey> streamAll();
+
+    // --- Copy-on-write clones and templates ---
+
+    @Query("SELECT s.id AS id, s.title AS title, s.description AS description, s.surveyMode AS surveyMode, " +
+           "s.dataClassification AS dataClassification, s.definitionSource.id AS definitionSourceId, " +
+           "CASE WHEN sd.surveyJson IS NULL THEN false ELSE true END AS ownsDefinition, s.archiveSegment AS archiveSegment, " +
+           "s.pageCount AS pageCount, s.questionCount AS questionCount, s.definitionBytes AS definitionBytes, s.hasLogic AS hasLogic " +
+           "FROM Survey s LEFT JOIN s.definition sd WHERE s.id = :id")
+    Optional<SurveyCloneSource> findCloneSourceById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(s) > 0 FROM Survey s LEFT JOIN s.owner o LEFT JOIN s.sharedWithUsers u " +
+           "WHERE s.id = :id AND " + NOT_DELETED + " AND (s.template = true OR o.username = :username OR u.username = :username)")
+    boolean isCloneableBy(@Param("id") Long id, @Param("username") String username);
+
+    @Query("SELECT new mcc.survey.creator.dto.SurveySummaryDTO(" +
+           "s.id, s.title, s.status, s.surveyMode, s.dataClassification, s.createdAt, s.updatedAt, SIZE(s.sharedWithUsers), " +
+           "s.pageCount, s.questionCount, s.definitionBytes, s.hasLogic) " +
+           "FROM Survey s WHERE s.template = true AND " + NOT_DELETED + " ORDER BY s.title")
+    List<SurveySummaryDTO> findTemplateSummaries();
+
+    // Live clones first, so the definition is not handed to a clone that is itself waiting to be purged
+    @Query("SELECT s.id FROM Survey s WHERE s.definitionSource.id = :sourceId " +
+           "ORDER BY CASE WHEN s.status = 'deleted' THEN 1 ELSE 0 END, s.id")
+    List<Long> findIdsSharingDefinitionOf(@Param("sourceId") Long sourceId);
+
+    @Query("SELECT COUNT(c) > 0 FROM Survey c WHERE c.definitionSource.id = :sourceId")
+    boolean hasClones(@Param("sourceId") Long sourceId);
+
+    @Modifying
+    @Query("UPDATE Survey c SET c.definitionSource = :heir WHERE c.definitionSource.id = :sourceId")
+    int repointDefinitionSource(@Param("sourceId") Long sourceId, @Param("heir") Survey heir);
+
+    // Gives a survey its own definition row, ending any sharing with a clone source
+    @Modifying
+    @Query("UPDATE Survey s SET s.definition = :definition, s.definitionSource = null WHERE s.id = :id")
+    int assignDefinition(@Param("id") Long id, @Param("definition") SurveyDefinition definition);
+
+    // --- Soft delete and purge ---
+
+    @Modifying
+    @Query("UPDATE Survey s SET s.statusBeforeDelete = s.status, s.status = 'deleted', s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.id = :id AND s.owner.username = :username AND " + NOT_DELETED)
+    int softDelete(@Param("id") Long id, @Param("username") String username);
+
+    // Back to the status it was deleted from; a missing one counts as draft
+    @Modifying
+    @Query("UPDATE Survey s SET s.status = COALESCE(s.statusBeforeDelete, 'draft'), s.statusBeforeDelete = null, " +
+           "s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.id = :id AND s.owner.username = :username AND s.status = 'deleted'")
+    int restore(@Param("id") Long id, @Param("username") String username);
+
+    // --- Status transitions ---
+
+    // A missing status counts as draft; :now marks the rows this statement moved
+    @Modifying
+    @Query("UPDATE Survey s SET s.statusBeforeDelete = CASE WHEN :status = 'deleted' THEN s.status ELSE NULL END, " +
+           "s.status = :status, s.updatedAt = :now " +
+           "WHERE s.id IN :ids AND s.owner.username = :username AND COALESCE(s.status, 'draft') IN :fromStatuses")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("username") String username,
+                         @Param("fromStatuses") Collection<String> fromStatuses, @Param("status") String status,
+                         @Param("now") Timestamp now);
+
+    @Query("SELECT s.id FROM Survey s WHERE s.id IN :ids AND s.status = :status AND s.updatedAt = :now")
+    List<Long> findIdsTransitionedAt(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                                     @Param("now") Timestamp now);
+
+    @Query("SELECT COALESCE(s.status, 'draft') FROM Survey s WHERE s.id = :id AND s.owner.username = :username")
+    Optional<String> findStatusOwnedBy(@Param("id") Long id, @Param("username") String username);
+
+    // updatedAt is the deletion time: nothing else may write a soft-deleted row
+    @Query("SELECT s.id FROM Survey s WHERE s.status = 'deleted' AND s.updatedAt < :cutoff ORDER BY s.id")
+    List<Long> findPurgeableIds(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+    @Query("SELECT DISTINCT s.definitionSource.id FROM Survey s WHERE s.definitionSource.id IN :ids")
+    List<Long> findIdsWithClonesIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.definition.id FROM Survey s WHERE s.id IN :ids AND s.definition IS NOT NULL")
+    List<Long> findDefinitionIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Re-reads, inside the purge's transaction, which of the ids are still purgeable and locks them,
+    // so a restore waits for the purge (and then finds nothing) instead of racing it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s.id FROM Survey s WHERE s.id IN :ids AND s.status = 'deleted' AND s.updatedAt < :cutoff")
+    List<Long> lockPurgeableIdsIn(@Param("ids") Collection<Long> ids, @Param("cutoff") Timestamp cutoff);
+
+    @Modifying
+    @Query("UPDATE Survey s SET s.definitionSource = null WHERE s.id IN :ids")
+    int clearDefinitionSources(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM survey_shared_users WHERE survey_id IN (:ids)", nativeQuery = true)
+    int deleteSharesBySurveyIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Survey s WHERE s.id IN :ids AND s.status = 'deleted'")
+    int purgeByIdIn(@Param("ids") Collection<Long> ids);
+
+    // --- Cold archive ---
+
+    // Sources of clones stay inline: their definition is shared and therefore not cold
+    @Query("SELECT s.id FROM Survey s JOIN s.definition sd WHERE s.status = 'expired' AND s.archiveSegment IS NULL " +
+           "AND sd.surveyJson IS NOT NULL AND s.updatedAt < :cutoff " +
+           "AND NOT EXISTS (SELECT c.id FROM Survey c WHERE c.definitionSource = s) ORDER BY s.id")
+    List<Long> findArchivableIds(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.updatedAt AS updatedAt, s.dataClassification AS dataClassification, " +
+           "sd.surveyJson AS surveyJson FROM Survey s JOIN s.definition sd " +
+           "WHERE s.id IN :ids AND sd.surveyJson IS NOT NULL ORDER BY s.id")
+    List<SurveyArchiveView> findArchiveViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Only stubs a row still exactly as it was archived; a survey edited meanwhile stays inline. The
+    // caller checks hasClones first (MySQL cannot read the table an UPDATE writes in a subquery) and
+    // then clears the definition row (SurveyDefinitionRepository.clearSurveyJsonOf).
+    @Modifying
+    @Query("UPDATE Survey s SET s.archiveSegment = :segment " +
+           "WHERE s.id = :id AND s.updatedAt = :updatedAt AND s.status = 'expired' AND s.archiveSegment IS NULL")
+    int stubArchived(@Param("id") Long id, @Param("updatedAt") Timestamp updatedAt, @Param("segment") Integer segment);
+
+    // --- Inline image migration ---
+
+    @Query("SELECT s.dataClassification FROM Survey s WHERE s.id = :id")
+    Optional<String> findDataClassificationById(@Param("id") Long id);
+
+    // Public surveys with data URLs to extract, and others with blob URLs to bring back inline
+    @Query("SELECT s.id FROM Survey s JOIN s.definition sd WHERE s.id > :afterId AND (" +
+           "s.dataClassification = 'public' AND sd.surveyJson LIKE '%data:image/%' OR " +
+           "(s.dataClassification IS NULL OR s.dataClassification <> 'public') AND sd.surveyJson LIKE CONCAT('%', :urlPrefix, '%')) " +
+           "ORDER BY s.id")
+    List<Long> findIdsWithImagesToMove(@Param("afterId") Long afterId, @Param("urlPrefix") String urlPrefix, Pageable pageable);
+
+    // Every survey, trashed ones too since they can still be restored
+    @Query("SELECT s.id AS id, s.archiveSegment AS archiveSegment, " + SURVEY_JSON + " AS surveyJson " +
+           "FROM Survey s " + DEFINITION_JOINS + " WHERE s.id > :afterId ORDER BY s.id")
+    List<SurveyDefinitionView> findDefinitionViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Skips rows edited since they were read; the caller then writes the definition row
+    // (SurveyDefinitionRepository.replaceSurveyJsonOf). The text changes, so it is a new version:
+    // ETags, the definition cache and the read model all key on updatedAt.
+    @Modifying
+    @Query("UPDATE Survey s SET s.definitionBytes = :definitionBytes, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.updatedAt = :updatedAt")
+    int replaceDefinitionBytes(@Param("id") Long id, @Param("updatedAt") Timestamp updatedAt,
+                               @Param("definitionBytes") Integer definitionBytes, @Param("now") Timestamp now);
+
+    // Clones reading the source's definition row see its new text too
+    @Modifying
+    @Query("UPDATE Survey s SET s.updatedAt = :now WHERE s.definitionSource.id = :sourceId")
+    int touchDefinitionSharers(@Param("sourceId") Long sourceId, @Param("now") Timestamp now);
+
+    // --- Streamed definition writes ---
+
+    // The first statement of a streamed write: locks the row and records the new version and metrics
+    @Modifying
+    @Query("UPDATE Survey s SET s.definitionSource = null, s.archiveSegment = null, s.pageCount = :pageCount, " +
+           "s.questionCount = :questionCount, s.definitionBytes = :definitionBytes, s.hasLogic = :hasLogic, " +
+           "s.updatedAt = :now WHERE s.id = :id AND " + NOT_DELETED)
+    int markDefinitionWritten(@Param("id") Long id, @Param("pageCount") int pageCount,
+                              @Param("questionCount") int questionCount, @Param("definitionBytes") int definitionBytes,
+                              @Param("hasLogic") boolean hasLogic, @Param("now") Timestamp now);
+
+    // --- Derived definition metrics ---
+
+    @Query("SELECT s.id FROM Survey s WHERE s.id > :afterId AND s.questionCount IS NULL ORDER BY s.id")
+    List<Long> findIdsWithoutMetrics(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.archiveSegment AS archiveSegment, " + SURVEY_JSON + " AS surveyJson " +
+           "FROM Survey s " + DEFINITION_JOINS + " WHERE s.id IN :ids ORDER BY s.id")
+    List<SurveyDefinitionView> findDefinitionViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Only fills rows still without metrics: a save in the meantime has computed them already
+    @Modifying
+    @Query("UPDATE Survey s SET s.pageCount = :pageCount, s.questionCount = :questionCount, " +
+           "s.definitionBytes = :definitionBytes, s.hasLogic = :hasLogic WHERE s.id = :id AND s.questionCount IS NULL")
+    int fillMetrics(@Param("id") Long id, @Param("pageCount") int pageCount, @Param("questionCount") int questionCount,
+                    @Param("definitionBytes") int definitionBytes, @Param("hasLogic") boolean hasLogic);
+
+    // --- Definition cache ---
+
+    @Query("SELECT s.id AS id, s.updatedAt AS updatedAt, s.archiveSegment AS archiveSegment " +
+           "FROM Survey s WHERE s.id = :id AND " + NOT_DELETED)
+    Optional<SurveyVersionView> findVersionById(@Param("id") Long id);
 
-    List<Survey> findByOwnerId(Long ownerId);
+    @Query("SELECT COUNT(s) > 0 FROM Survey s LEFT JOIN s.owner o LEFT JOIN s.sharedWithUsers u " +
+           "WHERE s.id = :id AND " + NOT_DELETED + " AND (o.username = :username OR u.username = :username)")
+    boolean isVisibleTo(@Param("id") Long id, @Param("username") String username);
 
-    Optional<Survey> findByIdAndOwnerId(Long id, Long ownerId);
+    @Query("SELECT COUNT(s) > 0 FROM Survey s WHERE s.id = :id AND s.owner.username = :username AND s.status = 'deleted'")
+    boolean isDeletedAndOwnedBy(@Param("id") Long id, @Param("username") String username);
 }
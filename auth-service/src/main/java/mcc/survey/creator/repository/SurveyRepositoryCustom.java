@@ -0,0 +1,33 @@
+package mcc.survey.creator.repository;
+
+import mcc.survey.creator.dto.SurveyListFilter;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.util.SurveyCursor;
+import mcc.survey.creator.util.SurveyListSort;
+
+import java.util.List;
+
+public interface SurveyRepositoryCustom {
+
+    /**
+     * Fetches one keyset page of survey summaries owned by the given user, ordered by
+     * {@code (updatedAt, id)}. Only the filters that are set end up in the WHERE clause.
+     *
+     * @param after     Position of the last row of the previous page, or null for the first page.
+     * @param ascending Sort direction; descending (most recently updated first) otherwise.
+     * @param limit     Maximum number of rows to return.
+     */
+    default List<SurveySummaryDTO> findSummaryPage(String ownerUsername, SurveyListFilter filter,
+                                                   SurveyCursor after, boolean ascending, int limit) {
+        return findSummaryPage(ownerUsername, filter, SurveyListSort.UPDATED, after, ascending, limit);
+    }
+
+    /**
+     * Same as above, ordered by {@code (sort column, id)}. Sorting by a derived metric leaves out
+     * surveys whose metrics have not been computed yet.
+     *
+     * @param after A cursor of the same ordering.
+     */
+    List<SurveySummaryDTO> findSummaryPage(String ownerUsername, SurveyListFilter filter, SurveyListSort sort,
+                                           SurveyCursor after, boolean ascending, int limit);
+}
@@ -0,0 +1,126 @@
+package mcc.survey.creator.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import mcc.survey.creator.dto.SurveyListFilter;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.util.SurveyCursor;
+import mcc.survey.creator.util.SurveyListSort;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class SurveyRepositoryImpl implements SurveyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SurveySummaryDTO> findSummaryPage(String ownerUsername, SurveyListFilter filter, SurveyListSort sort,
+                                                  SurveyCursor after, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SurveySummaryDTO> query = cb.createQuery(SurveySummaryDTO.class);
+        Root<Survey> survey = query.from(Survey.class);
+        Path<Timestamp> updatedAt = survey.get("updatedAt");
+        Path<Long> id = survey.get("id");
+        Path<Integer> pageCount = survey.get("pageCount");
+        Path<Integer> questionCount = survey.get("questionCount");
+        Path<Integer> definitionBytes = survey.get("definitionBytes");
+        Path<Boolean> hasLogic = survey.get("hasLogic");
+
+        query.select(cb.construct(SurveySummaryDTO.class,
+                id,
+                survey.get("title"),
+                survey.get("status"),
+                survey.get("surveyMode"),
+                survey.get("dataClassification"),
+                survey.get("createdAt"),
+                updatedAt,
+                cb.size(survey.<Set<User>>get("sharedWithUsers")),
+                pageCount,
+                questionCount,
+                definitionBytes,
+                hasLogic));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(survey.get("owner").get("username"), ownerUsername));
+        if (filter == null || filter.getStatus() == null) {
+            predicates.add(cb.or(cb.isNull(survey.get("status")), cb.notEqual(survey.get("status"), Survey.STATUS_DELETED)));
+        }
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                // status=deleted is how the trash view lists soft-deleted surveys
+                predicates.add(cb.equal(survey.get("status"), filter.getStatus()));
+            }
+            if (filter.getSurveyMode() != null) {
+                predicates.add(cb.equal(survey.get("surveyMode"), filter.getSurveyMode()));
+            }
+            if (filter.getDataClassification() != null) {
+                predicates.add(cb.equal(survey.get("dataClassification"), filter.getDataClassification()));
+            }
+            if (filter.getTitlePrefix() != null && !filter.getTitlePrefix().isEmpty()) {
+                predicates.add(cb.like(survey.get("title"), escapeLike(filter.getTitlePrefix()) + "%", '\\'));
+            }
+            addRange(cb, predicates, questionCount, filter.getMinQuestions(), filter.getMaxQuestions());
+            addRange(cb, predicates, pageCount, filter.getMinPages(), filter.getMaxPages());
+            addRange(cb, predicates, definitionBytes, filter.getMinBytes(), filter.getMaxBytes());
+            if (filter.getHasLogic() != null) {
+                predicates.add(cb.equal(hasLogic, filter.getHasLogic()));
+            }
+        }
+        if (sort == SurveyListSort.UPDATED) {
+            if (after != null) {
+                predicates.add(keysetPast(cb, updatedAt, after.getUpdatedAt(), id, after.getId(), ascending));
+            }
+            query.orderBy(ascending
+                    ? List.of(cb.asc(updatedAt), cb.asc(id))
+                    : List.of(cb.desc(updatedAt), cb.desc(id)));
+        } else {
+            Path<Integer> key = survey.get(sort.getAttribute());
+            predicates.add(cb.isNotNull(key)); // Not computed yet: nothing to sort by
+            if (after != null) {
+                predicates.add(keysetPast(cb, key, after.getValue().intValue(), id, after.getId(), ascending));
+            }
+            query.orderBy(ascending
+                    ? List.of(cb.asc(key), cb.asc(id))
+                    : List.of(cb.desc(key), cb.desc(id)));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Row-value comparison (key, id) < / > (cursor key, cursor id), spelled out for JPQL
+    private static <T extends Comparable<? super T>> Predicate keysetPast(CriteriaBuilder cb, Path<T> key, T afterKey,
+                                                                         Path<Long> id, Long afterId, boolean ascending) {
+        Predicate strictlyPast = ascending ? cb.greaterThan(key, afterKey) : cb.lessThan(key, afterKey);
+        Predicate tieBreak = cb.and(
+                cb.equal(key, afterKey),
+                ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId));
+        return cb.or(strictlyPast, tieBreak);
+    }
+
+    private static void addRange(CriteriaBuilder cb, List<Predicate> predicates, Path<Integer> column, Integer min, Integer max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(column, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(column, max));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,18 @@
+package mcc.survey.creator.repository;
+
+/**
+ * Projection of the searchable columns of a survey, used to (re)build the search index
+ * without loading the owner or shared users. Resolve the definition through
+ * {@code SurveyArchiveService.resolveDefinition}, which reads it from the archive for a stub.
+ */
+public interface SurveyTextView {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    Integer getArchiveSegment(); // Set on an archived stub, whose surveyJson is then null
+
+    String getSurveyJson();
+}
@@ -0,0 +1,15 @@
+package mcc.survey.creator.repository;
+
+import java.sql.Timestamp;
+
+/**
+ * The columns that identify which version of a survey's definition is current, read without
+ * touching the definition itself.
+ */
+public interface SurveyVersionView {
+    Long getId();
+
+    Timestamp getUpdatedAt();
+
+    Integer getArchiveSegment();
+}
@@ -0,0 +1,10 @@
+package mcc.survey.creator.repository;
+
+/**
+ * Just who a user is, for resolving usernames without loading users and their roles.
+ */
+public interface UserIdentityView {
+    Long getId();
+
+    String getUsername();
+}
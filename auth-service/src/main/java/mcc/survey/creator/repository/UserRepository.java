@@ -2,9 +2,12 @@ package mcc.survey.creator.repository;
 
 import mcc.survey.creator.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +20,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
     List<User> findByPasswordExpirationDateBetweenAndIsActiveTrueAndEmailIsNotNull(LocalDate startDate, LocalDate endDate);
     Optional<User> findByResetPasswordToken(String token);
+
+    @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.username IN :usernames OR u.id IN :ids")
+    List<UserIdentityView> findIdentities(@Param("usernames") Collection<String> usernames, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.id = :roleId")
+    List<Long> findIdsByRoleId(@Param("roleId") Long roleId);
 }
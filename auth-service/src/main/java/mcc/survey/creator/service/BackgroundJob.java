@@ -0,0 +1,113 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import org.slf4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a maintenance job (a backfill or migration) on a thread of its own, at most one run at a
+ * time, and keeps what its status reports: whether it is running, when it last started and
+ * finished, and the named counters its work updates. Work that spreads over a pool of its own
+ * registers the pool with {@link #track}, so the pool is stopped with the job.
+ */
+public class BackgroundJob {
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws InterruptedException;
+    }
+
+    private final Logger logger;
+    private final String name;
+    private final Map<String, AtomicInteger> counters = new LinkedHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Set<ExecutorService> pools = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService thread;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * @param logger       The owning service's logger, for the job's failure and summary.
+     * @param name         The job's name as it starts a log line, e.g. "Survey metrics backfill".
+     * @param counterNames The counters, named as the status reports them.
+     */
+    public BackgroundJob(Logger logger, String name, String... counterNames) {
+        this.logger = logger;
+        this.name = name;
+        for (String counterName : counterNames) {
+            counters.put(counterName, new AtomicInteger());
+        }
+    }
+
+    public AtomicInteger counter(String counterName) {
+        AtomicInteger counter = counters.get(counterName);
+        if (counter == null) {
+            throw new IllegalArgumentException(name + " has no counter " + counterName + ".");
+        }
+        return counter;
+    }
+
+    /**
+     * Resets the counters and starts the work in the background.
+     *
+     * @return false if a run is already in progress.
+     */
+    public boolean start(Work work) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        counters.values().forEach(counter -> counter.set(0));
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        thread = single;
+        single.execute(() -> {
+            try {
+                work.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("{} stopped: {}", name, e.getMessage(), e);
+            } finally {
+                pools.forEach(ExecutorService::shutdownNow);
+                pools.clear();
+                single.shutdown();
+                finishedAt = LocalDateTime.now();
+                running.set(false);
+                logger.info("{} finished: {}.", name, counters);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Registers a pool the work runs on, to be stopped when the run ends or the job is shut down.
+     */
+    public <E extends ExecutorService> E track(E pool) {
+        pools.add(pool);
+        return pool;
+    }
+
+    public BackgroundJobStatusDTO getStatus() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        counters.forEach((counterName, counter) -> details.put(counterName, counter.get()));
+        return new BackgroundJobStatusDTO(running.get(), startedAt, finishedAt, details);
+    }
+
+    public void shutdown() {
+        ExecutorService current = thread;
+        if (current != null) {
+            current.shutdownNow();
+        }
+        pools.forEach(ExecutorService::shutdownNow);
+    }
+}
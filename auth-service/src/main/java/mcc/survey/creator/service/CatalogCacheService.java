@@ -0,0 +1,87 @@
+package mcc.survey.creator.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import mcc.survey.creator.dto.CacheRegionStatsDTO;
+import mcc.survey.creator.model.CacheRegions;
+import mcc.survey.creator.model.Role;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Invalidation and statistics for the second-level cache regions of the role/authority catalog.
+ * Hibernate keeps the entity and collection regions consistent for writes it performs itself;
+ * the evictions here cover what it cannot see, such as {@code User.roles} entries that still
+ * reference a role that was changed or removed from the other side of the association.
+ */
+@Service
+public class CatalogCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCacheService.class);
+
+    private static final List<String> REGIONS = List.of(CacheRegions.ROLE, CacheRegions.AUTHORITY,
+            CacheRegions.ROLE_AUTHORITIES, CacheRegions.USER_ROLES, CacheRegions.CATALOG_QUERIES);
+
+    private final SessionFactory sessionFactory;
+
+    public CatalogCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Evicts everything derived from the given role once the current transaction commits, so a
+     * concurrent reader cannot put the old state back before the change is visible. Without a
+     * transaction the eviction happens immediately.
+     */
+    public void evictRoleAfterCommit(Long roleId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictRole(roleId);
+                }
+            });
+        } else {
+            evictRole(roleId);
+        }
+    }
+
+    void evictRole(Long roleId) {
+        Cache cache = sessionFactory.getCache();
+        if (roleId != null) {
+            cache.evictEntityData(Role.class, roleId);
+            cache.evictCollectionData(Role.class.getName() + ".authorities", roleId);
+        }
+        cache.evictRegion(CacheRegions.USER_ROLES);
+        // Query regions only exist once a query has used them; evictRegion would fail before that
+        cache.evictQueryRegion(CacheRegions.CATALOG_QUERIES);
+        logger.debug("Evicted catalog cache entries for role ID {}.", roleId);
+    }
+
+    /**
+     * Hit, miss and put counts per catalog region. These stay at zero unless Hibernate statistics
+     * are on ({@code app.catalog-cache.statistics}).
+     */
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return REGIONS.stream().map(region -> {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                return new CacheRegionStatsDTO(region, 0, 0, 0, 0.0); // Not used yet
+            }
+            long hits = stats.getHitCount();
+            long misses = stats.getMissCount();
+            long lookups = hits + misses;
+            return new CacheRegionStatsDTO(region, hits, misses, stats.getPutCount(),
+                    lookups == 0 ? 0.0 : (double) hits / lookups);
+        }).toList();
+    }
+}
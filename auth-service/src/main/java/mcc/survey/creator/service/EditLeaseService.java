@@ -0,0 +1,156 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.EditLeaseDTO;
+import mcc.survey.creator.exception.EditLeaseConflictException;
+import mcc.survey.creator.util.TimerWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory edit leases: at most one editor per survey may save at a time, and the others are
+ * told to stay read-only. A lease lasts {@code app.edit-lease.ttl-ms} unless renewed. Leases are
+ * immutable and every change is a compare-and-set on the registry map, so acquiring or renewing
+ * never blocks another survey's editors. Expiry is driven by a {@link TimerWheel}: each grant or
+ * renewal schedules the lease, and when its tick comes it is removed only if it has not been
+ * renewed or replaced since. Lookups also treat an overdue lease as gone, so a late tick is harmless.
+ * The same user acquiring again takes the lease over, so a reloaded editor does not lock itself out.
+ */
+@Service
+public class EditLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EditLeaseService.class);
+
+    private record Lease(Long surveyId, String holder, String token, long expiresAt) {
+
+        boolean isLive(long now) {
+            return expiresAt > now;
+        }
+    }
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final TimerWheel<Lease> wheel;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public EditLeaseService(@Value("${app.edit-lease.ttl-ms}") long ttlMillis,
+                            @Value("${app.edit-lease.tick-ms}") long tickMillis) {
+        this(ttlMillis, tickMillis, System::currentTimeMillis);
+    }
+
+    EditLeaseService(long ttlMillis, long tickMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        // One rotation spans a lease, so a lease is looked at once, when it is due
+        this.wheel = new TimerWheel<>(tickMillis, (int) Math.min(1 << 16, ttlMillis / tickMillis + 1), clock.getAsLong());
+    }
+
+    /**
+     * Grants the survey's lease to the user if it is free, expired or already theirs; otherwise
+     * reports who holds it, with {@code readOnly} set.
+     */
+    public EditLeaseDTO acquire(Long surveyId, String username) {
+        while (true) {
+            long now = clock.getAsLong();
+            Lease current = leases.get(surveyId);
+            if (current != null && current.isLive(now) && !current.holder().equals(username)) {
+                return readOnly(current);
+            }
+            Lease granted = new Lease(surveyId, username, UUID.randomUUID().toString(), now + ttlMillis);
+            if (install(current, granted)) {
+                if (current != null && current.isLive(now)) {
+                    logger.debug("User {} took over their own lease on survey {}.", username, surveyId);
+                }
+                return granted(granted);
+            }
+        }
+    }
+
+    /**
+     * Extends the lease the token was granted with. If it expired and nobody else took the survey
+     * meanwhile, it is granted again with the same token; if somebody did, {@code readOnly} is set.
+     */
+    public EditLeaseDTO renew(Long surveyId, String token, String username) {
+        while (true) {
+            long now = clock.getAsLong();
+            Lease current = leases.get(surveyId);
+            boolean own = current != null && current.token().equals(token);
+            if (current != null && !own && current.isLive(now)) {
+                return readOnly(current);
+            }
+            Lease renewed = new Lease(surveyId, username, token, now + ttlMillis);
+            if (install(current, renewed)) {
+                return granted(renewed);
+            }
+        }
+    }
+
+    public void release(Long surveyId, String token) {
+        Lease current = leases.get(surveyId);
+        if (current != null && current.token().equals(token)) {
+            leases.remove(surveyId, current);
+        }
+    }
+
+    /**
+     * Lets a save through unless somebody holds a live lease under another token.
+     *
+     * @throws EditLeaseConflictException If the survey is leased to another editor.
+     */
+    public void checkWritable(Long surveyId, String token) {
+        Lease current = leases.get(surveyId);
+        if (current != null && current.isLive(clock.getAsLong()) && !current.token().equals(token)) {
+            throw new EditLeaseConflictException("Survey " + surveyId + " is being edited by " + current.holder() + ".");
+        }
+    }
+
+    /**
+     * Advances the timer wheel, dropping the leases that fell due and were not renewed since.
+     */
+    public void expireLeases() {
+        wheel.advance(clock.getAsLong(), lease -> {
+            if (leases.remove(lease.surveyId(), lease)) {
+                logger.debug("Edit lease of {} on survey {} expired.", lease.holder(), lease.surveyId());
+            }
+        });
+    }
+
+    public int getActiveLeaseCount() {
+        return leases.size();
+    }
+
+    private boolean install(Lease current, Lease replacement) {
+        boolean installed = current == null
+                ? leases.putIfAbsent(replacement.surveyId(), replacement) == null
+                : leases.replace(replacement.surveyId(), current, replacement);
+        if (installed) {
+            wheel.schedule(replacement, replacement.expiresAt());
+        }
+        return installed;
+    }
+
+    private EditLeaseDTO granted(Lease lease) {
+        return new EditLeaseDTO(lease.surveyId(), lease.holder(), lease.token(), false, toDateTime(lease.expiresAt()),
+                ttlMillis / 1000);
+    }
+
+    private EditLeaseDTO readOnly(Lease lease) {
+        return new EditLeaseDTO(lease.surveyId(), lease.holder(), null, true, toDateTime(lease.expiresAt()),
+                ttlMillis / 1000);
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,356 @@
+package mcc.survey.creator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte cache held outside the Java heap. One direct buffer is carved into fixed-size chunks;
+ * an entry occupies as many chunks as its length needs, so freeing never fragments the arena.
+ * <p>
+ * Eviction walks entries in least-recently-used order, but admission is TinyLFU: a count-min
+ * sketch estimates how often each key has been asked for recently, and a new entry only gets in
+ * if it is wanted more often than every entry it would push out. A few huge, rarely read
+ * definitions therefore cannot flush many small hot ones.
+ * <p>
+ * Readers take a {@link Lease} that pins the entry's chunks; an entry evicted while leased gives
+ * its chunks back only when the last lease is closed.
+ */
+public class OffHeapDefinitionCache {
+
+    private final ByteBuffer arena;
+    private final int chunkBytes;
+    private final long maxEntryBytes;
+    private final ArrayDeque<Integer> freeChunks;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true); // Access order = LRU
+    private final FrequencySketch sketch;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long bytesHeld;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    public OffHeapDefinitionCache(long capacityBytes, int chunkBytes, long maxEntryBytes) {
+        this.chunkBytes = Math.max(1024, chunkBytes);
+        int chunks = (int) Math.max(1, Math.min(capacityBytes, Integer.MAX_VALUE) / this.chunkBytes);
+        this.arena = ByteBuffer.allocateDirect(chunks * this.chunkBytes);
+        this.maxEntryBytes = Math.min(maxEntryBytes, (long) chunks * this.chunkBytes);
+        this.freeChunks = new ArrayDeque<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            freeChunks.add(i);
+        }
+        // Sized for roughly one entry per 4 KB of capacity, the typical definition size
+        this.sketch = new FrequencySketch(Math.max(64, chunks * this.chunkBytes / 4096));
+    }
+
+    /**
+     * @return A lease on the cached bytes, or null on a miss or version mismatch. Must be closed.
+     */
+    public Lease get(long key, long version) {
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Entry entry = entries.get(key);
+            if (entry == null || entry.version != version) {
+                misses++;
+                return null;
+            }
+            hits++;
+            entry.leases++;
+            return new Lease(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Offers bytes for a key, replacing any other version.
+     *
+     * @return false if the entry was not admitted.
+     */
+    public boolean put(long key, long version, byte[] bytes) {
+        int needed = (bytes.length + chunkBytes - 1) / chunkBytes;
+        lock.lock();
+        try {
+            Entry existing = entries.remove(key);
+            if (existing != null) {
+                release(existing);
+            }
+            if (bytes.length > maxEntryBytes) {
+                rejections++;
+                return false;
+            }
+            if (freeChunks.size() < needed && !makeRoom(key, needed)) {
+                rejections++;
+                return false;
+            }
+            int[] chunks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                int chunk = freeChunks.poll();
+                chunks[i] = chunk;
+                int offset = i * chunkBytes;
+                arena.put(chunk * chunkBytes, bytes, offset, Math.min(chunkBytes, bytes.length - offset));
+            }
+            entries.put(key, new Entry(key, version, bytes.length, chunks));
+            bytesHeld += bytes.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(long key) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                release(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits, misses, evictions, rejections, entries.size(), bytesHeld, (long) arena.capacity());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks LRU victims until enough chunks would be free, and evicts them only if the candidate
+     * is estimated to be more popular than each of them.
+     */
+    private boolean makeRoom(long candidateKey, int needed) {
+        int candidateFrequency = sketch.frequency(candidateKey);
+        int reclaimable = freeChunks.size();
+        List<Entry> victims = new ArrayList<>();
+        Iterator<Entry> lru = entries.values().iterator();
+        while (reclaimable < needed && lru.hasNext()) {
+            Entry victim = lru.next();
+            if (sketch.frequency(victim.key) >= candidateFrequency) {
+                return false;
+            }
+            if (victim.leases == 0) {
+                victims.add(victim);
+                reclaimable += victim.chunks.length;
+            }
+        }
+        if (reclaimable < needed) {
+            return false;
+        }
+        for (Entry victim : victims) {
+            entries.remove(victim.key);
+            release(victim);
+            evictions++;
+        }
+        return true;
+    }
+
+    private void release(Entry entry) {
+        entry.removed = true;
+        if (entry.leases == 0 && !entry.freed) {
+            entry.freed = true;
+            bytesHeld -= entry.length;
+            for (int chunk : entry.chunks) {
+                freeChunks.add(chunk);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final long key;
+        final long version;
+        final int length;
+        final int[] chunks;
+        int leases;
+        boolean removed;
+        boolean freed;
+
+        Entry(long key, long version, int length, int[] chunks) {
+            this.key = key;
+            this.version = version;
+            this.length = length;
+            this.chunks = chunks;
+        }
+    }
+
+    /**
+     * Read access to one cached entry; its chunks are not reused until this is closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public int length() {
+            return entry.length;
+        }
+
+        /**
+         * Copies the bytes to the stream one chunk at a time, so no full-size heap copy is made.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            writeTo(out, 0, entry.length);
+        }
+
+        /**
+         * Copies a byte range of the entry, touching only the chunks that hold it.
+         */
+        public void writeTo(OutputStream out, int offset, int length) throws IOException {
+            if (offset < 0 || length < 0 || offset + length > entry.length) {
+                throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " outside entry of " + entry.length + " bytes");
+            }
+            byte[] buffer = new byte[Math.min(chunkBytes, Math.max(1, length))];
+            int position = offset;
+            int end = offset + length;
+            while (position < end) {
+                int chunk = entry.chunks[position / chunkBytes];
+                int within = position % chunkBytes;
+                int count = Math.min(chunkBytes - within, end - position);
+                arena.get(chunk * chunkBytes + within, buffer, 0, count); // Absolute get: safe without the lock
+                out.write(buffer, 0, count);
+                position += count;
+            }
+        }
+
+        /**
+         * Streams the entry's bytes straight from the arena; valid while the lease is open.
+         */
+        public InputStream openStream() {
+            return new InputStream() {
+                private int position;
+
+                @Override
+                public int read() {
+                    if (position >= entry.length) {
+                        return -1;
+                    }
+                    int chunk = entry.chunks[position / chunkBytes];
+                    return arena.get(chunk * chunkBytes + position++ % chunkBytes) & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    if (position >= entry.length) {
+                        return -1;
+                    }
+                    int chunk = entry.chunks[position / chunkBytes];
+                    int within = position % chunkBytes;
+                    int count = Math.min(length, Math.min(chunkBytes - within, entry.length - position));
+                    arena.get(chunk * chunkBytes + within, buffer, offset, count);
+                    position += count;
+                    return count;
+                }
+            };
+        }
+
+        public byte[] toByteArray() {
+            byte[] bytes = new byte[entry.length];
+            int remaining = entry.length;
+            int offset = 0;
+            for (int chunk : entry.chunks) {
+                int length = Math.min(chunkBytes, remaining);
+                arena.get(chunk * chunkBytes, bytes, offset, length);
+                offset += length;
+                remaining -= length;
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                entry.leases--;
+                if (entry.removed) {
+                    release(entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters (four rows) with periodic halving, so the estimate
+     * reflects recent popularity rather than all-time totals.
+     */
+    static final class FrequencySketch {
+        private static final int ROWS = 4;
+        private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1)) << 1;
+            this.counters = new byte[ROWS][width];
+            this.mask = width - 1;
+            this.sampleSize = width * 10;
+        }
+
+        void increment(long key) {
+            boolean added = false;
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(key, row);
+                if (counters[row][index] < 15) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(long key) {
+            int min = 15;
+            for (int row = 0; row < ROWS; row++) {
+                min = Math.min(min, counters[row][index(key, row)]);
+            }
+            return min;
+        }
+
+        private int index(long key, int row) {
+            long hash = (key + SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+            hash ^= hash >>> 29;
+            return (int) hash & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long rejections, int entries, long bytesHeld,
+                        long capacityBytes) {
+    }
+}
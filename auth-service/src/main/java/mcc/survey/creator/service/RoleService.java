@@ -4,13 +4,16 @@ import mcc.survey.creator.dto.AuthorityDto;
 import mcc.survey.creator.dto.CreateRoleRequest;
 import mcc.survey.creator.dto.RoleDto;
 import mcc.survey.creator.dto.UpdateRoleRequest;
+import mcc.survey.creator.event.UserChangedEvent;
 import mcc.survey.creator.model.Authority;
 import mcc.survey.creator.model.Role;
 import mcc.survey.creator.repository.AuthorityRepository;
 import mcc.survey.creator.repository.RoleRepository;
+import mcc.survey.creator.repository.UserRepository;
 import mcc.survey.creator.exception.ResourceNotFoundException;
 import mcc.survey.creator.exception.DuplicateResourceException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +31,15 @@ public class RoleService {
     @Autowired
     private AuthorityRepository authorityRepository;
 
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // --- Authority DTO Mapping ---
     private AuthorityDto toAuthorityDto(Authority authority) {
         return new AuthorityDto(authority.getId(), authority.getName());
@@ -81,6 +93,7 @@ public class RoleService {
         }
         role.setAuthorities(authorities);
         Role savedRole = roleRepository.save(role);
+        catalogCacheService.evictRoleAfterCommit(savedRole.getId());
         return toRoleDto(savedRole);
     }
 
@@ -90,10 +103,14 @@ public class RoleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + id));
 
         // Check if name is being changed and if the new name already exists
-        if (!role.getName().equals(updateRoleRequest.getName()) && roleRepository.existsByName(updateRoleRequest.getName())) {
+        boolean renamed = !role.getName().equals(updateRoleRequest.getName());
+        if (renamed && roleRepository.existsByName(updateRoleRequest.getName())) {
             throw new DuplicateResourceException("Role with name '" + updateRoleRequest.getName() + "' already exists.");
         }
         role.setName(updateRoleRequest.getName());
+        if (renamed) {
+            publishUsersChanged(id);
+        }
 
         Set<Authority> authorities = new HashSet<>();
         if (updateRoleRequest.getAuthorityIds() != null) {
@@ -106,6 +123,7 @@ public class RoleService {
         role.setAuthorities(authorities); // Replace existing authorities
 
         Role updatedRole = roleRepository.save(role);
+        catalogCacheService.evictRoleAfterCommit(id);
         return toRoleDto(updatedRole);
     }
 
@@ -119,6 +137,13 @@ public class RoleService {
         // }
         // Also, consider implications if users are currently assigned this role.
         // For simplicity, this example directly deletes.
+        publishUsersChanged(id);
         roleRepository.delete(role);
+        catalogCacheService.evictRoleAfterCommit(id);
+    }
+
+    // Role names are part of what is shown of a user, e.g. in survey read models
+    private void publishUsersChanged(Long roleId) {
+        userRepository.findIdsByRoleId(roleId).forEach(userId -> eventPublisher.publishEvent(new UserChangedEvent(userId)));
     }
 }
@@ -0,0 +1,226 @@
+package mcc.survey.creator.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive segment file of survey definitions.
+ * <p>
+ * Layout: a header (magic, version); records of {@code id, rawLength, compressedLength,
+ * deflated UTF-8 bytes} in ascending id order; a sparse index holding the offset of every
+ * {@value #INDEX_INTERVAL}th record; and a trailer pointing at the index. Readers map the file
+ * read-only, binary-search the sparse index and scan forward over at most
+ * {@value #INDEX_INTERVAL} record headers, decompressing only the record asked for.
+ */
+public class SurveyArchiveSegment {
+
+    static final int MAGIC = 0x53565341; // "SVSA"
+    static final int VERSION = 1;
+    static final int INDEX_INTERVAL = 32;
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 12;
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int indexOffset;
+    private final long[] indexIds;
+    private final int[] indexOffsets;
+
+    private SurveyArchiveSegment(MappedByteBuffer buffer, int indexOffset, long[] indexIds, int[] indexOffsets) {
+        this.buffer = buffer;
+        this.indexOffset = indexOffset;
+        this.indexIds = indexIds;
+        this.indexOffsets = indexOffsets;
+    }
+
+    /**
+     * Maps a sealed segment file. The mapping stays valid after the channel is closed.
+     */
+    public static SurveyArchiveSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(end - 4) != MAGIC) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            int indexOffset = (int) buffer.getLong(end - TRAILER_BYTES);
+            int count = buffer.getInt(indexOffset);
+            long[] ids = new long[count];
+            int[] offsets = new int[count];
+            int position = indexOffset + 4;
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getLong(position);
+                offsets[i] = (int) buffer.getLong(position + 8);
+                position += 16;
+            }
+            return new SurveyArchiveSegment(buffer, indexOffset, ids, offsets);
+        }
+    }
+
+    /**
+     * @return The archived definition, or null if the survey is not in this segment.
+     */
+    public String read(long surveyId) {
+        int slot = floorSlot(surveyId);
+        if (slot < 0) {
+            return null;
+        }
+        int position = indexOffsets[slot];
+        while (position < indexOffset) {
+            long id = buffer.getLong(position);
+            int rawLength = buffer.getInt(position + 8);
+            int compressedLength = buffer.getInt(position + 12);
+            if (id == surveyId) {
+                return inflate(position + RECORD_HEADER_BYTES, compressedLength, rawLength);
+            }
+            if (id > surveyId) {
+                return null;
+            }
+            position += RECORD_HEADER_BYTES + compressedLength;
+        }
+        return null;
+    }
+
+    private int floorSlot(long surveyId) {
+        int low = 0;
+        int high = indexIds.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexIds[mid] <= surveyId) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private String inflate(int position, int compressedLength, int rawLength) {
+        byte[] compressed = new byte[compressedLength];
+        buffer.get(position, compressed); // Absolute bulk get: no shared buffer position, safe across threads
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw new IllegalStateException("Corrupt archive record: expected " + rawLength + " bytes, got " + inflated);
+            }
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive record: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes a new segment. Records must be appended in ascending id order; {@link #close()}
+     * writes the index and trailer and forces the file to disk.
+     */
+    public static class Writer implements Closeable {
+        private final Path file;
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final List<long[]> index = new ArrayList<>();
+        private byte[] scratch = new byte[64 * 1024];
+        private long position;
+        private long lastId = Long.MIN_VALUE;
+        private int records;
+
+        public Writer(Path file) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = HEADER_BYTES;
+        }
+
+        public void append(long surveyId, String definition) throws IOException {
+            if (surveyId <= lastId) {
+                throw new IllegalArgumentException("Archive records must be appended in ascending id order.");
+            }
+            byte[] raw = definition.getBytes(StandardCharsets.UTF_8);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == scratch.length) {
+                    scratch = Arrays.copyOf(scratch, scratch.length * 2);
+                }
+                compressedLength += deflater.deflate(scratch, compressedLength, scratch.length - compressedLength);
+            }
+            if (records % INDEX_INTERVAL == 0) {
+                index.add(new long[]{surveyId, position});
+            }
+            out.writeLong(surveyId);
+            out.writeInt(raw.length);
+            out.writeInt(compressedLength);
+            out.write(scratch, 0, compressedLength);
+            position += RECORD_HEADER_BYTES + compressedLength;
+            lastId = surveyId;
+            records++;
+        }
+
+        /**
+         * Bytes written so far, so callers can start a new segment before this one nears 2 GB.
+         */
+        public long size() {
+            return position;
+        }
+
+        public int records() {
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                long indexOffset = position;
+                out.writeInt(index.size());
+                for (long[] entry : index) {
+                    out.writeLong(entry[0]);
+                    out.writeLong(entry[1]);
+                }
+                out.writeLong(indexOffset);
+                out.writeInt(MAGIC);
+                out.flush();
+            } finally {
+                out.close();
+                deflater.end();
+            }
+            // Durable before any survey row is stubbed against it
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package mcc.survey.creator.service;
+
+import jakarta.annotation.PostConstruct;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.exception.SurveyArchiveUnavailableException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.repository.SurveyArchiveView;
+import mcc.survey.creator.repository.SurveyDefinitionRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold tier for expired surveys. The archive job copies the definitions of long-expired surveys
+ * into a new compressed {@link SurveyArchiveSegment} file and then clears them from the table,
+ * leaving a stub row that only records the segment number. Archived definitions are read from
+ * memory-mapped segments; {@link #rehydrate(Long)} moves one back into the table.
+ */
+@Service
+public class SurveyArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyArchiveService.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.seg");
+    private static final int READ_CHUNK_SIZE = 200;
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyDefinitionRepository surveyDefinitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final Duration minAge;
+    private final int maxPerRun;
+    private final long maxSegmentBytes;
+
+    private final Map<Integer, SurveyArchiveSegment> segments = new ConcurrentHashMap<>();
+    private final AtomicInteger lastSegment = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public SurveyArchiveService(SurveyRepository surveyRepository,
+                                SurveyDefinitionRepository surveyDefinitionRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.survey-archive.directory}") String directory,
+                                @Value("${app.survey-archive.min-age-days}") int minAgeDays,
+                                @Value("${app.survey-archive.max-per-run}") int maxPerRun,
+                                @Value("${app.survey-archive.max-segment-bytes}") long maxSegmentBytes) {
+        this.surveyRepository = surveyRepository;
+        this.surveyDefinitionRepository = surveyDefinitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.minAge = Duration.ofDays(Math.max(0, minAgeDays));
+        this.maxPerRun = Math.max(1, maxPerRun);
+        this.maxSegmentBytes = Math.max(1024, Math.min(maxSegmentBytes, Integer.MAX_VALUE / 2));
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    lastSegment.accumulateAndGet(Integer.parseInt(matcher.group(1)), Math::max);
+                } else {
+                    Files.deleteIfExists(file); // A segment left unsealed by a crash; no row points at it
+                }
+            }
+        }
+    }
+
+    /**
+     * Archives up to {@code max-per-run} surveys that have been expired for at least
+     * {@code min-age-days}. The segment is sealed and forced to disk before any row is stubbed,
+     * so a crash can leave an unused segment behind but never a stub without its definition.
+     *
+     * @return The number of surveys archived.
+     */
+    public int archiveExpired() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Timestamp cutoff = new Timestamp(System.currentTimeMillis() - minAge.toMillis());
+            List<Long> ids = surveyRepository.findArchivableIds(cutoff, PageRequest.of(0, maxPerRun));
+            int archived = 0;
+            int from = 0;
+            while (from < ids.size()) {
+                int segment = lastSegment.incrementAndGet();
+                Map<Long, Timestamp> versions = new HashMap<>();
+                from = writeSegment(segment, ids, from, versions);
+                archived += stubRows(segment, versions);
+            }
+            if (archived > 0) {
+                logger.info("Archived {} expired surveys (up to segment {}).", archived, lastSegment.get());
+            }
+            return archived;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Writes surveys from {@code ids[from..]} into one segment until it is full.
+     *
+     * @return The index of the first id not written.
+     */
+    private int writeSegment(int segment, List<Long> ids, int from, Map<Long, Timestamp> versions) throws IOException {
+        Path file = segmentFile(segment);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        int next = from;
+        try (SurveyArchiveSegment.Writer writer = new SurveyArchiveSegment.Writer(tmp)) {
+            while (next < ids.size() && writer.size() < maxSegmentBytes) {
+                List<Long> chunk = ids.subList(next, Math.min(next + READ_CHUNK_SIZE, ids.size()));
+                for (SurveyArchiveView view : surveyRepository.findArchiveViewsByIdIn(chunk)) {
+                    writer.append(view.getId(), view.getSurveyJson());
+                    versions.put(view.getId(), view.getUpdatedAt());
+                }
+                next += chunk.size();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return next;
+    }
+
+    private int stubRows(int segment, Map<Long, Timestamp> versions) {
+        List<Long> ids = new ArrayList<>(versions.keySet());
+        int stubbed = 0;
+        for (int from = 0; from < ids.size(); from += READ_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + READ_CHUNK_SIZE, ids.size()));
+            stubbed += transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Long id : chunk) {
+                    // A survey cloned since it was selected shares its definition, so it stays inline
+                    if (!surveyRepository.hasClones(id) && surveyRepository.stubArchived(id, versions.get(id), segment) == 1) {
+                        surveyDefinitionRepository.clearSurveyJsonOf(id);
+                        count++;
+                    }
+                }
+                return count;
+            });
+        }
+        return stubbed;
+    }
+
+    /**
+     * Reads an archived definition from its memory-mapped segment.
+     *
+     * @throws SurveyArchiveUnavailableException If the segment cannot be opened or lacks the survey.
+     */
+    public String readDefinition(Long surveyId, Integer segment) {
+        String definition;
+        try {
+            definition = segment(segment).read(surveyId);
+        } catch (UncheckedIOException e) {
+            throw new SurveyArchiveUnavailableException("Archive segment " + segment + " of survey " + surveyId
+                    + " cannot be read", e.getCause());
+        }
+        if (definition == null) {
+            throw new SurveyArchiveUnavailableException("Survey " + surveyId + " is missing from archive segment " + segment);
+        }
+        return definition;
+    }
+
+    /**
+     * Returns the survey's definition whether it is inline, shared with a clone source or archived.
+     */
+    public String resolveDefinition(Survey survey) {
+        return survey.isArchived() ? readDefinition(survey.getId(), survey.getArchiveSegment()) : survey.getSurveyJson();
+    }
+
+    /**
+     * The same for a definition read through a projection ({@link SurveyRepository#SURVEY_JSON}), which
+     * is null on an archived stub.
+     */
+    public String resolveDefinition(Long surveyId, Integer archiveSegment, String surveyJson) {
+        return surveyJson == null && archiveSegment != null ? readDefinition(surveyId, archiveSegment) : surveyJson;
+    }
+
+    /**
+     * Moves an archived survey's definition back into the survey table.
+     */
+    @Transactional
+    public Survey rehydrate(Long surveyId) {
+        Survey survey = surveyRepository.findLiveById(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + surveyId));
+        if (!survey.isArchived()) {
+            return survey;
+        }
+        int segment = survey.getArchiveSegment();
+        survey.setSurveyJson(readDefinition(surveyId, segment)); // Also clears the stub's segment
+        logger.info("Survey {} rehydrated from archive segment {}.", surveyId, segment);
+        return surveyRepository.save(survey);
+    }
+
+    private SurveyArchiveSegment segment(int number) {
+        return segments.computeIfAbsent(number, n -> {
+            try {
+                return SurveyArchiveSegment.open(segmentFile(n));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Path segmentFile(int number) {
+        return directory.resolve(String.format("segment-%06d.seg", number));
+    }
+}
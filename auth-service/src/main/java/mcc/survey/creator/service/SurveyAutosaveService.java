@@ -0,0 +1,266 @@
+package mcc.survey.creator.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.util.DraftLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for the editor's autosaves. An autosave is validated, appended to a
+ * {@link DraftLog} and kept as the survey's pending draft, replacing any earlier one, without
+ * touching the database. Pending drafts are written through {@link SurveyDefinitionIngestService}
+ * by the periodic {@link #flushAll()}, or at once by {@link #flush(Long)}, so a survey edited
+ * continuously costs one database write per interval rather than one per edit. Drafts still
+ * pending after a crash are read back from the log on startup.
+ */
+@Service
+public class SurveyAutosaveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyAutosaveService.class);
+
+    private final SurveyDefinitionValidator surveyDefinitionValidator;
+    private final SurveyDefinitionIngestService surveyDefinitionIngestService;
+    private final DraftLog draftLog;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean logDirty = new AtomicBoolean(false);
+    private final AtomicInteger received = new AtomicInteger();
+
+    public SurveyAutosaveService(SurveyDefinitionValidator surveyDefinitionValidator,
+                                 SurveyDefinitionIngestService surveyDefinitionIngestService,
+                                 @Value("${app.survey-autosave.log-path}") String logPath) {
+        this.surveyDefinitionValidator = surveyDefinitionValidator;
+        this.surveyDefinitionIngestService = surveyDefinitionIngestService;
+        this.draftLog = new DraftLog(Paths.get(logPath));
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        List<DraftLog.Entry> drafts = draftLog.open();
+        for (DraftLog.Entry draft : drafts) {
+            Slot slot = new Slot();
+            slot.pending = draft;
+            slots.put(draft.surveyId(), slot);
+            sequence.accumulateAndGet(draft.sequence(), Math::max);
+        }
+        if (!drafts.isEmpty()) {
+            logDirty.set(true); // Settled entries of the last run can go with the next rewrite
+            logger.info("Recovered {} autosaved drafts that had not been written to the database.", drafts.size());
+        }
+    }
+
+    /**
+     * Accepts a draft of the survey's definition; it replaces any draft not written yet.
+     *
+     * @throws IllegalArgumentException If the definition is malformed, too large or violates the schema.
+     * @throws UncheckedIOException If the draft could not be logged; it is then not accepted.
+     */
+    public void autosave(Long surveyId, String surveyJson) {
+        surveyDefinitionValidator.validate(surveyJson);
+        received.incrementAndGet();
+        Slot slot;
+        DraftLog.Entry draft;
+        DraftLog.Entry previous;
+        while (true) {
+            slot = slots.computeIfAbsent(surveyId, id -> new Slot());
+            synchronized (slot) {
+                if (slot.retired) {
+                    continue; // Emptied and removed meanwhile; take the new one
+                }
+                draft = new DraftLog.Entry(surveyId, sequence.incrementAndGet(), surveyJson);
+                previous = slot.pending;
+                // Pending before it is logged, so a concurrent rewrite of the log cannot miss it
+                slot.pending = draft;
+                break;
+            }
+        }
+        // Logged outside the slot's lock, so concurrent autosaves wait on one force of the log
+        // together; recovery keeps the highest sequence, whatever order the entries land in
+        try {
+            draftLog.append(draft);
+        } catch (IOException e) {
+            synchronized (slot) {
+                if (slot.pending == draft) {
+                    slot.pending = previous;
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+        logDirty.set(true);
+    }
+
+    /**
+     * Writes the survey's pending draft to the database now.
+     *
+     * @return The survey's summary, or empty if it had no pending draft.
+     * @throws IllegalArgumentException If the draft is no longer valid; it is dropped.
+     * @throws ResourceNotFoundException If the survey no longer exists; the draft is dropped.
+     */
+    public Optional<SurveySummaryDTO> flush(Long surveyId) {
+        Slot slot = slots.get(surveyId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        synchronized (slot.flushLock) {
+            DraftLog.Entry draft;
+            synchronized (slot) {
+                draft = slot.pending;
+                slot.flushing = draft; // Set before pending is cleared, for rewrites of the log
+                slot.pending = null;
+            }
+            if (draft == null) {
+                retireIfEmpty(surveyId, slot);
+                return Optional.empty();
+            }
+            boolean stored = false;
+            try {
+                byte[] bytes = draft.surveyJson().getBytes(StandardCharsets.UTF_8);
+                SurveySummaryDTO summary = surveyDefinitionIngestService.replaceDefinition(surveyId, bytes.length,
+                        new ByteArrayInputStream(bytes));
+                stored = true;
+                return Optional.of(summary);
+            } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                stored = true; // Retrying cannot help
+                logger.warn("Dropped the autosaved draft of survey {}: {}", surveyId, e.getMessage());
+                throw e;
+            } finally {
+                synchronized (slot) {
+                    slot.flushing = null;
+                    if (!stored && slot.pending == null) {
+                        slot.pending = draft; // Try again with the next flush
+                    }
+                }
+                if (stored) {
+                    settle(surveyId, draft.sequence());
+                }
+                retireIfEmpty(surveyId, slot);
+            }
+        }
+    }
+
+    /**
+     * Throws away the survey's pending draft, for a save of the whole survey that supersedes it.
+     * Waits for a flush of the survey in progress, so that cannot land after the caller's save.
+     */
+    public void discard(Long surveyId) {
+        Slot slot = slots.get(surveyId);
+        if (slot == null) {
+            return;
+        }
+        synchronized (slot.flushLock) {
+            long upTo;
+            synchronized (slot) {
+                if (slot.pending == null) {
+                    return;
+                }
+                slot.pending = null;
+                upTo = sequence.get(); // Drafts of the survey taking a number from now on come later
+            }
+            settle(surveyId, upTo);
+            retireIfEmpty(surveyId, slot);
+        }
+    }
+
+    /**
+     * Writes every pending draft, then rewrites the log to just the drafts that arrived meanwhile.
+     * A draft that fails for a transient reason stays pending for the next run.
+     */
+    public void flushAll() {
+        int flushed = 0;
+        for (Long surveyId : new ArrayList<>(slots.keySet())) {
+            try {
+                if (flush(surveyId).isPresent()) {
+                    flushed++;
+                }
+            } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                // Dropped and logged by flush
+            } catch (RuntimeException e) {
+                logger.error("Failed to write the autosaved draft of survey {}: {}", surveyId, e.getMessage(), e);
+            }
+        }
+        int autosaves = received.getAndSet(0);
+        if (flushed > 0) {
+            logger.info("Wrote {} autosaved drafts to the database for {} autosaves received.", flushed, autosaves);
+        }
+        if (logDirty.getAndSet(false)) {
+            try {
+                draftLog.rewrite(pendingDrafts());
+            } catch (IOException e) {
+                logDirty.set(true);
+                logger.error("Failed to rewrite the autosave draft log: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return (int) slots.values().stream().filter(slot -> slot.pending != null).count();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flushAll();
+        draftLog.close();
+    }
+
+    // Read without the slot locks; pending and flushing are volatile
+    private List<DraftLog.Entry> pendingDrafts() {
+        List<DraftLog.Entry> drafts = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            DraftLog.Entry pending = slot.pending;
+            DraftLog.Entry flushing = slot.flushing;
+            if (flushing != null) {
+                drafts.add(flushing);
+            }
+            if (pending != null && pending != flushing) {
+                drafts.add(pending);
+            }
+        }
+        return drafts;
+    }
+
+    private void settle(Long surveyId, long upTo) {
+        try {
+            draftLog.append(DraftLog.Entry.settled(surveyId, upTo));
+            logDirty.set(true);
+        } catch (IOException e) {
+            // Only costs a redundant write of the draft after a crash
+            logger.warn("Could not log that the draft of survey {} was settled: {}", surveyId, e.getMessage());
+        }
+    }
+
+    private void retireIfEmpty(Long surveyId, Slot slot) {
+        synchronized (slot) {
+            if (slot.pending == null && slot.flushing == null && !slot.retired) {
+                slot.retired = true;
+                slots.remove(surveyId, slot);
+            }
+        }
+    }
+
+    private static final class Slot {
+        final Object flushLock = new Object();
+        volatile DraftLog.Entry pending;
+        volatile DraftLog.Entry flushing;
+        boolean retired; // Guarded by the slot's monitor
+    }
+}
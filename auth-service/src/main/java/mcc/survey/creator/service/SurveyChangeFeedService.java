@@ -0,0 +1,272 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyChangesDTO;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.model.SurveyFeedAudience;
+import mcc.survey.creator.repository.SurveyAudienceView;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user index of survey list changes, so a client holding a copy of its list can ask for just
+ * what changed since it last asked. Every committed {@link SurveyChangedEvent} is numbered and
+ * recorded for each user who sees the survey (its owner and the users it is shared with). Users who
+ * stopped seeing it, because it was deleted or unshared, get a tombstone. Each user keeps only the
+ * latest change per survey, so the index is bounded by what users can see plus a capped number of
+ * tombstones. The index lives in memory; a cursor from before a restart, from another user, or
+ * older than the tombstones still kept gets the whole list with {@code reset} set.
+ * <p>
+ * Who saw each survey as of its last change is kept in {@link SurveyFeedAudience} rows, not on the
+ * heap. Changes of the same survey are applied one at a time, queued on the survey's row; changes
+ * of different surveys do not wait on each other.
+ */
+@Service
+public class SurveyChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyChangeFeedService.class);
+
+    private record Change(long surveyId, boolean removed, boolean shared) {
+    }
+
+    // Guarded by its own monitor
+    private static final class UserChanges {
+        final NavigableMap<Long, Change> bySequence = new TreeMap<>();
+        final Map<Long, Long> sequenceBySurvey = new HashMap<>();
+        int tombstones;
+        long floor; // Tombstones up to here were dropped; cursors before it cannot be continued
+        long latest;
+    }
+
+    private record Cursor(long epoch, int user, long sequence) {
+    }
+
+    private static final String CLEAR_AUDIENCES = "DELETE FROM survey_feed_audience";
+    // An owner who also appears as a share still sees the survey as its owner
+    private static final String LOAD_AUDIENCES = "INSERT INTO survey_feed_audience (survey_id, username, shared) " +
+            "SELECT s.id, o.username, FALSE FROM survey s JOIN users o ON o.id = s.user_id " +
+            "WHERE s.status IS NULL OR s.status <> 'deleted' " +
+            "UNION ALL SELECT s.id, u.username, TRUE FROM survey s JOIN survey_shared_users su ON su.survey_id = s.id " +
+            "JOIN users u ON u.id = su.user_id " +
+            "WHERE (s.status IS NULL OR s.status <> 'deleted') AND (s.user_id IS NULL OR su.user_id <> s.user_id)";
+    private static final String LOCK_SURVEY = "SELECT id FROM survey WHERE id = ? FOR UPDATE";
+    private static final String SELECT_AUDIENCE = "SELECT username, shared FROM survey_feed_audience WHERE survey_id = ?";
+    private static final String DELETE_AUDIENCE = "DELETE FROM survey_feed_audience WHERE survey_id = ?";
+    private static final String INSERT_AUDIENCE = "INSERT INTO survey_feed_audience (survey_id, username, shared) VALUES (?, ?, ?)";
+
+    private final SurveyRepository surveyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxTombstones;
+
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, UserChanges> users = new ConcurrentHashMap<>();
+
+    public SurveyChangeFeedService(SurveyRepository surveyRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.survey-changes.max-tombstones-per-user}") int maxTombstones) {
+        this.surveyRepository = surveyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Changes arrive after the writer's commit, so the audience is written in a transaction of its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxTombstones = Math.max(0, maxTombstones);
+    }
+
+    /**
+     * Learns who sees every survey, so that the first change after startup can tell who lost one.
+     * Copied table to table by the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAudiences() {
+        int rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(CLEAR_AUDIENCES);
+            return jdbcTemplate.update(LOAD_AUDIENCES);
+        });
+        logger.info("Survey change feed tracking {} survey audience entries.", rows);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyChanged(SurveyChangedEvent event) {
+        Long surveyId = event.getSurveyId();
+        if (surveyId == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Two changes of the survey queue on its row, so they cannot record their audiences out of
+            // order; a purged survey has no row left, and no later change to race with
+            jdbcTemplate.queryForList(LOCK_SURVEY, Long.class, surveyId);
+            Map<String, Boolean> audience = new HashMap<>();
+            if (event.getType() == SurveyChangedEvent.Type.SAVED) {
+                // Nobody for a survey soft-deleted through a save
+                addAudience(audience, surveyRepository.findOwnerAudienceOf(surveyId), false);
+                addAudience(audience, surveyRepository.findSharedAudienceOf(surveyId), true);
+            }
+            Map<String, Boolean> previous = replaceAudience(surveyId, audience);
+            // Recorded before the commit, while the row is held; should the commit fail, the next
+            // change of the survey finds the old audience stored and records it all again
+            audience.forEach((username, shared) -> record(username, surveyId, false, shared));
+            previous.forEach((username, shared) -> {
+                if (!audience.containsKey(username)) {
+                    record(username, surveyId, true, shared);
+                }
+            });
+        });
+    }
+
+    // Stores the survey's audience and returns the one it replaces
+    private Map<String, Boolean> replaceAudience(Long surveyId, Map<String, Boolean> audience) {
+        Map<String, Boolean> previous = new HashMap<>();
+        jdbcTemplate.query(SELECT_AUDIENCE,
+                (RowCallbackHandler) rs -> previous.put(rs.getString("username"), rs.getBoolean("shared")), surveyId);
+        if (previous.equals(audience)) {
+            return previous;
+        }
+        jdbcTemplate.update(DELETE_AUDIENCE, surveyId);
+        List<Object[]> rows = new ArrayList<>(audience.size());
+        audience.forEach((username, shared) -> rows.add(new Object[]{surveyId, username, shared}));
+        jdbcTemplate.batchUpdate(INSERT_AUDIENCE, rows);
+        return previous;
+    }
+
+    /**
+     * What changed in the user's survey list since the cursor.
+     *
+     * @param since A cursor from an earlier response, or null for the whole list.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public SurveyChangesDTO changesSince(String username, String since) {
+        Cursor cursor = decode(since);
+        UserChanges changes = users.get(username);
+        long floor;
+        if (changes != null) {
+            synchronized (changes) {
+                floor = changes.floor;
+            }
+        } else {
+            floor = 0;
+        }
+        if (cursor == null || cursor.epoch() != epoch || cursor.user() != username.hashCode() || cursor.sequence() < floor) {
+            return fullList(username);
+        }
+        Set<Long> changedIds = new HashSet<>();
+        Set<Long> sharedIds = new HashSet<>();
+        List<Long> removed = new ArrayList<>();
+        long latest = cursor.sequence();
+        if (changes != null) {
+            synchronized (changes) {
+                for (Change change : changes.bySequence.tailMap(cursor.sequence(), false).values()) {
+                    if (change.removed()) {
+                        removed.add(change.surveyId());
+                    } else {
+                        changedIds.add(change.surveyId());
+                        if (change.shared()) {
+                            sharedIds.add(change.surveyId());
+                        }
+                    }
+                }
+                latest = Math.max(latest, changes.latest);
+            }
+        }
+        List<SurveySummaryDTO> changed = changedIds.isEmpty() ? List.of() : surveyRepository.findSummariesByIdIn(changedIds);
+        // Deleted after the change was recorded; its tombstone is on the way, send it now
+        Set<Long> found = new HashSet<>();
+        changed.forEach(summary -> found.add(summary.getId()));
+        changedIds.stream().filter(id -> !found.contains(id)).forEach(removed::add);
+        sharedIds.retainAll(found);
+        return new SurveyChangesDTO(encode(username, latest), false, changed, new ArrayList<>(sharedIds), removed);
+    }
+
+    private SurveyChangesDTO fullList(String username) {
+        // Taken first: anything committed after it is sent again next time, which is harmless
+        long latest = sequence.get();
+        List<SurveySummaryDTO> changed = new ArrayList<>(surveyRepository.findSummariesByOwnerUsername(username));
+        List<Long> sharedIds = surveyRepository.findIdsSharedWith(username);
+        if (!sharedIds.isEmpty()) {
+            changed.addAll(surveyRepository.findSummariesByIdIn(sharedIds));
+        }
+        return new SurveyChangesDTO(encode(username, latest), true, changed, sharedIds, List.of());
+    }
+
+    private void record(String username, long surveyId, boolean removed, boolean shared) {
+        UserChanges changes = users.computeIfAbsent(username, key -> new UserChanges());
+        synchronized (changes) {
+            // Numbered under the user's lock, so a reader never sees a later change before an earlier one
+            long number = sequence.incrementAndGet();
+            Long superseded = changes.sequenceBySurvey.put(surveyId, number);
+            if (superseded != null && changes.bySequence.remove(superseded).removed()) {
+                changes.tombstones--;
+            }
+            changes.bySequence.put(number, new Change(surveyId, removed, shared));
+            changes.latest = number;
+            if (removed) {
+                changes.tombstones++;
+            }
+            Iterator<Map.Entry<Long, Change>> oldest = changes.bySequence.entrySet().iterator();
+            while (changes.tombstones > maxTombstones && oldest.hasNext()) {
+                Map.Entry<Long, Change> entry = oldest.next();
+                if (entry.getValue().removed()) {
+                    oldest.remove();
+                    changes.sequenceBySurvey.remove(entry.getValue().surveyId());
+                    changes.tombstones--;
+                    changes.floor = entry.getKey();
+                }
+            }
+        }
+    }
+
+    private static void addAudience(Map<String, Boolean> audience, List<SurveyAudienceView> rows, boolean shared) {
+        for (SurveyAudienceView row : rows) {
+            // An owner who also appears as a share still sees the survey as its owner
+            audience.merge(row.getUsername(), shared, Boolean::logicalAnd);
+        }
+    }
+
+    private String encode(String username, long sequence) {
+        String raw = epoch + ":" + username.hashCode() + ":" + sequence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return new Cursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import jakarta.annotation.PreDestroy;
+import mcc.survey.creator.dto.DefinitionCacheStatsDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.repository.SurveyVersionView;
+import mcc.survey.creator.util.SurveyDefinitionNavigator;
+import mcc.survey.creator.util.SurveyLocaleProjector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves survey definitions as ready-to-send bytes from an {@link OffHeapDefinitionCache}.
+ * Entries are keyed by survey id and version (the updatedAt timestamp), so a stale entry can
+ * never be served; change events additionally drop entries right away to free their memory.
+ * Locale projections are cached next to the full definition, each locale in its own slot of the
+ * survey's key.
+ * <p>
+ * Parts of a definition are found with a streaming parser. For pages, a per-version index of
+ * each page's byte range is built when the survey is saved (or on first use), so fetching a page
+ * copies just that slice of the cached bytes.
+ */
+@Service
+public class SurveyDefinitionCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyDefinitionCacheService.class);
+    // Slot 0 of a survey's key holds the full definition; each locale seen gets the next slot
+    private static final int LOCALE_BITS = 8;
+    private static final int MAX_LOCALE_SLOTS = (1 << LOCALE_BITS) - 1;
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final OffHeapDefinitionCache cache;
+    private final Map<String, Integer> localeSlots = new ConcurrentHashMap<>();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Map<Long, PageIndex> pageIndexes; // By survey id, least recently used first
+
+    public SurveyDefinitionCacheService(SurveyRepository surveyRepository,
+                                        SurveyArchiveService surveyArchiveService,
+                                        @Value("${app.definition-cache.max-bytes}") long maxBytes,
+                                        @Value("${app.definition-cache.chunk-bytes}") int chunkBytes,
+                                        @Value("${app.definition-cache.max-entry-bytes}") long maxEntryBytes,
+                                        @Value("${app.definition-cache.page-index-entries}") int pageIndexEntries) {
+        this.surveyRepository = surveyRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.cache = new OffHeapDefinitionCache(maxBytes, chunkBytes, maxEntryBytes);
+        this.pageIndexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PageIndex> eldest) {
+                return size() > pageIndexEntries;
+            }
+        });
+        logger.info("Survey definition cache: {} bytes off-heap in {}-byte chunks.", maxBytes, chunkBytes);
+    }
+
+    /**
+     * Current version of a survey (one small indexed read that never touches the definition).
+     */
+    public SurveyVersionView getVersion(Long surveyId) {
+        return surveyRepository.findVersionById(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + surveyId));
+    }
+
+    public String versionTag(SurveyVersionView version) {
+        return versionTag(version, null);
+    }
+
+    public String versionTag(SurveyVersionView version, String locale) {
+        String tag = version.getId() + "-" + versionOf(version.getUpdatedAt());
+        return locale == null ? tag : tag + "-" + locale;
+    }
+
+    public void writeDefinition(SurveyVersionView version, OutputStream out) throws IOException {
+        writeDefinition(version, null, out);
+    }
+
+    /**
+     * Writes the definition of exactly the given version, from the cache when possible; on a
+     * miss it is loaded, offered to the cache and written from the loaded copy.
+     *
+     * @param locale A normalized locale to project the definition to, or null for all locales.
+     */
+    public void writeDefinition(SurveyVersionView version, String locale, OutputStream out) throws IOException {
+        long versionNumber = versionOf(version.getUpdatedAt());
+        int slot = slotOf(locale);
+        long key = slot < 0 ? -1 : cacheKey(version.getId(), slot);
+        if (slot >= 0) {
+            try (OffHeapDefinitionCache.Lease lease = cache.get(key, versionNumber)) {
+                if (lease != null) {
+                    lease.writeTo(out);
+                    return;
+                }
+            }
+        }
+        String definition = load(version.getId(), version);
+        if (locale != null) {
+            definition = SurveyLocaleProjector.project(definition, locale);
+        }
+        byte[] bytes = definition.getBytes(StandardCharsets.UTF_8);
+        if (slot >= 0) {
+            cache.put(key, versionNumber, bytes);
+        }
+        out.write(bytes);
+    }
+
+    /**
+     * Opens the part of the full definition at the pointer. Nothing is written yet, so a missing
+     * part can still be reported as 404; the caller must close the part.
+     *
+     * @throws ResourceNotFoundException If the definition has no value at the pointer.
+     */
+    public DefinitionPart openPart(SurveyVersionView version, JsonPointer pointer) throws IOException {
+        long versionNumber = versionOf(version.getUpdatedAt());
+        OffHeapDefinitionCache.Lease lease = cache.get(cacheKey(version.getId(), 0), versionNumber);
+        byte[] bytes = null;
+        if (lease == null) {
+            bytes = load(version.getId(), version).getBytes(StandardCharsets.UTF_8);
+            cache.put(cacheKey(version.getId(), 0), versionNumber, bytes);
+        }
+        try {
+            int page = pageOf(pointer);
+            DefinitionPart part = page >= 0
+                    ? openPage(version.getId(), versionNumber, page, lease, bytes)
+                    : openSubtree(pointer, lease, bytes);
+            if (part == null) {
+                throw new ResourceNotFoundException("No value at '" + pointer + "' in survey " + version.getId());
+            }
+            return part;
+        } catch (IOException | RuntimeException e) {
+            if (lease != null) {
+                lease.close();
+            }
+            throw e;
+        }
+    }
+
+    private DefinitionPart openPage(long surveyId, long versionNumber, int page,
+                                    OffHeapDefinitionCache.Lease lease, byte[] bytes) throws IOException {
+        PageIndex index = pageIndexes.get(surveyId);
+        if (index == null || index.version() != versionNumber) {
+            index = indexPages(versionNumber, lease, bytes);
+            pageIndexes.put(surveyId, index);
+        }
+        if (page * 2 + 1 >= index.offsets().length) {
+            return null;
+        }
+        int start = (int) index.offsets()[page * 2];
+        int length = (int) index.offsets()[page * 2 + 1] - start;
+        if (lease != null) {
+            return new DefinitionPart(out -> lease.writeTo(out, start, length), lease);
+        }
+        return new DefinitionPart(out -> out.write(bytes, start, length), null);
+    }
+
+    private DefinitionPart openSubtree(JsonPointer pointer, OffHeapDefinitionCache.Lease lease, byte[] bytes)
+            throws IOException {
+        JsonParser parser = lease != null ? jsonFactory.createParser(lease.openStream()) : jsonFactory.createParser(bytes);
+        if (!SurveyDefinitionNavigator.seek(parser, pointer)) {
+            parser.close();
+            return null;
+        }
+        return new DefinitionPart(out -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.copyCurrentStructure(parser);
+            } finally {
+                parser.close();
+            }
+        }, lease);
+    }
+
+    private PageIndex indexPages(long versionNumber, OffHeapDefinitionCache.Lease lease, byte[] bytes) throws IOException {
+        try (JsonParser parser = lease != null ? jsonFactory.createParser(lease.openStream()) : jsonFactory.createParser(bytes)) {
+            long[] offsets = SurveyDefinitionNavigator.elementOffsets(parser, SurveyDefinitionNavigator.PAGES);
+            return new PageIndex(versionNumber, offsets != null ? offsets : new long[0]);
+        }
+    }
+
+    // The page number if the pointer is exactly /pages/N, else -1
+    private static int pageOf(JsonPointer pointer) {
+        if (!pointer.matchesProperty("pages")) {
+            return -1;
+        }
+        JsonPointer rest = pointer.tail();
+        return rest.getMatchingIndex() >= 0 && rest.tail().matches() ? rest.getMatchingIndex() : -1;
+    }
+
+    private String load(Long surveyId, SurveyVersionView version) {
+        String definition = version.getArchiveSegment() != null
+                ? surveyArchiveService.readDefinition(surveyId, version.getArchiveSegment())
+                : surveyRepository.findTextViewById(surveyId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + surveyId))
+                        .getSurveyJson();
+        return definition != null ? definition : "null";
+    }
+
+    // -1 once all slots are taken: such locales are projected on every request instead
+    private int slotOf(String locale) {
+        if (locale == null) {
+            return 0;
+        }
+        Integer slot = localeSlots.get(locale);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (localeSlots) {
+            if (localeSlots.size() >= MAX_LOCALE_SLOTS) {
+                return localeSlots.getOrDefault(locale, -1);
+            }
+            return localeSlots.computeIfAbsent(locale, l -> localeSlots.size() + 1);
+        }
+    }
+
+    private static long cacheKey(long surveyId, int slot) {
+        return surveyId << LOCALE_BITS | slot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyChanged(SurveyChangedEvent event) {
+        if (event.getSurveyId() == null) {
+            return;
+        }
+        invalidate(event.getSurveyId());
+        Survey survey = event.getSurvey();
+        if (event.getType() == SurveyChangedEvent.Type.SAVED && survey != null && !survey.isArchived()) {
+            try {
+                String definition = survey.getSurveyJson();
+                if (definition != null) {
+                    pageIndexes.put(survey.getId(), indexPages(versionOf(survey.getUpdatedAt()), null,
+                            definition.getBytes(StandardCharsets.UTF_8)));
+                }
+            } catch (IOException | RuntimeException e) {
+                // Not fatal: the index is rebuilt on the first page fetch
+                logger.debug("Could not index the pages of survey {}: {}", survey.getId(), e.getMessage());
+            }
+        }
+    }
+
+    public void invalidate(Long surveyId) {
+        int slots = localeSlots.size();
+        for (int slot = 0; slot <= slots; slot++) {
+            cache.invalidate(cacheKey(surveyId, slot));
+        }
+        pageIndexes.remove(surveyId);
+    }
+
+    public DefinitionCacheStatsDTO getStats() {
+        OffHeapDefinitionCache.Stats stats = cache.stats();
+        long requests = stats.hits() + stats.misses();
+        double hitRate = requests == 0 ? 0.0 : (double) stats.hits() / requests;
+        return new DefinitionCacheStatsDTO(stats.hits(), stats.misses(), hitRate, stats.evictions(), stats.rejections(),
+                stats.entries(), stats.bytesHeld(), stats.capacityBytes());
+    }
+
+    @PreDestroy
+    public void logStats() {
+        logger.info("Survey definition cache at shutdown: {}", getStats());
+    }
+
+    // Byte ranges of each page as [start0, end0, start1, end1, ...], valid for one version only
+    private record PageIndex(long version, long[] offsets) {
+    }
+
+    @FunctionalInterface
+    private interface PartWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A located part of a definition, ready to be written once. Holds the cache lease (if any)
+     * until closed.
+     */
+    public static final class DefinitionPart implements AutoCloseable {
+
+        private final PartWriter writer;
+        private final OffHeapDefinitionCache.Lease lease;
+
+        private DefinitionPart(PartWriter writer, OffHeapDefinitionCache.Lease lease) {
+            this.writer = writer;
+            this.lease = lease;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            writer.writeTo(out);
+        }
+
+        @Override
+        public void close() {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+
+    private static long versionOf(Timestamp updatedAt) {
+        if (updatedAt == null) {
+            return 0L;
+        }
+        return updatedAt.getTime() * 1000 + (updatedAt.getNanos() / 1000) % 1000; // Microsecond precision
+    }
+}
@@ -0,0 +1,179 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.SurveyDefinition;
+import mcc.survey.creator.repository.SurveyDefinitionRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.util.DefinitionSpool;
+import mcc.survey.creator.util.SurveyDefinitionMetrics;
+import mcc.survey.creator.util.SurveyJsonCanonicalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Replaces a survey's definition straight from a request body, for definitions too large to be
+ * bound, validated and saved as strings. The body is validated token by token and copied, minified
+ * and with its image data URLs moved to the blob store, into a {@link DefinitionSpool}; its metrics
+ * are taken from the same tokens. A canonical copy, the same characters a save through the survey
+ * itself stores, goes from there to a second spool, which is written to the definition row as a
+ * character stream. Heap use per save is the two spools' buffers, the parser's and the largest page,
+ * whatever the definition's size.
+ */
+@Service
+public class SurveyDefinitionIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyDefinitionIngestService.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String WRITE_SURVEY_JSON = "UPDATE survey_definition SET survey_json = ? WHERE id = ?";
+
+    private final SurveyDefinitionValidator surveyDefinitionValidator;
+    private final SurveyImageService surveyImageService;
+    private final SurveyRepository surveyRepository;
+    private final SurveyDefinitionRepository surveyDefinitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int bufferChars;
+
+    public SurveyDefinitionIngestService(SurveyDefinitionValidator surveyDefinitionValidator,
+                                         SurveyImageService surveyImageService,
+                                         SurveyRepository surveyRepository,
+                                         SurveyDefinitionRepository surveyDefinitionRepository,
+                                         JdbcTemplate jdbcTemplate,
+                                         ApplicationEventPublisher eventPublisher,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${app.survey-definition.ingest-buffer-chars}") int bufferChars) {
+        this.surveyDefinitionValidator = surveyDefinitionValidator;
+        this.surveyImageService = surveyImageService;
+        this.surveyRepository = surveyRepository;
+        this.surveyDefinitionRepository = surveyDefinitionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bufferChars = bufferChars;
+    }
+
+    /**
+     * Validates and stores a new definition for the survey. Nothing is written unless the whole
+     * body is valid; the database is only touched once it has been read.
+     *
+     * @param contentLength The declared length of the body, or -1 if unknown.
+     * @throws IllegalArgumentException If the definition is malformed, too large or violates the schema.
+     * @throws ResourceNotFoundException If the survey does not exist or is deleted.
+     */
+    public SurveySummaryDTO replaceDefinition(Long surveyId, long contentLength, InputStream body) {
+        if (contentLength > surveyDefinitionValidator.getMaxBytes()) {
+            throw new IllegalArgumentException("Invalid survey definition: larger than "
+                    + surveyDefinitionValidator.getMaxBytes() + " bytes.");
+        }
+        try (DefinitionSpool received = new DefinitionSpool(bufferChars);
+             DefinitionSpool spool = new DefinitionSpool(bufferChars)) {
+            boolean extract = SurveyImageService.isExtractable(
+                    surveyRepository.findDataClassificationById(surveyId).orElse(null));
+            SurveyDefinitionMetrics metrics = spool(body, received, spool, extract);
+            transactionTemplate.executeWithoutResult(status -> store(surveyId, spool, metrics));
+            logger.debug("Stored a {} byte definition for survey {}{}.", metrics.definitionBytes(), surveyId,
+                    received.isSpilled() ? " through temporary files" : "");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return surveyRepository.findSummariesByIdIn(List.of(surveyId)).stream().findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id: " + surveyId));
+    }
+
+    // The body goes to the first spool as it is validated, and its canonical form from there to the second
+    private SurveyDefinitionMetrics spool(InputStream body, DefinitionSpool received, DefinitionSpool canonical,
+                                          boolean extract) throws IOException {
+        SurveyDefinitionMetrics.Collector collector = new SurveyDefinitionMetrics.Collector();
+        try (JsonParser parser = JSON_FACTORY.createParser(surveyDefinitionValidator.limit(body));
+             JsonGenerator generator = new IngestGenerator(JSON_FACTORY.createGenerator(received.writer()), collector, extract)) {
+            surveyDefinitionValidator.validate(parser, generator);
+        }
+        SurveyJsonCanonicalizer.canonicalize(received, canonical.writer());
+        return collector.result((int) canonical.utf8Length());
+    }
+
+    private void store(Long surveyId, DefinitionSpool spool, SurveyDefinitionMetrics metrics) {
+        // Locks the survey row, so concurrent saves of the same survey take turns from here on
+        if (surveyRepository.markDefinitionWritten(surveyId, metrics.pageCount(), metrics.questionCount(),
+                metrics.definitionBytes(), metrics.hasLogic(), new Timestamp(System.currentTimeMillis())) == 0) {
+            throw new ResourceNotFoundException("Survey not found with id: " + surveyId);
+        }
+        Long current = surveyRepository.findDefinitionIdsByIdIn(List.of(surveyId)).stream().findFirst().orElse(null);
+        List<Long> sharing = surveyRepository.findIdsSharingDefinitionOf(surveyId);
+        Long target = current;
+        if (current == null || !sharing.isEmpty()) {
+            // Clones read the current row, so it stays as it is and goes to the first of them. Only the
+            // questions are carried over, through the entity; the definition itself is streamed in below
+            String questionsJson = current == null ? null : surveyDefinitionRepository.findById(current)
+                    .map(SurveyDefinition::getQuestionsJson).orElse(null);
+            SurveyDefinition fresh = surveyDefinitionRepository.saveAndFlush(new SurveyDefinition(null, questionsJson));
+            surveyRepository.assignDefinition(surveyId, fresh);
+            if (current != null) {
+                Long heirId = sharing.get(0);
+                surveyRepository.assignDefinition(heirId, surveyDefinitionRepository.getReferenceById(current));
+                surveyRepository.repointDefinitionSource(surveyId, surveyRepository.getReferenceById(heirId));
+            }
+            target = fresh.getId();
+        }
+        long id = target;
+        jdbcTemplate.update(WRITE_SURVEY_JSON, statement -> {
+            try {
+                Reader reader = spool.openReader();
+                statement.setCharacterStream(1, reader, spool.length());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            statement.setLong(2, id);
+        });
+        // Bulk SQL bypasses the entity listener
+        eventPublisher.publishEvent(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.SAVED, null));
+    }
+
+    /**
+     * Receives the tokens the validator copies: feeds them to the metrics and, as the survey's
+     * classification calls for, swaps image data URLs for blob URLs or back on their way to the spool.
+     */
+    private class IngestGenerator extends JsonGeneratorDelegate {
+
+        private final SurveyDefinitionMetrics.Collector collector;
+        private final boolean extract;
+
+        IngestGenerator(JsonGenerator delegate, SurveyDefinitionMetrics.Collector collector, boolean extract) {
+            super(delegate, false);
+            this.collector = collector;
+            this.extract = extract;
+        }
+
+        @Override
+        public void copyCurrentEvent(JsonParser parser) throws IOException {
+            collector.accept(parser);
+            String url = surveyImageService.rewriteImage(parser, extract);
+            if (url != null) {
+                delegate.writeString(url);
+            } else {
+                delegate.copyCurrentEvent(parser);
+            }
+        }
+    }
+}
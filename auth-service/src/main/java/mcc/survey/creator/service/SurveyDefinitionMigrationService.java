@@ -0,0 +1,161 @@
+package mcc.survey.creator.service;
+
+import jakarta.annotation.PreDestroy;
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.model.SurveyDefinition;
+import mcc.survey.creator.repository.SurveyDefinitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves definitions out of the survey table of databases created before {@link SurveyDefinition}
+ * had a table of its own. Such a table still has the old {@code survey_json} and
+ * {@code questions_json} columns, which are no longer mapped, so they are read with plain SQL:
+ * each chunk of rows gets its definition rows and is then pointed at them, with the old columns
+ * cleared. Starts by itself when the old columns are present; the columns can be dropped once a
+ * run has finished without skipping anything.
+ */
+@Service
+public class SurveyDefinitionMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyDefinitionMigrationService.class);
+
+    private static final String SELECT_LEGACY = "SELECT id, survey_json, questions_json FROM survey " +
+            "WHERE id > ? AND definition_id IS NULL AND (survey_json IS NOT NULL OR questions_json IS NOT NULL) ORDER BY id";
+    // A row saved through the new mapping meanwhile has a definition already; its old columns are stale
+    private static final String MOVE_LEGACY = "UPDATE survey SET definition_id = ?, survey_json = NULL, questions_json = NULL " +
+            "WHERE id = ? AND definition_id IS NULL";
+
+    private final SurveyDefinitionRepository surveyDefinitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final BackgroundJob job = new BackgroundJob(logger, "Survey definition migration",
+            "movedSurveys", "skippedSurveys");
+    private final AtomicInteger moved = job.counter("movedSurveys");
+    private final AtomicInteger skipped = job.counter("skippedSurveys"); // Saved with a new definition while being migrated
+
+    public SurveyDefinitionMigrationService(SurveyDefinitionRepository surveyDefinitionRepository,
+                                            JdbcTemplate jdbcTemplate,
+                                            ApplicationEventPublisher eventPublisher,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${app.survey-definitions.migration-chunk-size}") int chunkSize) {
+        this.surveyDefinitionRepository = surveyDefinitionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (hasLegacyColumns()) {
+            logger.info("The survey table still holds definitions; moving them to survey_definition.");
+            start();
+        }
+    }
+
+    /**
+     * Starts the migration in the background.
+     *
+     * @return false if one is already running.
+     */
+    public boolean start() {
+        return job.start(() -> {
+            if (hasLegacyColumns()) {
+                migrate();
+            }
+        });
+    }
+
+    /**
+     * Moves every remaining definition, one chunk per transaction. Does not check for the old
+     * columns; the caller must.
+     */
+    void migrate() {
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<LegacyRow> rows = findLegacyRows(afterId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Long> movedIds = transactionTemplate.execute(status -> moveChunk(rows));
+            // Listeners indexed these surveys without a definition; bulk SQL bypasses the entity listener
+            movedIds.forEach(id -> eventPublisher.publishEvent(
+                    new SurveyChangedEvent(id, SurveyChangedEvent.Type.SAVED, null)));
+            afterId = rows.get(rows.size() - 1).id();
+        }
+    }
+
+    private List<LegacyRow> findLegacyRows(long afterId) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_LEGACY);
+            statement.setMaxRows(chunkSize);
+            statement.setLong(1, afterId);
+            return statement;
+        }, (rs, rowNum) -> new LegacyRow(rs.getLong("id"), rs.getString("survey_json"), rs.getString("questions_json")));
+    }
+
+    private List<Long> moveChunk(List<LegacyRow> rows) {
+        List<SurveyDefinition> definitions = new ArrayList<>(rows.size());
+        for (LegacyRow row : rows) {
+            definitions.add(new SurveyDefinition(row.surveyJson(), row.questionsJson()));
+        }
+        // Inserted before the survey rows reference them
+        surveyDefinitionRepository.saveAllAndFlush(definitions);
+        List<Long> movedIds = new ArrayList<>(rows.size());
+        List<SurveyDefinition> unused = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (jdbcTemplate.update(MOVE_LEGACY, definitions.get(i).getId(), rows.get(i).id()) == 1) {
+                movedIds.add(rows.get(i).id());
+            } else {
+                unused.add(definitions.get(i));
+            }
+        }
+        surveyDefinitionRepository.deleteAllInBatch(unused);
+        moved.addAndGet(movedIds.size());
+        skipped.addAndGet(unused.size());
+        return movedIds;
+    }
+
+    boolean hasLegacyColumns() {
+        try {
+            jdbcTemplate.queryForList("SELECT survey_json, questions_json FROM survey WHERE 1 = 0");
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    public BackgroundJobStatusDTO getStatus() {
+        BackgroundJobStatusDTO status = job.getStatus();
+        // Whether the survey table still has the columns definitions are moved out of
+        status.getDetails().put("legacyColumns", hasLegacyColumns());
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        job.shutdown();
+    }
+
+    private record LegacyRow(long id, String surveyJson, String questionsJson) {
+    }
+}
@@ -0,0 +1,325 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.util.CompiledJsonSchema;
+import mcc.survey.creator.util.CompiledJsonSchema.Kind;
+import mcc.survey.creator.util.CompiledJsonSchema.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Validates SurveyJS definitions against the schema in {@code schema/survey-definition.schema.json}.
+ * The schema is compiled once at startup; documents are checked token by token with Jackson's
+ * streaming parser, so no tree is built and a document is rejected as soon as it exceeds a limit
+ * or violates the schema, without reading the rest of it.
+ */
+@Service
+public class SurveyDefinitionValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyDefinitionValidator.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final CompiledJsonSchema schema;
+    private final long maxBytes;
+    private final int maxDepth;
+    private final int maxElements;
+
+    public SurveyDefinitionValidator(@Value("${app.survey-definition.schema-location}") Resource schemaResource,
+                                     @Value("${app.survey-definition.max-bytes}") long maxBytes,
+                                     @Value("${app.survey-definition.max-depth}") int maxDepth,
+                                     @Value("${app.survey-definition.max-elements}") int maxElements) throws IOException {
+        try (InputStream in = schemaResource.getInputStream()) {
+            this.schema = CompiledJsonSchema.compile(new ObjectMapper().readTree(in));
+        }
+        this.maxBytes = maxBytes;
+        this.maxDepth = maxDepth;
+        this.maxElements = maxElements;
+        logger.info("Compiled survey definition schema from {} (max {} bytes, depth {}, {} elements).",
+                schemaResource.getDescription(), maxBytes, maxDepth, maxElements);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the definition is malformed, too large or violates the schema.
+     */
+    public void validate(String surveyJson) {
+        if (surveyJson == null) {
+            throw new IllegalArgumentException("Invalid survey definition: it is empty.");
+        }
+        checkUtf8Length(surveyJson);
+        try (JsonParser parser = JSON_FACTORY.createParser(surveyJson)) {
+            validate(parser, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Validates a definition read from a stream, stopping as soon as more than the allowed number
+     * of bytes has been consumed.
+     */
+    public void validate(InputStream surveyJson) {
+        try (JsonParser parser = JSON_FACTORY.createParser(limit(surveyJson))) {
+            validate(parser, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Wraps a stream so that reading past the configured byte limit fails the validation.
+     */
+    public InputStream limit(InputStream in) {
+        return new FilterInputStream(in) {
+            private long count;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    count(read);
+                }
+                return read;
+            }
+
+            private void count(int read) {
+                count += read;
+                if (count > maxBytes) {
+                    throw new IllegalArgumentException("Invalid survey definition: larger than " + maxBytes + " bytes.");
+                }
+            }
+        };
+    }
+
+    /**
+     * Walks every token of the parser against the compiled schema. If {@code copyTo} is given, each
+     * token is also written to it, letting callers validate and store a document in one pass.
+     *
+     * @throws IllegalArgumentException On the first violation found.
+     */
+    public void validate(JsonParser parser, JsonGenerator copyTo) throws IOException {
+        try {
+            if (parser.nextToken() == null) {
+                throw new IllegalArgumentException("Invalid survey definition: it is empty.");
+            }
+            walk(parser, copyTo, -1);
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Invalid survey definition: unexpected content after the root value.");
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * Validates the value the parser is positioned on, as when the definition is one property of a
+     * larger document, leaving the parser on the value's last token. The value may span at most the
+     * configured number of bytes of the enclosing input.
+     *
+     * @throws IllegalArgumentException On the first violation found.
+     */
+    public void validateValue(JsonParser parser, JsonGenerator copyTo) throws IOException {
+        try {
+            walk(parser, copyTo, offset(parser.currentTokenLocation()) + maxBytes);
+        } catch (JsonProcessingException e) {
+            throw malformed(e);
+        }
+    }
+
+    // Walks from the current token to the end of the value it starts; endOffset < 0 means unbounded
+    private void walk(JsonParser parser, JsonGenerator copyTo, long endOffset) throws IOException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        Node pending = schema.getRoot();
+        int elements = 0;
+        JsonToken token = parser.currentToken();
+        while (token != null) {
+            if (endOffset >= 0 && offset(parser.currentLocation()) > endOffset) {
+                throw new IllegalArgumentException("Invalid survey definition: larger than " + maxBytes + " bytes.");
+            }
+            if (copyTo != null) {
+                copyTo.copyCurrentEvent(parser);
+            }
+            switch (token) {
+                case FIELD_NAME -> {
+                    Frame frame = stack.peek();
+                    String name = parser.currentName();
+                    frame.field = name;
+                    if (frame.seen != null) {
+                        frame.seen.add(name);
+                    }
+                    pending = frame.schema == null ? null : property(frame, name, stack);
+                }
+                case START_OBJECT, START_ARRAY -> {
+                    Node node = valueSchema(stack, pending);
+                    boolean object = token == JsonToken.START_OBJECT;
+                    checkKind(node, object ? Kind.OBJECT : Kind.ARRAY, stack);
+                    if (++elements > maxElements) {
+                        throw violation(stack, "more than " + maxElements + " elements");
+                    }
+                    if (stack.size() >= maxDepth) {
+                        throw violation(stack, "nested deeper than " + maxDepth + " levels");
+                    }
+                    stack.push(new Frame(node, object));
+                    pending = null;
+                }
+                case END_OBJECT -> {
+                    Frame frame = stack.pop();
+                    if (frame.seen != null && !frame.seen.containsAll(frame.schema.getRequired())) {
+                        Set<String> missing = new HashSet<>(frame.schema.getRequired());
+                        missing.removeAll(frame.seen);
+                        stack.push(frame);
+                        throw violation(stack, "missing required properties " + missing);
+                    }
+                }
+                case END_ARRAY -> stack.pop();
+                default -> {
+                    Node node = valueSchema(stack, pending);
+                    checkScalar(node, token, parser, stack);
+                    if (++elements > maxElements) {
+                        throw violation(stack, "more than " + maxElements + " elements");
+                    }
+                    pending = null;
+                }
+            }
+            if (stack.isEmpty() && token != JsonToken.FIELD_NAME) {
+                break; // Root value complete
+            }
+            token = parser.nextToken();
+        }
+    }
+
+    private static long offset(JsonLocation location) {
+        return location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+    }
+
+    private static IllegalArgumentException malformed(JsonProcessingException e) {
+        return new IllegalArgumentException("Invalid survey definition: malformed JSON at line "
+                + e.getLocation().getLineNr() + ", column " + e.getLocation().getColumnNr() + ".", e);
+    }
+
+    private Node property(Frame frame, String name, Deque<Frame> stack) {
+        try {
+            return frame.schema.property(name);
+        } catch (IllegalArgumentException e) {
+            throw violation(stack, e.getMessage());
+        }
+    }
+
+    // Array items take the array's item schema; object members were resolved at FIELD_NAME
+    private static Node valueSchema(Deque<Frame> stack, Node pending) {
+        Frame parent = stack.peek();
+        if (parent == null || parent.object) {
+            return pending;
+        }
+        parent.index++;
+        if (parent.schema != null && parent.index > parent.schema.getMaxItems()) {
+            throw violation(stack, "more than " + parent.schema.getMaxItems() + " items");
+        }
+        return parent.schema == null ? null : parent.schema.getItems();
+    }
+
+    private static void checkKind(Node node, Kind kind, Deque<Frame> stack) {
+        if (node != null && !node.allows(kind)) {
+            throw violation(stack, "expected " + node.getKinds() + " but found " + kind);
+        }
+    }
+
+    private static void checkScalar(Node node, JsonToken token, JsonParser parser, Deque<Frame> stack) throws IOException {
+        if (node == null) {
+            return;
+        }
+        Kind kind = switch (token) {
+            case VALUE_STRING -> Kind.STRING;
+            case VALUE_NUMBER_INT -> Kind.INTEGER;
+            case VALUE_NUMBER_FLOAT -> Kind.NUMBER;
+            case VALUE_TRUE, VALUE_FALSE -> Kind.BOOLEAN;
+            default -> Kind.NULL;
+        };
+        checkKind(node, kind, stack);
+        if (kind == Kind.STRING) {
+            if (parser.getTextLength() > node.getMaxLength()) {
+                throw violation(stack, "longer than " + node.getMaxLength() + " characters");
+            }
+            if (node.getEnumValues() != null && !node.getEnumValues().contains(parser.getText())) {
+                throw violation(stack, "'" + parser.getText() + "' is not one of the allowed values");
+            }
+            if (node.getPattern() != null && !node.getPattern().matcher(parser.getText()).find()) {
+                throw violation(stack, "'" + parser.getText() + "' does not match " + node.getPattern());
+            }
+        }
+    }
+
+    private void checkUtf8Length(String value) {
+        if ((long) value.length() * 3 <= maxBytes) {
+            return; // Cannot exceed the limit even if every char needs 3 bytes
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+            if (bytes > maxBytes) {
+                throw new IllegalArgumentException("Invalid survey definition: larger than " + maxBytes + " bytes.");
+            }
+        }
+    }
+
+    private static IllegalArgumentException violation(Deque<Frame> stack, String problem) {
+        StringBuilder pointer = new StringBuilder();
+        var frames = stack.descendingIterator();
+        while (frames.hasNext()) {
+            Frame frame = frames.next();
+            if (frame.object) {
+                if (frame.field != null) {
+                    pointer.append('/').append(frame.field.replace("~", "~0").replace("/", "~1"));
+                }
+            } else if (frame.index > 0) {
+                pointer.append('/').append(frame.index - 1);
+            }
+        }
+        return new IllegalArgumentException("Invalid survey definition at '" + (pointer.length() == 0 ? "/" : pointer) + "': " + problem + ".");
+    }
+
+    private static final class Frame {
+        private final Node schema;
+        private final boolean object;
+        private final Set<String> seen; // Only tracked when the schema has required properties
+        private String field;
+        private int index;
+
+        private Frame(Node schema, boolean object) {
+            this.schema = schema;
+            this.object = object;
+            this.seen = object && schema != null && !schema.getRequired().isEmpty() ? new HashSet<>() : null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes surveys as newline-delimited JSON, one survey per line, straight from a JPA result
+ * stream. Each entity is detached once written and the persistence context is cleared
+ * periodically, so memory use stays flat however many surveys are exported.
+ */
+@Service
+public class SurveyExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyExportService.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // Owners and their roles are shared between rows; drop them every so often as well
+    private static final int CLEAR_CONTEXT_EVERY = 500;
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SurveyExportService(SurveyRepository surveyRepository, SurveyArchiveService surveyArchiveService,
+                               PlatformTransactionManager transactionManager) {
+        this.surveyRepository = surveyRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportOwnedSurveys(String username, OutputStream out, boolean gzip) {
+        export(() -> surveyRepository.streamByOwnerUsername(username), out, gzip, "user " + username);
+    }
+
+    public void exportAllSurveys(OutputStream out, boolean gzip) {
+        export(surveyRepository::streamAll, out, gzip, "all users");
+    }
+
+    private void export(Supplier<Stream<Survey>> source, OutputStream out, boolean gzip, String scope) {
+        long started = System.currentTimeMillis();
+        int written = readOnlyTransaction.execute(status -> {
+            try (Stream<Survey> surveys = source.get()) {
+                OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+                int count = 0;
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(target, JsonEncoding.UTF8)) {
+                    generator.setRootValueSeparator(null); // Lines are separated explicitly below
+                    for (Survey survey : (Iterable<Survey>) surveys::iterator) {
+                        writeSurvey(generator, survey);
+                        generator.writeRaw('\n');
+                        entityManager.detach(survey);
+                        if (++count % CLEAR_CONTEXT_EVERY == 0) {
+                            generator.flush();
+                            entityManager.clear();
+                        }
+                    }
+                }
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Exported {} surveys for {} in {} ms (gzip: {}).", written, scope, System.currentTimeMillis() - started, gzip);
+    }
+
+    private void writeSurvey(JsonGenerator generator, Survey survey) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", survey.getId());
+        generator.writeStringField("title", survey.getTitle());
+        generator.writeStringField("description", survey.getDescription());
+        generator.writeStringField("status", survey.getStatus());
+        generator.writeStringField("surveyMode", survey.getSurveyMode());
+        generator.writeStringField("dataClassification", survey.getDataClassification());
+        generator.writeStringField("owner", survey.getOwner() != null ? survey.getOwner().getUsername() : null);
+        generator.writeStringField("createdAt", survey.getCreatedAt() != null ? survey.getCreatedAt().toInstant().toString() : null);
+        generator.writeStringField("updatedAt", survey.getUpdatedAt() != null ? survey.getUpdatedAt().toInstant().toString() : null);
+        generator.writeFieldName("surveyJson");
+        String definition = surveyArchiveService.resolveDefinition(survey);
+        if (definition == null) {
+            generator.writeNull();
+        } else {
+            // Stored definitions are always serialized JSON, so they are copied through without re-parsing
+            generator.writeRawValue(definition);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,448 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.exception.SurveyArchiveUnavailableException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.repository.SurveyArchiveView;
+import mcc.survey.creator.repository.SurveyDefinitionRepository;
+import mcc.survey.creator.repository.SurveyDefinitionView;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Moves base64 image data URLs out of survey definitions into a content-addressed blob store on
+ * local disk. Each image is stored once under the SHA-256 of its bytes and the data URL is
+ * replaced by the URL it is served from, so identical images across surveys share one file and
+ * a stored file never changes.
+ * <p>
+ * Blobs are served without authentication, so that {@code <img>} tags can load them: whoever has a
+ * blob URL can read the image, and the unguessable hash is the only protection. Only the images of
+ * public surveys are therefore extracted. Blobs no definition refers to any longer are deleted by
+ * {@link #purgeUnreferenced()}.
+ */
+@Service
+public class SurveyImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyImageService.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String DATA_URL_PREFIX = "data:image/";
+    private static final String BASE64_MARKER = ";base64,";
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})\\.(png|jpg|gif|webp|avif|bmp)");
+
+    // SVG is deliberately absent: it can carry scripts and stays inline
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/png", "png", "image/jpeg", "jpg", "image/gif", "gif",
+            "image/webp", "webp", "image/avif", "avif", "image/bmp", "bmp");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "png", "image/png", "jpg", "image/jpeg", "gif", "image/gif",
+            "webp", "image/webp", "avif", "image/avif", "bmp", "image/bmp");
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyDefinitionRepository surveyDefinitionRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final String urlPrefix;
+    private final int minLength;
+    private final int migrationChunkSize;
+    private final Duration purgeGrace;
+    // Stores share it; the purge takes it exclusively to delete a blob, so a blob being reused is not deleted under it
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+
+    private final BackgroundJob migration = new BackgroundJob(logger, "Survey image migration",
+            "scannedSurveys", "rewrittenSurveys", "skippedSurveys", "extractedImages");
+    private final AtomicInteger migrationScanned = migration.counter("scannedSurveys");
+    private final AtomicInteger migrationRewritten = migration.counter("rewrittenSurveys");
+    private final AtomicInteger migrationSkipped = migration.counter("skippedSurveys"); // Edited while being migrated, or unparseable
+    private final AtomicInteger migrationImages = migration.counter("extractedImages"); // Or brought back inline, in a survey that is not public
+
+    public SurveyImageService(SurveyRepository surveyRepository,
+                              SurveyDefinitionRepository surveyDefinitionRepository,
+                              SurveyArchiveService surveyArchiveService,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.survey-images.directory}") String directory,
+                              @Value("${app.survey-images.url-prefix}") String urlPrefix,
+                              @Value("${app.survey-images.min-length}") int minLength,
+                              @Value("${app.survey-images.migration-chunk-size}") int migrationChunkSize,
+                              @Value("${app.survey-images.purge-grace-hours}") int purgeGraceHours) {
+        this.surveyRepository = surveyRepository;
+        this.surveyDefinitionRepository = surveyDefinitionRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.urlPrefix = urlPrefix;
+        this.minLength = Math.max(DATA_URL_PREFIX.length(), minLength);
+        this.migrationChunkSize = Math.max(1, migrationChunkSize);
+        this.purgeGrace = Duration.ofHours(Math.max(1, purgeGraceHours));
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Whether a survey of this classification has its images extracted: only a public one.
+     */
+    public static boolean isExtractable(String dataClassification) {
+        return Survey.CLASSIFICATION_PUBLIC.equals(dataClassification);
+    }
+
+    /**
+     * Rewrites a definition for a survey of the given classification. For a public survey every
+     * large enough image data URL is replaced by a blob URL. For any other, blob URLs are replaced
+     * by data URLs again, so a survey reclassified away from public no longer refers to images
+     * anyone can read. The definition is streamed token by token; one with nothing to rewrite is
+     * returned unchanged.
+     *
+     * @throws IllegalArgumentException If the definition is not well-formed JSON.
+     */
+    public String extractImages(String surveyJson, String dataClassification) {
+        return rewrite(surveyJson, isExtractable(dataClassification)).surveyJson();
+    }
+
+    /**
+     * Rewrites the parser's current token as {@link #extractImages} would, for callers that stream a
+     * definition themselves. Values too short to be an image are not read out of the parser.
+     *
+     * @param extract Whether the survey's classification is {@link #isExtractable extractable}.
+     * @return The URL to write instead, or null to copy the token as it is.
+     */
+    public String rewriteImage(JsonParser parser, boolean extract) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING
+                || parser.getTextLength() < (extract ? minLength : urlPrefix.length())) {
+            return null;
+        }
+        return extract ? storeDataUrl(parser.getText()) : loadDataUrl(parser.getText());
+    }
+
+    private Rewrite rewrite(String surveyJson, boolean extract) {
+        if (surveyJson == null || !surveyJson.contains(extract ? DATA_URL_PREFIX : urlPrefix)) {
+            return new Rewrite(surveyJson, 0);
+        }
+        StringWriter out = new StringWriter(extract ? surveyJson.length() / 4 : surveyJson.length() * 2);
+        int moved = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(surveyJson);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                String url = rewriteImage(parser, extract);
+                if (url != null) {
+                    generator.writeString(url);
+                    moved++;
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid survey definition: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moved == 0 ? new Rewrite(surveyJson, 0) : new Rewrite(out.toString(), moved);
+    }
+
+    /**
+     * @return The blob URL, or null if the value is not a base64 image data URL of a supported type.
+     */
+    private String storeDataUrl(String value) throws IOException {
+        if (!value.startsWith(DATA_URL_PREFIX)) {
+            return null;
+        }
+        int marker = value.indexOf(BASE64_MARKER);
+        if (marker < 0) {
+            return null;
+        }
+        int typeEnd = value.indexOf(';');
+        String extension = EXTENSIONS.get(value.substring("data:".length(), typeEnd).toLowerCase());
+        if (extension == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(value.substring(marker + BASE64_MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            return null; // Not valid base64; leave it for the client to deal with
+        }
+        return urlPrefix + store(bytes, extension);
+    }
+
+    /**
+     * @return The data URL of a stored blob, or null if the value is no blob URL or the blob is gone.
+     */
+    private String loadDataUrl(String value) throws IOException {
+        if (!value.startsWith(urlPrefix)) {
+            return null;
+        }
+        String name = value.substring(urlPrefix.length());
+        Matcher matcher = NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(pathOf(name));
+        } catch (NoSuchFileException e) {
+            return null; // Nothing to bring back; the URL stays as it is
+        }
+        return "data:" + CONTENT_TYPES.get(matcher.group(2)) + BASE64_MARKER + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * Writes the bytes under their content hash unless that file already exists, in which case its
+     * modification time is renewed so the purge leaves it alone until the saving survey commits.
+     *
+     * @return The blob name, {@code <sha256>.<extension>}.
+     */
+    String store(byte[] bytes, String extension) throws IOException {
+        String name = sha256(bytes) + "." + extension;
+        Path file = pathOf(name);
+        storeLock.readLock().lock();
+        try {
+            try {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+                return name;
+            } catch (NoSuchFileException e) {
+                // Not stored yet
+            }
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), name, ".tmp");
+            try {
+                Files.write(temp, bytes);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently; the content is the same by construction
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return name;
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException If the name is not a blob name or no such blob is stored.
+     */
+    public StoredImage open(String name) {
+        var matcher = NAME.matcher(name);
+        if (!matcher.matches()) {
+            throw new ResourceNotFoundException("Image not found: " + name);
+        }
+        Path file = pathOf(name);
+        try {
+            return new StoredImage(file, matcher.group(1), CONTENT_TYPES.get(matcher.group(2)), Files.size(file));
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("Image not found: " + name);
+        }
+    }
+
+    // Fanned out over 256 subdirectories so no single directory grows too large
+    private Path pathOf(String name) {
+        return directory.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Deletes the blobs that no survey definition refers to any longer, inline, shared with a clone
+     * or archived, trashed surveys included, along with temporary files left by an interrupted
+     * store. Only files unmodified for the grace period go: a save still in flight while the
+     * definitions are read has stored or renewed its blobs more recently than that. If an archived
+     * definition cannot be read, nothing is deleted.
+     *
+     * @return The number of files deleted.
+     */
+    public int purgeUnreferenced() {
+        Instant cutoff = Instant.now().minus(purgeGrace);
+        Set<String> referenced;
+        try {
+            referenced = referencedNames();
+        } catch (SurveyArchiveUnavailableException e) {
+            logger.warn("Survey image purge skipped: {}", e.getMessage());
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = file.getFileName().toString();
+                boolean blob = NAME.matcher(name).matches();
+                if (blob ? referenced.contains(name) : !name.endsWith(".tmp")) {
+                    continue;
+                }
+                if (deleteIfOlder(file, cutoff)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Survey image purge deleted {} unreferenced files; {} blobs are referenced.", deleted, referenced.size());
+        return deleted;
+    }
+
+    // Every blob name in any definition, whatever URL prefix it was written with
+    private Set<String> referencedNames() {
+        Set<String> names = new HashSet<>();
+        long afterId = 0;
+        List<SurveyDefinitionView> views;
+        do {
+            views = surveyRepository.findDefinitionViewsAfterId(afterId, PageRequest.of(0, migrationChunkSize));
+            for (SurveyDefinitionView view : views) {
+                String surveyJson = surveyArchiveService.resolveDefinition(view.getId(), view.getArchiveSegment(),
+                        view.getSurveyJson());
+                if (surveyJson != null) {
+                    Matcher matcher = NAME.matcher(surveyJson);
+                    while (matcher.find()) {
+                        names.add(matcher.group());
+                    }
+                }
+                afterId = view.getId();
+            }
+        } while (!views.isEmpty());
+        return names;
+    }
+
+    private boolean deleteIfOlder(Path file, Instant cutoff) throws IOException {
+        storeLock.writeLock().lock();
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file);
+        } catch (NoSuchFileException e) {
+            return false;
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts bringing the images of all existing surveys in line with their classification in the
+     * background: inline images of public surveys move into the blob store, and blob URLs in any
+     * other survey are replaced by data URLs again. Surveys are rewritten chunk by chunk, each only
+     * if it has not been edited since it was read, and a rewritten survey becomes a new version;
+     * archived definitions are left as they are.
+     *
+     * @return false if a migration is already running.
+     */
+    public boolean startMigration() {
+        return migration.start(this::migrate);
+    }
+
+    private void migrate() {
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> ids = surveyRepository.findIdsWithImagesToMove(afterId, urlPrefix, PageRequest.of(0, migrationChunkSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            List<Long> rewritten = transactionTemplate.execute(status -> migrateChunk(ids));
+            rewritten.forEach(id -> eventPublisher.publishEvent(
+                    new SurveyChangedEvent(id, SurveyChangedEvent.Type.SAVED, null)));
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private List<Long> migrateChunk(List<Long> ids) {
+        List<Long> rewritten = new ArrayList<>();
+        for (SurveyArchiveView view : surveyRepository.findArchiveViewsByIdIn(ids)) {
+            migrationScanned.incrementAndGet();
+            Rewrite migrated;
+            try {
+                migrated = rewrite(view.getSurveyJson(), isExtractable(view.getDataClassification()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Survey ID {} has an unparseable definition; images left as they are.", view.getId());
+                migrationSkipped.incrementAndGet();
+                continue;
+            }
+            if (migrated.images() == 0) {
+                continue;
+            }
+            // Database timestamps keep microseconds; a finer value would never match the stored one
+            Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MICROS));
+            if (surveyRepository.replaceDefinitionBytes(view.getId(), view.getUpdatedAt(),
+                    migrated.surveyJson().getBytes(StandardCharsets.UTF_8).length, now) == 1) {
+                surveyDefinitionRepository.replaceSurveyJsonOf(view.getId(), migrated.surveyJson());
+                surveyRepository.touchDefinitionSharers(view.getId(), now);
+                migrationRewritten.incrementAndGet();
+                migrationImages.addAndGet(migrated.images());
+                rewritten.add(view.getId());
+                rewritten.addAll(surveyRepository.findIdsSharingDefinitionOf(view.getId()));
+            } else {
+                migrationSkipped.incrementAndGet();
+            }
+        }
+        return rewritten;
+    }
+
+    public BackgroundJobStatusDTO getMigrationStatus() {
+        return migration.getStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migration.shutdown();
+    }
+
+    /**
+     * A stored blob: its file, content hash (the ETag), media type and size in bytes.
+     */
+    public record StoredImage(Path file, String hash, String contentType, long size) {
+    }
+
+    private record Rewrite(String surveyJson, int images) {
+    }
+}
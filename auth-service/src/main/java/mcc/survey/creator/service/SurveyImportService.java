@@ -0,0 +1,369 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import mcc.survey.creator.dto.SurveyImportRecordResultDTO;
+import mcc.survey.creator.dto.SurveyImportResultDTO;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.UserRepository;
+import mcc.survey.creator.util.SurveyDefinitionMetrics;
+import mcc.survey.creator.util.SurveyJsonCanonicalizer;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports surveys in bulk from an NDJSON upload (one survey per line, the format written by
+ * {@link SurveyExportService}) or a zip of {@code .ndjson} and {@code .json} files. Records are
+ * read in chunks, validated in parallel and inserted with JDBC batching, one transaction per
+ * chunk. Every record gets its own outcome so a few bad records do not sink the whole upload.
+ */
+@Service
+public class SurveyImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyImportService.class);
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final String DEFAULT_TITLE = "Untitled Survey";
+    private static final String DEFAULT_DESCRIPTION = "No description provided";
+    // A record without a status is a draft, as when created; deleted surveys are not imported
+    private static final Set<String> IMPORTABLE_STATUSES = Set.of(Survey.STATUS_DRAFT, Survey.STATUS_PUBLISHED, Survey.STATUS_EXPIRED);
+
+    private final UserRepository userRepository;
+    private final SurveyDefinitionValidator surveyDefinitionValidator;
+    private final SurveyImageService surveyImageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService validationExecutor;
+    private final int batchSize;
+    private final int maxRecords;
+    private final int maxRecordBytes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SurveyImportService(UserRepository userRepository,
+                               SurveyDefinitionValidator surveyDefinitionValidator,
+                               SurveyImageService surveyImageService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.survey-import.batch-size}") int batchSize,
+                               @Value("${app.survey-import.validation-threads}") int validationThreads,
+                               @Value("${app.survey-import.max-records}") int maxRecords) {
+        this.userRepository = userRepository;
+        this.surveyDefinitionValidator = surveyDefinitionValidator;
+        this.surveyImageService = surveyImageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRecords = Math.max(1, maxRecords);
+        this.validationExecutor = Executors.newFixedThreadPool(Math.max(1, validationThreads));
+        // Leave room for the record's own fields around the largest definition we accept
+        this.maxRecordBytes = (int) Math.min(Integer.MAX_VALUE - 8, surveyDefinitionValidator.getMaxBytes() + 64 * 1024);
+    }
+
+    public SurveyImportResultDTO importSurveys(String username, String fileName, InputStream upload) {
+        User owner = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        long started = System.currentTimeMillis();
+
+        List<SurveyImportRecordResultDTO> results = new ArrayList<>();
+        try {
+            BufferedInputStream in = new BufferedInputStream(upload);
+            RecordSink sink = new RecordSink(owner.getId(), results);
+            if (isZip(fileName, in)) {
+                readZip(in, sink);
+            } else {
+                readLines(in, "", sink);
+            }
+            sink.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int imported = (int) results.stream().filter(SurveyImportRecordResultDTO::isImported).count();
+        logger.info("User {} imported {} of {} surveys from {} in {} ms.", username, imported, results.size(),
+                fileName, System.currentTimeMillis() - started);
+        return new SurveyImportResultDTO(results.size(), imported, results.size() - imported, results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdownNow();
+    }
+
+    // --- Reading ---
+
+    private static boolean isZip(String fileName, BufferedInputStream in) throws IOException {
+        if (fileName != null && fileName.toLowerCase().endsWith(".zip")) {
+            return true;
+        }
+        in.mark(ZIP_MAGIC.length);
+        byte[] header = in.readNBytes(ZIP_MAGIC.length);
+        in.reset();
+        return Arrays.equals(header, ZIP_MAGIC);
+    }
+
+    private void readZip(InputStream in, RecordSink sink) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        ZipEntry entry;
+        while (!sink.isFull() && (entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            String lowerName = name.toLowerCase();
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (lowerName.endsWith(".ndjson") || lowerName.endsWith(".jsonl")) {
+                // readLines takes a byte at a time; buffered per entry, as the zip stream ends each entry itself
+                readLines(new BufferedInputStream(zip), name + " ", sink);
+            } else if (lowerName.endsWith(".json")) {
+                byte[] content = zip.readNBytes(maxRecordBytes + 1);
+                if (content.length > maxRecordBytes) {
+                    sink.reject(name, "Record is larger than " + maxRecordBytes + " bytes.");
+                } else {
+                    sink.accept(name, new String(content, StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a stream into lines without ever buffering more than one record; an oversized line is
+     * skipped up to its newline and reported instead of being read into memory.
+     */
+    private void readLines(InputStream in, String sourcePrefix, RecordSink sink) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean oversized = false;
+        int lineNumber = 1;
+        int b;
+        while (!sink.isFull()) {
+            b = in.read();
+            if (b == '\n' || b < 0) {
+                String source = sourcePrefix + "line " + lineNumber;
+                if (oversized) {
+                    sink.reject(source, "Record is larger than " + maxRecordBytes + " bytes.");
+                } else {
+                    String text = line.toString(StandardCharsets.UTF_8).trim();
+                    if (!text.isEmpty()) {
+                        sink.accept(source, text);
+                    }
+                }
+                line.reset();
+                oversized = false;
+                lineNumber++;
+                if (b < 0) {
+                    return;
+                }
+            } else if (!oversized) {
+                if (line.size() >= maxRecordBytes) {
+                    oversized = true;
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+    }
+
+    // --- Validation and persistence ---
+
+    private record PendingRecord(String source, String text, String error) {
+    }
+
+    private record ValidatedRecord(String source, String title, String description, String surveyMode,
+                                   String dataClassification, String status, String surveyJson, String error) {
+    }
+
+    /**
+     * Collects records into chunks of the batch size, then validates and stores each chunk while
+     * keeping the outcomes in upload order.
+     */
+    private final class RecordSink {
+        private final Long ownerId;
+        private final List<SurveyImportRecordResultDTO> results;
+        private final List<PendingRecord> pending = new ArrayList<>();
+        private int seen;
+
+        RecordSink(Long ownerId, List<SurveyImportRecordResultDTO> results) {
+            this.ownerId = ownerId;
+            this.results = results;
+        }
+
+        boolean isFull() {
+            return seen >= maxRecords;
+        }
+
+        void accept(String source, String text) {
+            seen++;
+            pending.add(new PendingRecord(source, text, null));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(String source, String error) {
+            seen++;
+            pending.add(new PendingRecord(source, null, error));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            if (isFull()) {
+                logger.warn("Survey import stopped after the maximum of {} records.", maxRecords);
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<CompletableFuture<ValidatedRecord>> validations = new ArrayList<>(pending.size());
+            for (PendingRecord record : pending) {
+                validations.add(CompletableFuture.supplyAsync(() -> validate(record), validationExecutor));
+            }
+            List<ValidatedRecord> chunk = validations.stream().map(CompletableFuture::join).toList();
+            pending.clear();
+            results.addAll(store(ownerId, chunk));
+        }
+    }
+
+    private ValidatedRecord validate(PendingRecord record) {
+        if (record.error() != null) {
+            return new ValidatedRecord(record.source(), null, null, null, null, null, null, record.error());
+        }
+        try {
+            JsonNode node = objectMapper.readTree(record.text());
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Record must be a JSON object.");
+            }
+            JsonNode definition = node.get("surveyJson");
+            if (definition == null || definition.isNull()) {
+                throw new IllegalArgumentException("Record has no surveyJson.");
+            }
+            String surveyJson = definition.isTextual() ? definition.asText() : objectMapper.writeValueAsString(definition);
+            surveyDefinitionValidator.validate(surveyJson);
+            surveyJson = SurveyJsonCanonicalizer.canonicalize(surveyJson);
+            // Runs on the validation pool too
+            surveyJson = surveyImageService.extractImages(surveyJson, text(node, "dataClassification"));
+            String title = text(node, "title");
+            String description = text(node, "description");
+            return new ValidatedRecord(record.source(),
+                    title != null && !title.isBlank() ? title : DEFAULT_TITLE,
+                    description != null ? description : DEFAULT_DESCRIPTION,
+                    text(node, "surveyMode"), text(node, "dataClassification"), status(text(node, "status")),
+                    surveyJson, null);
+        } catch (JsonProcessingException e) {
+            return new ValidatedRecord(record.source(), null, null, null, null, null, null,
+                    "Malformed JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ValidatedRecord(record.source(), null, null, null, null, null, null, e.getMessage());
+        }
+    }
+
+    private static String status(String status) {
+        if (status == null || status.isBlank()) {
+            return Survey.STATUS_DRAFT;
+        }
+        String normalized = status.trim().toLowerCase(Locale.ROOT);
+        if (!IMPORTABLE_STATUSES.contains(normalized)) {
+            throw new IllegalArgumentException("Unsupported status: '" + status + "'. Use one of " + IMPORTABLE_STATUSES + ".");
+        }
+        return normalized;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Inserts the valid records of a chunk in one batched transaction. If that transaction fails,
+     * the records are retried one by one so the failure is pinned on the record that caused it.
+     */
+    private List<SurveyImportRecordResultDTO> store(Long ownerId, List<ValidatedRecord> chunk) {
+        List<ValidatedRecord> valid = chunk.stream().filter(r -> r.error() == null).toList();
+        List<Long> ids;
+        try {
+            ids = insert(ownerId, valid);
+        } catch (RuntimeException e) {
+            logger.warn("Batched survey import of {} records failed, retrying individually: {}", valid.size(), e.getMessage());
+            ids = new ArrayList<>(valid.size());
+            for (ValidatedRecord record : valid) {
+                try {
+                    ids.add(insert(ownerId, List.of(record)).get(0));
+                } catch (RuntimeException single) {
+                    ids.add(null);
+                }
+            }
+        }
+
+        List<SurveyImportRecordResultDTO> results = new ArrayList<>(chunk.size());
+        int next = 0;
+        for (ValidatedRecord record : chunk) {
+            if (record.error() != null) {
+                results.add(new SurveyImportRecordResultDTO(record.source(), false, null, record.error()));
+            } else {
+                Long id = ids.get(next++);
+                results.add(id != null
+                        ? new SurveyImportRecordResultDTO(record.source(), true, id, null)
+                        : new SurveyImportRecordResultDTO(record.source(), false, null, "Survey could not be saved."));
+            }
+        }
+        return results;
+    }
+
+    private List<Long> insert(Long ownerId, List<ValidatedRecord> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                User owner = entityManager.getReference(User.class, ownerId);
+                List<Survey> surveys = new ArrayList<>(records.size());
+                for (ValidatedRecord record : records) {
+                    Survey survey = new Survey(record.surveyMode(), owner, record.dataClassification(), record.status(), record.surveyJson());
+                    survey.setTitle(record.title());
+                    survey.setDescription(record.description());
+                    SurveyDefinitionMetrics.of(record.surveyJson()).applyTo(survey);
+                    entityManager.persist(survey);
+                    surveys.add(survey);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return surveys.stream().map(Survey::getId).toList();
+            });
+        } catch (RuntimeException e) {
+            // Do not let half-persisted entities from the rolled back chunk linger in an open session
+            entityManager.clear();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package mcc.survey.creator.service;
+
+import jakarta.annotation.PreDestroy;
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.exception.SurveyArchiveUnavailableException;
+import mcc.survey.creator.repository.SurveyDefinitionView;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.util.SurveyDefinitionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the derived definition metrics of surveys saved before the metrics columns existed.
+ * One thread walks the ids of rows without metrics in keyset order and hands out chunks to a
+ * pool of workers, each of which parses its chunk's definitions and fills the columns in its own
+ * transaction. New and edited surveys get their metrics when saved, so a completed backfill
+ * never has to run again.
+ */
+@Service
+public class SurveyMetricsBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyMetricsBackfillService.class);
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final int chunkSize;
+
+    private final BackgroundJob job = new BackgroundJob(logger, "Survey metrics backfill",
+            "scannedSurveys", "filledSurveys", "skippedSurveys");
+    private final AtomicInteger scanned = job.counter("scannedSurveys");
+    private final AtomicInteger filled = job.counter("filledSurveys");
+    // Saved (and so computed) meanwhile, or archived definition unreadable
+    private final AtomicInteger skipped = job.counter("skippedSurveys");
+
+    public SurveyMetricsBackfillService(SurveyRepository surveyRepository,
+                                        SurveyArchiveService surveyArchiveService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.survey-metrics.backfill-threads}") int threads,
+                                        @Value("${app.survey-metrics.backfill-chunk-size}") int chunkSize) {
+        this.surveyRepository = surveyRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Starts the backfill in the background.
+     *
+     * @return false if one is already running.
+     */
+    public boolean start() {
+        return job.start(() -> {
+            // A short queue keeps the scanner just ahead of the workers; when it is full the scanner
+            // fills a chunk itself instead of reading further ahead
+            ThreadPoolExecutor pool = job.track(new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy()));
+            scan(pool);
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void scan(ExecutorService pool) {
+        long afterId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> ids = surveyRepository.findIdsWithoutMetrics(afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            pool.execute(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> fillChunk(ids));
+                } catch (RuntimeException e) {
+                    logger.warn("Survey metrics backfill failed for ids {}..{}: {}", ids.get(0), ids.get(ids.size() - 1), e.getMessage());
+                    skipped.addAndGet(ids.size());
+                }
+            });
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void fillChunk(List<Long> ids) {
+        for (SurveyDefinitionView view : surveyRepository.findDefinitionViewsByIdIn(ids)) {
+            scanned.incrementAndGet();
+            String definition;
+            try {
+                definition = surveyArchiveService.resolveDefinition(view.getId(), view.getArchiveSegment(), view.getSurveyJson());
+            } catch (SurveyArchiveUnavailableException e) {
+                logger.warn("Survey ID {} has an unreadable archived definition; metrics left empty.", view.getId());
+                skipped.incrementAndGet();
+                continue;
+            }
+            SurveyDefinitionMetrics metrics = SurveyDefinitionMetrics.of(definition);
+            if (surveyRepository.fillMetrics(view.getId(), metrics.pageCount(), metrics.questionCount(),
+                    metrics.definitionBytes(), metrics.hasLogic()) == 1) {
+                filled.incrementAndGet();
+            } else {
+                skipped.incrementAndGet();
+            }
+        }
+    }
+
+    public BackgroundJobStatusDTO getStatus() {
+        return job.getStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        job.shutdown();
+    }
+}
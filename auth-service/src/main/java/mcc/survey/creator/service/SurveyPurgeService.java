@@ -0,0 +1,130 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.repository.SurveyDefinitionRepository;
+import mcc.survey.creator.repository.SurveyQuestionRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hard-deletes surveys that have been soft-deleted for longer than the retention period. Rows are
+ * removed in bounded chunks, each in its own short transaction, with a pause between chunks so
+ * the purge never holds locks for long or competes with request traffic.
+ */
+@Service
+public class SurveyPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyPurgeService.class);
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyQuestionRepository surveyQuestionRepository;
+    private final SurveyDefinitionRepository surveyDefinitionRepository;
+    private final SurveyService surveyService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final int maxChunksPerRun;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public SurveyPurgeService(SurveyRepository surveyRepository,
+                              SurveyQuestionRepository surveyQuestionRepository,
+                              SurveyDefinitionRepository surveyDefinitionRepository,
+                              SurveyService surveyService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.survey-purge.retention-days}") int retentionDays,
+                              @Value("${app.survey-purge.chunk-size}") int chunkSize,
+                              @Value("${app.survey-purge.pause-ms}") long pauseMs,
+                              @Value("${app.survey-purge.max-chunks-per-run}") int maxChunksPerRun) {
+        this.surveyRepository = surveyRepository;
+        this.surveyQuestionRepository = surveyQuestionRepository;
+        this.surveyDefinitionRepository = surveyDefinitionRepository;
+        this.surveyService = surveyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofDays(Math.max(0, retentionDays));
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.maxChunksPerRun = Math.max(1, maxChunksPerRun);
+    }
+
+    /**
+     * Purges up to {@code max-chunks-per-run} chunks of expired soft-deleted surveys; whatever is
+     * left is picked up by the next run.
+     *
+     * @return The number of surveys hard-deleted.
+     */
+    public int purgeExpired() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retention.toMillis());
+            int purged = 0;
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                List<Long> ids = surveyRepository.findPurgeableIds(cutoff, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                purged += transactionTemplate.execute(status -> purgeChunk(ids, cutoff));
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+            if (purged > 0) {
+                logger.info("Purged {} surveys soft-deleted before {}.", purged, cutoff);
+            }
+            return purged;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // The ids were read outside the transaction, so a survey may have been restored since; only
+    // those still deleted, and locked against a restore from here on, are touched
+    int purgeChunk(List<Long> candidateIds, Timestamp cutoff) {
+        List<Long> ids = surveyRepository.lockPurgeableIdsIn(candidateIds, cutoff);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Purged clones stop referencing anything; live clones of purged surveys get their own copy
+        surveyRepository.clearDefinitionSources(ids);
+        for (Long sourceId : surveyRepository.findIdsWithClonesIn(ids)) {
+            surveyService.releaseSharedDefinition(sourceId);
+        }
+        surveyRepository.deleteSharesBySurveyIdIn(ids);
+        surveyQuestionRepository.deleteBySurveyIdIn(ids);
+        // Definition rows go after the survey rows that reference them
+        List<Long> definitionIds = surveyRepository.findDefinitionIdsByIdIn(ids);
+        int purged = surveyRepository.purgeByIdIn(ids);
+        if (!definitionIds.isEmpty()) {
+            surveyDefinitionRepository.deleteUnreferencedByIdIn(definitionIds);
+        }
+        return purged;
+    }
+
+    private boolean pause() {
+        if (pauseMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
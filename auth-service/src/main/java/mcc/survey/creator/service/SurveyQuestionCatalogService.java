@@ -0,0 +1,215 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import mcc.survey.creator.dto.QuestionTypeCountDTO;
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.SurveyArchiveUnavailableException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.SurveyQuestion;
+import mcc.survey.creator.repository.SurveyQuestionRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.SurveyTextView;
+import mcc.survey.creator.util.SurveyQuestionExtractor;
+import mcc.survey.creator.util.SurveyQuestionExtractor.ExtractedQuestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maintains the {@code survey_question} catalog: re-extracts a survey's questions after each
+ * committed save, drops them on delete, and backfills existing surveys in parallel chunks.
+ */
+@Service
+public class SurveyQuestionCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyQuestionCatalogService.class);
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyQuestionRepository surveyQuestionRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTemplate;
+    private final int backfillThreads;
+    private final int backfillChunkSize;
+
+    private final BackgroundJob backfill = new BackgroundJob(logger, "Question catalog backfill",
+            "totalSurveys", "processedSurveys", "failedSurveys");
+    private final AtomicInteger backfillTotal = backfill.counter("totalSurveys");
+    private final AtomicInteger backfillProcessed = backfill.counter("processedSurveys");
+    private final AtomicInteger backfillFailed = backfill.counter("failedSurveys");
+
+    public SurveyQuestionCatalogService(SurveyRepository surveyRepository,
+                                        SurveyQuestionRepository surveyQuestionRepository,
+                                        SurveyArchiveService surveyArchiveService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.question-catalog.backfill-threads}") int backfillThreads,
+                                        @Value("${app.question-catalog.backfill-chunk-size}") int backfillChunkSize) {
+        this.surveyRepository = surveyRepository;
+        this.surveyQuestionRepository = surveyQuestionRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.backfillThreads = Math.max(1, backfillThreads);
+        this.backfillChunkSize = Math.max(1, backfillChunkSize);
+    }
+
+    // After commit the writer's transaction is finished, so the catalog is written in a new one.
+    // A failure here must not surface to the caller whose save has already committed.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyChanged(SurveyChangedEvent event) {
+        Long surveyId = event.getSurveyId();
+        if (surveyId == null) {
+            return;
+        }
+        try {
+            requiresNewTemplate.executeWithoutResult(status -> applyChange(event));
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh the question catalog of survey {}: {}", surveyId, e.getMessage(), e);
+            try {
+                requiresNewTemplate.executeWithoutResult(status -> surveyQuestionRepository.deleteBySurveyId(surveyId));
+            } catch (RuntimeException ignored) {
+                // Stale until the next save or backfill
+            }
+        }
+    }
+
+    private void applyChange(SurveyChangedEvent event) {
+        if (event.getType() == SurveyChangedEvent.Type.DELETED) {
+            surveyQuestionRepository.deleteBySurveyId(event.getSurveyId());
+        } else if (event.getSurvey() != null) {
+            Survey survey = event.getSurvey();
+            replaceQuestions(survey.getId(), survey.getArchiveSegment(), survey.getSurveyJson());
+        } else {
+            surveyRepository.findTextViewById(event.getSurveyId()).ifPresentOrElse(
+                    view -> replaceQuestions(view.getId(), view.getArchiveSegment(), view.getSurveyJson()),
+                    () -> surveyQuestionRepository.deleteBySurveyId(event.getSurveyId()));
+        }
+    }
+
+    /**
+     * Replaces the catalog rows of one survey from its inline, shared or archived definition. If an
+     * archived definition cannot be read, the rows are left as they are. Must run inside a transaction.
+     */
+    void replaceQuestions(Long surveyId, Integer archiveSegment, String surveyJson) {
+        String definition;
+        try {
+            definition = surveyArchiveService.resolveDefinition(surveyId, archiveSegment, surveyJson);
+        } catch (SurveyArchiveUnavailableException e) {
+            logger.warn("Survey ID {} catalog entries not refreshed: {}", surveyId, e.getMessage());
+            return;
+        }
+        replaceQuestions(surveyId, definition);
+    }
+
+    private void replaceQuestions(Long surveyId, String surveyJson) {
+        surveyQuestionRepository.deleteBySurveyId(surveyId);
+        List<ExtractedQuestion> extracted;
+        try {
+            extracted = SurveyQuestionExtractor.extract(surveyJson);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Survey ID {} has an unparseable definition; catalog entries removed. {}", surveyId, e.getMessage());
+            return;
+        }
+        List<SurveyQuestion> rows = new ArrayList<>(extracted.size());
+        for (int i = 0; i < extracted.size(); i++) {
+            ExtractedQuestion question = extracted.get(i);
+            rows.add(new SurveyQuestion(surveyId, question.getPageIndex(), question.getPageName(), i,
+                    question.getName(), question.getType(), SurveyQuestionExtractor.titleHash(question.getTitle())));
+        }
+        surveyQuestionRepository.saveAll(rows);
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuestionTypeCountDTO> countQuestionsByType() {
+        return surveyQuestionRepository.countByType();
+    }
+
+    @Transactional(readOnly = true)
+    public List<SurveySummaryDTO> findSurveysUsingType(String type, int page, int size) {
+        List<Long> surveyIds = surveyQuestionRepository.findSurveyIdsByType(type, PageRequest.of(page, clampSize(size)));
+        if (surveyIds.isEmpty()) {
+            return List.of();
+        }
+        return surveyRepository.findSummariesByIdIn(surveyIds);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SurveyQuestionDTO> findQuestions(String type, String name, String titleHash, int page, int size) {
+        return surveyQuestionRepository.findQuestions(type, name, titleHash, PageRequest.of(page, clampSize(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SurveyQuestionDTO> getQuestionsForSurvey(Long surveyId) {
+        return surveyQuestionRepository.findBySurveyIdOrdered(surveyId);
+    }
+
+    /**
+     * Starts re-extracting the catalog for every survey in the background. Surveys are split into
+     * chunks that run concurrently, each chunk in its own transaction, so one bad chunk does not
+     * roll back the others.
+     *
+     * @return false if a backfill is already running.
+     */
+    public boolean startBackfill() {
+        return backfill.start(() -> {
+            List<Long> surveyIds = surveyRepository.findAllIds();
+            backfillTotal.set(surveyIds.size());
+            logger.info("Starting question catalog backfill for {} surveys with {} threads.", surveyIds.size(), backfillThreads);
+
+            ExecutorService executor = backfill.track(Executors.newFixedThreadPool(backfillThreads));
+            for (int from = 0; from < surveyIds.size(); from += backfillChunkSize) {
+                List<Long> chunk = surveyIds.subList(from, Math.min(from + backfillChunkSize, surveyIds.size()));
+                executor.execute(() -> backfillChunk(chunk));
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void backfillChunk(List<Long> surveyIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (SurveyTextView view : surveyRepository.findTextViewsByIdIn(surveyIds)) {
+                    replaceQuestions(view.getId(), view.getArchiveSegment(), view.getSurveyJson());
+                }
+            });
+            backfillProcessed.addAndGet(surveyIds.size());
+        } catch (RuntimeException e) {
+            backfillFailed.addAndGet(surveyIds.size());
+            logger.error("Question catalog backfill failed for surveys {}..{}: {}",
+                    surveyIds.get(0), surveyIds.get(surveyIds.size() - 1), e.getMessage(), e);
+        }
+    }
+
+    public BackgroundJobStatusDTO getBackfillStatus() {
+        return backfill.getStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfill.shutdown();
+    }
+
+    private static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
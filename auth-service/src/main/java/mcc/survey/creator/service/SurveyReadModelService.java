@@ -0,0 +1,217 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.dto.SurveyDTO;
+import mcc.survey.creator.dto.UserDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.event.UserChangedEvent;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps every live survey's {@link SurveyDTO} serialized in {@code survey_read_model}, so reading
+ * a survey is one keyed fetch of bytes instead of loading the survey, its definition, its owner and
+ * every share with their roles, and parsing and writing the definition again. A row is rendered
+ * again once a change to the survey, its shares or a user it shows is committed. Each rendering
+ * locks the survey row and reads what is committed under that lock, so renderings of one survey
+ * are applied in order and the last one reflects the last change.
+ * <p>
+ * Rendering happens after the commit, so a row must not outlive a crash in between. Each row
+ * records the survey's {@code updated_at} it was rendered from and is only served while that still
+ * matches; every write to a survey or its shares moves {@code updated_at}. Changes to users and
+ * roles do not, so they delete the rows they affect within the writer's transaction. A missing or
+ * outdated row is rendered on read, and {@link #rebuild()} renders them all for repair.
+ */
+@Service
+public class SurveyReadModelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyReadModelService.class);
+
+    private static final String LOCK_SURVEY = "SELECT updated_at FROM survey WHERE id = ? FOR UPDATE";
+    // Joined so a row of a survey deleted or changed since it was written is never served
+    private static final String SELECT_PAYLOAD = "SELECT m.payload FROM survey_read_model m JOIN survey s ON s.id = m.survey_id " +
+            "WHERE m.survey_id = ? AND (s.status IS NULL OR s.status <> 'deleted') " +
+            "AND (m.source_updated_at = s.updated_at OR (m.source_updated_at IS NULL AND s.updated_at IS NULL))";
+    private static final String UPDATE_PAYLOAD = "UPDATE survey_read_model SET payload = ?, source_updated_at = ?, refreshed_at = ? " +
+            "WHERE survey_id = ?";
+    private static final String INSERT_PAYLOAD = "INSERT INTO survey_read_model (survey_id, payload, source_updated_at, refreshed_at) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String DELETE_PAYLOAD = "DELETE FROM survey_read_model WHERE survey_id = ?";
+    private static final String DELETE_PAYLOADS_OF_USER = "DELETE FROM survey_read_model WHERE survey_id IN " +
+            "(SELECT id FROM survey WHERE user_id = ?) OR survey_id IN (SELECT survey_id FROM survey_shared_users WHERE user_id = ?)";
+    private static final String DELETE_ORPHANS = "DELETE FROM survey_read_model WHERE survey_id NOT IN " +
+            "(SELECT id FROM survey WHERE status IS NULL OR status <> 'deleted')";
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SurveyReadModelService(SurveyRepository surveyRepository,
+                                  SurveyArchiveService surveyArchiveService,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.surveyRepository = surveyRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Change listeners run after the writer's commit, when its transaction can no longer be joined
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * The survey as its serialized {@link SurveyDTO}, rendered now if it has no current row.
+     *
+     * @return Empty if the survey does not exist or is deleted.
+     */
+    public Optional<byte[]> getPayload(Long surveyId) {
+        List<byte[]> rows = jdbcTemplate.query(SELECT_PAYLOAD, (rs, rowNum) -> rs.getBytes(1), surveyId);
+        return rows.isEmpty() ? refresh(surveyId) : Optional.of(rows.get(0));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyChanged(SurveyChangedEvent event) {
+        if (event.getSurveyId() != null) {
+            refreshQuietly(event.getSurveyId());
+        }
+    }
+
+    // Within the writer's transaction: the rows go if and only if the change commits
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserChanging(UserChangedEvent event) {
+        jdbcTemplate.update(DELETE_PAYLOADS_OF_USER, event.getUserId(), event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Set<Long> surveyIds = new LinkedHashSet<>(surveyRepository.findIdsOwnedByUser(event.getUserId()));
+        surveyIds.addAll(surveyRepository.findIdsSharedWithUser(event.getUserId()));
+        surveyIds.forEach(this::refreshQuietly);
+        logger.debug("Rendered {} surveys again after user {} changed.", surveyIds.size(), event.getUserId());
+    }
+
+    /**
+     * Renders the survey's row again from the survey tables, or removes it if the survey is gone.
+     *
+     * @return The new payload, or empty if the survey does not exist or is deleted.
+     */
+    public Optional<byte[]> refresh(Long surveyId) {
+        return transactionTemplate.execute(status -> {
+            List<Timestamp> locked = jdbcTemplate.queryForList(LOCK_SURVEY, Timestamp.class, surveyId);
+            Survey survey = !locked.isEmpty() ? surveyRepository.findById(surveyId).orElse(null) : null;
+            if (survey == null || Survey.STATUS_DELETED.equals(survey.getStatus())) {
+                jdbcTemplate.update(DELETE_PAYLOAD, surveyId);
+                return Optional.empty();
+            }
+            byte[] payload;
+            try {
+                payload = objectMapper.writeValueAsBytes(toDTO(survey));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            // Nobody else writes the row while the survey is locked
+            Timestamp sourceUpdatedAt = locked.get(0);
+            if (jdbcTemplate.update(UPDATE_PAYLOAD, payload, sourceUpdatedAt, now, surveyId) == 0) {
+                jdbcTemplate.update(INSERT_PAYLOAD, surveyId, payload, sourceUpdatedAt, now);
+            }
+            return Optional.of(payload);
+        });
+    }
+
+    /**
+     * Drops the rows of surveys that are gone and renders every live survey again.
+     *
+     * @return The number of surveys rendered.
+     */
+    public int rebuild() {
+        int orphans = jdbcTemplate.update(DELETE_ORPHANS);
+        int rendered = 0;
+        for (Long surveyId : surveyRepository.findAllIds()) {
+            if (refreshQuietly(surveyId)) {
+                rendered++;
+            }
+        }
+        logger.info("Survey read model rebuilt: {} surveys rendered, {} orphaned rows dropped.", rendered, orphans);
+        return rendered;
+    }
+
+    /**
+     * Builds the DTO from the entity. Call within a transaction, as the owner, shares and
+     * definition are loaded lazily.
+     */
+    public SurveyDTO toDTO(Survey survey) {
+        SurveyDTO dto = new SurveyDTO();
+        dto.setId(survey.getId());
+        dto.setTitle(survey.getTitle());
+        dto.setDescription(survey.getDescription());
+        String definition = surveyArchiveService.resolveDefinition(survey);
+        if (definition != null) {
+            try {
+                dto.setSurveyJson(objectMapper.readTree(definition));
+            } catch (JsonProcessingException e) {
+                logger.warn("Survey {} has a definition that is not valid JSON: {}", survey.getId(), e.getOriginalMessage());
+            }
+        }
+        dto.setCreatedAt(survey.getCreatedAt());
+        dto.setUpdatedAt(survey.getUpdatedAt());
+        dto.setSurveyMode(survey.getSurveyMode());
+        dto.setDataClassification(survey.getDataClassification());
+        dto.setStatus(survey.getStatus());
+        dto.setTemplate(survey.isTemplate());
+        if (survey.getOwner() != null) {
+            dto.setOwner(toUserDTO(survey.getOwner()));
+        }
+        if (survey.getSharedWithUsers() != null) {
+            dto.setSharedWithUsers(survey.getSharedWithUsers().stream()
+                    .map(SurveyReadModelService::toUserDTO)
+                    .collect(Collectors.toSet()));
+        }
+        return dto;
+    }
+
+    private static UserDTO toUserDTO(User user) {
+        Set<String> roleNames = user.getRoles().stream()
+                .map(role -> role.getName())
+                .collect(Collectors.toSet());
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getRank(), user.getPost(),
+                user.getEnglishName(), user.getChineseName(), roleNames, user.isActive());
+    }
+
+    // A failed rendering must not fail the change that caused it; the row is dropped and rendered on read
+    private boolean refreshQuietly(Long surveyId) {
+        try {
+            return refresh(surveyId).isPresent();
+        } catch (RuntimeException e) {
+            logger.error("Failed to render the read model of survey {}: {}", surveyId, e.getMessage(), e);
+            try {
+                jdbcTemplate.update(DELETE_PAYLOAD, surveyId);
+            } catch (RuntimeException ignored) {
+                // Served stale until the next change or rebuild
+            }
+            return false;
+        }
+    }
+}
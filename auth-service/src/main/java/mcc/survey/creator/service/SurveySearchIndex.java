@@ -0,0 +1,184 @@
+package mcc.survey.creator.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from tokens to survey ids with term frequencies. A forward map of each
+ * survey's terms makes re-indexing and removal proportional to that survey alone.
+ * Reads run concurrently; writes take an exclusive lock and are only done for single surveys.
+ */
+public class SurveySearchIndex {
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Replaces whatever was indexed for the survey with the given tokens.
+     */
+    public void index(Long surveyId, Collection<String> tokens) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String token : tokens) {
+            termFrequencies.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(surveyId);
+            putUnlocked(surveyId, termFrequencies);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long surveyId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(surveyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds surveys containing every query token, restricted to the given candidate ids.
+     *
+     * @return Matching survey ids mapped to a score (summed term frequency of the query tokens).
+     */
+    public Map<Long, Integer> search(List<String> queryTokens, Collection<Long> visibleIds) {
+        Map<Long, Integer> scores = new HashMap<>();
+        if (queryTokens.isEmpty() || visibleIds.isEmpty()) {
+            return scores;
+        }
+        lock.readLock().lock();
+        try {
+            // Intersect starting from the rarest term to keep the working set small
+            List<Map<Long, Integer>> lists = queryTokens.stream().distinct()
+                    .map(token -> postings.getOrDefault(token, Map.of()))
+                    .sorted((a, b) -> Integer.compare(a.size(), b.size()))
+                    .toList();
+            Map<Long, Integer> rarest = lists.get(0);
+            if (rarest.size() < visibleIds.size()) {
+                rarest.forEach((id, tf) -> {
+                    if (visibleIds.contains(id)) {
+                        scores.put(id, tf);
+                    }
+                });
+            } else {
+                for (Long id : visibleIds) {
+                    Integer tf = rarest.get(id);
+                    if (tf != null) {
+                        scores.put(id, tf);
+                    }
+                }
+            }
+            for (int i = 1; i < lists.size() && !scores.isEmpty(); i++) {
+                Map<Long, Integer> postingList = lists.get(i);
+                scores.entrySet().removeIf(entry -> {
+                    Integer tf = postingList.get(entry.getKey());
+                    if (tf == null) {
+                        return true;
+                    }
+                    entry.setValue(entry.getValue() + tf);
+                    return false;
+                });
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long surveyId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(surveyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> documentIds() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the forward map; postings are rebuilt from it on load.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(documents.size());
+            for (Map.Entry<Long, Map<String, Integer>> document : documents.entrySet()) {
+                out.writeLong(document.getKey());
+                out.writeInt(document.getValue().size());
+                for (Map.Entry<String, Integer> term : document.getValue().entrySet()) {
+                    out.writeUTF(term.getKey());
+                    out.writeInt(term.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static SurveySearchIndex readFrom(DataInputStream in) throws IOException {
+        SurveySearchIndex index = new SurveySearchIndex();
+        int documentCount = in.readInt();
+        for (int i = 0; i < documentCount; i++) {
+            long surveyId = in.readLong();
+            int termCount = in.readInt();
+            Map<String, Integer> termFrequencies = new HashMap<>(termCount * 2);
+            for (int j = 0; j < termCount; j++) {
+                termFrequencies.put(in.readUTF(), in.readInt());
+            }
+            index.putUnlocked(surveyId, termFrequencies); // Not yet published to other threads
+        }
+        return index;
+    }
+
+    private void putUnlocked(Long surveyId, Map<String, Integer> termFrequencies) {
+        if (termFrequencies.isEmpty()) {
+            return;
+        }
+        documents.put(surveyId, termFrequencies);
+        termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(surveyId, tf));
+    }
+
+    private void removeUnlocked(Long surveyId) {
+        Map<String, Integer> previous = documents.remove(surveyId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(surveyId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.SurveyArchiveUnavailableException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.SurveyTextView;
+import mcc.survey.creator.util.SurveyTextExtractor;
+import mcc.survey.creator.util.SurveyTextTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-text search over survey titles, descriptions and SurveyJS question text.
+ * The index lives in memory, follows committed {@link SurveyChangedEvent}s, and is persisted as a
+ * snapshot so a restart only re-indexes surveys changed since the snapshot was taken.
+ */
+@Service
+public class SurveySearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveySearchService.class);
+    private static final int SNAPSHOT_MAGIC = 0x53535849; // "SSXI"
+    private static final int SNAPSHOT_VERSION = 2; // 2: CJK unigrams are indexed
+    private static final int REBUILD_BATCH_SIZE = 200;
+    // Surveys saved while a snapshot is being written may or may not be in it; re-check a window around it
+    private static final long SNAPSHOT_SAFETY_MARGIN_MS = 60_000;
+    public static final int MAX_RESULTS = 100;
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyArchiveService surveyArchiveService;
+    private final Path snapshotPath;
+
+    private volatile SurveySearchIndex index = new SurveySearchIndex();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public SurveySearchService(SurveyRepository surveyRepository,
+                               SurveyArchiveService surveyArchiveService,
+                               @Value("${app.search.snapshot-path}") String snapshotPath) {
+        this.surveyRepository = surveyRepository;
+        this.surveyArchiveService = surveyArchiveService;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!loadSnapshot()) {
+            int count = rebuild();
+            logger.info("No usable search index snapshot; indexed {} surveys from the database.", count);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyChanged(SurveyChangedEvent event) {
+        if (event.getSurveyId() == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            touchedDuringRebuild.add(event.getSurveyId());
+        }
+        if (event.getType() == SurveyChangedEvent.Type.DELETED) {
+            index.remove(event.getSurveyId());
+        } else if (event.getSurvey() != null) {
+            Survey survey = event.getSurvey();
+            indexText(index, survey.getId(), survey.getTitle(), survey.getDescription(), survey.getArchiveSegment(),
+                    survey.getSurveyJson());
+        } else {
+            reindexFromDatabase(index, event.getSurveyId());
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Searches the surveys the user owns or has been shared, best matches first.
+     */
+    public List<SurveySummaryDTO> search(String username, String query, int limit) {
+        List<String> queryTokens = SurveyTextTokenizer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> visibleIds = new HashSet<>(surveyRepository.findIdsOwnedBy(username));
+        visibleIds.addAll(surveyRepository.findIdsSharedWith(username));
+
+        Map<Long, Integer> scores = index.search(queryTokens, visibleIds);
+        List<Long> topIds = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.max(1, Math.min(limit, MAX_RESULTS)))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (topIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, SurveySummaryDTO> summaries = surveyRepository.findSummariesByIdIn(topIds).stream()
+                .collect(Collectors.toMap(SurveySummaryDTO::getId, Function.identity()));
+        return topIds.stream().map(summaries::get).filter(s -> s != null).toList();
+    }
+
+    /**
+     * Re-indexes every survey into a fresh index and swaps it in. Changes committed while the
+     * rebuild runs are re-applied afterwards so none are lost.
+     *
+     * @return The number of surveys indexed.
+     */
+    public synchronized int rebuild() {
+        rebuilding.set(true);
+        touchedDuringRebuild.clear();
+        try {
+            SurveySearchIndex fresh = new SurveySearchIndex();
+            long afterId = 0L;
+            List<SurveyTextView> batch;
+            do {
+                batch = surveyRepository.findTextViewsAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (SurveyTextView view : batch) {
+                    indexText(fresh, view.getId(), view.getTitle(), view.getDescription(), view.getArchiveSegment(),
+                            view.getSurveyJson());
+                    afterId = view.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            index = fresh;
+            for (Long surveyId : Set.copyOf(touchedDuringRebuild)) {
+                reindexFromDatabase(fresh, surveyId);
+            }
+            dirty.set(true);
+            logger.info("Rebuilt survey search index with {} surveys.", fresh.size());
+            return fresh.size();
+        } finally {
+            rebuilding.set(false);
+            touchedDuringRebuild.clear();
+        }
+    }
+
+    /**
+     * Writes the index to the snapshot file if it changed since the last write. The file is written
+     * to a temporary sibling and moved into place, so a crash never leaves a truncated snapshot.
+     */
+    public synchronized void writeSnapshot() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        long takenAt = System.currentTimeMillis();
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(takenAt);
+                index.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote survey search index snapshot to {}.", snapshotPath);
+        } catch (IOException e) {
+            dirty.set(true); // Try again next time
+            logger.error("Failed to write survey search index snapshot to {}: {}", snapshotPath, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    public int indexedSurveyCount() {
+        return index.size();
+    }
+
+    private boolean loadSnapshot() {
+        if (!Files.isReadable(snapshotPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                logger.warn("Ignoring survey search index snapshot {} with unknown format.", snapshotPath);
+                return false;
+            }
+            long takenAt = in.readLong();
+            SurveySearchIndex loaded = SurveySearchIndex.readFrom(in);
+
+            // Catch up: drop surveys deleted since the snapshot, re-index those changed since
+            Set<Long> existing = new HashSet<>(surveyRepository.findAllIds());
+            loaded.documentIds().stream().filter(id -> !existing.contains(id)).forEach(loaded::remove);
+            List<Long> changed = surveyRepository.findIdsUpdatedSince(new Timestamp(takenAt - SNAPSHOT_SAFETY_MARGIN_MS));
+            changed.forEach(id -> reindexFromDatabase(loaded, id));
+
+            index = loaded;
+            dirty.set(!changed.isEmpty());
+            logger.info("Loaded survey search index snapshot with {} surveys; re-indexed {} changed since.",
+                    loaded.size(), changed.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not load survey search index snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+    }
+
+    private void reindexFromDatabase(SurveySearchIndex target, Long surveyId) {
+        surveyRepository.findTextViewById(surveyId).ifPresentOrElse(
+                view -> indexText(target, view.getId(), view.getTitle(), view.getDescription(), view.getArchiveSegment(),
+                        view.getSurveyJson()),
+                () -> target.remove(surveyId));
+    }
+
+    // An archived stub is indexed with its archived definition; if that cannot be read, the
+    // survey's entry is left as it is rather than indexed without its question text
+    private void indexText(SurveySearchIndex target, Long surveyId, String title, String description,
+                           Integer archiveSegment, String surveyJson) {
+        String definition;
+        try {
+            definition = surveyArchiveService.resolveDefinition(surveyId, archiveSegment, surveyJson);
+        } catch (SurveyArchiveUnavailableException e) {
+            logger.warn("Survey ID {} not re-indexed: {}", surveyId, e.getMessage());
+            return;
+        }
+        String text = SurveyTextExtractor.extract(title, description, definition);
+        target.index(surveyId, SurveyTextTokenizer.tokenizeForIndex(text));
+    }
+}
@@ -21,7 +21,8 @@ public class SurveySecurityService {
     private UserRepository userRepository;
 
     /**
-     * Checks if the authenticated user is the owner of the survey.
+     * Checks if the authenticated user is the owner of the survey. Soft-deleted surveys have no owner
+     * here; see {@link #isOwnerOfDeleted}.
      */
     public boolean isOwner(Authentication authentication, Long surveyId) {
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -34,7 +35,7 @@ public class SurveySecurityService {
         }
         User currentUser = userOptional.get();
 
-        Optional<Survey> surveyOptional = surveyRepository.findById(surveyId);
+        Optional<Survey> surveyOptional = surveyRepository.findLiveById(surveyId);
         if (surveyOptional.isEmpty()) {
             return false; // Or throw an exception, or handle as per requirements
         }
@@ -57,7 +58,7 @@ public class SurveySecurityService {
         }
         User currentUser = userOptional.get();
 
-        Optional<Survey> surveyOptional = surveyRepository.findById(surveyId);
+        Optional<Survey> surveyOptional = surveyRepository.findLiveById(surveyId);
         if (surveyOptional.isEmpty()) {
             return false;
         }
@@ -72,4 +73,35 @@ public class SurveySecurityService {
         // Assuming Survey.getSharedWithUsers() returns Set<User>
         return survey.getSharedWithUsers().stream().anyMatch(sharedUser -> sharedUser.getId().equals(currentUser.getId()));
     }
+
+    /**
+     * Checks if the survey is in the authenticated user's trash, for restoring it.
+     */
+    public boolean isOwnerOfDeleted(Authentication authentication, Long surveyId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return surveyRepository.isDeletedAndOwnedBy(surveyId, authentication.getName());
+    }
+
+    /**
+     * Checks if the authenticated user may clone the survey: they own it, it is shared with them,
+     * or it is a template.
+     */
+    public boolean canClone(Authentication authentication, Long surveyId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return surveyRepository.isCloneableBy(surveyId, authentication.getName());
+    }
+
+    /**
+     * Same rule as {@link #isOwnerOrSharedUser} answered by one query, without loading the survey.
+     */
+    public boolean canView(Authentication authentication, Long surveyId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return surveyRepository.isVisibleTo(surveyId, authentication.getName());
+    }
 }
@@ -1,29 +1,66 @@
 package mcc.survey.creator.service;
 
+import mcc.survey.creator.dto.SurveyListFilter;
+import mcc.survey.creator.dto.SurveyPageDTO;
+import mcc.survey.creator.dto.SurveyStatusChangeResultDTO;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
 import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.SurveyDefinition;
 import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyCloneSource;
 import mcc.survey.creator.repository.SurveyRepository;
 import mcc.survey.creator.repository.UserRepository;
 import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.util.SurveyCursor;
+import mcc.survey.creator.util.SurveyListSort;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class SurveyService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_STATUS_CHANGE_IDS = 1000;
+
+    // Status lifecycle: each status and the ones a survey may move to from it
+    private static final Map<String, Set<String>> STATUS_TRANSITIONS = Map.of(
+            Survey.STATUS_DRAFT, Set.of(Survey.STATUS_PUBLISHED, Survey.STATUS_DELETED),
+            Survey.STATUS_PUBLISHED, Set.of(Survey.STATUS_DRAFT, Survey.STATUS_EXPIRED, Survey.STATUS_DELETED),
+            Survey.STATUS_EXPIRED, Set.of(Survey.STATUS_DRAFT, Survey.STATUS_PUBLISHED, Survey.STATUS_DELETED),
+            Survey.STATUS_DELETED, Set.of(Survey.STATUS_DRAFT));
+
     Logger logger = org.slf4j.LoggerFactory.getLogger(SurveyService.class);
     private final SurveyRepository surveyRepository;
     private final UserRepository userRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+    private final SurveyArchiveService surveyArchiveService;
+
     @Autowired
-    public SurveyService(SurveyRepository surveyRepository, UserRepository userRepository) {
+    public SurveyService(SurveyRepository surveyRepository, UserRepository userRepository,
+                         ApplicationEventPublisher eventPublisher, SurveyArchiveService surveyArchiveService) {
         this.surveyRepository = surveyRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.surveyArchiveService = surveyArchiveService;
     }
 
     @Transactional(readOnly = true)
@@ -33,6 +70,48 @@ public class SurveyService {
         return surveyRepository.findByOwnerId(user.getId());
     }
 
+    @Transactional(readOnly = true)
+    public List<SurveySummaryDTO> getSurveySummariesByUsername(String username) {
+        return surveyRepository.findSummariesByOwnerUsername(username);
+    }
+
+    /**
+     * Returns one keyset page of the user's survey summaries. Each page is a bounded index range
+     * scan starting after the cursor, so fetching page 50 costs the same as fetching page 1.
+     *
+     * @param cursor    The nextCursor from the previous page, or null for the first page.
+     * @param sort      The ordering; a cursor only continues the ordering it was issued for.
+     * @param direction "asc" for oldest (or smallest) first; anything else means most recently updated (or largest) first.
+     */
+    @Transactional(readOnly = true)
+    public SurveyPageDTO getSurveyPage(String username, SurveyListFilter filter, SurveyListSort sort,
+                                       String cursor, Integer size, String direction) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean ascending = "asc".equalsIgnoreCase(direction);
+        SurveyCursor after = SurveyCursor.decode(cursor);
+        if (after != null && !sort.accepts(after)) {
+            throw new IllegalArgumentException("Cursor does not match the sort order.");
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<SurveySummaryDTO> rows = surveyRepository.findSummaryPage(username, filter, sort, after, ascending, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = cursorAfter(rows.get(pageSize - 1), sort).encode();
+        }
+        return new SurveyPageDTO(rows, nextCursor);
+    }
+
+    private static SurveyCursor cursorAfter(SurveySummaryDTO last, SurveyListSort sort) {
+        return switch (sort) {
+            case UPDATED -> new SurveyCursor(last.getUpdatedAt(), last.getId());
+            case QUESTIONS -> new SurveyCursor(last.getQuestionCount(), last.getId());
+            case PAGES -> new SurveyCursor(last.getPageCount(), last.getId());
+            case SIZE -> new SurveyCursor(last.getDefinitionBytes(), last.getId());
+        };
+    }
+
     @Transactional(readOnly = true)
     public Optional<Survey> getSurveyByIdAndOwnerId(Long surveyId, Long ownerId) {
         return surveyRepository.findByIdAndOwnerId(surveyId, ownerId);
@@ -70,7 +149,9 @@ public class SurveyService {
 
         existingSurvey.setTitle(surveyDetails.getTitle());
         existingSurvey.setDescription(surveyDetails.getDescription());
-        existingSurvey.setQuestionsJson(surveyDetails.getQuestionsJson());
+        if (surveyDetails != existingSurvey) { // Copying onto itself would only read the definition row
+            existingSurvey.setQuestionsJson(surveyDetails.getQuestionsJson());
+        }
         existingSurvey.setStatus(surveyDetails.getStatus());
         // The userId is not updated to maintain ownership.
         // Timestamps (createdAt, updatedAt) are typically handled by JPA/Hibernate @CreationTimestamp and @UpdateTimestamp
@@ -78,10 +159,193 @@ public class SurveyService {
         return surveyRepository.save(existingSurvey);
     }
 
+    /**
+     * Soft-deletes a survey: one UPDATE of its status, whatever the size of its definition. The
+     * row and its shares are removed later by {@link SurveyPurgeService}.
+     */
     @Transactional
     public void deleteSurvey(Long surveyId, String username) {
-        Survey existingSurvey = this.getSurveyByIdAndUsername(surveyId, username)
-                .orElseThrow(() -> new ResourceNotFoundException("Survey"));
-        surveyRepository.delete(existingSurvey);
+        if (surveyRepository.softDelete(surveyId, username) == 0) {
+            throw new ResourceNotFoundException("Survey");
+        }
+        // Bulk updates bypass the entity listener
+        eventPublisher.publishEvent(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.DELETED, null));
+    }
+
+    /**
+     * The status a survey saved through create or update ends up in. A save may keep the status or
+     * make one move of the lifecycle, but never into the trash: that needs the delete permission and
+     * goes through {@link #deleteSurvey} or {@link #changeStatuses}.
+     *
+     * @param current   The survey's status, or null for a new survey, which may start in any other status.
+     * @param requested The status sent, or null to keep the current one (draft for a new survey).
+     * @throws IllegalArgumentException If the status is unknown or the survey cannot move to it.
+     */
+    public static String resolveSavedStatus(String current, String requested) {
+        if (requested == null || requested.isBlank()) {
+            return current != null ? current : Survey.STATUS_DRAFT;
+        }
+        String target = requested.trim().toLowerCase(Locale.ROOT);
+        if (target.equals(current)) {
+            return current;
+        }
+        if (!STATUS_TRANSITIONS.containsKey(target)) {
+            throw new IllegalArgumentException("Unknown status: '" + requested + "'. Use one of " + STATUS_TRANSITIONS.keySet() + ".");
+        }
+        if (target.equals(Survey.STATUS_DELETED)) {
+            throw new IllegalArgumentException("A survey cannot be saved as deleted; delete it instead.");
+        }
+        if (current != null && !STATUS_TRANSITIONS.getOrDefault(current, Set.of()).contains(target)) {
+            throw new IllegalArgumentException("Survey cannot move from '" + current + "' to '" + target + "'.");
+        }
+        return target;
+    }
+
+    /**
+     * Moves one of the user's surveys to another status; see {@link #changeStatuses}.
+     *
+     * @throws ResourceNotFoundException If the user owns no such survey.
+     * @throws IllegalArgumentException  If the survey cannot move from its current status to the new one.
+     */
+    @Transactional
+    public SurveyStatusChangeResultDTO changeStatus(Long surveyId, String status, String username,
+                                                    boolean mayEdit, boolean mayDelete) {
+        SurveyStatusChangeResultDTO result = changeStatuses(List.of(surveyId), status, username, mayEdit, mayDelete);
+        if (result.getUpdatedIds().isEmpty()) {
+            String current = surveyRepository.findStatusOwnedBy(surveyId, username)
+                    .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + surveyId));
+            throw new IllegalArgumentException("Survey " + surveyId + " cannot move from '" + current + "' to '" + result.getStatus() + "'.");
+        }
+        return result;
+    }
+
+    /**
+     * Moves the user's surveys to another status with one UPDATE, whatever their number or the
+     * size of their definitions. Surveys the user does not own, or whose current status does not
+     * lead to the new one, are left alone and reported as rejected.
+     *
+     * @param mayEdit   Whether the user may edit surveys, which any move but into the trash needs.
+     * @param mayDelete Whether the user may move surveys into or out of the trash.
+     * @throws IllegalArgumentException If the status is unknown or too many ids are given.
+     * @throws AccessDeniedException    If the move needs a permission the user lacks.
+     */
+    @Transactional
+    public SurveyStatusChangeResultDTO changeStatuses(Collection<Long> surveyIds, String status, String username,
+                                                      boolean mayEdit, boolean mayDelete) {
+        String target = status == null ? "" : status.trim().toLowerCase(Locale.ROOT);
+        if (!STATUS_TRANSITIONS.containsKey(target)) {
+            throw new IllegalArgumentException("Unknown status: '" + status + "'. Use one of " + STATUS_TRANSITIONS.keySet() + ".");
+        }
+        Set<Long> ids = new LinkedHashSet<>(surveyIds);
+        ids.remove(null);
+        if (ids.size() > MAX_STATUS_CHANGE_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_CHANGE_IDS + " surveys can change status at once.");
+        }
+        List<String> sources = STATUS_TRANSITIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(target))
+                .map(Map.Entry::getKey)
+                .filter(source -> mayDelete || !source.equals(Survey.STATUS_DELETED))
+                .toList();
+        if (target.equals(Survey.STATUS_DELETED) && !mayDelete) {
+            throw new AccessDeniedException("Moving surveys to the trash requires the delete permission.");
+        }
+        if (!target.equals(Survey.STATUS_DELETED) && !mayEdit) {
+            throw new AccessDeniedException("Moving surveys to '" + target + "' requires the edit permission.");
+        }
+        if (ids.isEmpty()) {
+            return new SurveyStatusChangeResultDTO(target, List.of(), List.of());
+        }
+
+        // Database timestamps keep microseconds; a finer value would never match the stored one
+        Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MICROS));
+        List<Long> updated = surveyRepository.transitionStatus(ids, username, sources, target, now) == 0
+                ? List.of()
+                : surveyRepository.findIdsTransitionedAt(ids, target, now);
+        Set<Long> updatedSet = new HashSet<>(updated);
+        List<Long> rejected = ids.stream().filter(id -> !updatedSet.contains(id)).toList();
+
+        // Bulk updates bypass the entity listener
+        SurveyChangedEvent.Type type = target.equals(Survey.STATUS_DELETED) ? SurveyChangedEvent.Type.DELETED : SurveyChangedEvent.Type.SAVED;
+        updated.forEach(id -> eventPublisher.publishEvent(new SurveyChangedEvent(id, type, null)));
+        logger.info("User {} moved {} surveys to '{}' ({} rejected).", username, updated.size(), target, rejected.size());
+        return new SurveyStatusChangeResultDTO(target, updated, rejected);
+    }
+
+    /**
+     * Brings a soft-deleted survey back in the status it was deleted from, provided it has not been
+     * purged yet.
+     */
+    @Transactional
+    public SurveySummaryDTO restoreSurvey(Long surveyId, String username) {
+        if (surveyRepository.restore(surveyId, username) == 0) {
+            throw new ResourceNotFoundException("Deleted survey not found with id " + surveyId);
+        }
+        eventPublisher.publishEvent(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.SAVED, null));
+        return surveyRepository.findSummariesByIdIn(List.of(surveyId)).get(0);
+    }
+
+    /**
+     * Clones a survey for the given user. The clone is a single new row pointing at the stored
+     * definition it was cloned from; the definition is only copied when one of them is edited.
+     */
+    @Transactional
+    public Survey cloneSurvey(Long sourceId, String username) {
+        SurveyCloneSource source = surveyRepository.findCloneSourceById(sourceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + sourceId));
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User with username: " + username + " not found"));
+
+        // Cloning an unedited clone shares the original definition rather than building a chain
+        Long definitionId = source.getOwnsDefinition() || source.getDefinitionSourceId() == null
+                ? source.getId() : source.getDefinitionSourceId();
+
+        Survey clone = new Survey();
+        clone.setTitle("Copy of " + source.getTitle());
+        clone.setDescription(source.getDescription());
+        clone.setSurveyMode(source.getSurveyMode());
+        clone.setDataClassification(source.getDataClassification());
+        clone.setStatus(Survey.STATUS_DRAFT);
+        clone.setOwner(user);
+        // Same definition, same metrics
+        clone.setPageCount(source.getPageCount());
+        clone.setQuestionCount(source.getQuestionCount());
+        clone.setDefinitionBytes(source.getDefinitionBytes());
+        clone.setHasLogic(source.getHasLogic());
+        if (source.getArchiveSegment() != null) {
+            // An archived stub has no definition in the table to share
+            clone.setSurveyJson(surveyArchiveService.readDefinition(source.getId(), source.getArchiveSegment()));
+            logger.info("User {} cloning archived survey {}.", username, sourceId);
+        } else {
+            clone.setDefinitionSource(surveyRepository.getReferenceById(definitionId));
+            logger.info("User {} cloning survey {} (definition stored on survey {}).", username, sourceId, definitionId);
+        }
+        return surveyRepository.save(clone);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SurveySummaryDTO> getTemplateSummaries() {
+        return surveyRepository.findTemplateSummaries();
+    }
+
+    /**
+     * Must be called before a survey's stored definition is overwritten or removed. Clones still
+     * sharing it keep the old definition: the first of them gets a definition row of its own with
+     * a copy, and the others are re-pointed at that clone. The survey keeps its row until the
+     * caller overwrites or removes it, so no reader ever sees it without a definition.
+     */
+    @Transactional
+    public void releaseSharedDefinition(Long surveyId) {
+        List<Long> sharingIds = surveyRepository.findIdsSharingDefinitionOf(surveyId);
+        if (sharingIds.isEmpty()) {
+            return;
+        }
+        Long heirId = sharingIds.get(0);
+        Survey source = surveyRepository.getReferenceById(surveyId);
+        Survey heir = surveyRepository.getReferenceById(heirId);
+        heir.setDefinition(new SurveyDefinition(source.getSurveyJson(), source.getQuestionsJson()));
+        heir.setDefinitionSource(null);
+        surveyRepository.flush(); // Before the bulk update, which must not re-point the heir at itself
+        surveyRepository.repointDefinitionSource(surveyId, heir);
+        logger.info("Survey {} definition handed over to clone {} ({} clones shared it).", surveyId, heirId, sharingIds.size());
     }
 }
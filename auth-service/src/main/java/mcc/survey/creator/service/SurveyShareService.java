@@ -0,0 +1,133 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyShareOutcomeDTO;
+import mcc.survey.creator.dto.SurveyShareResultDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserIdentityView;
+import mcc.survey.creator.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares a survey with many users in one transaction: the users are resolved with one query, the
+ * shares they already have with another, and the missing join rows are inserted as one JDBC
+ * batch. Neither the survey's share collection nor the users are loaded as entities.
+ */
+@Service
+public class SurveyShareService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyShareService.class);
+
+    public static final int MAX_SHARE_USERS = 500;
+
+    public static final String OUTCOME_SHARED = "shared";
+    public static final String OUTCOME_ALREADY_SHARED = "already_shared";
+    public static final String OUTCOME_OWNER = "owner";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+
+    private static final String LOCK_SURVEY = "SELECT id FROM survey WHERE id = ? FOR UPDATE";
+    private static final String INSERT_SHARE = "INSERT INTO survey_shared_users (survey_id, user_id) VALUES (?, ?)";
+    // New shares are a new version of the survey, as for the single share endpoints
+    private static final String TOUCH_SURVEY = "UPDATE survey SET updated_at = ? WHERE id = ?";
+
+    private final SurveyRepository surveyRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SurveyShareService(SurveyRepository surveyRepository, UserRepository userRepository,
+                              JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.surveyRepository = surveyRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Shares the survey with every given user it is not shared with yet. Unknown users, the owner
+     * and users it is already shared with are reported rather than failing the request.
+     *
+     * @throws IllegalArgumentException  If no users or more than {@link #MAX_SHARE_USERS} are given.
+     * @throws ResourceNotFoundException If the survey does not exist or is deleted.
+     */
+    @Transactional
+    public SurveyShareResultDTO share(Long surveyId, Collection<String> usernames, Collection<Long> userIds) {
+        Set<String> names = new LinkedHashSet<>();
+        if (usernames != null) {
+            usernames.stream().filter(name -> name != null && !name.isBlank()).map(String::trim).forEach(names::add);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        if (userIds != null) {
+            userIds.stream().filter(id -> id != null).forEach(ids::add);
+        }
+        if (names.isEmpty() && ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one username or user id is required.");
+        }
+        if (names.size() + ids.size() > MAX_SHARE_USERS) {
+            throw new IllegalArgumentException("A survey can be shared with at most " + MAX_SHARE_USERS + " users at once.");
+        }
+
+        // Serializes shares of the survey, so two requests cannot insert the same row
+        if (jdbcTemplate.queryForList(LOCK_SURVEY, Long.class, surveyId).isEmpty()) {
+            throw new ResourceNotFoundException("Survey not found with id " + surveyId);
+        }
+        Long ownerId = surveyRepository.findOwnerId(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey not found with id " + surveyId));
+
+        Map<String, UserIdentityView> byName = new HashMap<>();
+        Map<Long, UserIdentityView> byId = new HashMap<>();
+        for (UserIdentityView user : userRepository.findIdentities(names, ids)) {
+            byName.put(user.getUsername(), user);
+            byId.put(user.getId(), user);
+        }
+        Set<Long> alreadyShared = byId.isEmpty()
+                ? Set.of()
+                : new HashSet<>(surveyRepository.findSharedUserIdsAmong(surveyId, byId.keySet()));
+
+        List<SurveyShareOutcomeDTO> results = new ArrayList<>(names.size() + ids.size());
+        Set<Long> added = new LinkedHashSet<>();
+        names.forEach(name -> results.add(outcome(name, byName.get(name), ownerId, alreadyShared, added)));
+        ids.forEach(id -> results.add(outcome(String.valueOf(id), byId.get(id), ownerId, alreadyShared, added)));
+
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SHARE, added.stream().map(id -> new Object[]{surveyId, id}).toList());
+            jdbcTemplate.update(TOUCH_SURVEY, new Timestamp(System.currentTimeMillis()), surveyId);
+            // Bulk inserts bypass the entity listener
+            eventPublisher.publishEvent(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.SAVED, null));
+        }
+        logger.info("Survey {} shared with {} more users ({} requested).", surveyId, added.size(), results.size());
+        return new SurveyShareResultDTO(surveyId, added.size(), results);
+    }
+
+    private static SurveyShareOutcomeDTO outcome(String requested, UserIdentityView user, Long ownerId,
+                                                 Set<Long> alreadyShared, Set<Long> added) {
+        if (user == null) {
+            return new SurveyShareOutcomeDTO(requested, null, null, OUTCOME_NOT_FOUND);
+        }
+        String outcome;
+        if (user.getId().equals(ownerId)) {
+            outcome = OUTCOME_OWNER;
+        } else if (alreadyShared.contains(user.getId()) || !added.add(user.getId())) {
+            outcome = OUTCOME_ALREADY_SHARED; // Also when named twice in the request
+        } else {
+            outcome = OUTCOME_SHARED;
+        }
+        return new SurveyShareOutcomeDTO(requested, user.getId(), user.getUsername(), outcome);
+    }
+}
@@ -3,6 +3,7 @@ package mcc.survey.creator.service;
 import mcc.survey.creator.util.PasswordPolicyValidator; // Added import
 import mcc.survey.creator.dto.CreateUserRequest;
 import mcc.survey.creator.dto.EditUserRequest;
+import mcc.survey.creator.event.UserChangedEvent;
 import mcc.survey.creator.model.User;
 import mcc.survey.creator.model.Role; // Assuming Role enum/class exists
 import mcc.survey.creator.repository.RoleRepository;
@@ -11,6 +12,7 @@ import mcc.survey.creator.exception.ResourceNotFoundException; // Assuming this
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,6 +49,9 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // Helper method to generate random password
     private String generateRandomPassword() {
         byte[] bytes = new byte[PASSWORD_LENGTH];
@@ -161,6 +166,7 @@ public class UserService {
                 user.setRoles(newRoles);
             }
             User updatedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(updatedUser.getId()));
             log.info("Updated user: {}", updatedUser.getUsername());
             return updatedUser;
         });
@@ -247,6 +253,7 @@ public class UserService {
         return userRepository.findById(userId).map(user -> {
             user.setActive(isActive);
             User updatedUser = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(updatedUser.getId()));
             log.info("Set user {} active status to: {}", user.getUsername(), isActive);
             return updatedUser;
         });
@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.EditLeaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EditLeaseExpiryTask {
+
+    @Autowired
+    private EditLeaseService editLeaseService;
+
+    // One tick of the lease timer wheel; only the leases falling due in it are looked at
+    @Scheduled(fixedRateString = "${app.edit-lease.tick-ms}")
+    public void expireEditLeases() {
+        editLeaseService.expireLeases();
+    }
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.SurveyArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SurveyArchiveTask {
+
+    @Autowired
+    private SurveyArchiveService surveyArchiveService;
+
+    // Move long-expired survey definitions out of the survey table into archive segments
+    @Scheduled(fixedDelayString = "${app.survey-archive.interval-ms}", initialDelayString = "${app.survey-archive.interval-ms}")
+    public void archiveExpiredSurveys() {
+        surveyArchiveService.archiveExpired();
+    }
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.SurveyAutosaveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SurveyAutosaveFlushTask {
+
+    @Autowired
+    private SurveyAutosaveService surveyAutosaveService;
+
+    // However often the editor autosaves, each survey's latest draft is written once per interval
+    @Scheduled(fixedDelayString = "${app.survey-autosave.flush-interval-ms}", initialDelayString = "${app.survey-autosave.flush-interval-ms}")
+    public void flushAutosavedDrafts() {
+        surveyAutosaveService.flushAll();
+    }
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.SurveyImageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SurveyImagePurgeTask {
+
+    @Autowired
+    private SurveyImageService surveyImageService;
+
+    // Delete image blobs left behind by edited and purged surveys
+    @Scheduled(fixedDelayString = "${app.survey-images.purge-interval-ms}", initialDelayString = "${app.survey-images.purge-interval-ms}")
+    public void purgeUnreferencedImages() {
+        surveyImageService.purgeUnreferenced();
+    }
+}
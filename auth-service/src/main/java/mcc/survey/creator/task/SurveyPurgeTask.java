@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.SurveyPurgeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SurveyPurgeTask {
+
+    @Autowired
+    private SurveyPurgeService surveyPurgeService;
+
+    // Hard-delete surveys whose soft-delete retention has expired
+    @Scheduled(fixedDelayString = "${app.survey-purge.interval-ms}", initialDelayString = "${app.survey-purge.interval-ms}")
+    public void purgeDeletedSurveys() {
+        surveyPurgeService.purgeExpired();
+    }
+}
@@ -0,0 +1,19 @@
+package mcc.survey.creator.task;
+
+import mcc.survey.creator.service.SurveySearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SurveySearchSnapshotTask {
+
+    @Autowired
+    private SurveySearchService surveySearchService;
+
+    // Persist the search index periodically so a crash loses at most one interval of catch-up work
+    @Scheduled(fixedDelayString = "${app.search.snapshot-interval-ms}", initialDelayString = "${app.search.snapshot-interval-ms}")
+    public void writeSearchIndexSnapshot() {
+        surveySearchService.writeSnapshot();
+    }
+}
@@ -0,0 +1,71 @@
+package mcc.survey.creator.util;
+
+/**
+ * A single byte range from an HTTP {@code Range} header, resolved against the length of the
+ * resource. Only one range is supported; multi-range requests are answered with the full body,
+ * which the HTTP spec allows.
+ */
+public final class ByteRange {
+
+    private static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private final long start;
+    private final long end; // Inclusive
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return null if the header is absent, malformed or asks for several ranges (serve the whole
+     * resource), otherwise the range, which may be {@link #isSatisfiable() unsatisfiable}.
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) { // Suffix range: the last n bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long first = Long.parseLong(spec.substring(0, dash));
+            String lastText = spec.substring(dash + 1);
+            long last = lastText.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastText);
+            if (first < 0 || last < first) {
+                return null;
+            }
+            if (first >= length) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(first, Math.min(last, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isSatisfiable() {
+        return start >= 0;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+}
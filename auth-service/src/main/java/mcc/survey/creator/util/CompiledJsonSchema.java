@@ -0,0 +1,197 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON Schema subset compiled into a graph of {@link Node}s that a streaming validator can walk
+ * token by token. Supported keywords: type, properties, additionalProperties, items, required,
+ * enum, pattern, maxLength, maxItems and local {@code $ref}s into {@code #/definitions}. References are
+ * resolved once at compile time, so recursive definitions (panels inside panels) become cycles in
+ * the graph rather than lookups during validation.
+ */
+public final class CompiledJsonSchema {
+
+    public enum Kind {
+        OBJECT, ARRAY, STRING, NUMBER, INTEGER, BOOLEAN, NULL
+    }
+
+    /**
+     * One compiled schema. A null Node anywhere means "anything is allowed".
+     */
+    public static final class Node {
+        private Set<Kind> kinds = EnumSet.allOf(Kind.class);
+        private Map<String, Node> properties = Collections.emptyMap();
+        private boolean additionalPropertiesAllowed = true;
+        private Node additionalProperties;
+        private Node items;
+        private Set<String> required = Collections.emptySet();
+        private Set<String> enumValues;
+        private Pattern pattern;
+        private int maxLength = Integer.MAX_VALUE;
+        private int maxItems = Integer.MAX_VALUE;
+
+        public boolean allows(Kind kind) {
+            return kinds.contains(kind) || (kind == Kind.INTEGER && kinds.contains(Kind.NUMBER));
+        }
+
+        public Set<Kind> getKinds() {
+            return kinds;
+        }
+
+        /**
+         * Returns the schema for a property value; null means unconstrained.
+         *
+         * @throws IllegalArgumentException If the property is not allowed.
+         */
+        public Node property(String name) {
+            Node node = properties.get(name);
+            if (node != null || properties.containsKey(name)) {
+                return node;
+            }
+            if (!additionalPropertiesAllowed) {
+                throw new IllegalArgumentException("property '" + name + "' is not allowed");
+            }
+            return additionalProperties;
+        }
+
+        public Node getItems() {
+            return items;
+        }
+
+        public Set<String> getRequired() {
+            return required;
+        }
+
+        public Set<String> getEnumValues() {
+            return enumValues;
+        }
+
+        /**
+         * Unanchored, as in JSON Schema: a string matches if the pattern is found anywhere in it.
+         */
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+    }
+
+    private final Node root;
+
+    private CompiledJsonSchema(Node root) {
+        this.root = root;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public static CompiledJsonSchema compile(JsonNode schema) {
+        Map<String, Node> compiledRefs = new HashMap<>();
+        return new CompiledJsonSchema(compileNode(schema, schema, compiledRefs));
+    }
+
+    private static Node compileNode(JsonNode schema, JsonNode document, Map<String, Node> compiledRefs) {
+        if (schema == null || schema.isNull() || (schema.isBoolean() && schema.asBoolean())) {
+            return null;
+        }
+        if (schema.has("$ref")) {
+            String ref = schema.get("$ref").asText();
+            Node existing = compiledRefs.get(ref);
+            if (existing != null) {
+                return existing;
+            }
+            if (!ref.startsWith("#/definitions/")) {
+                throw new IllegalArgumentException("Unsupported $ref: " + ref);
+            }
+            JsonNode target = document.path("definitions").get(ref.substring("#/definitions/".length()));
+            if (target == null) {
+                throw new IllegalArgumentException("Unresolved $ref: " + ref);
+            }
+            // Register before compiling the target so self-references resolve to the same node
+            Node node = new Node();
+            compiledRefs.put(ref, node);
+            fill(node, target, document, compiledRefs);
+            return node;
+        }
+        Node node = new Node();
+        fill(node, schema, document, compiledRefs);
+        return node;
+    }
+
+    private static void fill(Node node, JsonNode schema, JsonNode document, Map<String, Node> compiledRefs) {
+        JsonNode type = schema.get("type");
+        if (type != null) {
+            EnumSet<Kind> kinds = EnumSet.noneOf(Kind.class);
+            if (type.isArray()) {
+                type.forEach(t -> kinds.add(kindOf(t.asText())));
+            } else {
+                kinds.add(kindOf(type.asText()));
+            }
+            node.kinds = kinds;
+        }
+        JsonNode properties = schema.get("properties");
+        if (properties != null) {
+            Map<String, Node> compiled = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                compiled.put(field.getKey(), compileNode(field.getValue(), document, compiledRefs));
+            }
+            node.properties = compiled;
+        }
+        JsonNode additional = schema.get("additionalProperties");
+        if (additional != null) {
+            if (additional.isBoolean()) {
+                node.additionalPropertiesAllowed = additional.asBoolean();
+            } else {
+                node.additionalProperties = compileNode(additional, document, compiledRefs);
+            }
+        }
+        if (schema.has("items")) {
+            node.items = compileNode(schema.get("items"), document, compiledRefs);
+        }
+        if (schema.has("required")) {
+            Set<String> required = new HashSet<>();
+            schema.get("required").forEach(r -> required.add(r.asText()));
+            node.required = required;
+        }
+        if (schema.has("enum")) {
+            Set<String> values = new HashSet<>();
+            schema.get("enum").forEach(v -> values.add(v.asText()));
+            node.enumValues = values;
+        }
+        if (schema.has("pattern")) {
+            node.pattern = Pattern.compile(schema.get("pattern").asText());
+        }
+        if (schema.has("maxLength")) {
+            node.maxLength = schema.get("maxLength").asInt();
+        }
+        if (schema.has("maxItems")) {
+            node.maxItems = schema.get("maxItems").asInt();
+        }
+    }
+
+    private static Kind kindOf(String type) {
+        try {
+            return Kind.valueOf(type.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported schema type: " + type, e);
+        }
+    }
+}
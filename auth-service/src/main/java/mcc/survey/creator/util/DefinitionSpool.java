@@ -0,0 +1,127 @@
+package mcc.survey.creator.util;
+
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Holds a definition between being written and being read back, with bounded heap: the first
+ * {@code bufferChars} characters stay in memory, and once more arrive everything moves to a
+ * temporary file. Keeps count of the characters and of their UTF-8 size as they are written.
+ * Closing the spool deletes the file.
+ */
+public class DefinitionSpool implements Closeable {
+
+    private final int bufferChars;
+    private char[] buffer;
+    private int buffered;
+    private Path file;
+    private Writer fileWriter;
+    private long length;
+    private long utf8Length;
+
+    private final Writer writer = new Writer() {
+        @Override
+        public void write(char[] chars, int offset, int count) throws IOException {
+            store(chars, offset, count);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileWriter != null) {
+                fileWriter.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // The content stays readable until the spool itself is closed
+        }
+    };
+
+    public DefinitionSpool(int bufferChars) {
+        this.bufferChars = Math.max(1, bufferChars);
+        this.buffer = new char[Math.min(this.bufferChars, 8192)];
+    }
+
+    /**
+     * The writer to spool through; closing it does not discard anything.
+     */
+    public Writer writer() {
+        return writer;
+    }
+
+    private void store(char[] chars, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            utf8Length += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3; // A pair is 4 bytes
+        }
+        length += count;
+        if (fileWriter == null && buffered + count <= bufferChars) {
+            if (buffered + count > buffer.length) {
+                char[] grown = new char[Math.min(bufferChars, Math.max(buffered + count, buffer.length * 2))];
+                System.arraycopy(buffer, 0, grown, 0, buffered);
+                buffer = grown;
+            }
+            System.arraycopy(chars, offset, buffer, buffered, count);
+            buffered += count;
+            return;
+        }
+        if (fileWriter == null) {
+            file = Files.createTempFile("survey-definition-", ".json");
+            fileWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            fileWriter.write(buffer, 0, buffered);
+            buffer = null;
+        }
+        fileWriter.write(chars, offset, count);
+    }
+
+    /**
+     * Reads back everything written so far.
+     */
+    public Reader openReader() throws IOException {
+        if (fileWriter == null) {
+            return new CharArrayReader(buffer, 0, buffered);
+        }
+        fileWriter.flush();
+        return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Number of characters written.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Size in bytes of what was written, once encoded as UTF-8.
+     */
+    public long utf8Length() {
+        return utf8Length;
+    }
+
+    /**
+     * Whether the content has moved to a temporary file.
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package mcc.survey.creator.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of autosaved drafts that have not reached the database yet. Each draft is
+ * appended when it arrives, and a settled entry is appended once it has been stored or discarded;
+ * after a crash, {@link #open()} returns the latest draft of every survey that was not settled.
+ * Every entry is forced to the device before it is acknowledged and carries a checksum, so a
+ * write torn by the crash is dropped together with whatever follows it. Entries appended
+ * concurrently are written and forced as one batch. The log only grows until {@link #rewrite}
+ * replaces it with the drafts still pending.
+ */
+public class DraftLog implements Closeable {
+
+    private static final byte DRAFT = 1;
+    private static final byte SETTLED = 2;
+
+    /**
+     * @param surveyJson The draft, or null for a settled entry: drafts of the survey up to
+     *                   {@code sequence} need no replay.
+     */
+    public record Entry(long surveyId, long sequence, String surveyJson) {
+
+        public static Entry settled(long surveyId, long sequence) {
+            return new Entry(surveyId, sequence, null);
+        }
+    }
+
+    private final Path path;
+    private FileChannel channel; // Guarded by this log's monitor, as is out
+    private DataOutputStream out;
+
+    private final Object queueLock = new Object();
+    private Batch queued = new Batch(); // Guarded by queueLock
+    private boolean writing; // Guarded by queueLock
+
+    public DraftLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads what an earlier run left behind and opens the log for appending. A damaged tail is cut off.
+     *
+     * @return The unsettled drafts, one per survey.
+     */
+    public synchronized List<Entry> open() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Map<Long, Entry> drafts = new HashMap<>();
+        Map<Long, Long> settled = new HashMap<>();
+        long valid = 0;
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                Entry entry;
+                while ((entry = read(in)) != null) {
+                    valid += encodedLength(entry);
+                    if (entry.surveyJson() == null) {
+                        settled.merge(entry.surveyId(), entry.sequence(), Math::max);
+                    } else {
+                        drafts.merge(entry.surveyId(), entry, (a, b) -> a.sequence() >= b.sequence() ? a : b);
+                    }
+                }
+            }
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(valid);
+                file.force(true);
+            }
+        }
+        openForAppend();
+        List<Entry> pending = new ArrayList<>();
+        for (Entry draft : drafts.values()) {
+            if (draft.sequence() > settled.getOrDefault(draft.surveyId(), 0L)) {
+                pending.add(draft);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Appends an entry and returns once it has been forced to the device, so it survives the process
+     * dying and the machine losing power. The entry joins a queue; one caller at a time writes and
+     * forces everything queued so far, and the callers whose entries that batch held return with it.
+     */
+    public void append(Entry entry) throws IOException {
+        byte[] encoded = encode(entry);
+        Batch batch;
+        boolean writer;
+        synchronized (queueLock) {
+            batch = queued;
+            batch.entries.add(encoded);
+            while (writing && !batch.done) {
+                try {
+                    queueLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for draft log " + path + " to be forced.");
+                }
+            }
+            writer = !batch.done;
+            writing |= writer;
+        }
+        if (writer) {
+            try {
+                synchronized (this) {
+                    commit();
+                }
+            } finally {
+                synchronized (queueLock) {
+                    writing = false;
+                    queueLock.notifyAll();
+                }
+            }
+        }
+        synchronized (queueLock) {
+            if (batch.failure != null) {
+                throw new IOException("Draft log " + path + " could not be written.", batch.failure);
+            }
+        }
+    }
+
+    // Writes and forces the queued entries with the caller holding this log's monitor
+    private void commit() {
+        Batch batch;
+        synchronized (queueLock) {
+            batch = queued;
+            queued = new Batch();
+        }
+        IOException failure = null;
+        try {
+            if (out == null) {
+                throw new IOException("Draft log " + path + " is not open.");
+            }
+            for (byte[] entry : batch.entries) {
+                out.write(entry);
+            }
+            out.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        }
+        synchronized (queueLock) {
+            batch.failure = failure;
+            batch.done = true;
+        }
+    }
+
+    /**
+     * Replaces the log with just the given drafts. The new log is written beside the old one, forced
+     * to the device and moved over it, so a crash leaves one or the other intact.
+     */
+    public synchronized void rewrite(Collection<Entry> drafts) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream tempOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(file)));
+            for (Entry draft : drafts) {
+                tempOut.write(encode(draft));
+            }
+            tempOut.flush();
+            file.force(false);
+        }
+        close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+        openForAppend();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close(); // Closes the channel too
+            out = null;
+            channel = null;
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    // Makes the rename itself durable; not every platform can open a directory, and there it is skipped
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // The move is still atomic, only possibly not yet on the device
+        }
+    }
+
+    // type, survey id, sequence, length, UTF-8 draft, CRC-32 of all of these
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        byte[] json = entry.surveyJson() != null ? entry.surveyJson().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        body.writeByte(entry.surveyJson() != null ? DRAFT : SETTLED);
+        body.writeLong(entry.surveyId());
+        body.writeLong(entry.sequence());
+        body.writeInt(json.length);
+        body.write(json);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        body.writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    private static long encodedLength(Entry entry) {
+        long json = entry.surveyJson() != null ? entry.surveyJson().getBytes(StandardCharsets.UTF_8).length : 0;
+        return 1 + 8 + 8 + 4 + json + 4;
+    }
+
+    // Null at the end of the log or at the first entry that is incomplete or fails its checksum
+    private static Entry read(DataInputStream in) throws IOException {
+        try {
+            int type = in.read();
+            if (type != DRAFT && type != SETTLED) {
+                return null;
+            }
+            long surveyId = in.readLong();
+            long sequence = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || type == SETTLED && length != 0) {
+                return null;
+            }
+            byte[] json = in.readNBytes(length);
+            if (json.length != length) {
+                return null;
+            }
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            ByteArrayOutputStream header = new ByteArrayOutputStream(20);
+            DataOutputStream headerOut = new DataOutputStream(header);
+            headerOut.writeLong(surveyId);
+            headerOut.writeLong(sequence);
+            headerOut.writeInt(length);
+            crc.update(header.toByteArray());
+            crc.update(json);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            return new Entry(surveyId, sequence, type == DRAFT ? new String(json, StandardCharsets.UTF_8) : null);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    // Entries written and forced together, and the outcome every caller that queued one reports
+    private static final class Batch {
+        final List<byte[]> entries = new ArrayList<>();
+        boolean done; // Guarded by queueLock, as is failure
+        IOException failure;
+    }
+}
@@ -0,0 +1,92 @@
+package mcc.survey.creator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over the survey list ordering {@code (updatedAt, id)}, or over
+ * {@code (value, id)} when the list is sorted by a numeric column such as the question count.
+ * Clients only ever see the encoded token and pass it back unchanged.
+ */
+public final class SurveyCursor {
+
+    private static final String VALUE_MARKER = "#";
+
+    private final Timestamp updatedAt;
+    private final Long value;
+    private final Long id;
+
+    public SurveyCursor(Timestamp updatedAt, Long id) {
+        this.updatedAt = updatedAt;
+        this.value = null;
+        this.id = id;
+    }
+
+    public SurveyCursor(long value, Long id) {
+        this.updatedAt = null;
+        this.value = value;
+        this.id = id;
+    }
+
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * The sort column's value for numeric orderings; null on a cursor over updatedAt.
+     */
+    public Long getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encodes the position as a URL-safe token. Seconds and nanos are kept separately so the
+     * timestamp round-trips exactly and the keyset comparison never skips or repeats a row.
+     */
+    public String encode() {
+        String raw;
+        if (value != null) {
+            raw = VALUE_MARKER + value + ":" + id;
+        } else {
+            Instant instant = updatedAt.toInstant();
+            raw = instant.getEpochSecond() + "." + instant.getNano() + ":" + id;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token The cursor sent by the client, may be null or blank for the first page.
+     * @return The decoded cursor, or null when no token was given.
+     * @throws IllegalArgumentException If the token is not a valid cursor.
+     */
+    public static SurveyCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idSeparator = raw.indexOf(':');
+            if (raw.startsWith(VALUE_MARKER) && idSeparator > 0) {
+                return new SurveyCursor(Long.parseLong(raw.substring(1, idSeparator)), Long.parseLong(raw.substring(idSeparator + 1)));
+            }
+            int nanoSeparator = raw.indexOf('.');
+            if (idSeparator < 0 || nanoSeparator < 0 || nanoSeparator > idSeparator) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            long seconds = Long.parseLong(raw.substring(0, nanoSeparator));
+            long nanos = Long.parseLong(raw.substring(nanoSeparator + 1, idSeparator));
+            long id = Long.parseLong(raw.substring(idSeparator + 1));
+            return new SurveyCursor(Timestamp.from(Instant.ofEpochSecond(seconds, nanos)), id);
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+}
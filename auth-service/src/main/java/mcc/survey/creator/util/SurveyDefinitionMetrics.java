@@ -0,0 +1,177 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import mcc.survey.creator.model.Survey;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Figures derived from a SurveyJS definition, computed once when the definition is written and
+ * stored in columns of {@link Survey}, so lists can show, filter and sort by them without
+ * reading any definition.
+ *
+ * @param pageCount       Number of pages.
+ * @param questionCount   Number of questions on all pages, including those inside panels; panels themselves do not count.
+ * @param definitionBytes Size of the stored definition in UTF-8 bytes.
+ * @param hasLogic        Whether anything in the survey is conditional (visibleIf and friends, triggers, calculated values).
+ */
+public record SurveyDefinitionMetrics(int pageCount, int questionCount, int definitionBytes, boolean hasLogic) {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Set<String> ELEMENT_ARRAYS = Set.of("elements", "questions", "templateElements");
+    private static final Set<String> LOGIC_ARRAYS = Set.of("triggers", "calculatedValues", "completedHtmlOnCondition");
+    private static final Set<String> CONTAINER_TYPES = Set.of("panel", "page");
+
+    /**
+     * Computes the metrics of a serialized definition. A definition that is missing or not
+     * well-formed JSON has no pages or questions, but still has its size.
+     */
+    public static SurveyDefinitionMetrics of(String surveyJson) {
+        if (surveyJson == null) {
+            return new SurveyDefinitionMetrics(0, 0, 0, false);
+        }
+        int bytes = surveyJson.getBytes(StandardCharsets.UTF_8).length;
+        Collector collector = new Collector();
+        try (JsonParser parser = JSON_FACTORY.createParser(surveyJson)) {
+            while (!collector.isComplete() && parser.nextToken() != null) {
+                collector.accept(parser);
+            }
+        } catch (IOException e) {
+            return new SurveyDefinitionMetrics(0, 0, bytes, false);
+        }
+        return collector.result(bytes);
+    }
+
+    /**
+     * Stores the metrics in the survey's derived columns.
+     */
+    public void applyTo(Survey survey) {
+        survey.setPageCount(pageCount);
+        survey.setQuestionCount(questionCount);
+        survey.setDefinitionBytes(definitionBytes);
+        survey.setHasLogic(hasLogic);
+    }
+
+    /**
+     * Computes the metrics from the tokens of a definition as they stream past, so they can be
+     * taken while a definition is copied or validated without holding it. Questions are the
+     * elements in the element arrays of the survey, its pages and its (dynamic) panels; logic is
+     * any non-blank condition or expression property, or a non-empty list of triggers and the like.
+     */
+    public static final class Collector {
+
+        private enum Kind { ROOT, PAGES, PAGE, ELEMENTS, ELEMENT, LOGIC, OTHER }
+
+        private static final class Frame {
+            private final Kind kind;
+            private final boolean object;
+            private String field;
+            private String type;
+
+            private Frame(Kind kind, boolean object) {
+                this.kind = kind;
+                this.object = object;
+            }
+        }
+
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private boolean complete;
+        private int pages;
+        private int questions;
+        private boolean logic;
+
+        /**
+         * Takes the parser's current token into account.
+         */
+        public void accept(JsonParser parser) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (complete || token == null) {
+                return;
+            }
+            Frame parent = stack.peek();
+            if (parent == null) {
+                // Anything but an object has no pages, questions or logic
+                if (token == JsonToken.START_OBJECT) {
+                    stack.push(new Frame(Kind.ROOT, true));
+                } else {
+                    complete = true;
+                }
+                return;
+            }
+            switch (token) {
+                case FIELD_NAME -> parent.field = parser.currentName();
+                case START_OBJECT, START_ARRAY -> {
+                    countItem(parent);
+                    boolean object = token == JsonToken.START_OBJECT;
+                    stack.push(new Frame(childKind(parent, object), object));
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    Frame frame = stack.pop();
+                    if (frame.kind == Kind.ELEMENT && (frame.type == null || !CONTAINER_TYPES.contains(frame.type))) {
+                        questions++;
+                    }
+                    complete = stack.isEmpty();
+                }
+                default -> {
+                    countItem(parent);
+                    if (parent.object && token == JsonToken.VALUE_STRING) {
+                        String name = parent.field;
+                        if (name.equals("type")) {
+                            parent.type = parser.getText();
+                        }
+                        if ((name.endsWith("If") || name.endsWith("Expression") || name.equals("expression"))
+                                && !parser.getText().isBlank()) {
+                            logic = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void countItem(Frame parent) {
+            if (parent.kind == Kind.PAGES) {
+                pages++;
+            } else if (parent.kind == Kind.LOGIC) {
+                logic = true;
+            }
+        }
+
+        private static Kind childKind(Frame parent, boolean object) {
+            if (parent.object) {
+                if (object) {
+                    return Kind.OTHER;
+                }
+                String name = parent.field;
+                if (parent.kind == Kind.ROOT && name.equals("pages")) {
+                    return Kind.PAGES;
+                }
+                boolean container = parent.kind == Kind.ROOT || parent.kind == Kind.PAGE || parent.kind == Kind.ELEMENT;
+                if (container && ELEMENT_ARRAYS.contains(name)) {
+                    return Kind.ELEMENTS;
+                }
+                return LOGIC_ARRAYS.contains(name) ? Kind.LOGIC : Kind.OTHER;
+            }
+            if (object && parent.kind == Kind.PAGES) {
+                return Kind.PAGE;
+            }
+            return object && parent.kind == Kind.ELEMENTS ? Kind.ELEMENT : Kind.OTHER;
+        }
+
+        /**
+         * Whether the root value has been read to its end; later tokens are ignored.
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public SurveyDefinitionMetrics result(int definitionBytes) {
+            return new SurveyDefinitionMetrics(pages, questions, definitionBytes, logic);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Finds parts of a definition with a streaming parser. Siblings of the path being followed are
+ * skipped without being materialized, and reading stops as soon as the target is reached, so
+ * the cost depends on where the part sits in the document, not on the size of the document.
+ */
+public class SurveyDefinitionNavigator {
+
+    public static final JsonPointer PAGES = JsonPointer.compile("/pages");
+
+    /**
+     * Advances a fresh parser to the first token of the value at the pointer.
+     *
+     * @return false if the document has no such value; the parser position is then undefined.
+     */
+    public static boolean seek(JsonParser parser, JsonPointer pointer) throws IOException {
+        JsonToken token = parser.nextToken();
+        while (token != null && !pointer.matches()) {
+            if (token == JsonToken.START_OBJECT) {
+                token = seekProperty(parser, pointer.getMatchingProperty());
+            } else if (token == JsonToken.START_ARRAY && pointer.getMatchingIndex() >= 0) {
+                token = seekElement(parser, pointer.getMatchingIndex());
+            } else {
+                return false; // A scalar, or a property name used on an array
+            }
+            pointer = pointer.tail();
+        }
+        return token != null;
+    }
+
+    private static JsonToken seekProperty(JsonParser parser, String name) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            boolean match = name.equals(parser.currentName());
+            parser.nextToken();
+            if (match) {
+                return parser.currentToken();
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static JsonToken seekElement(JsonParser parser, int index) throws IOException {
+        JsonToken token;
+        int position = 0;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (position++ == index) {
+                return token;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Byte offsets of every element of the array at the pointer, as {@code [start0, end0, start1,
+     * end1, ...]} with exclusive ends. The parser must read bytes (not characters) for the
+     * offsets to be byte positions.
+     *
+     * @return null if there is no array at the pointer.
+     */
+    public static long[] elementOffsets(JsonParser parser, JsonPointer arrayPointer) throws IOException {
+        if (!seek(parser, arrayPointer) || parser.currentToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+        long[] offsets = new long[16];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count++] = parser.currentTokenLocation().getByteOffset();
+            parser.skipChildren();
+            offsets[count++] = parser.currentLocation().getByteOffset();
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+}
@@ -0,0 +1,249 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Brings a SurveyJS definition into one stable, minimal form before it is stored: object keys
+ * are sorted, properties set to their SurveyJS default are dropped and properties whose value is
+ * an empty object or array are removed. Array items are never removed, since their position is
+ * meaningful (page and question order). Two definitions that render the same survey therefore
+ * usually serialize to the same bytes.
+ */
+public class SurveyJsonCanonicalizer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private static final Set<String> ELEMENT_ARRAYS = Set.of("elements", "questions", "templateElements");
+
+    // Only defaults that are the same across SurveyJS versions; anything doubtful is kept
+    private static final Map<String, JsonNode> SURVEY_DEFAULTS = defaults(
+            "showTitle", true, "showPageTitles", true, "showCompletedPage", true, "showPageNumbers", false,
+            "showQuestionNumbers", "on", "questionTitleLocation", "top", "showProgressBar", "off",
+            "mode", "edit", "checkErrorsMode", "onNextPage", "textUpdateMode", "onBlur",
+            "clearInvisibleValues", "onComplete", "goNextPageAutomatic", false, "showPrevButton", true,
+            "widthMode", "auto", "sendResultOnPageNext", false, "storeOthersAsComment", true,
+            "firstPageIsStarted", false, "questionsOnPageMode", "standard", "showTimerPanel", "none",
+            "maxTimeToFinish", 0, "maxTimeToFinishPage", 0, "requiredText", "*");
+    private static final Map<String, JsonNode> PAGE_DEFAULTS = defaults(
+            "visible", true, "readOnly", false, "questionsOrder", "default",
+            "navigationButtonsVisibility", "inherit");
+    private static final Map<String, JsonNode> ELEMENT_DEFAULTS = defaults(
+            "visible", true, "readOnly", false, "isRequired", false, "startWithNewLine", true,
+            "hideNumber", false, "titleLocation", "default", "descriptionLocation", "default",
+            "errorLocation", "default", "indent", 0);
+    // Element defaults merged with the defaults of each type that adds its own
+    private static final Map<String, Map<String, JsonNode>> TYPE_DEFAULTS = Map.of(
+            "checkbox", elementDefaults(selectBaseDefaults()),
+            "radiogroup", elementDefaults(selectBaseDefaults()),
+            "dropdown", elementDefaults(selectBaseDefaults()),
+            "tagbox", elementDefaults(selectBaseDefaults()),
+            "imagepicker", elementDefaults(selectBaseDefaults()),
+            "text", elementDefaults(defaults("inputType", "text")),
+            "rating", elementDefaults(defaults("rateMin", 1, "rateMax", 5, "rateStep", 1)),
+            "panel", elementDefaults(defaults("state", "default", "questionsOrder", "default")));
+
+    private enum Context { SURVEY, PAGE, ELEMENT, OTHER }
+
+    /**
+     * Canonicalizes a serialized definition.
+     *
+     * @throws IllegalArgumentException If it is not well-formed JSON.
+     */
+    public static String canonicalize(String surveyJson) {
+        if (surveyJson == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(canonicalize(OBJECT_MAPPER.readTree(surveyJson)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid survey definition: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a canonical copy of the tree; the argument is not modified.
+     */
+    public static JsonNode canonicalize(JsonNode surveyJson) {
+        if (surveyJson == null) {
+            return null;
+        }
+        return surveyJson.isObject() ? canonicalizeObject(surveyJson, Context.SURVEY) : surveyJson;
+    }
+
+    /**
+     * Writes a canonical copy of a spooled definition, the same characters {@link #canonicalize(String)}
+     * returns, without reading the whole tree: the survey's own properties and one page at a time are
+     * held in memory. The spool is read twice, first to collect the survey's properties and then to
+     * copy the pages between them.
+     *
+     * @throws IllegalArgumentException If it is not well-formed JSON.
+     */
+    public static void canonicalize(DefinitionSpool source, Writer target) throws IOException {
+        TreeMap<String, JsonNode> properties = new TreeMap<>();
+        int pagesField = -1;
+        int pageCount = 0;
+        try (JsonParser parser = OBJECT_MAPPER.createParser(source.openReader());
+             JsonGenerator generator = OBJECT_MAPPER.createGenerator(target)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                // Not a survey, so nothing to stream; the tree form is small anyway
+                try (Reader reader = source.openReader()) {
+                    OBJECT_MAPPER.writeTree(generator, canonicalize(OBJECT_MAPPER.readTree(reader)));
+                }
+                return;
+            }
+            // Repeated keys: the last one wins, as when reading a tree
+            for (int field = 0; parser.nextToken() == JsonToken.FIELD_NAME; field++) {
+                String name = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && name.equals("pages")) {
+                    properties.remove(name);
+                    pagesField = field;
+                    pageCount = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                        pageCount++;
+                    }
+                } else {
+                    if (name.equals("pages")) {
+                        pagesField = -1;
+                        pageCount = 0;
+                    }
+                    properties.put(name, OBJECT_MAPPER.readTree(parser));
+                }
+            }
+
+            generator.writeStartObject();
+            writeProperties(generator, properties.headMap("pages", pagesField < 0)); // Includes a "pages" that is no array
+            if (pageCount > 0) {
+                generator.writeFieldName("pages");
+                writePages(source, pagesField, generator);
+            }
+            writeProperties(generator, properties.tailMap("pages", false));
+            generator.writeEndObject();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid survey definition: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static void writeProperties(JsonGenerator generator, Map<String, JsonNode> properties) throws IOException {
+        for (Map.Entry<String, JsonNode> property : properties.entrySet()) {
+            JsonNode canonical = canonicalField(property.getKey(), property.getValue(), SURVEY_DEFAULTS, Context.SURVEY);
+            if (canonical != null) {
+                generator.writeFieldName(property.getKey());
+                OBJECT_MAPPER.writeTree(generator, canonical);
+            }
+        }
+    }
+
+    // Copies the survey's field-th property, the pages array, one canonical page at a time
+    private static void writePages(DefinitionSpool source, int field, JsonGenerator generator) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.createParser(source.openReader())) {
+            parser.nextToken();
+            for (int i = 0; i < field; i++) {
+                parser.nextToken();
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            parser.nextToken();
+            parser.nextToken();
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode page = OBJECT_MAPPER.readTree(parser);
+                OBJECT_MAPPER.writeTree(generator, page.isContainerNode() ? canonicalizeValue(page, Context.PAGE) : page);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static JsonNode canonicalizeObject(JsonNode node, Context context) {
+        Map<String, JsonNode> defaults = defaultsFor(node, context);
+        Map<String, JsonNode> sorted = new TreeMap<>();
+        node.fields().forEachRemaining(field -> {
+            JsonNode canonical = canonicalField(field.getKey(), field.getValue(), defaults, context);
+            if (canonical != null) {
+                sorted.put(field.getKey(), canonical);
+            }
+        });
+        ObjectNode result = NODES.objectNode();
+        result.setAll(sorted);
+        return result;
+    }
+
+    // The property's canonical value, or null if it is dropped
+    private static JsonNode canonicalField(String name, JsonNode value, Map<String, JsonNode> defaults, Context context) {
+        if (value.equals(defaults.get(name))) {
+            return null;
+        }
+        JsonNode canonical = canonicalizeValue(value, childContext(context, name));
+        return canonical.isContainerNode() && canonical.isEmpty() ? null : canonical;
+    }
+
+    private static JsonNode canonicalizeValue(JsonNode value, Context itemContext) {
+        if (value.isObject()) {
+            return canonicalizeObject(value, itemContext);
+        }
+        if (value.isArray()) {
+            ArrayNode result = NODES.arrayNode(value.size());
+            for (JsonNode item : value) {
+                result.add(item.isContainerNode() ? canonicalizeValue(item, itemContext) : item);
+            }
+            return result;
+        }
+        return value;
+    }
+
+    // Pages live in the survey's "pages"; elements in any element array of a survey, page or panel
+    private static Context childContext(Context parent, String property) {
+        if (parent == Context.SURVEY && property.equals("pages")) {
+            return Context.PAGE;
+        }
+        if (parent != Context.OTHER && ELEMENT_ARRAYS.contains(property)) {
+            return Context.ELEMENT;
+        }
+        return Context.OTHER;
+    }
+
+    private static Map<String, JsonNode> defaultsFor(JsonNode node, Context context) {
+        return switch (context) {
+            case SURVEY -> SURVEY_DEFAULTS;
+            case PAGE -> PAGE_DEFAULTS;
+            case ELEMENT -> TYPE_DEFAULTS.getOrDefault(node.path("type").asText(), ELEMENT_DEFAULTS);
+            case OTHER -> Map.of();
+        };
+    }
+
+    private static Map<String, JsonNode> selectBaseDefaults() {
+        return defaults("showOtherItem", false, "hasOther", false, "showNoneItem", false, "hasNone", false,
+                "showSelectAllItem", false, "hasSelectAll", false, "choicesOrder", "none",
+                "separateSpecialChoices", false);
+    }
+
+    private static Map<String, JsonNode> elementDefaults(Map<String, JsonNode> typeDefaults) {
+        Map<String, JsonNode> merged = new TreeMap<>(ELEMENT_DEFAULTS);
+        merged.putAll(typeDefaults);
+        return Map.copyOf(merged);
+    }
+
+    private static Map<String, JsonNode> defaults(Object... namesAndValues) {
+        Map<String, JsonNode> defaults = new TreeMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            defaults.put((String) namesAndValues[i], OBJECT_MAPPER.valueToTree(namesAndValues[i + 1]));
+        }
+        return Map.copyOf(defaults);
+    }
+}
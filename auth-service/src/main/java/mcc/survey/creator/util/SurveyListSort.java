@@ -0,0 +1,54 @@
+package mcc.survey.creator.util;
+
+import java.util.Locale;
+
+/**
+ * Orderings of the paged survey list. Each sorts by one indexed column with the id as tie-break,
+ * so any of them can be paged with a keyset {@link SurveyCursor}.
+ */
+public enum SurveyListSort {
+    UPDATED("updatedAt"),
+    QUESTIONS("questionCount"),
+    PAGES("pageCount"),
+    SIZE("definitionBytes");
+
+    private final String attribute;
+
+    SurveyListSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * The Survey attribute sorted by.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Whether the cursor was issued for this ordering.
+     */
+    public boolean accepts(SurveyCursor cursor) {
+        if (this == UPDATED) {
+            return cursor.getUpdatedAt() != null;
+        }
+        // Sort columns are ints; a larger value cannot be a position in them
+        return cursor.getValue() != null && cursor.getValue() == cursor.getValue().intValue();
+    }
+
+    /**
+     * Parses the {@code sort} request parameter; null or blank means {@link #UPDATED}.
+     *
+     * @throws IllegalArgumentException If it names no known ordering.
+     */
+    public static SurveyListSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return UPDATED;
+        }
+        try {
+            return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: '" + sort + "'. Use updated, questions, pages or size.", e);
+        }
+    }
+}
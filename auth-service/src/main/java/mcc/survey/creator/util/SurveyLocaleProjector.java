@@ -0,0 +1,138 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Collapses the localizable strings of a SurveyJS definition to a single locale. A localizable
+ * string is an object such as {@code {"default": "Name", "zh-tw": "姓名"}}; it is replaced by the
+ * text for the requested locale, or by its {@code default} text when that locale is missing.
+ * The survey's {@code locale} is set to the requested one so SurveyJS renders its own UI strings
+ * in the same language.
+ */
+public class SurveyLocaleProjector {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final Pattern LOCALE = Pattern.compile("[a-z]{2,3}(-[a-z0-9]{2,8})?");
+    private static final String DEFAULT = "default";
+
+    // Properties SurveyJS declares as localizable; other objects only count if they have a "default" key
+    private static final Set<String> LOCALIZABLE = Set.of(
+            "title", "description", "text", "placeholder", "html", "completedHtml", "completedBeforeHtml",
+            "loadingHtml", "requiredErrorText", "otherText", "otherPlaceholder", "otherErrorText", "noneText",
+            "selectAllText", "commentText", "labelTrue", "labelFalse", "minRateDescription", "maxRateDescription",
+            "pagePrevText", "pageNextText", "completeText", "previewText", "editText", "startSurveyText",
+            "addRowText", "removeRowText", "panelAddText", "panelRemoveText", "emptyRowsText",
+            "confirmDeleteText", "keyDuplicationError", "requiredText", "questionTitlePattern");
+
+    /**
+     * Normalizes a requested locale to the lower-case, hyphenated form SurveyJS uses ({@code zh_TW}
+     * becomes {@code zh-tw}).
+     *
+     * @throws IllegalArgumentException If it does not look like a locale code.
+     */
+    public static String normalizeLocale(String locale) {
+        String normalized = locale == null ? "" : locale.trim().replace('_', '-').toLowerCase(Locale.ROOT);
+        if (!LOCALE.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("Invalid locale: '" + locale + "'.");
+        }
+        return normalized;
+    }
+
+    /**
+     * Projects a serialized definition.
+     *
+     * @param locale A locale already passed through {@link #normalizeLocale(String)}.
+     * @throws IllegalArgumentException If the definition is not well-formed JSON.
+     */
+    public static String project(String surveyJson, String locale) {
+        if (surveyJson == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(project(OBJECT_MAPPER.readTree(surveyJson), locale));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid survey definition: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a projected copy of the tree; the argument is not modified.
+     */
+    public static JsonNode project(JsonNode surveyJson, String locale) {
+        if (surveyJson == null || !surveyJson.isObject()) {
+            return surveyJson;
+        }
+        ObjectNode projected = (ObjectNode) projectNode(surveyJson, locale);
+        projected.put("locale", locale);
+        return projected;
+    }
+
+    private static JsonNode projectNode(JsonNode node, String locale) {
+        if (node.isObject()) {
+            ObjectNode result = NODES.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                result.set(field.getKey(), isLocalizable(field.getKey(), value)
+                        ? pick(value, locale)
+                        : projectNode(value, locale));
+            }
+            return result;
+        }
+        if (node.isArray()) {
+            ArrayNode result = NODES.arrayNode(node.size());
+            for (JsonNode item : node) {
+                result.add(projectNode(item, locale));
+            }
+            return result;
+        }
+        return node;
+    }
+
+    private static boolean isLocalizable(String property, JsonNode value) {
+        if (!value.isObject() || value.isEmpty() || !(LOCALIZABLE.contains(property) || value.has(DEFAULT))) {
+            return false;
+        }
+        Iterator<Map.Entry<String, JsonNode>> entries = value.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if (!entry.getValue().isTextual()
+                    || !(entry.getKey().equals(DEFAULT) || LOCALE.matcher(entry.getKey()).matches())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Requested locale, then its language ("zh" for "zh-tw"), then the default text, then any text
+    private static JsonNode pick(JsonNode texts, String locale) {
+        JsonNode text = texts.get(locale);
+        if (text == null) {
+            int dash = locale.indexOf('-');
+            if (dash > 0) {
+                text = texts.get(locale.substring(0, dash));
+            }
+        }
+        if (text == null) {
+            text = texts.get(DEFAULT);
+        }
+        if (text == null) {
+            text = texts.elements().next();
+        }
+        return TextNode.valueOf(text.asText());
+    }
+}
@@ -0,0 +1,147 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Walks the pages of a SurveyJS definition and lists every question with its page position,
+ * descending into panels and dynamic panel templates. Panels themselves are containers and are
+ * not reported as questions.
+ */
+public class SurveyQuestionExtractor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static class ExtractedQuestion {
+        private final int pageIndex;
+        private final String pageName;
+        private final String name;
+        private final String type;
+        private final String title;
+
+        public ExtractedQuestion(int pageIndex, String pageName, String name, String type, String title) {
+            this.pageIndex = pageIndex;
+            this.pageName = pageName;
+            this.name = name;
+            this.type = type;
+            this.title = title;
+        }
+
+        public int getPageIndex() {
+            return pageIndex;
+        }
+
+        public String getPageName() {
+            return pageName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Parses the definition and extracts its questions.
+     *
+     * @throws IllegalArgumentException If the definition is not valid JSON.
+     */
+    public static List<ExtractedQuestion> extract(String surveyJson) {
+        if (surveyJson == null || surveyJson.isBlank()) {
+            return List.of();
+        }
+        try {
+            return extract(OBJECT_MAPPER.readTree(surveyJson));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalArgumentException("Survey definition is not valid JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    public static List<ExtractedQuestion> extract(JsonNode root) {
+        List<ExtractedQuestion> questions = new ArrayList<>();
+        if (root == null || !root.isObject()) {
+            return questions;
+        }
+        JsonNode pages = root.path("pages");
+        if (pages.isArray()) {
+            for (int i = 0; i < pages.size(); i++) {
+                JsonNode page = pages.get(i);
+                collect(page.path("elements"), i, page.path("name").asText(null), questions);
+                collect(page.path("questions"), i, page.path("name").asText(null), questions); // Pre-"elements" format
+            }
+        } else {
+            // Single-page surveys may put elements on the root
+            collect(root.path("elements"), 0, null, questions);
+            collect(root.path("questions"), 0, null, questions);
+        }
+        return questions;
+    }
+
+    private static void collect(JsonNode elements, int pageIndex, String pageName, List<ExtractedQuestion> questions) {
+        if (!elements.isArray()) {
+            return;
+        }
+        for (JsonNode element : elements) {
+            String type = element.path("type").asText("");
+            if (!"panel".equals(type)) {
+                String name = element.path("name").asText(null);
+                questions.add(new ExtractedQuestion(pageIndex, pageName, name, type, defaultText(element.get("title"), name)));
+            }
+            collect(element.path("elements"), pageIndex, pageName, questions);
+            collect(element.path("templateElements"), pageIndex, pageName, questions);
+        }
+    }
+
+    /**
+     * Resolves a possibly localised SurveyJS string to its default-locale text.
+     */
+    public static String defaultText(JsonNode value, String fallback) {
+        if (value == null || value.isNull()) {
+            return fallback;
+        }
+        if (value.isTextual()) {
+            return value.asText();
+        }
+        if (value.isObject()) {
+            if (value.hasNonNull("default")) {
+                return value.get("default").asText();
+            }
+            if (value.size() > 0) {
+                return value.elements().next().asText();
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Hash of a title after trimming, lower-casing and collapsing whitespace, so the same
+     * question wording can be found across surveys.
+     */
+    public static String titleHash(String title) {
+        if (title == null) {
+            return null;
+        }
+        String normalized = title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pulls the human-readable text out of a SurveyJS definition: survey, page, panel and question
+ * titles and descriptions, plus choice, row and column labels. Localised strings
+ * ({"default": "...", "zh-tw": "..."}) contribute every locale.
+ */
+public class SurveyTextExtractor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Properties whose values are display text rather than structure or identifiers
+    private static final Set<String> TEXT_PROPERTIES = Set.of(
+            "title", "description", "text", "choices", "rows", "columns",
+            "placeholder", "labelTrue", "labelFalse", "minRateDescription", "maxRateDescription");
+
+    /**
+     * Concatenates the survey title, description and the display text found in the SurveyJS JSON.
+     * A definition that cannot be parsed contributes nothing rather than failing the caller.
+     */
+    public static String extract(String title, String description, String surveyJson) {
+        StringBuilder text = new StringBuilder();
+        append(text, title);
+        append(text, description);
+        if (surveyJson != null && !surveyJson.isBlank()) {
+            try {
+                collectFromStructure(OBJECT_MAPPER.readTree(surveyJson), text);
+            } catch (Exception e) {
+                // Malformed definitions are still searchable by title and description
+            }
+        }
+        return text.toString();
+    }
+
+    private static void collectFromStructure(JsonNode node, StringBuilder text) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (TEXT_PROPERTIES.contains(field.getKey())) {
+                    collectText(field.getValue(), text);
+                } else if (field.getValue().isContainerNode()) {
+                    collectFromStructure(field.getValue(), text);
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                collectFromStructure(element, text);
+            }
+        }
+    }
+
+    // Everything below a text property is text: plain strings, locale maps, or {value, text} items
+    private static void collectText(JsonNode node, StringBuilder text) {
+        if (node.isTextual()) {
+            append(text, node.asText());
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                collectText(element, text);
+            }
+        } else if (node.isObject()) {
+            boolean hasText = node.has("text");
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (hasText && "value".equals(field.getKey())) {
+                    continue; // The label is what users search for, not the stored value
+                }
+                collectText(field.getValue(), text);
+            }
+        } else if (node.isNumber()) {
+            append(text, node.asText());
+        }
+    }
+
+    private static void append(StringBuilder text, String value) {
+        if (value != null && !value.isBlank()) {
+            text.append(value).append('\n');
+        }
+    }
+}
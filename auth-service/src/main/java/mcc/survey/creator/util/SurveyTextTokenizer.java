@@ -0,0 +1,89 @@
+package mcc.survey.creator.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokenizer for the survey search index. Latin, digit and other alphabetic runs become lower-cased
+ * words. CJK text has no spaces between words, so Han, Kana and Hangul runs are split into
+ * overlapping bigrams ("滿意程度" becomes "滿意", "意程", "程度"); a lone CJK character is kept as is.
+ * Indexed text additionally gets every CJK character as a unigram ({@link #tokenizeForIndex}), so a
+ * one-character query matches inside longer runs, while longer queries still match by bigram.
+ */
+public class SurveyTextTokenizer {
+
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * Tokens of a query.
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    /**
+     * Tokens of text to index: those of {@link #tokenize} plus a unigram per CJK character.
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    private static List<String> tokenize(String text, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, unigrams, tokens);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, unigrams, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, unigrams, tokens);
+        return tokens;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            if (word.length() <= MAX_TOKEN_LENGTH) {
+                tokens.add(word.toString().toLowerCase(Locale.ROOT));
+            }
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, boolean unigrams, List<String> tokens) {
+        if (run.size() == 1 || unigrams) {
+            for (int codePoint : run) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        if (run.size() > 1) {
+            for (int i = 0; i + 1 < run.size(); i++) {
+                tokens.add(new StringBuilder().appendCodePoint(run.get(i)).appendCodePoint(run.get(i + 1)).toString());
+            }
+        }
+        run.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package mcc.survey.creator.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: a ring of buckets, one per tick, each holding the items due in that tick (or
+ * in the same slot of a later rotation). Scheduling is a lock-free append to one bucket, and
+ * advancing the wheel only looks at the buckets of the ticks that passed, so the cost of expiry is
+ * proportional to what expires rather than to everything scheduled. Deadlines are rounded up to
+ * the next tick. Any thread may schedule; only one may advance.
+ */
+public class TimerWheel<T> {
+
+    private record Timeout<T>(T item, long tick) {
+    }
+
+    private final long tickMillis;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private volatile long processedTick;
+
+    /**
+     * @param buckets Rounded up to a power of two; a rotation covering the usual deadline avoids
+     *                looking at items more than once.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int buckets, long nowMillis) {
+        if (tickMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Tick and bucket count must be positive.");
+        }
+        int size = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.processedTick = nowMillis / tickMillis;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        // Never into a tick already processed; a deadline in the past expires with the next one
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, processedTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * Processes every tick up to {@code nowMillis}, handing each item whose deadline has passed
+     * to {@code expired}. Items of a later rotation stay where they are.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        // After a long pause, one rotation visits every bucket
+        long tick = Math.max(processedTick, target - buckets.length);
+        while (tick < target) {
+            tick++;
+            Queue<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            List<Timeout<T>> later = new ArrayList<>();
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.tick() <= target) {
+                    expired.accept(timeout.item());
+                } else {
+                    later.add(timeout);
+                }
+            }
+            bucket.addAll(later);
+            processedTick = tick;
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+}
@@ -0,0 +1,37 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import mcc.survey.creator.service.SurveyDefinitionValidator;
+
+import java.io.IOException;
+
+/**
+ * Binds a survey definition embedded in a request body, validating it token by token while the
+ * body is read. The tokens are only buffered until the whole value has passed, so a definition
+ * that is too large, too deep or violates the schema is rejected before any tree is built for it.
+ * Instantiated by Spring's handler instantiator, which supplies the validator.
+ */
+public class ValidatingSurveyJsonDeserializer extends JsonDeserializer<JsonNode> {
+
+    private final SurveyDefinitionValidator validator;
+
+    public ValidatingSurveyJsonDeserializer(SurveyDefinitionValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the definition is malformed, too large or violates the schema.
+     */
+    @Override
+    public JsonNode deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        TokenBuffer buffer = context.bufferForInputBuffering(parser);
+        validator.validateValue(parser, buffer);
+        try (JsonParser validated = buffer.asParserOnFirstToken()) {
+            return context.readTree(validated);
+        }
+    }
+}
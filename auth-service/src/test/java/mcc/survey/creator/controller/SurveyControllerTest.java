@@ -6,10 +6,23 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 // JsonNodeFactory and ObjectNode are no longer needed for request DTO
 import mcc.survey.creator.dto.SurveyDTO;
+import mcc.survey.creator.dto.UserDTO;
 import mcc.survey.creator.model.Survey;
 import mcc.survey.creator.model.User;
 import mcc.survey.creator.repository.SurveyRepository;
 import mcc.survey.creator.repository.UserRepository;
+import mcc.survey.creator.service.EditLeaseService;
+import mcc.survey.creator.service.SurveyArchiveService;
+import mcc.survey.creator.service.SurveyAutosaveService;
+import mcc.survey.creator.service.SurveyChangeFeedService;
+import mcc.survey.creator.service.SurveyDefinitionCacheService;
+import mcc.survey.creator.service.SurveyDefinitionIngestService;
+import mcc.survey.creator.service.SurveyExportService;
+import mcc.survey.creator.service.SurveyImageService;
+import mcc.survey.creator.service.SurveyImportService;
+import mcc.survey.creator.service.SurveyReadModelService;
+import mcc.survey.creator.service.SurveyShareService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -22,6 +35,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -36,6 +50,39 @@ public class SurveyControllerTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SurveyExportService surveyExportService;
+
+    @Mock
+    private SurveyImportService surveyImportService;
+
+    @Mock
+    private SurveyArchiveService surveyArchiveService;
+
+    @Mock
+    private SurveyDefinitionCacheService surveyDefinitionCacheService;
+
+    @Mock
+    private SurveyImageService surveyImageService;
+
+    @Mock
+    private SurveyDefinitionIngestService surveyDefinitionIngestService;
+
+    @Mock
+    private SurveyAutosaveService surveyAutosaveService;
+
+    @Mock
+    private EditLeaseService editLeaseService;
+
+    @Mock
+    private SurveyChangeFeedService surveyChangeFeedService;
+
+    @Mock
+    private SurveyReadModelService surveyReadModelService;
+
+    @Mock
+    private SurveyShareService surveyShareService;
+
     @Mock
     private Authentication authentication;
 
@@ -44,6 +91,28 @@ public class SurveyControllerTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper(); // Keep for potential response validation or other tests
 
+    @BeforeEach
+    void setUp() {
+        // Definitions without inline images pass through unchanged
+        lenient().when(surveyImageService.extractImages(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(surveyReadModelService.toDTO(any(Survey.class))).thenAnswer(invocation -> toDTO(invocation.getArgument(0)));
+    }
+
+    // What SurveyReadModelService renders, for the fields these tests look at
+    private SurveyDTO toDTO(Survey survey) throws JsonProcessingException {
+        SurveyDTO dto = new SurveyDTO();
+        dto.setId(survey.getId());
+        dto.setTitle(survey.getTitle());
+        dto.setDescription(survey.getDescription());
+        dto.setSurveyJson(survey.getSurveyJson() != null ? objectMapper.readTree(survey.getSurveyJson()) : null);
+        dto.setStatus(survey.getStatus());
+        if (survey.getOwner() != null) {
+            User owner = survey.getOwner();
+            dto.setOwner(new UserDTO(owner.getId(), owner.getUsername(), owner.getEmail(), null, null, null, null, Set.of(), true));
+        }
+        return dto;
+    }
+
     @Test
     void testCreateSurvey_Success() throws Exception {
         // Arrange
@@ -52,7 +121,7 @@ public class SurveyControllerTest {
         dto.setDescription("Test Description");
         dto.setSurveyMode("Test Mode");
         dto.setDataClassification("Test Classification");
-        dto.setStatus("Test Status");
+        dto.setStatus("draft"); // Saves follow the status lifecycle
 
         // surveyJson is now a String directly in SurveyDTO
         String surveyJsonString = "{\"question\":\"What is your name?\"}";
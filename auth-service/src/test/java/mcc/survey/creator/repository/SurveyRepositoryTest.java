@@ -0,0 +1,170 @@
+package mcc.survey.creator.repository;
+
+import mcc.survey.creator.dto.SurveyListFilter;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.util.SurveyCursor;
+import mcc.survey.creator.util.SurveyDefinitionMetrics;
+import mcc.survey.creator.util.SurveyListSort;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional // Rollback transactions after each test
+public class SurveyRepositoryTest {
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private User colleague;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(newUser("repo-owner"));
+        colleague = userRepository.save(newUser("repo-colleague"));
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private Survey newSurvey(String title, User surveyOwner) {
+        Survey survey = new Survey("public", surveyOwner, "restricted", "draft", "{\"pages\":[]}");
+        survey.setTitle(title);
+        return survey;
+    }
+
+    @Test
+    void findSummariesByOwnerUsername_returnsOwnedSurveysWithShareCount() {
+        Survey shared = newSurvey("Shared survey", owner);
+        shared.getSharedWithUsers().add(colleague);
+        surveyRepository.save(shared);
+        surveyRepository.save(newSurvey("Private survey", owner));
+        surveyRepository.save(newSurvey("Someone else's survey", colleague));
+
+        List<SurveySummaryDTO> summaries = surveyRepository.findSummariesByOwnerUsername("repo-owner");
+
+        assertEquals(2, summaries.size());
+        SurveySummaryDTO sharedSummary = summaries.stream()
+                .filter(s -> s.getTitle().equals("Shared survey"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, sharedSummary.getShareCount());
+        assertEquals("draft", sharedSummary.getStatus());
+        assertEquals("public", sharedSummary.getSurveyMode());
+        assertEquals("restricted", sharedSummary.getDataClassification());
+    }
+
+    @Test
+    void findSummariesByOwnerUsername_unknownUser_returnsEmptyList() {
+        assertTrue(surveyRepository.findSummariesByOwnerUsername("nobody").isEmpty());
+    }
+
+    @Test
+    void findSummaryPage_walksAllRowsOnceInKeysetOrder() {
+        for (int i = 0; i < 5; i++) {
+            surveyRepository.save(newSurvey("Survey " + i, owner));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        SurveyCursor cursor = null;
+        List<SurveySummaryDTO> page;
+        do {
+            page = surveyRepository.findSummaryPage("repo-owner", null, cursor, false, 2);
+            page.forEach(row -> seen.add(row.getId()));
+            if (!page.isEmpty()) {
+                SurveySummaryDTO last = page.get(page.size() - 1);
+                cursor = SurveyCursor.decode(new SurveyCursor(last.getUpdatedAt(), last.getId()).encode());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().distinct().count());
+    }
+
+    @Test
+    void findSummaryPage_appliesFilters() {
+        Survey published = newSurvey("Quarterly feedback", owner);
+        published.setStatus("published");
+        surveyRepository.save(published);
+        surveyRepository.save(newSurvey("Quarterly draft", owner));
+        surveyRepository.save(newSurvey("Annual review", owner));
+
+        List<SurveySummaryDTO> byPrefix = surveyRepository.findSummaryPage("repo-owner",
+                new SurveyListFilter(null, null, null, "Quarterly"), null, false, 10);
+        assertEquals(2, byPrefix.size());
+
+        List<SurveySummaryDTO> byStatusAndPrefix = surveyRepository.findSummaryPage("repo-owner",
+                new SurveyListFilter("published", null, null, "Quarterly"), null, false, 10);
+        assertEquals(1, byStatusAndPrefix.size());
+        assertEquals("Quarterly feedback", byStatusAndPrefix.get(0).getTitle());
+    }
+
+    @Test
+    void findSummaryPage_sortsAndFiltersByDerivedMetrics() {
+        int[] questionCounts = {7, 2, 7, 12, 0};
+        for (int i = 0; i < questionCounts.length; i++) {
+            Survey survey = newSurvey("Sized " + i, owner);
+            new SurveyDefinitionMetrics(1, questionCounts[i], 100 * i, i % 2 == 0).applyTo(survey);
+            surveyRepository.save(survey);
+        }
+        surveyRepository.save(newSurvey("Not backfilled", owner));
+
+        List<Integer> seen = new ArrayList<>();
+        SurveyCursor cursor = null;
+        do {
+            List<SurveySummaryDTO> page = surveyRepository.findSummaryPage("repo-owner", null, SurveyListSort.QUESTIONS,
+                    cursor, false, 2);
+            page.forEach(row -> seen.add(row.getQuestionCount()));
+            SurveySummaryDTO last = page.isEmpty() ? null : page.get(page.size() - 1);
+            cursor = page.size() < 2 ? null : new SurveyCursor(last.getQuestionCount(), last.getId());
+        } while (cursor != null);
+        assertEquals(List.of(12, 7, 7, 2, 0), seen);
+
+        SurveyListFilter filter = new SurveyListFilter();
+        filter.setMinQuestions(2);
+        filter.setMaxQuestions(7);
+        filter.setHasLogic(true);
+        List<SurveySummaryDTO> filtered = surveyRepository.findSummaryPage("repo-owner", filter, null, false, 10);
+        assertEquals(List.of("Sized 2", "Sized 0"), filtered.stream().map(SurveySummaryDTO::getTitle).toList());
+        assertEquals(Boolean.TRUE, filtered.get(0).getHasLogic());
+    }
+
+    @Test
+    void findById_leavesDefinitionUnloadedUntilRead() {
+        Long id = surveyRepository.save(newSurvey("Lazy", owner)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Survey survey = surveyRepository.findById(id).orElseThrow();
+        survey.setStatus("published");
+        entityManager.flush();
+
+        assertFalse(Hibernate.isInitialized(survey.getDefinition()));
+        assertFalse(survey.isDefinitionLoaded());
+        assertEquals("{\"pages\":[]}", survey.getSurveyJson());
+        assertTrue(survey.isDefinitionLoaded());
+    }
+}
@@ -0,0 +1,81 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.dto.BackgroundJobStatusDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundJobTest {
+
+    private final BackgroundJob job = new BackgroundJob(LoggerFactory.getLogger(BackgroundJobTest.class), "Test job",
+            "scannedSurveys", "skippedSurveys");
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    void start_runsOnceAtATimeAndResetsCounters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(job.start(() -> {
+            job.counter("scannedSurveys").addAndGet(3);
+            release.await();
+        }));
+        assertFalse(job.start(() -> fail("A second run must not start")));
+        assertTrue(job.getStatus().isRunning());
+
+        release.countDown();
+        awaitFinished();
+        BackgroundJobStatusDTO status = job.getStatus();
+        assertEquals(3, status.getCount("scannedSurveys"));
+        assertNotNull(status.getFinishedAt());
+
+        assertTrue(job.start(() -> job.counter("skippedSurveys").incrementAndGet()));
+        awaitFinished();
+        assertEquals(0, job.getStatus().getCount("scannedSurveys"));
+        assertEquals(1, job.getStatus().getCount("skippedSurveys"));
+    }
+
+    @Test
+    void start_failedWorkEndsTheRunAndStopsTrackedPools() throws Exception {
+        ExecutorService[] pool = new ExecutorService[1];
+        assertTrue(job.start(() -> {
+            pool[0] = job.track(Executors.newFixedThreadPool(2));
+            throw new IllegalStateException("boom");
+        }));
+        awaitFinished();
+
+        assertTrue(pool[0].awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(job.start(() -> { }));
+    }
+
+    @Test
+    void getStatus_sendsCountersAsFieldsOfTheirOwn() throws Exception {
+        JsonNode json = new ObjectMapper().findAndRegisterModules().valueToTree(job.getStatus());
+
+        assertFalse(json.get("running").asBoolean());
+        assertEquals(0, json.get("scannedSurveys").asInt());
+        assertFalse(json.has("details"));
+    }
+
+    @Test
+    void counter_unknownNameIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> job.counter("filledSurveys"));
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        while (job.getStatus().isRunning()) {
+            Thread.sleep(10);
+        }
+    }
+}
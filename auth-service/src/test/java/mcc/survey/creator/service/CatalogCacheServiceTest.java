@@ -0,0 +1,116 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.AuthorityDto;
+import mcc.survey.creator.dto.CacheRegionStatsDTO;
+import mcc.survey.creator.dto.CreateRoleRequest;
+import mcc.survey.creator.dto.RoleDto;
+import mcc.survey.creator.dto.UpdateRoleRequest;
+import mcc.survey.creator.model.Authority;
+import mcc.survey.creator.model.CacheRegions;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.AuthorityRepository;
+import mcc.survey.creator.repository.RoleRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.catalog-cache.statistics=true")
+public class CatalogCacheServiceTest {
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByUsername("catalog-cache-user").ifPresent(userRepository::delete);
+        roleRepository.findByName("ROLE_CACHE_TEST").ifPresent(roleRepository::delete);
+        roleRepository.findByName("ROLE_CACHE_TEST_RENAMED").ifPresent(roleRepository::delete);
+    }
+
+    private CacheRegionStatsDTO stats(String region) {
+        return catalogCacheService.getRegionStats().stream()
+                .filter(s -> s.getRegion().equals(region))
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    void getAllRoles_repeatCallsAreServedFromTheQueryCache() {
+        roleService.getAllRoles();
+        long hits = stats(CacheRegions.CATALOG_QUERIES).getHits();
+
+        roleService.getAllRoles();
+        roleService.getAllAuthorities();
+        roleService.getAllAuthorities();
+
+        assertTrue(stats(CacheRegions.CATALOG_QUERIES).getHits() >= hits + 2);
+        assertTrue(stats(CacheRegions.ROLE).getPuts() > 0);
+    }
+
+    @Test
+    void roleWrites_areVisibleThroughTheCachedReads() {
+        Authority create = authorityRepository.findByName("OP_CREATE_SURVEY").orElseThrow();
+        Authority share = authorityRepository.findByName("OP_SHARE_SURVEY").orElseThrow();
+        CreateRoleRequest createRequest = new CreateRoleRequest();
+        createRequest.setName("ROLE_CACHE_TEST");
+        createRequest.setAuthorityIds(Set.of(create.getId()));
+        RoleDto created = roleService.createRole(createRequest);
+        assertTrue(roleService.getAllRoles().stream().anyMatch(r -> r.getName().equals("ROLE_CACHE_TEST")));
+        roleService.getRoleById(created.getId());
+
+        UpdateRoleRequest updateRequest = new UpdateRoleRequest();
+        updateRequest.setName("ROLE_CACHE_TEST_RENAMED");
+        updateRequest.setAuthorityIds(Set.of(share.getId()));
+        roleService.updateRole(created.getId(), updateRequest);
+
+        RoleDto reloaded = roleService.getRoleById(created.getId());
+        assertEquals("ROLE_CACHE_TEST_RENAMED", reloaded.getName());
+        assertEquals(Set.of("OP_SHARE_SURVEY"),
+                reloaded.getAuthorities().stream().map(AuthorityDto::getName).collect(Collectors.toSet()));
+        assertTrue(roleService.getAllRoles().stream().anyMatch(r -> r.getName().equals("ROLE_CACHE_TEST_RENAMED")));
+
+        roleService.deleteRole(created.getId());
+        assertTrue(roleService.getAllRoles().stream().noneMatch(r -> r.getId().equals(created.getId())));
+    }
+
+    @Test
+    void userRoles_areReadFromTheCollectionCacheOnRepeatLoads() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setUsername("catalog-cache-user");
+            user.setEmail("catalog-cache-user@example.com");
+            user.setPassword("encoded");
+            user.setRoles(Set.of(roleRepository.findByName("ROLE_USER").orElseThrow()));
+            userRepository.save(user);
+        });
+
+        userRepository.findByUsername("catalog-cache-user").orElseThrow();
+        long hits = stats(CacheRegions.USER_ROLES).getHits();
+        User loaded = userRepository.findByUsername("catalog-cache-user").orElseThrow();
+
+        assertEquals(1, loaded.getRoles().size());
+        assertTrue(stats(CacheRegions.USER_ROLES).getHits() > hits);
+    }
+}
@@ -0,0 +1,87 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.EditLeaseDTO;
+import mcc.survey.creator.exception.EditLeaseConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditLeaseServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private EditLeaseService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EditLeaseService(30_000, 1_000, now::get);
+    }
+
+    @Test
+    void acquire_secondEditorIsReadOnlyAndCannotSave() {
+        EditLeaseDTO owner = service.acquire(1L, "owner");
+        EditLeaseDTO other = service.acquire(1L, "shared");
+
+        assertFalse(owner.isReadOnly());
+        assertNotNull(owner.getToken());
+        assertTrue(other.isReadOnly());
+        assertEquals("owner", other.getHolder());
+        assertNull(other.getToken());
+
+        assertDoesNotThrow(() -> service.checkWritable(1L, owner.getToken()));
+        assertThrows(EditLeaseConflictException.class, () -> service.checkWritable(1L, null));
+        assertDoesNotThrow(() -> service.checkWritable(2L, null)); // Not leased
+    }
+
+    @Test
+    void acquire_sameUserTakesOverTheirLease() {
+        EditLeaseDTO firstTab = service.acquire(1L, "owner");
+        EditLeaseDTO secondTab = service.acquire(1L, "owner");
+
+        assertFalse(secondTab.isReadOnly());
+        assertNotEquals(firstTab.getToken(), secondTab.getToken());
+        assertTrue(service.renew(1L, firstTab.getToken(), "owner").isReadOnly());
+    }
+
+    @Test
+    void expireLeases_dropsLeasesNotRenewed() {
+        EditLeaseDTO kept = service.acquire(1L, "owner");
+        service.acquire(2L, "owner");
+
+        now.addAndGet(20_000);
+        service.renew(1L, kept.getToken(), "owner");
+        now.addAndGet(15_000);
+        service.expireLeases();
+
+        assertEquals(1, service.getActiveLeaseCount());
+        assertTrue(service.acquire(1L, "shared").isReadOnly());
+        assertFalse(service.acquire(2L, "shared").isReadOnly());
+    }
+
+    @Test
+    void renew_afterExpiryRegrantsUnlessTaken() {
+        EditLeaseDTO first = service.acquire(1L, "owner");
+        now.addAndGet(31_000);
+
+        EditLeaseDTO regranted = service.renew(1L, first.getToken(), "owner");
+        assertFalse(regranted.isReadOnly());
+        assertEquals(first.getToken(), regranted.getToken());
+
+        now.addAndGet(31_000);
+        EditLeaseDTO taken = service.acquire(1L, "shared"); // Expired, though the wheel has not ticked
+        assertFalse(taken.isReadOnly());
+        assertTrue(service.renew(1L, first.getToken(), "owner").isReadOnly());
+    }
+
+    @Test
+    void release_freesTheSurvey() {
+        EditLeaseDTO lease = service.acquire(1L, "owner");
+        service.release(1L, "not-the-token");
+        assertTrue(service.acquire(1L, "shared").isReadOnly());
+
+        service.release(1L, lease.getToken());
+        assertFalse(service.acquire(1L, "shared").isReadOnly());
+    }
+}
@@ -0,0 +1,134 @@
+package mcc.survey.creator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapDefinitionCacheTest {
+
+    private static final int CHUNK = 1024;
+
+    private static byte[] bytes(int length, char fill) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+
+    @Test
+    void get_returnsStoredBytesOnlyForTheSameVersion() throws IOException {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(16 * CHUNK, CHUNK, 8 * CHUNK);
+        byte[] definition = "{\"pages\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(cache.put(1L, 100L, definition));
+
+        try (OffHeapDefinitionCache.Lease lease = cache.get(1L, 100L)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            lease.writeTo(out);
+            assertArrayEquals(definition, out.toByteArray());
+        }
+        assertNull(cache.get(1L, 101L));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void put_spanningSeveralChunks_roundTrips() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(16 * CHUNK, CHUNK, 8 * CHUNK);
+        byte[] definition = bytes(3 * CHUNK + 17, 'x');
+
+        cache.put(7L, 1L, definition);
+
+        try (OffHeapDefinitionCache.Lease lease = cache.get(7L, 1L)) {
+            assertArrayEquals(definition, lease.toByteArray());
+        }
+        assertEquals(definition.length, cache.stats().bytesHeld());
+    }
+
+    @Test
+    void lease_rangesAndStreamsAcrossChunkBoundaries() throws IOException {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(16 * CHUNK, CHUNK, 8 * CHUNK);
+        byte[] definition = new byte[3 * CHUNK + 17];
+        for (int i = 0; i < definition.length; i++) {
+            definition[i] = (byte) i;
+        }
+        cache.put(7L, 1L, definition);
+
+        try (OffHeapDefinitionCache.Lease lease = cache.get(7L, 1L)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            lease.writeTo(out, CHUNK - 5, CHUNK + 10);
+            assertArrayEquals(Arrays.copyOfRange(definition, CHUNK - 5, 2 * CHUNK + 5), out.toByteArray());
+            assertArrayEquals(definition, lease.openStream().readAllBytes());
+            assertThrows(IndexOutOfBoundsException.class, () -> lease.writeTo(new ByteArrayOutputStream(), 3 * CHUNK, 18));
+        }
+    }
+
+    @Test
+    void invalidate_freesTheEntry() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(16 * CHUNK, CHUNK, 8 * CHUNK);
+        cache.put(1L, 1L, bytes(100, 'a'));
+
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L, 1L));
+        assertEquals(0, cache.stats().bytesHeld());
+    }
+
+    @Test
+    void put_largerThanMaxEntry_isRejected() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(16 * CHUNK, CHUNK, 2 * CHUNK);
+
+        assertFalse(cache.put(1L, 1L, bytes(3 * CHUNK, 'a')));
+        assertEquals(1, cache.stats().rejections());
+    }
+
+    @Test
+    void put_coldHugeEntry_cannotFlushHotSmallOnes() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(8 * CHUNK, CHUNK, 8 * CHUNK);
+        for (long key = 1; key <= 8; key++) {
+            cache.put(key, 1L, bytes(100, 'a'));
+            for (int read = 0; read < 5; read++) {
+                cache.get(key, 1L).close();
+            }
+        }
+
+        assertFalse(cache.put(99L, 1L, bytes(6 * CHUNK, 'b')));
+        assertEquals(8, cache.stats().entries());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    void put_hotEntry_evictsColdLeastRecentlyUsedOnes() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(4 * CHUNK, CHUNK, 4 * CHUNK);
+        for (long key = 1; key <= 4; key++) {
+            cache.put(key, 1L, bytes(100, 'a'));
+        }
+        for (int read = 0; read < 5; read++) {
+            assertNull(cache.get(50L, 1L)); // Misses still count towards popularity
+        }
+
+        assertTrue(cache.put(50L, 1L, bytes(2 * CHUNK, 'b')));
+        assertEquals(2, cache.stats().evictions());
+        assertNull(cache.get(1L, 1L));
+        assertNull(cache.get(2L, 1L));
+    }
+
+    @Test
+    void invalidate_whileLeased_keepsBytesReadableUntilClosed() {
+        OffHeapDefinitionCache cache = new OffHeapDefinitionCache(2 * CHUNK, CHUNK, 2 * CHUNK);
+        byte[] first = bytes(2 * CHUNK, 'a');
+        cache.put(1L, 1L, first);
+
+        OffHeapDefinitionCache.Lease lease = cache.get(1L, 1L);
+        cache.invalidate(1L);
+        assertFalse(cache.put(2L, 1L, bytes(CHUNK, 'b'))); // Chunks still pinned by the lease
+        assertArrayEquals(first, lease.toByteArray());
+        lease.close();
+
+        assertTrue(cache.put(2L, 1L, bytes(CHUNK, 'b')));
+    }
+}
@@ -0,0 +1,66 @@
+package mcc.survey.creator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SurveyArchiveSegmentTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String definition(long id) {
+        return "{\"title\":\"Survey " + id + "\",\"pages\":[{\"name\":\"p" + id + "\",\"text\":\"" + "x".repeat((int) id % 50) + "\"}]}";
+    }
+
+    @Test
+    void read_findsEveryRecordThroughTheSparseIndex() throws IOException {
+        Path file = tempDir.resolve("segment-000001.seg");
+        try (SurveyArchiveSegment.Writer writer = new SurveyArchiveSegment.Writer(file)) {
+            for (long id = 10; id < 10 + 3 * SurveyArchiveSegment.INDEX_INTERVAL + 5; id += 2) {
+                writer.append(id, definition(id));
+            }
+        }
+
+        SurveyArchiveSegment segment = SurveyArchiveSegment.open(file);
+
+        for (long id = 10; id < 10 + 3 * SurveyArchiveSegment.INDEX_INTERVAL + 5; id += 2) {
+            assertEquals(definition(id), segment.read(id));
+        }
+        assertNull(segment.read(9));   // Before the first record
+        assertNull(segment.read(11));  // Between two records
+        assertNull(segment.read(1000)); // After the last record
+    }
+
+    @Test
+    void read_handlesMultibyteDefinitions() throws IOException {
+        Path file = tempDir.resolve("segment-000002.seg");
+        String chinese = "{\"title\":\"客戶滿意度調查\"}";
+        try (SurveyArchiveSegment.Writer writer = new SurveyArchiveSegment.Writer(file)) {
+            writer.append(1, chinese);
+        }
+
+        assertEquals(chinese, SurveyArchiveSegment.open(file).read(1));
+    }
+
+    @Test
+    void append_outOfOrder_isRejected() throws IOException {
+        try (SurveyArchiveSegment.Writer writer = new SurveyArchiveSegment.Writer(tempDir.resolve("segment-000003.seg"))) {
+            writer.append(5, "{}");
+            assertThrows(IllegalArgumentException.class, () -> writer.append(5, "{}"));
+        }
+    }
+
+    @Test
+    void open_rejectsAFileThatIsNotASegment() throws IOException {
+        Path file = tempDir.resolve("garbage.seg");
+        Files.writeString(file, "this is not an archive segment");
+
+        assertThrows(IOException.class, () -> SurveyArchiveSegment.open(file));
+    }
+}
@@ -0,0 +1,136 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Zero minimum age so every expired survey is archivable straight away
+@SpringBootTest(properties = {"app.survey-archive.min-age-days=0",
+        "app.survey-archive.directory=${java.io.tmpdir}/survey-creator/archive-test"})
+public class SurveyArchiveServiceTest {
+
+    private static final String DEFINITION =
+            "{\"pages\":[{\"name\":\"cold\",\"elements\":[{\"type\":\"text\",\"name\":\"depth\",\"title\":\"Glacier depth\"}]}]}";
+
+    @Autowired
+    private SurveyArchiveService surveyArchiveService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveySearchService surveySearchService;
+
+    @Autowired
+    private SurveyQuestionCatalogService surveyQuestionCatalogService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("archive-owner");
+        user.setEmail("archive-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "archive-owner".equals(s.getOwner().getUsername()))
+                .toList());
+        userRepository.delete(owner);
+    }
+
+    private Long saveSurvey(String title, String status) throws InterruptedException {
+        Survey survey = new Survey("public", owner, "restricted", status, DEFINITION);
+        survey.setTitle(title);
+        Long id = surveyRepository.save(survey).getId();
+        Thread.sleep(5); // updatedAt must be strictly before the archive cutoff
+        return id;
+    }
+
+    @Test
+    void archiveExpired_leavesStubAndServesDefinitionFromSegment() throws Exception {
+        Long expired = saveSurvey("Expired", Survey.STATUS_EXPIRED);
+        Long live = saveSurvey("Live", "published");
+
+        assertTrue(surveyArchiveService.archiveExpired() >= 1);
+
+        Survey stub = surveyRepository.findById(expired).orElseThrow();
+        assertTrue(stub.isArchived());
+        assertNull(surveyRepository.findTextViewById(expired).orElseThrow().getSurveyJson());
+        assertEquals(DEFINITION, surveyArchiveService.resolveDefinition(stub));
+        assertFalse(surveyRepository.findById(live).orElseThrow().isArchived());
+    }
+
+    @Test
+    void rehydrate_bringsDefinitionBackIntoTheTable() throws Exception {
+        Long expired = saveSurvey("Expired", Survey.STATUS_EXPIRED);
+        surveyArchiveService.archiveExpired();
+
+        Survey rehydrated = surveyArchiveService.rehydrate(expired);
+
+        assertFalse(rehydrated.isArchived());
+        Survey stored = surveyRepository.findById(expired).orElseThrow();
+        assertFalse(stored.isArchived());
+        assertEquals(DEFINITION, surveyRepository.findTextViewById(expired).orElseThrow().getSurveyJson());
+    }
+
+    @Test
+    void rehydrate_ofDeletedSurvey_isNotFound() throws Exception {
+        Long expired = saveSurvey("Expired", Survey.STATUS_EXPIRED);
+        surveyArchiveService.archiveExpired();
+        surveyService.deleteSurvey(expired, "archive-owner");
+
+        assertThrows(ResourceNotFoundException.class, () -> surveyArchiveService.rehydrate(expired));
+    }
+
+    @Test
+    void archivedSurveys_keepTheirSearchTextAndCatalogRows() throws Exception {
+        Long expired = saveSurvey("Expired", Survey.STATUS_EXPIRED);
+        surveyArchiveService.archiveExpired();
+
+        // Changes and rebuilds that read the definition from the table, where a stub has none
+        eventPublisher.publishEvent(new SurveyChangedEvent(expired, SurveyChangedEvent.Type.SAVED, null));
+        surveySearchService.rebuild();
+
+        assertEquals(List.of(expired), surveySearchService.search("archive-owner", "glacier", 10).stream()
+                .map(SurveySummaryDTO::getId).toList());
+        assertEquals(1, surveyQuestionCatalogService.getQuestionsForSurvey(expired).size());
+    }
+
+    @Test
+    void cloneSurvey_ofArchivedSurvey_copiesDefinitionFromArchive() throws Exception {
+        Long expired = saveSurvey("Expired", Survey.STATUS_EXPIRED);
+        surveyArchiveService.archiveExpired();
+
+        Survey clone = surveyService.cloneSurvey(expired, "archive-owner");
+
+        assertEquals(DEFINITION, surveyRepository.findTextViewById(clone.getId()).orElseThrow().getSurveyJson());
+    }
+}
@@ -0,0 +1,132 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SurveyAutosaveServiceTest {
+
+    @Mock
+    private SurveyDefinitionValidator surveyDefinitionValidator;
+
+    @Mock
+    private SurveyDefinitionIngestService surveyDefinitionIngestService;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(surveyDefinitionIngestService.replaceDefinition(anyLong(), anyLong(), any(InputStream.class)))
+                .thenAnswer(invocation -> {
+                    try (InputStream in = invocation.getArgument(2)) {
+                        written.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                    return new SurveySummaryDTO();
+                });
+    }
+
+    private SurveyAutosaveService newService() throws IOException {
+        SurveyAutosaveService service = new SurveyAutosaveService(surveyDefinitionValidator, surveyDefinitionIngestService,
+                tempDir.resolve("autosave.log").toString());
+        service.recover();
+        return service;
+    }
+
+    @Test
+    void autosave_coalescesDraftsUntilFlushed() throws IOException {
+        SurveyAutosaveService service = newService();
+        service.autosave(1L, "{\"v\":1}");
+        service.autosave(1L, "{\"v\":2}");
+        service.autosave(1L, "{\"v\":3}");
+        service.autosave(2L, "{\"v\":4}");
+
+        assertEquals(2, service.getPendingCount());
+        verifyNoInteractions(surveyDefinitionIngestService);
+
+        service.flushAll();
+
+        assertEquals(List.of("{\"v\":3}", "{\"v\":4}"), written.stream().sorted().toList());
+        assertEquals(0, service.getPendingCount());
+        service.flushAll();
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    void recover_replaysOnlyDraftsNotWritten() throws IOException {
+        SurveyAutosaveService crashed = newService();
+        crashed.autosave(1L, "{\"v\":1}");
+        crashed.flushAll();
+        crashed.autosave(1L, "{\"v\":2}");
+        crashed.autosave(2L, "{\"v\":3}");
+        crashed.discard(2L);
+        // No shutdown: the process died here
+
+        SurveyAutosaveService restarted = newService();
+        assertEquals(1, restarted.getPendingCount());
+        restarted.flushAll();
+
+        assertEquals(List.of("{\"v\":1}", "{\"v\":2}"), written);
+    }
+
+    @Test
+    void flush_keepsDraftAfterTransientFailure() throws IOException {
+        SurveyAutosaveService service = newService();
+        service.autosave(1L, "{\"v\":1}");
+        doThrow(new IllegalStateException("database down"))
+                .when(surveyDefinitionIngestService).replaceDefinition(eq(1L), anyLong(), any(InputStream.class));
+
+        service.flushAll();
+        assertEquals(1, service.getPendingCount());
+
+        reset(surveyDefinitionIngestService);
+        setUp(); // The database is back
+        service.flushAll();
+        assertEquals(List.of("{\"v\":1}"), written);
+        assertEquals(0, service.getPendingCount());
+    }
+
+    @Test
+    void flush_dropsDraftOfMissingSurvey() throws IOException {
+        SurveyAutosaveService service = newService();
+        service.autosave(1L, "{\"v\":1}");
+        when(surveyDefinitionIngestService.replaceDefinition(eq(1L), anyLong(), any(InputStream.class)))
+                .thenThrow(new ResourceNotFoundException("gone"));
+
+        service.flushAll();
+
+        assertEquals(0, service.getPendingCount());
+        assertEquals(0, newService().getPendingCount());
+    }
+
+    @Test
+    void autosave_rejectsInvalidDefinitionWithoutKeepingIt() throws IOException {
+        SurveyAutosaveService service = newService();
+        doThrow(new IllegalArgumentException("Invalid survey definition")).when(surveyDefinitionValidator).validate(anyString());
+
+        assertThrows(IllegalArgumentException.class, () -> service.autosave(1L, "{\"pages\": 1}"));
+        assertEquals(0, service.getPendingCount());
+    }
+}
@@ -0,0 +1,167 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyChangesDTO;
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the feed records changes once they are committed
+@SpringBootTest
+public class SurveyChangeFeedServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+
+    @Autowired
+    private SurveyChangeFeedService surveyChangeFeedService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(user("feed-owner"));
+        userRepository.save(user("feed-reader"));
+        Survey survey = new Survey("public", owner, "restricted", "draft", DEFINITION);
+        survey.setTitle("Feed");
+        surveyId = surveyRepository.save(survey).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM survey_shared_users WHERE survey_id = ?", surveyId);
+        jdbcTemplate.update("DELETE FROM survey_feed_audience WHERE survey_id = ?", surveyId);
+        transactionTemplate.executeWithoutResult(status -> surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "feed-owner".equals(s.getOwner().getUsername()))
+                .forEach(surveyRepository::delete));
+        userRepository.findByUsername("feed-reader").ifPresent(userRepository::delete);
+        userRepository.findByUsername("feed-owner").ifPresent(userRepository::delete);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private void setShared(boolean shared) {
+        Long readerId = userRepository.findByUsername("feed-reader").orElseThrow().getId();
+        if (shared) {
+            jdbcTemplate.update("INSERT INTO survey_shared_users (survey_id, user_id) VALUES (?, ?)", surveyId, readerId);
+        } else {
+            jdbcTemplate.update("DELETE FROM survey_shared_users WHERE survey_id = ? AND user_id = ?", surveyId, readerId);
+        }
+        // As the share endpoints do: a change to the collection alone does not reach the entity listener
+        surveyChangeFeedService.onSurveyChanged(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.SAVED, null));
+    }
+
+    private static List<Long> ids(SurveyChangesDTO changes) {
+        return changes.getChanged().stream().map(SurveySummaryDTO::getId).toList();
+    }
+
+    @Test
+    void changesSince_withoutCursorReturnsWholeList() {
+        SurveyChangesDTO changes = surveyChangeFeedService.changesSince("feed-owner", null);
+
+        assertTrue(changes.isReset());
+        assertEquals(List.of(surveyId), ids(changes));
+        assertTrue(changes.getSharedIds().isEmpty());
+        assertNotNull(changes.getCursor());
+    }
+
+    @Test
+    void changesSince_returnsOnlyWhatChangedAfterTheCursor() {
+        String cursor = surveyChangeFeedService.changesSince("feed-owner", null).getCursor();
+        assertTrue(surveyChangeFeedService.changesSince("feed-owner", cursor).getChanged().isEmpty());
+
+        transactionTemplate.executeWithoutResult(status ->
+                surveyRepository.findById(surveyId).orElseThrow().setTitle("Renamed"));
+        SurveyChangesDTO changes = surveyChangeFeedService.changesSince("feed-owner", cursor);
+
+        assertFalse(changes.isReset());
+        assertEquals(List.of(surveyId), ids(changes));
+        assertEquals("Renamed", changes.getChanged().get(0).getTitle());
+        assertTrue(surveyChangeFeedService.changesSince("feed-owner", changes.getCursor()).getChanged().isEmpty());
+    }
+
+    @Test
+    void changesSince_reportsSharesAndUnsharesToTheReader() {
+        String cursor = surveyChangeFeedService.changesSince("feed-reader", null).getCursor();
+
+        setShared(true);
+        SurveyChangesDTO shared = surveyChangeFeedService.changesSince("feed-reader", cursor);
+        assertEquals(List.of(surveyId), ids(shared));
+        assertEquals(List.of(surveyId), shared.getSharedIds());
+
+        setShared(false);
+        SurveyChangesDTO unshared = surveyChangeFeedService.changesSince("feed-reader", shared.getCursor());
+        assertTrue(unshared.getChanged().isEmpty());
+        assertEquals(List.of(surveyId), unshared.getRemoved());
+    }
+
+    @Test
+    void loadAudiences_letsTheFirstChangeAfterStartupTombstoneFormerReaders() {
+        Long readerId = userRepository.findByUsername("feed-reader").orElseThrow().getId();
+        jdbcTemplate.update("INSERT INTO survey_shared_users (survey_id, user_id) VALUES (?, ?)", surveyId, readerId);
+        surveyChangeFeedService.loadAudiences(); // As on startup, without any change recorded since
+        String cursor = surveyChangeFeedService.changesSince("feed-reader", null).getCursor();
+
+        setShared(false);
+        SurveyChangesDTO changes = surveyChangeFeedService.changesSince("feed-reader", cursor);
+
+        assertEquals(List.of(surveyId), changes.getRemoved());
+    }
+
+    @Test
+    void changesSince_reportsDeletionAsTombstone() {
+        String cursor = surveyChangeFeedService.changesSince("feed-owner", null).getCursor();
+
+        surveyService.deleteSurvey(surveyId, "feed-owner");
+        SurveyChangesDTO changes = surveyChangeFeedService.changesSince("feed-owner", cursor);
+
+        assertTrue(changes.getChanged().isEmpty());
+        assertEquals(List.of(surveyId), changes.getRemoved());
+    }
+
+    @Test
+    void changesSince_resetsForForeignCursorsAndRejectsMalformedOnes() {
+        String ownerCursor = surveyChangeFeedService.changesSince("feed-owner", null).getCursor();
+        String staleCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("1:" + "feed-owner".hashCode() + ":0").getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(surveyChangeFeedService.changesSince("feed-reader", ownerCursor).isReset());
+        assertTrue(surveyChangeFeedService.changesSince("feed-owner", staleCursor).isReset());
+        assertThrows(IllegalArgumentException.class, () -> surveyChangeFeedService.changesSince("feed-owner", "not a cursor!"));
+    }
+}
@@ -0,0 +1,135 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.SurveyVersionView;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SurveyDefinitionCacheServiceTest {
+
+    @Autowired
+    private SurveyDefinitionCacheService cacheService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("cache-owner");
+        user.setEmail("cache-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "cache-owner".equals(s.getOwner().getUsername()))
+                .toList());
+        userRepository.delete(owner);
+    }
+
+    private String read(Long surveyId) throws Exception {
+        return read(surveyId, null);
+    }
+
+    private String read(Long surveyId, String locale) throws Exception {
+        SurveyVersionView version = cacheService.getVersion(surveyId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cacheService.writeDefinition(version, locale, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writeDefinition_servesRepeatReadsFromCacheAndNewVersionsAfterUpdate() throws Exception {
+        Survey survey = new Survey("public", owner, "restricted", "published", "{\"pages\":[]}");
+        survey.setTitle("Cached");
+        survey = surveyRepository.save(survey);
+        long hitsBefore = cacheService.getStats().getHits();
+
+        assertEquals("{\"pages\":[]}", read(survey.getId()));
+        assertEquals("{\"pages\":[]}", read(survey.getId()));
+        assertEquals(hitsBefore + 1, cacheService.getStats().getHits());
+
+        Thread.sleep(5); // A distinct updatedAt, i.e. a new version
+        survey.setSurveyJson("{\"pages\":[{\"name\":\"p1\"}]}");
+        surveyRepository.save(survey);
+
+        assertEquals("{\"pages\":[{\"name\":\"p1\"}]}", read(survey.getId()));
+    }
+
+    @Test
+    void writeDefinition_cachesEachLocaleProjectionSeparately() throws Exception {
+        String definition = "{\"title\":{\"default\":\"Feedback\",\"zh-tw\":\"意見\"},\"pages\":[]}";
+        Survey survey = new Survey("public", owner, "restricted", "published", definition);
+        survey.setTitle("Localized");
+        survey = surveyRepository.save(survey);
+
+        assertEquals("{\"title\":\"意見\",\"pages\":[],\"locale\":\"zh-tw\"}", read(survey.getId(), "zh-tw"));
+        assertEquals("{\"title\":\"Feedback\",\"pages\":[],\"locale\":\"en\"}", read(survey.getId(), "en"));
+        long hitsBefore = cacheService.getStats().getHits();
+        assertEquals("{\"title\":\"意見\",\"pages\":[],\"locale\":\"zh-tw\"}", read(survey.getId(), "zh-tw"));
+        assertEquals(definition, read(survey.getId()));
+        assertEquals(hitsBefore + 1, cacheService.getStats().getHits());
+
+        Thread.sleep(5);
+        survey.setSurveyJson("{\"title\":{\"default\":\"Survey\",\"zh-tw\":\"問卷\"}}");
+        surveyRepository.save(survey);
+
+        assertEquals("{\"title\":\"問卷\",\"locale\":\"zh-tw\"}", read(survey.getId(), "zh-tw"));
+    }
+
+    private String readPart(Long surveyId, String pointer) throws Exception {
+        SurveyVersionView version = cacheService.getVersion(surveyId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SurveyDefinitionCacheService.DefinitionPart part = cacheService.openPart(version, JsonPointer.compile(pointer))) {
+            part.writeTo(out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void openPart_servesPagesAndPointersFromCachedAndFreshDefinitions() throws Exception {
+        String definition = "{\"pages\":[{\"name\":\"p1\"},{\"name\":\"p2\",\"elements\":[{\"name\":\"q\"}]}]}";
+        Survey survey = new Survey("public", owner, "restricted", "published", definition);
+        survey.setTitle("Parts");
+        survey = surveyRepository.save(survey);
+
+        assertEquals("{\"name\":\"p2\",\"elements\":[{\"name\":\"q\"}]}", readPart(survey.getId(), "/pages/1"));
+        assertEquals("\"q\"", readPart(survey.getId(), "/pages/1/elements/0/name"));
+        read(survey.getId()); // Now cached: parts come from the off-heap copy
+        assertEquals("{\"name\":\"p1\"}", readPart(survey.getId(), "/pages/0"));
+        assertEquals("[{\"name\":\"q\"}]", readPart(survey.getId(), "/pages/1/elements"));
+
+        Long surveyId = survey.getId();
+        assertThrows(ResourceNotFoundException.class, () -> readPart(surveyId, "/pages/2"));
+        assertThrows(ResourceNotFoundException.class, () -> readPart(surveyId, "/title"));
+
+        Thread.sleep(5);
+        survey.setSurveyJson("{\"pages\":[{\"name\":\"only\"}]}");
+        surveyRepository.save(survey);
+
+        assertEquals("{\"name\":\"only\"}", readPart(survey.getId(), "/pages/0"));
+        assertThrows(ResourceNotFoundException.class, () -> readPart(surveyId, "/pages/1"));
+    }
+}
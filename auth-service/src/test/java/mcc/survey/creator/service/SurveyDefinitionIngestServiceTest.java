@@ -0,0 +1,139 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveySummaryDTO;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the service commits in a transaction of its own
+@SpringBootTest
+public class SurveyDefinitionIngestServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+    private static final String UPDATED = "{\n  \"pages\": [ {\n    \"elements\": [\n" +
+            "      { \"type\": \"text\", \"name\": \"a\" },\n" +
+            "      { \"type\": \"text\", \"name\": \"b\", \"visibleIf\": \"{a} = 1\" }\n    ]\n  } ]\n}";
+    private static final String UPDATED_CANONICAL = "{\"pages\":[{\"elements\":[{\"name\":\"a\",\"type\":\"text\"}," +
+            "{\"name\":\"b\",\"type\":\"text\",\"visibleIf\":\"{a} = 1\"}]}]}";
+
+    @Autowired
+    private SurveyDefinitionIngestService surveyDefinitionIngestService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setUsername("ingest-owner");
+        owner.setEmail("ingest-owner@example.com");
+        owner.setPassword("encoded");
+        owner = userRepository.save(owner);
+        Survey survey = new Survey("public", owner, "restricted", "draft", DEFINITION);
+        survey.setTitle("Large");
+        surveyId = surveyRepository.save(survey).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Survey> surveys = surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "ingest-owner".equals(s.getOwner().getUsername()))
+                .toList();
+        surveys.stream().filter(s -> s.getDefinitionSource() != null).forEach(surveyRepository::delete);
+        surveys.stream().filter(s -> s.getDefinitionSource() == null).forEach(surveyRepository::delete);
+        userRepository.findByUsername("ingest-owner").ifPresent(userRepository::delete);
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String storedDefinition(Long id) {
+        return surveyRepository.findTextViewById(id).orElseThrow().getSurveyJson();
+    }
+
+    private Long definitionSourceId(Long id) {
+        return transactionTemplate.execute(status -> {
+            Survey survey = surveyRepository.findById(id).orElseThrow();
+            return survey.getDefinitionSource() != null ? survey.getDefinitionSource().getId() : null;
+        });
+    }
+
+    @Test
+    void replaceDefinition_storesCanonicalDefinitionAndItsMetrics() {
+        SurveySummaryDTO summary = surveyDefinitionIngestService.replaceDefinition(surveyId, -1, body(UPDATED));
+
+        assertEquals(UPDATED_CANONICAL, storedDefinition(surveyId));
+        assertEquals(1, summary.getPageCount());
+        assertEquals(2, summary.getQuestionCount());
+        assertEquals(UPDATED_CANONICAL.length(), summary.getDefinitionBytes());
+        assertTrue(summary.getHasLogic());
+    }
+
+    @Test
+    void replaceDefinition_onSourceLeavesClonesTheOldDefinition() {
+        Survey first = surveyService.cloneSurvey(surveyId, "ingest-owner");
+        Survey second = surveyService.cloneSurvey(surveyId, "ingest-owner");
+
+        surveyDefinitionIngestService.replaceDefinition(surveyId, -1, body(UPDATED));
+
+        assertEquals(UPDATED_CANONICAL, storedDefinition(surveyId));
+        assertEquals(DEFINITION, storedDefinition(first.getId()));
+        assertEquals(DEFINITION, storedDefinition(second.getId()));
+        assertNull(definitionSourceId(first.getId()));
+        assertEquals(first.getId(), definitionSourceId(second.getId()));
+    }
+
+    @Test
+    void replaceDefinition_onCloneLeavesSourceAlone() {
+        Survey clone = surveyService.cloneSurvey(surveyId, "ingest-owner");
+
+        surveyDefinitionIngestService.replaceDefinition(clone.getId(), -1, body(UPDATED));
+
+        assertEquals(UPDATED_CANONICAL, storedDefinition(clone.getId()));
+        assertNull(definitionSourceId(clone.getId()));
+        assertEquals(DEFINITION, storedDefinition(surveyId));
+    }
+
+    @Test
+    void replaceDefinition_rejectsInvalidOrOversizedBodiesWithoutWriting() {
+        assertThrows(IllegalArgumentException.class,
+                () -> surveyDefinitionIngestService.replaceDefinition(surveyId, -1, body("{\"pages\": [")));
+        assertThrows(IllegalArgumentException.class,
+                () -> surveyDefinitionIngestService.replaceDefinition(surveyId, Long.MAX_VALUE, body(UPDATED)));
+
+        assertEquals(DEFINITION, storedDefinition(surveyId));
+    }
+
+    @Test
+    void replaceDefinition_unknownSurveyIsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> surveyDefinitionIngestService.replaceDefinition(-1L, -1, body(UPDATED)));
+    }
+}
@@ -0,0 +1,94 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Recreates the old survey_json/questions_json columns for the duration of each test
+@SpringBootTest
+public class SurveyDefinitionMigrationServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+
+    @Autowired
+    private SurveyDefinitionMigrationService migrationService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("migration-owner");
+        user.setEmail("migration-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+        jdbcTemplate.execute("ALTER TABLE survey ADD COLUMN survey_json CLOB");
+        jdbcTemplate.execute("ALTER TABLE survey ADD COLUMN questions_json CLOB");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("ALTER TABLE survey DROP COLUMN survey_json");
+        jdbcTemplate.execute("ALTER TABLE survey DROP COLUMN questions_json");
+        created.forEach(surveyRepository::deleteById);
+        userRepository.delete(owner);
+    }
+
+    private Long legacySurvey(String title, String surveyJson) {
+        Survey survey = new Survey("public", owner, "restricted", "draft", null);
+        survey.setTitle(title);
+        Long id = surveyRepository.save(survey).getId();
+        created.add(id);
+        jdbcTemplate.update("UPDATE survey SET survey_json = ?, questions_json = ? WHERE id = ?", surveyJson, "[]", id);
+        return id;
+    }
+
+    @Test
+    void migrate_movesDefinitionsIntoTheirOwnTable() {
+        Long first = legacySurvey("Old one", DEFINITION);
+        Long second = legacySurvey("Old two", "{\"pages\":[]}");
+        assertTrue(migrationService.hasLegacyColumns());
+        assertNull(surveyRepository.findTextViewById(first).orElseThrow().getSurveyJson());
+
+        migrationService.migrate();
+
+        assertEquals(DEFINITION, surveyRepository.findTextViewById(first).orElseThrow().getSurveyJson());
+        assertEquals("{\"pages\":[]}", surveyRepository.findTextViewById(second).orElseThrow().getSurveyJson());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM survey WHERE survey_json IS NOT NULL OR questions_json IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void migrate_leavesSurveysSavedSinceAlone() {
+        Long id = legacySurvey("Edited", DEFINITION);
+        Survey survey = surveyRepository.findById(id).orElseThrow();
+        survey.setSurveyJson("{\"pages\":[]}");
+        surveyRepository.save(survey);
+
+        migrationService.migrate();
+
+        assertEquals("{\"pages\":[]}", surveyRepository.findTextViewById(id).orElseThrow().getSurveyJson());
+    }
+}
@@ -0,0 +1,83 @@
+package mcc.survey.creator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyDefinitionValidatorTest {
+
+    private SurveyDefinitionValidator validator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        validator = new SurveyDefinitionValidator(new ClassPathResource("schema/survey-definition.schema.json"), 4096, 10, 200);
+    }
+
+    @Test
+    void validate_wellFormedDefinition_passes() {
+        assertDoesNotThrow(() -> validator.validate("{\"title\":{\"default\":\"Staff\",\"zh-tw\":\"員工\"},\"pages\":[" +
+                "{\"name\":\"p1\",\"elements\":[{\"type\":\"panel\",\"name\":\"pn\",\"elements\":[" +
+                "{\"type\":\"radiogroup\",\"name\":\"q1\",\"choices\":[\"a\",{\"value\":2,\"text\":\"Two\"}],\"customProp\":[1,2]}]}]}]}"));
+    }
+
+    @Test
+    void validate_missingQuestionName_reportsPointer() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"a\"},{\"type\":\"text\"}]}]}"));
+        assertTrue(e.getMessage().contains("/pages/0/elements/1"), e.getMessage());
+        assertTrue(e.getMessage().contains("name"), e.getMessage());
+    }
+
+    @Test
+    void validate_customQuestionType_passes() {
+        assertDoesNotThrow(() -> validator.validate("{\"pages\":[{\"elements\":[{\"type\":\"fullname\",\"name\":\"a\"}," +
+                "{\"type\":\"color-picker_v2\",\"name\":\"b\"}]}]}"));
+    }
+
+    @Test
+    void validate_malformedQuestionType_isRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("{\"pages\":[{\"elements\":[{\"type\":\"<script>\",\"name\":\"a\"}]}]}"));
+        assertTrue(e.getMessage().contains("/pages/0/elements/0/type"), e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("{\"pages\":[{\"elements\":[{\"type\":\"" + "x".repeat(65) + "\",\"name\":\"a\"}]}]}"));
+    }
+
+    @Test
+    void validate_nonObjectRootOrMalformedJson_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("\"just a string\""));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{\"pages\":[}"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{} {}"));
+    }
+
+    @Test
+    void validate_limits_areEnforced() {
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{\"a\":" + "[".repeat(12) + "]".repeat(12) + "}"),
+                "depth");
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{\"a\":[" + "1,".repeat(250) + "1]}"),
+                "element count");
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{\"a\":\"" + "x".repeat(5000) + "\"}"),
+                "byte size");
+    }
+
+    @Test
+    void validate_streamStopsReadingOnceOversized() {
+        // An endless document: the validator must give up after the byte limit instead of reading forever
+        InputStream endless = new SequenceInputStream(new ByteArrayInputStream("{\"a\":\"".getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        return 'x';
+                    }
+                });
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> validator.validate(endless));
+        assertTrue(e.getMessage().contains("larger than 4096 bytes"), e.getMessage());
+    }
+}
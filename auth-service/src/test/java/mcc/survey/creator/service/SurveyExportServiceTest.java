@@ -0,0 +1,108 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional // Rollback transactions after each test
+public class SurveyExportServiceTest {
+
+    @Autowired
+    private SurveyExportService surveyExportService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(newUser("export-owner"));
+        User other = userRepository.save(newUser("export-other"));
+        surveyRepository.save(newSurvey("First", owner, "{\"pages\":[{\"name\":\"p1\"}]}"));
+        surveyRepository.save(newSurvey("Second", owner, null));
+        surveyRepository.save(newSurvey("Not mine", other, "{}"));
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private Survey newSurvey(String title, User owner, String surveyJson) {
+        Survey survey = new Survey("public", owner, "restricted", "draft", surveyJson);
+        survey.setTitle(title);
+        return survey;
+    }
+
+    @Test
+    void exportOwnedSurveys_writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        surveyExportService.exportOwnedSurveys("export-owner", out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("First", first.get("title").asText());
+        assertEquals("export-owner", first.get("owner").asText());
+        assertEquals("p1", first.at("/surveyJson/pages/0/name").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("Second", second.get("title").asText());
+        assertTrue(second.get("surveyJson").isNull());
+    }
+
+    @Test
+    void exportOwnedSurveys_gzip_isReadableAfterDecompression() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        surveyExportService.exportOwnedSurveys("export-owner", out, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(2, content.split("\n").length);
+        }
+    }
+
+    @Test
+    void exportAllSurveys_includesEveryOwner() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        surveyExportService.exportAllSurveys(out, false);
+
+        String content = out.toString(StandardCharsets.UTF_8);
+        assertTrue(content.contains("\"owner\":\"export-owner\""));
+        assertTrue(content.contains("\"owner\":\"export-other\""));
+    }
+
+    @Test
+    void exportOwnedSurveys_unknownUser_writesNothing() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        surveyExportService.exportOwnedSurveys("nobody", out, false);
+
+        assertEquals(0, out.size());
+    }
+}
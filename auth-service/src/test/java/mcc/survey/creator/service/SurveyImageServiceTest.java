@@ -0,0 +1,163 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The purge deletes whatever the test database does not refer to, so never point it at a real store
+@SpringBootTest(properties = "app.survey-images.directory=${java.io.tmpdir}/survey-creator/images-test")
+public class SurveyImageServiceTest {
+
+    @Autowired
+    private SurveyImageService surveyImageService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("image-owner");
+        user.setEmail("image-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "image-owner".equals(s.getOwner().getUsername()))
+                .toList());
+        userRepository.delete(owner);
+    }
+
+    private static byte[] image(long seed) {
+        byte[] bytes = new byte[4096];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String dataUrl(String type, byte[] bytes) {
+        return "data:" + type + ";base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static String definition(String logo, String choice) {
+        return "{\"logo\":\"" + logo + "\",\"pages\":[{\"elements\":[{\"type\":\"imagepicker\",\"name\":\"q1\"," +
+                "\"choices\":[{\"value\":\"a\",\"imageLink\":\"" + choice + "\"}]}]}]}";
+    }
+
+    @Test
+    void extractImages_movesDataUrlsToTheStoreAndSharesIdenticalImages() throws Exception {
+        byte[] bytes = image(1);
+        String url = dataUrl("image/png", bytes);
+
+        JsonNode rewritten = objectMapper.readTree(surveyImageService.extractImages(definition(url, url), "public"));
+
+        String logo = rewritten.get("logo").asText();
+        String choice = rewritten.at("/pages/0/elements/0/choices/0/imageLink").asText();
+        assertTrue(logo.matches("/api/surveys/images/[0-9a-f]{64}\\.png"), logo);
+        assertEquals(logo, choice);
+        SurveyImageService.StoredImage stored = surveyImageService.open(logo.substring(logo.lastIndexOf('/') + 1));
+        assertEquals("image/png", stored.contentType());
+        assertArrayEquals(bytes, Files.readAllBytes(stored.file()));
+    }
+
+    @Test
+    void extractImages_leavesSmallSvgAndPlainDefinitionsUntouched() {
+        String small = dataUrl("image/png", new byte[16]);
+        String svg = dataUrl("image/svg+xml", image(2));
+        String surveyJson = definition(small, svg);
+
+        assertSame(surveyJson, surveyImageService.extractImages(surveyJson, "public"));
+        String plain = "{\"pages\":[]}";
+        assertSame(plain, surveyImageService.extractImages(plain, "public"));
+    }
+
+    @Test
+    void extractImages_ofSurveyThatIsNotPublic_keepsImagesInlineAndBringsBlobsBack() throws Exception {
+        String url = dataUrl("image/png", image(4));
+        String surveyJson = definition(url, "https://example.com/a.png");
+
+        assertSame(surveyJson, surveyImageService.extractImages(surveyJson, "restricted"));
+        String extracted = surveyImageService.extractImages(surveyJson, "public");
+        JsonNode reclassified = objectMapper.readTree(surveyImageService.extractImages(extracted, "confidential"));
+        assertEquals(url, reclassified.get("logo").asText());
+        assertEquals("https://example.com/a.png", reclassified.at("/pages/0/elements/0/choices/0/imageLink").asText());
+    }
+
+    @Test
+    void open_rejectsNamesThatAreNotBlobNames() {
+        assertThrows(ResourceNotFoundException.class, () -> surveyImageService.open("../application.properties"));
+        assertThrows(ResourceNotFoundException.class, () -> surveyImageService.open("0".repeat(64) + ".png"));
+    }
+
+    @Test
+    void migration_rewritesExistingSurveysAsANewVersion() throws Exception {
+        Survey survey = new Survey("public", owner, "public", "published",
+                definition(dataUrl("image/jpeg", image(3)), "https://example.com/a.png"));
+        survey.setTitle("Inline images");
+        survey = surveyRepository.save(survey);
+        var before = surveyRepository.findById(survey.getId()).orElseThrow().getUpdatedAt();
+
+        assertTrue(surveyImageService.startMigration());
+        while (surveyImageService.getMigrationStatus().isRunning()) {
+            Thread.sleep(20);
+        }
+
+        Survey migrated = surveyRepository.findById(survey.getId()).orElseThrow();
+        JsonNode definition = objectMapper.readTree(surveyRepository.findTextViewById(survey.getId()).orElseThrow().getSurveyJson());
+        assertTrue(definition.get("logo").asText().endsWith(".jpg"));
+        assertEquals("https://example.com/a.png", definition.at("/pages/0/elements/0/choices/0/imageLink").asText());
+        assertTrue(migrated.getUpdatedAt().after(before)); // Clients and caches must not keep the old text
+        assertTrue(surveyImageService.getMigrationStatus().getCount("rewrittenSurveys") >= 1);
+        assertTrue(surveyImageService.getMigrationStatus().getCount("extractedImages") >= 1);
+    }
+
+    @Test
+    void purgeUnreferenced_deletesOldBlobsNoSurveyRefersTo() throws Exception {
+        String kept = blobName(surveyImageService.extractImages(definition(dataUrl("image/png", image(5)), "x"), "public"));
+        String orphaned = blobName(surveyImageService.extractImages(definition(dataUrl("image/png", image(6)), "x"), "public"));
+        String recent = blobName(surveyImageService.extractImages(definition(dataUrl("image/png", image(7)), "x"), "public"));
+        Survey survey = new Survey("public", owner, "public", "published", definition("/api/surveys/images/" + kept, "x"));
+        survey.setTitle("Referenced image");
+        surveyRepository.save(survey);
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(surveyImageService.open(kept).file(), old);
+        Files.setLastModifiedTime(surveyImageService.open(orphaned).file(), old);
+
+        assertTrue(surveyImageService.purgeUnreferenced() >= 1);
+
+        assertTrue(Files.exists(surveyImageService.open(kept).file()));
+        assertThrows(ResourceNotFoundException.class, () -> surveyImageService.open(orphaned));
+        assertTrue(Files.exists(surveyImageService.open(recent).file())); // Within the grace period
+    }
+
+    private String blobName(String surveyJson) throws Exception {
+        String logo = objectMapper.readTree(surveyJson).get("logo").asText();
+        return logo.substring(logo.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,129 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyImportRecordResultDTO;
+import mcc.survey.creator.dto.SurveyImportResultDTO;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the import commits its own chunk transactions, so clean up explicitly
+@SpringBootTest
+public class SurveyImportServiceTest {
+
+    @Autowired
+    private SurveyImportService surveyImportService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("import-owner");
+        user.setEmail("import-owner@example.com");
+        user.setPassword("encoded");
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "import-owner".equals(s.getOwner().getUsername()))
+                .toList());
+        userRepository.findByUsername("import-owner").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void importSurveys_ndjson_importsValidLinesAndReportsBadOnes() {
+        String ndjson = """
+                {"title":"One","status":"draft","surveyJson":{"pages":[{"name":"p1"}]}}
+                not json
+                {"title":"Two","surveyJson":"{\\"pages\\":[]}"}
+
+                {"title":"No definition"}
+                {"title":"Bad type","surveyJson":{"pages":"oops"}}
+                """;
+
+        SurveyImportResultDTO result = surveyImportService.importSurveys("import-owner", "legacy.ndjson",
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, result.getTotalRecords());
+        assertEquals(2, result.getImportedCount());
+        assertEquals(3, result.getFailedCount());
+        SurveyImportRecordResultDTO first = result.getRecords().get(0);
+        assertTrue(first.isImported());
+        assertEquals("line 1", first.getSource());
+        Survey stored = surveyRepository.findById(first.getSurveyId()).orElseThrow();
+        assertEquals("One", stored.getTitle());
+        assertEquals("draft", stored.getStatus());
+        assertEquals("import-owner", stored.getOwner().getUsername());
+
+        SurveyImportRecordResultDTO malformed = result.getRecords().get(1);
+        assertFalse(malformed.isImported());
+        assertEquals("line 2", malformed.getSource());
+        assertTrue(malformed.getError().startsWith("Malformed JSON"));
+        assertEquals("line 5", result.getRecords().get(3).getSource());
+        assertNotNull(result.getRecords().get(4).getError());
+    }
+
+    @Test
+    void importSurveys_zip_readsJsonAndNdjsonEntries() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("single.json"));
+            zip.write("{\"title\":\"From json\",\"surveyJson\":{\"pages\":[]}}".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("batch.ndjson"));
+            zip.write("{\"surveyJson\":{}}\n{\"surveyJson\":{}}\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.write("ignored".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        SurveyImportResultDTO result = surveyImportService.importSurveys("import-owner", "upload.bin",
+                new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(3, result.getImportedCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals("batch.ndjson line 2", result.getRecords().get(2).getSource());
+        Survey untitled = surveyRepository.findById(result.getRecords().get(1).getSurveyId()).orElseThrow();
+        assertEquals("Untitled Survey", untitled.getTitle());
+    }
+
+    @Test
+    void importSurveys_defaultsToDraftAndRejectsOtherStatuses() {
+        String ndjson = """
+                {"title":"No status","surveyJson":{"pages":[]}}
+                {"title":"Published","status":" Published ","surveyJson":{"pages":[]}}
+                {"title":"Trashed","status":"deleted","surveyJson":{"pages":[]}}
+                {"title":"Made up","status":"archived-ish","surveyJson":{"pages":[]}}
+                """;
+
+        SurveyImportResultDTO result = surveyImportService.importSurveys("import-owner", "statuses.ndjson",
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getImportedCount());
+        assertEquals("draft", surveyRepository.findById(result.getRecords().get(0).getSurveyId()).orElseThrow().getStatus());
+        assertEquals("published", surveyRepository.findById(result.getRecords().get(1).getSurveyId()).orElseThrow().getStatus());
+        assertTrue(result.getRecords().get(2).getError().startsWith("Unsupported status"));
+        assertFalse(result.getRecords().get(3).isImported());
+    }
+}
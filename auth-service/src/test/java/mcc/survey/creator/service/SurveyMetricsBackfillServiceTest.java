@@ -0,0 +1,81 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SurveyMetricsBackfillServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"a\"},"
+            + "{\"type\":\"text\",\"name\":\"b\",\"visibleIf\":\"{a} notempty\"}]},{\"elements\":[{\"type\":\"text\",\"name\":\"c\"}]}]}";
+
+    @Autowired
+    private SurveyMetricsBackfillService backfillService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private final List<Survey> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("metrics-owner");
+        user.setEmail("metrics-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = created.size() - 1; i >= 0; i--) { // Clones before their source
+            surveyRepository.deleteById(created.get(i).getId());
+        }
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void start_fillsMetricsOfSurveysSavedWithoutThem() throws Exception {
+        Survey source = new Survey("public", owner, "restricted", "published", DEFINITION);
+        source.setTitle("Predates metrics");
+        source = surveyRepository.save(source);
+        created.add(source);
+        Survey clone = new Survey();
+        clone.setTitle("Clone predating metrics");
+        clone.setOwner(owner);
+        clone.setDefinitionSource(source);
+        created.add(surveyRepository.save(clone));
+        assertNull(surveyRepository.findById(source.getId()).orElseThrow().getQuestionCount());
+
+        assertTrue(backfillService.start());
+        while (backfillService.getStatus().isRunning()) {
+            Thread.sleep(20);
+        }
+
+        for (Survey survey : created) {
+            Survey filled = surveyRepository.findById(survey.getId()).orElseThrow();
+            assertEquals(2, filled.getPageCount());
+            assertEquals(3, filled.getQuestionCount());
+            assertEquals(DEFINITION.length(), filled.getDefinitionBytes());
+            assertEquals(Boolean.TRUE, filled.getHasLogic());
+        }
+        assertTrue(backfillService.getStatus().getCount("filledSurveys") >= 2);
+        assertNotNull(backfillService.getStatus().getFinishedAt());
+    }
+}
@@ -0,0 +1,189 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Zero retention so everything soft-deleted is immediately purgeable
+@SpringBootTest(properties = {"app.survey-purge.retention-days=0", "app.survey-purge.pause-ms=0", "app.survey-purge.chunk-size=2"})
+public class SurveyPurgeServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"name\":\"p1\"}]}";
+
+    @Autowired
+    private SurveyPurgeService surveyPurgeService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveySecurityService surveySecurityService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User colleague;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(newUser("purge-owner"));
+        colleague = userRepository.save(newUser("purge-colleague"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            surveyRepository.findAll().stream()
+                    .filter(s -> s.getOwner() != null && s.getOwner().getUsername().startsWith("purge-"))
+                    .forEach(s -> {
+                        s.setDefinitionSource(null);
+                        s.getSharedWithUsers().clear();
+                    });
+        });
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && s.getOwner().getUsername().startsWith("purge-"))
+                .toList());
+        userRepository.delete(owner);
+        userRepository.delete(colleague);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private Long saveSurvey(String title, boolean shared) {
+        Survey survey = new Survey("public", owner, "restricted", "draft", DEFINITION);
+        survey.setTitle(title);
+        if (shared) {
+            survey.getSharedWithUsers().add(colleague);
+        }
+        return surveyRepository.save(survey).getId();
+    }
+
+    private String status(Long surveyId) {
+        return surveyRepository.findById(surveyId).map(Survey::getStatus).orElse(null);
+    }
+
+    @Test
+    void deleteSurvey_hidesSurveyFromListingsAndRestoreBringsItBack() {
+        Long id = saveSurvey("Soft", false);
+
+        surveyService.deleteSurvey(id, "purge-owner");
+
+        assertEquals(Survey.STATUS_DELETED, status(id));
+        assertTrue(surveyRepository.findSummariesByOwnerUsername("purge-owner").isEmpty());
+        assertTrue(surveyRepository.findTextViewById(id).isEmpty());
+
+        assertEquals("Soft", surveyService.restoreSurvey(id, "purge-owner").getTitle());
+        assertEquals(Survey.STATUS_DRAFT, status(id));
+        assertEquals(1, surveyRepository.findSummariesByOwnerUsername("purge-owner").size());
+    }
+
+    @Test
+    void purgeChunk_leavesSurveysRestoredSinceTheirIdsWereRead() {
+        Long id = saveSurvey("Restored in time", true);
+        surveyService.deleteSurvey(id, "purge-owner");
+        List<Long> ids = surveyRepository.findPurgeableIds(new Timestamp(System.currentTimeMillis() + 1000), PageRequest.of(0, 10));
+        assertTrue(ids.contains(id));
+        surveyService.restoreSurvey(id, "purge-owner");
+
+        transactionTemplate.execute(status ->
+                surveyPurgeService.purgeChunk(ids, new Timestamp(System.currentTimeMillis() + 1000)));
+
+        assertEquals(Survey.STATUS_DRAFT, status(id));
+        assertEquals(List.of("purge-colleague"), transactionTemplate.execute(status -> surveyRepository.findById(id)
+                .orElseThrow().getSharedWithUsers().stream().map(User::getUsername).toList()));
+    }
+
+    @Test
+    void restoreSurvey_returnsToTheStatusItWasDeletedFrom() {
+        Long deleted = saveSurvey("Published", false);
+        Long trashed = saveSurvey("Expired", false);
+        surveyService.changeStatuses(List.of(deleted, trashed), Survey.STATUS_PUBLISHED, "purge-owner", true, false);
+        surveyService.changeStatus(trashed, Survey.STATUS_EXPIRED, "purge-owner", true, false);
+
+        surveyService.deleteSurvey(deleted, "purge-owner");
+        surveyService.changeStatus(trashed, Survey.STATUS_DELETED, "purge-owner", true, true);
+        surveyService.restoreSurvey(deleted, "purge-owner");
+        surveyService.restoreSurvey(trashed, "purge-owner");
+
+        assertEquals(Survey.STATUS_PUBLISHED, status(deleted));
+        assertEquals(Survey.STATUS_EXPIRED, status(trashed));
+    }
+
+    @Test
+    void deletedSurvey_isOnlyOwnedForRestoring() {
+        Long id = saveSurvey("Trashed", false);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("purge-owner", null, List.of());
+        assertTrue(surveySecurityService.isOwner(authentication, id));
+        assertFalse(surveySecurityService.isOwnerOfDeleted(authentication, id));
+
+        surveyService.deleteSurvey(id, "purge-owner");
+
+        assertFalse(surveySecurityService.isOwner(authentication, id));
+        assertFalse(surveySecurityService.isOwnerOrSharedUser(authentication, id));
+        assertTrue(surveySecurityService.isOwnerOfDeleted(authentication, id));
+    }
+
+    @Test
+    void deleteSurvey_notOwner_throwsNotFound() {
+        Long id = saveSurvey("Not yours", false);
+
+        assertThrows(ResourceNotFoundException.class, () -> surveyService.deleteSurvey(id, "purge-colleague"));
+        assertThrows(ResourceNotFoundException.class, () -> surveyService.restoreSurvey(id, "purge-owner"));
+    }
+
+    @Test
+    void purgeExpired_removesDeletedSurveysInChunksAndKeepsLiveOnes() {
+        Long keep = saveSurvey("Keep", false);
+        for (int i = 0; i < 5; i++) {
+            surveyService.deleteSurvey(saveSurvey("Gone " + i, i % 2 == 0), "purge-owner");
+        }
+
+        assertEquals(5, surveyPurgeService.purgeExpired());
+
+        assertEquals(1, surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "purge-owner".equals(s.getOwner().getUsername()))
+                .count());
+        assertTrue(surveyRepository.findById(keep).isPresent());
+    }
+
+    @Test
+    void purgeExpired_handsDefinitionToLiveClone() {
+        Long source = saveSurvey("Source", false);
+        Survey clone = surveyService.cloneSurvey(source, "purge-colleague");
+        surveyService.deleteSurvey(source, "purge-owner");
+
+        assertEquals(1, surveyPurgeService.purgeExpired());
+
+        assertFalse(surveyRepository.findById(source).isPresent());
+        assertEquals(DEFINITION, surveyRepository.findTextViewById(clone.getId()).orElseThrow().getSurveyJson());
+    }
+}
@@ -0,0 +1,81 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyQuestionDTO;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SurveyQuestionCatalogServiceTest {
+
+    private static final String DEFINITION =
+            "{\"pages\":[{\"name\":\"p1\",\"elements\":[" +
+            "{\"type\":\"text\",\"name\":\"catalogName\",\"title\":\"Name\"}," +
+            "{\"type\":\"rating\",\"name\":\"catalogScore\",\"title\":\"Score\"}," +
+            "{\"type\":\"text\",\"name\":\"catalogCity\",\"title\":\"City\"}]}]}";
+
+    @Autowired
+    private SurveyQuestionCatalogService surveyQuestionCatalogService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private Long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("catalog-owner");
+        user.setEmail("catalog-owner@example.com");
+        user.setPassword("encoded");
+        owner = userRepository.save(user);
+        Survey survey = new Survey("public", owner, "restricted", Survey.STATUS_DRAFT, DEFINITION);
+        survey.setTitle("Catalog");
+        surveyId = surveyRepository.save(survey).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteById(surveyId);
+        userRepository.delete(owner);
+    }
+
+    private List<String> names(String type, String name) {
+        return surveyQuestionCatalogService.findQuestions(type, name, null, 0, 50).stream()
+                .filter(q -> surveyId.equals(q.getSurveyId()))
+                .map(SurveyQuestionDTO::getName)
+                .toList();
+    }
+
+    @Test
+    void findQuestions_appliesOnlyTheFiltersThatAreSet() {
+        assertEquals(List.of("catalogName", "catalogScore", "catalogCity"), names(null, null));
+        assertEquals(List.of("catalogName", "catalogCity"), names("text", null));
+        assertEquals(List.of("catalogScore"), names(null, "catalogScore"));
+        assertEquals(List.of(), names("rating", "catalogCity"));
+    }
+
+    @Test
+    void findQuestions_matchesByTitleHash() {
+        SurveyQuestionDTO city = surveyQuestionCatalogService.getQuestionsForSurvey(surveyId).get(2);
+
+        List<SurveyQuestionDTO> found = surveyQuestionCatalogService.findQuestions(null, null, city.getTitleHash(), 0, 50);
+
+        assertTrue(found.stream().anyMatch(q -> surveyId.equals(q.getSurveyId()) && "catalogCity".equals(q.getName())));
+        assertTrue(found.stream().noneMatch(q -> "catalogName".equals(q.getName())));
+    }
+}
@@ -0,0 +1,186 @@
+package mcc.survey.creator.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.dto.EditUserRequest;
+import mcc.survey.creator.dto.UpdateRoleRequest;
+import mcc.survey.creator.event.SurveyChangedEvent;
+import mcc.survey.creator.model.Role;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.RoleRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: rows are rendered once changes are committed
+@SpringBootTest
+public class SurveyReadModelServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+
+    @Autowired
+    private SurveyReadModelService surveyReadModelService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long surveyId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(user("read-owner"));
+        userRepository.save(user("read-reader"));
+        Survey survey = new Survey("public", owner, "restricted", "draft", DEFINITION);
+        survey.setTitle("Read");
+        surveyId = surveyRepository.save(survey).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM survey_shared_users WHERE survey_id = ?", surveyId);
+        transactionTemplate.executeWithoutResult(status -> surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && "read-owner".equals(s.getOwner().getUsername()))
+                .forEach(surveyRepository::delete));
+        userRepository.findByUsername("read-reader").ifPresent(userRepository::delete);
+        userRepository.findByUsername("read-owner").ifPresent(userRepository::delete);
+        List.of("READ_MODEL_ROLE", "READ_MODEL_ROLE_RENAMED")
+                .forEach(name -> roleRepository.findByName(name).ifPresent(roleRepository::delete));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private JsonNode read() throws Exception {
+        byte[] payload = surveyReadModelService.getPayload(surveyId).orElseThrow();
+        return objectMapper.readTree(payload);
+    }
+
+    private int storedRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM survey_read_model WHERE survey_id = ?", Integer.class, surveyId);
+    }
+
+    @Test
+    void getPayload_servesTheRenderedSurvey() throws Exception {
+        assertEquals(1, storedRows()); // Rendered when it was created
+
+        JsonNode survey = read();
+
+        assertEquals(surveyId.longValue(), survey.get("id").asLong());
+        assertEquals("Read", survey.get("title").asText());
+        assertEquals("q1", survey.at("/surveyJson/pages/0/elements/0/name").asText());
+        assertEquals("read-owner", survey.at("/owner/username").asText());
+    }
+
+    @Test
+    void changesToTheSurveyAndItsSharesAreRenderedOnCommit() throws Exception {
+        transactionTemplate.executeWithoutResult(status ->
+                surveyRepository.findById(surveyId).orElseThrow().setTitle("Renamed"));
+        assertEquals("Renamed", read().get("title").asText());
+
+        Long readerId = userRepository.findByUsername("read-reader").orElseThrow().getId();
+        jdbcTemplate.update("INSERT INTO survey_shared_users (survey_id, user_id) VALUES (?, ?)", surveyId, readerId);
+        eventPublisher.publishEvent(new SurveyChangedEvent(surveyId, SurveyChangedEvent.Type.SAVED, null));
+        assertEquals("read-reader", read().at("/sharedWithUsers/0/username").asText());
+    }
+
+    @Test
+    void profileChangesOfTheOwnerAreRendered() throws Exception {
+        EditUserRequest request = new EditUserRequest();
+        request.setEnglishName("Reader Owner");
+
+        userService.editUser(userRepository.findByUsername("read-owner").orElseThrow().getId(), request);
+
+        assertEquals("Reader Owner", read().at("/owner/englishName").asText());
+    }
+
+    @Test
+    void roleRenamesAreRendered() throws Exception {
+        Role role = new Role();
+        role.setName("READ_MODEL_ROLE");
+        Long roleId = roleRepository.save(role).getId();
+        transactionTemplate.executeWithoutResult(status -> userRepository.findByUsername("read-owner").orElseThrow()
+                .getRoles().add(roleRepository.findById(roleId).orElseThrow()));
+        UpdateRoleRequest request = new UpdateRoleRequest();
+        request.setName("READ_MODEL_ROLE_RENAMED");
+
+        roleService.updateRole(roleId, request);
+
+        assertEquals("READ_MODEL_ROLE_RENAMED", read().at("/owner/roles/0").asText());
+    }
+
+    @Test
+    void rowsOutdatedByAMissedRenderingAreRenderedOnRead() throws Exception {
+        // As if the process died between a commit and its rendering
+        jdbcTemplate.update("UPDATE survey SET title = ?, updated_at = ? WHERE id = ?",
+                "Changed", new Timestamp(System.currentTimeMillis() + 1000), surveyId);
+
+        assertEquals("Changed", read().get("title").asText());
+    }
+
+    @Test
+    void deletedSurveysAreNotServed() {
+        surveyService.deleteSurvey(surveyId, "read-owner");
+
+        assertTrue(surveyReadModelService.getPayload(surveyId).isEmpty());
+        assertEquals(0, storedRows());
+    }
+
+    @Test
+    void rebuild_repairsDamagedAndMissingRows() throws Exception {
+        jdbcTemplate.update("UPDATE survey_read_model SET payload = ? WHERE survey_id = ?",
+                "{}".getBytes(StandardCharsets.UTF_8), surveyId);
+
+        assertTrue(surveyReadModelService.rebuild() >= 1);
+        assertEquals("Read", read().get("title").asText());
+
+        jdbcTemplate.update("DELETE FROM survey_read_model WHERE survey_id = ?", surveyId);
+        assertEquals("Read", read().get("title").asText());
+        assertEquals(1, storedRows());
+    }
+}
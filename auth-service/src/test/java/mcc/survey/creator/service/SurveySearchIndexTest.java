@@ -0,0 +1,72 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.util.SurveyTextTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveySearchIndexTest {
+
+    @Test
+    void search_requiresAllTokensAndRespectsVisibility() {
+        SurveySearchIndex index = new SurveySearchIndex();
+        index.index(1L, List.of("staff", "survey", "staff"));
+        index.index(2L, List.of("customer", "survey"));
+        index.index(3L, List.of("staff", "survey"));
+
+        Map<Long, Integer> results = index.search(List.of("staff", "survey"), Set.of(1L, 2L));
+
+        assertEquals(Set.of(1L), results.keySet(), "Survey 2 lacks 'staff' and survey 3 is not visible");
+        assertEquals(3, results.get(1L));
+    }
+
+    @Test
+    void index_replacesPreviousTermsAndRemoveDropsDocument() {
+        SurveySearchIndex index = new SurveySearchIndex();
+        index.index(1L, List.of("old"));
+        index.index(1L, List.of("new"));
+
+        assertTrue(index.search(List.of("old"), Set.of(1L)).isEmpty());
+        assertEquals(Set.of(1L), index.search(List.of("new"), Set.of(1L)).keySet());
+
+        index.remove(1L);
+        assertTrue(index.search(List.of("new"), Set.of(1L)).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void search_singleCjkCharacter_matchesInsideLongerRuns() {
+        SurveySearchIndex index = new SurveySearchIndex();
+        index.index(1L, SurveyTextTokenizer.tokenizeForIndex("滿意程度"));
+        index.index(2L, SurveyTextTokenizer.tokenizeForIndex("程度"));
+
+        assertEquals(Set.of(1L), index.search(SurveyTextTokenizer.tokenize("滿"), Set.of(1L, 2L)).keySet());
+        assertEquals(Set.of(1L, 2L), index.search(SurveyTextTokenizer.tokenize("程度"), Set.of(1L, 2L)).keySet());
+        assertEquals(Set.of(1L), index.search(SurveyTextTokenizer.tokenize("滿意"), Set.of(1L, 2L)).keySet());
+    }
+
+    @Test
+    void writeToAndReadFrom_roundTripsIndex() throws Exception {
+        SurveySearchIndex index = new SurveySearchIndex();
+        index.index(7L, List.of("滿意", "意度", "survey"));
+        index.index(8L, List.of("survey"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        SurveySearchIndex loaded = SurveySearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, loaded.size());
+        assertEquals(Set.of(7L), loaded.search(List.of("滿意"), Set.of(7L, 8L)).keySet());
+        assertEquals(Set.of(7L, 8L), loaded.search(List.of("survey"), Set.of(7L, 8L)).keySet());
+    }
+}
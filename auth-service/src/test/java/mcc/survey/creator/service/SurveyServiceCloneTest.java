@@ -0,0 +1,128 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyQuestionRepository;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: clone hand-over uses bulk updates, so each step must see committed rows
+@SpringBootTest
+public class SurveyServiceCloneTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SurveyQuestionRepository surveyQuestionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long sourceId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(newUser("clone-owner"));
+        userRepository.save(newUser("clone-other"));
+        Survey source = new Survey("public", owner, "restricted", "published", DEFINITION);
+        source.setTitle("Original");
+        sourceId = surveyRepository.save(source).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Survey> surveys = surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && s.getOwner().getUsername().startsWith("clone-"))
+                .toList();
+        // Clones first, so no row is deleted while another still points at its definition
+        surveys.stream().filter(s -> s.getDefinitionSource() != null).forEach(surveyRepository::delete);
+        surveys.stream().filter(s -> s.getDefinitionSource() == null).forEach(surveyRepository::delete);
+        userRepository.findByUsername("clone-owner").ifPresent(userRepository::delete);
+        userRepository.findByUsername("clone-other").ifPresent(userRepository::delete);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private String storedDefinition(Long surveyId) {
+        return surveyRepository.findTextViewById(surveyId).orElseThrow().getSurveyJson();
+    }
+
+    private Long definitionSourceId(Long surveyId) {
+        return transactionTemplate.execute(status -> {
+            Survey survey = surveyRepository.findById(surveyId).orElseThrow();
+            return survey.getDefinitionSource() != null ? survey.getDefinitionSource().getId() : null;
+        });
+    }
+
+    @Test
+    void cloneSurvey_sharesDefinitionAndStartsAsDraft() {
+        Survey clone = surveyService.cloneSurvey(sourceId, "clone-other");
+
+        assertEquals("Copy of Original", clone.getTitle());
+        assertEquals("draft", clone.getStatus());
+        assertEquals("clone-other", clone.getOwner().getUsername());
+        assertEquals(sourceId, definitionSourceId(clone.getId()));
+        assertEquals(DEFINITION, storedDefinition(clone.getId()));
+        assertEquals(1, surveyQuestionRepository.findBySurveyIdOrdered(clone.getId()).size());
+    }
+
+    @Test
+    void cloneOfClone_pointsAtOriginalDefinition() {
+        Survey first = surveyService.cloneSurvey(sourceId, "clone-owner");
+        Survey second = surveyService.cloneSurvey(first.getId(), "clone-owner");
+
+        assertEquals(sourceId, definitionSourceId(second.getId()));
+    }
+
+    @Test
+    void releaseSharedDefinition_handsOldDefinitionToClones() {
+        Survey first = surveyService.cloneSurvey(sourceId, "clone-owner");
+        Survey second = surveyService.cloneSurvey(sourceId, "clone-owner");
+
+        surveyService.releaseSharedDefinition(sourceId);
+        transactionTemplate.executeWithoutResult(status ->
+                surveyRepository.findById(sourceId).orElseThrow().setSurveyJson("{\"pages\":[]}"));
+
+        assertEquals("{\"pages\":[]}", storedDefinition(sourceId));
+        assertEquals(DEFINITION, storedDefinition(first.getId()));
+        assertEquals(DEFINITION, storedDefinition(second.getId()));
+        assertNull(definitionSourceId(first.getId()));
+        assertEquals(first.getId(), definitionSourceId(second.getId()));
+    }
+
+    @Test
+    void isCloneableBy_onlyOwnerUnlessTemplate() {
+        assertTrue(surveyRepository.isCloneableBy(sourceId, "clone-owner"));
+        assertFalse(surveyRepository.isCloneableBy(sourceId, "clone-other"));
+
+        transactionTemplate.executeWithoutResult(status ->
+                surveyRepository.findById(sourceId).orElseThrow().setTemplate(true));
+
+        assertTrue(surveyRepository.isCloneableBy(sourceId, "clone-other"));
+    }
+}
@@ -0,0 +1,142 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyStatusChangeResultDTO;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SurveyServiceStatusTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"name\":\"p1\"}]}";
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+    private User colleague;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(newUser("status-owner"));
+        colleague = userRepository.save(newUser("status-colleague"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        surveyRepository.deleteAll(surveyRepository.findAll().stream()
+                .filter(s -> s.getOwner() != null && s.getOwner().getUsername().startsWith("status-"))
+                .toList());
+        userRepository.delete(owner);
+        userRepository.delete(colleague);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private Survey newSurvey(User surveyOwner, String status) {
+        Survey survey = new Survey("public", surveyOwner, "restricted", status, DEFINITION);
+        survey.setTitle("Status " + status);
+        return surveyRepository.save(survey);
+    }
+
+    @Test
+    void changeStatuses_movesOnlyOwnedSurveysWithAnAllowedTransition() throws Exception {
+        Survey published = newSurvey(owner, "published");
+        Survey draft = newSurvey(owner, "draft");
+        Survey foreign = newSurvey(colleague, "published");
+        var publishedBefore = published.getUpdatedAt();
+        Thread.sleep(5);
+
+        SurveyStatusChangeResultDTO result = surveyService.changeStatuses(
+                List.of(published.getId(), draft.getId(), foreign.getId(), -1L), "Expired", "status-owner", true, false);
+
+        assertEquals("expired", result.getStatus());
+        assertEquals(List.of(published.getId()), result.getUpdatedIds());
+        assertEquals(List.of(draft.getId(), foreign.getId(), -1L), result.getRejectedIds());
+        Survey expired = surveyRepository.findById(published.getId()).orElseThrow();
+        assertEquals("expired", expired.getStatus());
+        assertTrue(expired.getUpdatedAt().after(publishedBefore));
+        assertEquals(DEFINITION, surveyRepository.findTextViewById(published.getId()).orElseThrow().getSurveyJson());
+        assertEquals("draft", surveyRepository.findById(draft.getId()).orElseThrow().getStatus());
+        assertEquals("published", surveyRepository.findById(foreign.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void changeStatus_reportsMissingSurveysAndInvalidTransitions() {
+        Survey draft = newSurvey(owner, "draft");
+        Survey foreign = newSurvey(colleague, "draft");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> surveyService.changeStatus(draft.getId(), "expired", "status-owner", true, true));
+        assertThrows(ResourceNotFoundException.class,
+                () -> surveyService.changeStatus(foreign.getId(), "published", "status-owner", true, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> surveyService.changeStatus(draft.getId(), "archived", "status-owner", true, true));
+    }
+
+    @Test
+    void changeStatus_trashNeedsTheDeletePermission() {
+        Survey draft = newSurvey(owner, "draft");
+
+        assertThrows(AccessDeniedException.class,
+                () -> surveyService.changeStatus(draft.getId(), "deleted", "status-owner", true, false));
+
+        surveyService.changeStatus(draft.getId(), "deleted", "status-owner", true, true);
+        assertTrue(surveyRepository.findSummariesByOwnerUsername("status-owner").isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> surveyService.changeStatus(draft.getId(), "draft", "status-owner", true, false));
+
+        surveyService.changeStatus(draft.getId(), "draft", "status-owner", true, true);
+        assertEquals("draft", surveyRepository.findById(draft.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void changeStatus_lifecycleMovesNeedTheEditPermission() {
+        Survey draft = newSurvey(owner, "draft");
+
+        assertThrows(AccessDeniedException.class,
+                () -> surveyService.changeStatus(draft.getId(), "published", "status-owner", false, true));
+        assertEquals("draft", surveyRepository.findById(draft.getId()).orElseThrow().getStatus());
+
+        surveyService.changeStatus(draft.getId(), "deleted", "status-owner", false, true);
+        assertThrows(AccessDeniedException.class,
+                () -> surveyService.changeStatus(draft.getId(), "draft", "status-owner", false, true));
+    }
+
+    @Test
+    void resolveSavedStatus_followsTheLifecycleAndKeepsSavesOutOfTheTrash() {
+        assertEquals("draft", SurveyService.resolveSavedStatus(null, null));
+        assertEquals("published", SurveyService.resolveSavedStatus(null, "Published"));
+        assertEquals("expired", SurveyService.resolveSavedStatus("expired", " "));
+        assertEquals("published", SurveyService.resolveSavedStatus("draft", "published"));
+
+        assertThrows(IllegalArgumentException.class, () -> SurveyService.resolveSavedStatus(null, "deleted"));
+        assertThrows(IllegalArgumentException.class, () -> SurveyService.resolveSavedStatus("published", "deleted"));
+        assertThrows(IllegalArgumentException.class, () -> SurveyService.resolveSavedStatus("draft", "expired"));
+        assertThrows(IllegalArgumentException.class, () -> SurveyService.resolveSavedStatus("draft", "archived"));
+    }
+}
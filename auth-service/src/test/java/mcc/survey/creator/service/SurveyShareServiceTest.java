@@ -0,0 +1,106 @@
+package mcc.survey.creator.service;
+
+import mcc.survey.creator.dto.SurveyShareOutcomeDTO;
+import mcc.survey.creator.dto.SurveyShareResultDTO;
+import mcc.survey.creator.exception.ResourceNotFoundException;
+import mcc.survey.creator.model.Survey;
+import mcc.survey.creator.model.User;
+import mcc.survey.creator.repository.SurveyRepository;
+import mcc.survey.creator.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SurveyShareServiceTest {
+
+    private static final String DEFINITION = "{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}]}";
+
+    @Autowired
+    private SurveyShareService surveyShareService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long surveyId;
+    private Long colleagueId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(user("share-owner"));
+        colleagueId = userRepository.save(user("share-colleague")).getId();
+        userRepository.save(user("share-other"));
+        Survey survey = new Survey("public", owner, "restricted", "draft", DEFINITION);
+        survey.setTitle("Shared");
+        surveyId = surveyRepository.save(survey).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM survey_shared_users WHERE survey_id = ?", surveyId);
+        surveyRepository.deleteById(surveyId);
+        List.of("share-other", "share-colleague", "share-owner")
+                .forEach(username -> userRepository.findByUsername(username).ifPresent(userRepository::delete));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encoded");
+        return user;
+    }
+
+    private List<String> sharedUsernames() {
+        return transactionTemplate.execute(status -> surveyRepository.findById(surveyId).orElseThrow()
+                .getSharedWithUsers().stream().map(User::getUsername).sorted().toList());
+    }
+
+    private static List<String> outcomes(SurveyShareResultDTO result) {
+        return result.getResults().stream().map(SurveyShareOutcomeDTO::getOutcome).toList();
+    }
+
+    @Test
+    void share_addsMissingUsersAndReportsEveryRequest() {
+        surveyShareService.share(surveyId, List.of("share-colleague"), null);
+
+        SurveyShareResultDTO result = surveyShareService.share(surveyId,
+                List.of("share-colleague", " share-other ", "share-owner", "nobody"), List.of(colleagueId, -1L));
+
+        assertEquals(1, result.getSharedCount());
+        assertEquals(List.of("already_shared", "shared", "owner", "not_found", "already_shared", "not_found"), outcomes(result));
+        assertEquals("share-other", result.getResults().get(1).getUsername());
+        assertEquals(List.of("share-colleague", "share-other"), sharedUsernames());
+    }
+
+    @Test
+    void share_byIdOnly() {
+        SurveyShareResultDTO result = surveyShareService.share(surveyId, List.of(), List.of(colleagueId));
+
+        assertEquals(List.of("shared"), outcomes(result));
+        assertEquals(List.of("share-colleague"), sharedUsernames());
+    }
+
+    @Test
+    void share_rejectsEmptyRequestsAndUnknownSurveys() {
+        assertThrows(IllegalArgumentException.class, () -> surveyShareService.share(surveyId, List.of(" "), null));
+        assertThrows(ResourceNotFoundException.class, () -> surveyShareService.share(-1L, List.of("share-colleague"), null));
+    }
+}
@@ -0,0 +1,45 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void parse_boundedOpenAndSuffixRanges() {
+        ByteRange bounded = ByteRange.parse("bytes=10-19", 100);
+        assertEquals(10, bounded.getStart());
+        assertEquals(19, bounded.getEnd());
+        assertEquals(10, bounded.getLength());
+
+        ByteRange open = ByteRange.parse("bytes=90-", 100);
+        assertEquals(90, open.getStart());
+        assertEquals(99, open.getEnd());
+
+        ByteRange suffix = ByteRange.parse("bytes=-30", 100);
+        assertEquals(70, suffix.getStart());
+        assertEquals(99, suffix.getEnd());
+    }
+
+    @Test
+    void parse_clampsRangesThatRunPastTheEnd() {
+        assertEquals(99, ByteRange.parse("bytes=50-500", 100).getEnd());
+        assertEquals(0, ByteRange.parse("bytes=-500", 100).getStart());
+    }
+
+    @Test
+    void parse_rangesStartingPastTheEndAreUnsatisfiable() {
+        assertFalse(ByteRange.parse("bytes=100-", 100).isSatisfiable());
+        assertFalse(ByteRange.parse("bytes=-0", 100).isSatisfiable());
+    }
+
+    @Test
+    void parse_absentMalformedOrMultipleRangesMeanTheWholeBody() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-1", 100));
+        assertNull(ByteRange.parse("bytes=abc", 100));
+        assertNull(ByteRange.parse("bytes=20-10", 100));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 100));
+    }
+}
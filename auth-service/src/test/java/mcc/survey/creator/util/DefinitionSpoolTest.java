@@ -0,0 +1,51 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinitionSpoolTest {
+
+    private static String readAll(DefinitionSpool spool) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = spool.openReader()) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+
+    @Test
+    void smallContent_staysInMemory() throws IOException {
+        try (DefinitionSpool spool = new DefinitionSpool(64)) {
+            try (Writer writer = spool.writer()) {
+                writer.write("{\"title\":\"é\"}");
+            }
+            assertFalse(spool.isSpilled());
+            assertEquals("{\"title\":\"é\"}", readAll(spool));
+            assertEquals(13, spool.length());
+            assertEquals(14, spool.utf8Length());
+        }
+    }
+
+    @Test
+    void largeContent_spillsToFileAndReadsBack() throws IOException {
+        String chunk = "{\"name\":\"q\"},".repeat(10);
+        try (DefinitionSpool spool = new DefinitionSpool(32)) {
+            Writer writer = spool.writer();
+            writer.write("[");
+            writer.write(chunk);
+            writer.write("\"😀\"]");
+            writer.close();
+
+            assertTrue(spool.isSpilled());
+            assertEquals("[" + chunk + "\"😀\"]", readAll(spool));
+            assertEquals(chunk.length() + 6, spool.length());
+            assertEquals(chunk.length() + 8, spool.utf8Length());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DraftLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_returnsLatestUnsettledDraftPerSurvey() throws IOException {
+        Path path = directory.resolve("drafts.log");
+        try (DraftLog log = new DraftLog(path)) {
+            assertTrue(log.open().isEmpty());
+            log.append(new DraftLog.Entry(1, 1, "{\"v\":1}"));
+            log.append(new DraftLog.Entry(2, 2, "{\"v\":2}"));
+            log.append(new DraftLog.Entry(1, 3, "{\"v\":3}"));
+            log.append(DraftLog.Entry.settled(2, 2));
+            log.append(new DraftLog.Entry(3, 4, "{\"title\":\"é\"}"));
+        }
+
+        try (DraftLog log = new DraftLog(path)) {
+            List<DraftLog.Entry> pending = log.open().stream()
+                    .sorted(Comparator.comparingLong(DraftLog.Entry::surveyId)).toList();
+            assertEquals(List.of(new DraftLog.Entry(1, 3, "{\"v\":3}"), new DraftLog.Entry(3, 4, "{\"title\":\"é\"}")), pending);
+        }
+    }
+
+    @Test
+    void open_dropsTornTailAndKeepsAppending() throws IOException {
+        Path path = directory.resolve("drafts.log");
+        try (DraftLog log = new DraftLog(path)) {
+            log.open();
+            log.append(new DraftLog.Entry(1, 1, "{\"v\":1}"));
+        }
+        long intact = Files.size(path);
+        Files.write(path, new byte[]{1, 0, 0, 0}, StandardOpenOption.APPEND); // A crash mid-write
+
+        try (DraftLog log = new DraftLog(path)) {
+            assertEquals(List.of(new DraftLog.Entry(1, 1, "{\"v\":1}")), log.open());
+            assertEquals(intact, Files.size(path));
+            log.append(new DraftLog.Entry(1, 2, "{\"v\":2}"));
+        }
+        try (DraftLog log = new DraftLog(path)) {
+            assertEquals(List.of(new DraftLog.Entry(1, 2, "{\"v\":2}")), log.open());
+        }
+    }
+
+    @Test
+    void rewrite_keepsOnlyGivenDrafts() throws IOException {
+        Path path = directory.resolve("drafts.log");
+        try (DraftLog log = new DraftLog(path)) {
+            log.open();
+            for (int i = 1; i <= 50; i++) {
+                log.append(new DraftLog.Entry(1, i, "{\"v\":" + i + "}"));
+            }
+            long before = Files.size(path);
+            log.rewrite(List.of(new DraftLog.Entry(1, 50, "{\"v\":50}")));
+            assertTrue(Files.size(path) < before);
+            log.append(new DraftLog.Entry(2, 51, "{\"v\":51}"));
+        }
+        try (DraftLog log = new DraftLog(path)) {
+            assertEquals(2, log.open().size());
+        }
+    }
+
+    @Test
+    void append_concurrentCallers_allDurableAcrossBatches() throws Exception {
+        Path path = directory.resolve("drafts.log");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (DraftLog log = new DraftLog(path)) {
+            log.open();
+            List<Future<?>> appends = new ArrayList<>();
+            for (int i = 1; i <= 200; i++) {
+                long survey = i;
+                appends.add(executor.submit(() -> {
+                    log.append(new DraftLog.Entry(survey, survey, "{\"v\":" + survey + "}"));
+                    return null;
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (DraftLog log = new DraftLog(path)) {
+            assertEquals(200, log.open().size());
+        }
+    }
+
+    @Test
+    void append_afterClose_fails() throws IOException {
+        DraftLog log = new DraftLog(directory.resolve("drafts.log"));
+        log.open();
+        log.close();
+        assertThrows(IOException.class, () -> log.append(new DraftLog.Entry(1, 1, "{}")));
+    }
+}
@@ -0,0 +1,53 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyCursorTest {
+
+    @Test
+    void encodeDecode_roundTripsTimestampWithNanos() {
+        Timestamp updatedAt = Timestamp.from(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+        SurveyCursor decoded = SurveyCursor.decode(new SurveyCursor(updatedAt, 42L).encode());
+
+        assertEquals(updatedAt, decoded.getUpdatedAt());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void encodeDecode_roundTripsNumericSortValue() {
+        SurveyCursor decoded = SurveyCursor.decode(new SurveyCursor(1234L, 42L).encode());
+
+        assertEquals(1234L, decoded.getValue());
+        assertNull(decoded.getUpdatedAt());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void sortAcceptsOnlyCursorsOfItsOwnOrdering() {
+        SurveyCursor byTime = new SurveyCursor(Timestamp.from(Instant.now()), 1L);
+        SurveyCursor byValue = new SurveyCursor(3L, 1L);
+
+        assertTrue(SurveyListSort.UPDATED.accepts(byTime));
+        assertFalse(SurveyListSort.UPDATED.accepts(byValue));
+        assertTrue(SurveyListSort.QUESTIONS.accepts(byValue));
+        assertFalse(SurveyListSort.SIZE.accepts(byTime));
+        assertFalse(SurveyListSort.SIZE.accepts(new SurveyCursor(Long.MAX_VALUE, 1L)));
+    }
+
+    @Test
+    void decode_blankToken_returnsNull() {
+        assertNull(SurveyCursor.decode(null));
+        assertNull(SurveyCursor.decode(" "));
+    }
+
+    @Test
+    void decode_garbage_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> SurveyCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> SurveyCursor.decode("YWJj")); // "abc"
+    }
+}
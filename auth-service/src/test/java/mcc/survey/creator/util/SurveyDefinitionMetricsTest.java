@@ -0,0 +1,41 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyDefinitionMetricsTest {
+
+    @Test
+    void of_countsPagesAndQuestionsIncludingThoseInPanels() {
+        String definition = "{\"pages\":[{\"name\":\"p1\",\"elements\":[{\"type\":\"text\",\"name\":\"q1\"},"
+                + "{\"type\":\"panel\",\"name\":\"panel\",\"elements\":[{\"type\":\"rating\",\"name\":\"q2\"},{\"type\":\"comment\",\"name\":\"q3\"}]}]},"
+                + "{\"name\":\"p2\",\"elements\":[{\"type\":\"paneldynamic\",\"name\":\"q4\",\"templateElements\":[{\"type\":\"text\",\"name\":\"q5\"}]}]}]}";
+
+        SurveyDefinitionMetrics metrics = SurveyDefinitionMetrics.of(definition);
+
+        assertEquals(2, metrics.pageCount());
+        assertEquals(5, metrics.questionCount());
+        assertEquals(definition.length(), metrics.definitionBytes());
+        assertFalse(metrics.hasLogic());
+    }
+
+    @Test
+    void of_detectsConditionsTriggersAndExpressions() {
+        assertTrue(SurveyDefinitionMetrics.of("{\"pages\":[{\"elements\":[{\"type\":\"text\",\"name\":\"q\",\"visibleIf\":\"{a} = 1\"}]}]}").hasLogic());
+        assertTrue(SurveyDefinitionMetrics.of("{\"triggers\":[{\"type\":\"complete\",\"expression\":\"{a} = 2\"}]}").hasLogic());
+        assertTrue(SurveyDefinitionMetrics.of("{\"calculatedValues\":[{\"name\":\"total\"}]}").hasLogic());
+        assertFalse(SurveyDefinitionMetrics.of("{\"triggers\":[],\"pages\":[{\"elements\":[{\"type\":\"text\",\"visibleIf\":\" \"}]}]}").hasLogic());
+    }
+
+    @Test
+    void of_sizeIsInUtf8Bytes() {
+        assertEquals(18, SurveyDefinitionMetrics.of("{\"title\":\"意見\"}").definitionBytes());
+    }
+
+    @Test
+    void of_missingOrMalformedDefinitionHasNoPagesOrQuestions() {
+        assertEquals(new SurveyDefinitionMetrics(0, 0, 0, false), SurveyDefinitionMetrics.of(null));
+        assertEquals(new SurveyDefinitionMetrics(0, 0, 9, false), SurveyDefinitionMetrics.of("{\"pages\":"));
+    }
+}
@@ -0,0 +1,76 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyDefinitionNavigatorTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String DEFINITION = "{\"title\":\"Café\",\"pages\":[{\"name\":\"p1\",\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]},"
+            + " {\"name\":\"p2\",\"elements\":[{\"type\":\"rating\",\"name\":\"a/b\"}]}],\"locale\":\"fr\"}";
+
+    private String part(String pointer) throws Exception {
+        try (JsonParser parser = JSON.createParser(DEFINITION.getBytes(StandardCharsets.UTF_8))) {
+            if (!SurveyDefinitionNavigator.seek(parser, JsonPointer.compile(pointer))) {
+                return null;
+            }
+            return new ObjectMapper().readTree(parser).toString();
+        }
+    }
+
+    @Test
+    void seek_followsPropertiesAndIndexes() throws Exception {
+        assertEquals("{\"name\":\"p2\",\"elements\":[{\"type\":\"rating\",\"name\":\"a/b\"}]}", part("/pages/1"));
+        assertEquals("\"q1\"", part("/pages/0/elements/0/name"));
+        assertEquals("\"fr\"", part("/locale"));
+        assertEquals("\"a/b\"", part("/pages/1/elements/0/name"));
+        assertNotNull(part(""));
+    }
+
+    @Test
+    void seek_reportsMissingValues() throws Exception {
+        assertNull(part("/pages/2"));
+        assertNull(part("/missing"));
+        assertNull(part("/title/0"));
+        assertNull(part("/pages/first"));
+    }
+
+    @Test
+    void seek_stopsAtTheTargetWithoutReadingTheRest() throws Exception {
+        String truncated = "{\"pages\":[{\"name\":\"p1\"}],\"rest\":[";
+        try (JsonParser parser = JSON.createParser(truncated)) {
+            assertTrue(SurveyDefinitionNavigator.seek(parser, JsonPointer.compile("/pages/0")));
+            assertEquals(JsonToken.START_OBJECT, parser.currentToken());
+        }
+    }
+
+    @Test
+    void elementOffsets_areByteRangesOfEachPage() throws Exception {
+        byte[] bytes = DEFINITION.getBytes(StandardCharsets.UTF_8);
+        long[] offsets;
+        try (JsonParser parser = JSON.createParser(bytes)) {
+            offsets = SurveyDefinitionNavigator.elementOffsets(parser, SurveyDefinitionNavigator.PAGES);
+        }
+
+        assertEquals(4, offsets.length);
+        assertEquals("{\"name\":\"p1\",\"elements\":[{\"type\":\"text\",\"name\":\"q1\"}]}",
+                new String(bytes, (int) offsets[0], (int) (offsets[1] - offsets[0]), StandardCharsets.UTF_8));
+        assertEquals("{\"name\":\"p2\",\"elements\":[{\"type\":\"rating\",\"name\":\"a/b\"}]}",
+                new String(bytes, (int) offsets[2], (int) (offsets[3] - offsets[2]), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void elementOffsets_isNullWithoutAnArray() throws Exception {
+        try (JsonParser parser = JSON.createParser("{\"pages\":{}}".getBytes(StandardCharsets.UTF_8))) {
+            assertNull(SurveyDefinitionNavigator.elementOffsets(parser, SurveyDefinitionNavigator.PAGES));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyJsonCanonicalizerTest {
+
+    @Test
+    void canonicalize_sortsKeysAndMinifies() {
+        String canonical = SurveyJsonCanonicalizer.canonicalize("{ \"title\": \"T\",\n  \"pages\": [ { \"name\": \"p1\", \"elements\": [ { \"type\": \"text\", \"name\": \"q1\" } ] } ] }");
+
+        assertEquals("{\"pages\":[{\"elements\":[{\"name\":\"q1\",\"type\":\"text\"}],\"name\":\"p1\"}],\"title\":\"T\"}", canonical);
+    }
+
+    @Test
+    void canonicalize_dropsDefaultsForTheObjectKind() {
+        String canonical = SurveyJsonCanonicalizer.canonicalize("{\"showTitle\":true,\"showProgressBar\":\"top\",\"pages\":[{\"name\":\"p1\",\"visible\":true," +
+                "\"elements\":[{\"type\":\"radiogroup\",\"name\":\"q1\",\"isRequired\":false,\"hasOther\":false,\"choicesOrder\":\"asc\"}," +
+                "{\"type\":\"text\",\"name\":\"q2\",\"inputType\":\"text\",\"visible\":false}]}]}");
+
+        assertEquals("{\"pages\":[{\"elements\":[{\"choicesOrder\":\"asc\",\"name\":\"q1\",\"type\":\"radiogroup\"}," +
+                "{\"name\":\"q2\",\"type\":\"text\",\"visible\":false}],\"name\":\"p1\"}],\"showProgressBar\":\"top\"}", canonical);
+    }
+
+    @Test
+    void canonicalize_stripsEmptyContainersButKeepsArrayPositions() {
+        String canonical = SurveyJsonCanonicalizer.canonicalize("{\"triggers\":[],\"pages\":[{\"elements\":[]},{\"name\":\"p2\"," +
+                "\"elements\":[{\"type\":\"checkbox\",\"name\":\"q\",\"choices\":[],\"validators\":[{}]}]}]}");
+
+        assertEquals("{\"pages\":[{},{\"elements\":[{\"name\":\"q\",\"type\":\"checkbox\",\"validators\":[{}]}],\"name\":\"p2\"}]}", canonical);
+    }
+
+    @Test
+    void canonicalize_keepsLookalikePropertiesOutsideSurveyObjects() {
+        // "visible" inside a choice item is data, not a SurveyJS element property
+        String canonical = SurveyJsonCanonicalizer.canonicalize("{\"pages\":[{\"elements\":[{\"type\":\"dropdown\",\"name\":\"q\"," +
+                "\"choices\":[{\"value\":1,\"visible\":true}]}]}]}");
+
+        assertTrue(canonical.contains("\"visible\":true"));
+    }
+
+    @Test
+    void canonicalize_isIdempotentAndPassesNullThrough() {
+        String once = SurveyJsonCanonicalizer.canonicalize("{\"b\":1,\"a\":{\"d\":[],\"c\":2}}");
+
+        assertEquals("{\"a\":{\"c\":2},\"b\":1}", once);
+        assertEquals(once, SurveyJsonCanonicalizer.canonicalize(once));
+        assertNull(SurveyJsonCanonicalizer.canonicalize((String) null));
+        assertThrows(IllegalArgumentException.class, () -> SurveyJsonCanonicalizer.canonicalize("{\"a\":"));
+    }
+
+    private static String streamed(String json, int bufferChars) throws IOException {
+        try (DefinitionSpool source = new DefinitionSpool(bufferChars);
+             DefinitionSpool target = new DefinitionSpool(bufferChars)) {
+            try (Writer writer = source.writer()) {
+                writer.write(json);
+            }
+            SurveyJsonCanonicalizer.canonicalize(source, target.writer());
+            StringWriter result = new StringWriter();
+            try (Reader reader = target.openReader()) {
+                reader.transferTo(result);
+            }
+            return result.toString();
+        }
+    }
+
+    @Test
+    void canonicalize_streamedSpoolMatchesTheStringForm() throws IOException {
+        String[] definitions = {
+                "{\"title\":\"T\",\"showTitle\":true,\"pages\":[{\"name\":\"p1\",\"visible\":true,\"elements\":[" +
+                        "{\"type\":\"rating\",\"name\":\"q1\",\"rateMax\":5}]},{\"elements\":[]}],\"completedHtml\":\"<p/>\"}",
+                "{\"pages\":[],\"triggers\":[],\"locale\":\"de\"}",
+                "{\"pages\":[{\"name\":\"old\"}],\"title\":\"A\",\"pages\":[{\"name\":\"new\"}],\"title\":\"B\"}",
+                "{\"pages\":\"not an array\"}",
+                "{\"pages\":[{\"name\":\"p\"}],\"pages\":{}}",
+                "[{\"b\":1,\"a\":2}]"
+        };
+        for (String definition : definitions) {
+            String expected = SurveyJsonCanonicalizer.canonicalize(definition);
+            assertEquals(expected, streamed(definition, 65536), definition);
+            assertEquals(expected, streamed(definition, 8), definition); // Both spools on disk
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyLocaleProjectorTest {
+
+    private static final String DEFINITION = "{\"title\":{\"default\":\"Satisfaction\",\"zh-tw\":\"滿意度\",\"zh-cn\":\"满意度\"}," +
+            "\"pages\":[{\"name\":\"p1\",\"elements\":[{\"type\":\"radiogroup\",\"name\":\"q1\"," +
+            "\"title\":{\"default\":\"Rate us\",\"zh-tw\":\"評分\"}," +
+            "\"choices\":[{\"value\":1,\"text\":{\"default\":\"Good\",\"zh-cn\":\"好\"}},\"plain\"]}]}]}";
+
+    @Test
+    void project_collapsesLocalizableStringsWithFallbackToDefault() {
+        String projected = SurveyLocaleProjector.project(DEFINITION, "zh-tw");
+
+        assertEquals("{\"title\":\"滿意度\",\"pages\":[{\"name\":\"p1\",\"elements\":[{\"type\":\"radiogroup\",\"name\":\"q1\"," +
+                "\"title\":\"評分\",\"choices\":[{\"value\":1,\"text\":\"Good\"},\"plain\"]}]}],\"locale\":\"zh-tw\"}", projected);
+    }
+
+    @Test
+    void project_fallsBackToTheLanguageBeforeTheDefault() {
+        String projected = SurveyLocaleProjector.project("{\"title\":{\"default\":\"Hello\",\"zh\":\"你好\"}}", "zh-hk");
+
+        assertEquals("{\"title\":\"你好\",\"locale\":\"zh-hk\"}", projected);
+    }
+
+    @Test
+    void project_leavesObjectsThatAreNotLocalizableStrings() {
+        String definition = "{\"calculatedValues\":[{\"name\":\"total\",\"expression\":\"{a}+{b}\"}]," +
+                "\"title\":{\"url\":\"x\",\"count\":1}}";
+
+        assertEquals("{\"calculatedValues\":[{\"name\":\"total\",\"expression\":\"{a}+{b}\"}]," +
+                "\"title\":{\"url\":\"x\",\"count\":1},\"locale\":\"en\"}", SurveyLocaleProjector.project(definition, "en"));
+    }
+
+    @Test
+    void normalizeLocale_acceptsUnderscoresAndCaseButRejectsGarbage() {
+        assertEquals("zh-tw", SurveyLocaleProjector.normalizeLocale("zh_TW"));
+        assertEquals("en", SurveyLocaleProjector.normalizeLocale(" EN "));
+        assertThrows(IllegalArgumentException.class, () -> SurveyLocaleProjector.normalizeLocale("../etc"));
+        assertThrows(IllegalArgumentException.class, () -> SurveyLocaleProjector.normalizeLocale(""));
+    }
+}
@@ -0,0 +1,45 @@
+package mcc.survey.creator.util;
+
+import mcc.survey.creator.util.SurveyQuestionExtractor.ExtractedQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyQuestionExtractorTest {
+
+    private static final String SURVEY_JSON = "{\"pages\":[" +
+            "{\"name\":\"intro\",\"elements\":[" +
+            "  {\"type\":\"text\",\"name\":\"fullName\",\"title\":\"Full name\"}," +
+            "  {\"type\":\"panel\",\"name\":\"contact\",\"elements\":[{\"type\":\"text\",\"name\":\"email\"}]}]}," +
+            "{\"name\":\"ratings\",\"elements\":[" +
+            "  {\"type\":\"matrix\",\"name\":\"service\",\"title\":{\"default\":\"Rate our service\",\"zh-tw\":\"評價服務\"}}," +
+            "  {\"type\":\"paneldynamic\",\"name\":\"children\",\"templateElements\":[{\"type\":\"rating\",\"name\":\"age\"}]}]}]}";
+
+    @Test
+    void extract_listsQuestionsAcrossPagesPanelsAndTemplates() {
+        List<ExtractedQuestion> questions = SurveyQuestionExtractor.extract(SURVEY_JSON);
+
+        assertEquals(List.of("fullName", "email", "service", "children", "age"),
+                questions.stream().map(ExtractedQuestion::getName).toList());
+        assertEquals(List.of("text", "text", "matrix", "paneldynamic", "rating"),
+                questions.stream().map(ExtractedQuestion::getType).toList());
+        assertEquals(1, questions.get(2).getPageIndex());
+        assertEquals("ratings", questions.get(2).getPageName());
+        assertEquals("Rate our service", questions.get(2).getTitle(), "Localised titles resolve to the default locale");
+        assertEquals("email", questions.get(1).getTitle(), "Untitled questions fall back to their name");
+    }
+
+    @Test
+    void extract_invalidJson_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> SurveyQuestionExtractor.extract("{\"pages\":["));
+    }
+
+    @Test
+    void titleHash_ignoresCaseAndWhitespace() {
+        assertEquals(SurveyQuestionExtractor.titleHash("Rate  our service "), SurveyQuestionExtractor.titleHash("rate our Service"));
+        assertNotEquals(SurveyQuestionExtractor.titleHash("Rate our service"), SurveyQuestionExtractor.titleHash("Rate our staff"));
+        assertEquals(32, SurveyQuestionExtractor.titleHash("x").length());
+    }
+}
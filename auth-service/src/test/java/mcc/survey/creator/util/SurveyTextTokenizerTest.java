@@ -0,0 +1,61 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SurveyTextTokenizerTest {
+
+    @Test
+    void tokenize_latinText_lowercasesAndSplitsOnPunctuation() {
+        assertEquals(List.of("customer", "satisfaction", "2024"), SurveyTextTokenizer.tokenize("Customer-Satisfaction (2024)!"));
+    }
+
+    @Test
+    void tokenize_cjkRun_producesOverlappingBigrams() {
+        assertEquals(List.of("滿意", "意程", "程度"), SurveyTextTokenizer.tokenize("滿意程度"));
+    }
+
+    @Test
+    void tokenizeForIndex_cjkRun_addsUnigrams() {
+        assertEquals(List.of("滿", "意", "程", "度", "滿意", "意程", "程度"), SurveyTextTokenizer.tokenizeForIndex("滿意程度"));
+        assertEquals(List.of("調"), SurveyTextTokenizer.tokenizeForIndex("調"));
+    }
+
+    @Test
+    void tokenize_mixedScripts_splitsAtScriptBoundaries() {
+        assertEquals(List.of("app", "使用", "用體", "體驗", "調", "survey"), SurveyTextTokenizer.tokenize("App使用體驗 調 Survey"));
+    }
+
+    @Test
+    void tokenize_nullOrEmpty_returnsNoTokens() {
+        assertTrue(SurveyTextTokenizer.tokenize(null).isEmpty());
+        assertTrue(SurveyTextTokenizer.tokenize("  ,. ").isEmpty());
+    }
+
+    @Test
+    void extract_collectsQuestionTitlesChoicesAndLocales() {
+        String surveyJson = "{\"title\":\"Staff survey\",\"pages\":[{\"name\":\"page1\",\"elements\":[" +
+                "{\"type\":\"radiogroup\",\"name\":\"q1\",\"title\":{\"default\":\"Favourite fruit\",\"zh-tw\":\"最喜歡的水果\"}," +
+                "\"choices\":[\"Apple\",{\"value\":\"b\",\"text\":\"Banana\"}]}]}]}";
+
+        String text = SurveyTextExtractor.extract("Title", "Description", surveyJson);
+
+        assertTrue(text.contains("Staff survey"));
+        assertTrue(text.contains("Favourite fruit"));
+        assertTrue(text.contains("最喜歡的水果"));
+        assertTrue(text.contains("Apple"));
+        assertTrue(text.contains("Banana"));
+        assertFalse(text.contains("page1"), "Element names are identifiers, not display text");
+        assertFalse(text.contains("radiogroup"));
+    }
+
+    @Test
+    void extract_malformedJson_stillReturnsTitleAndDescription() {
+        String text = SurveyTextExtractor.extract("Title", "Description", "{not json");
+        assertTrue(text.contains("Title"));
+        assertTrue(text.contains("Description"));
+    }
+}
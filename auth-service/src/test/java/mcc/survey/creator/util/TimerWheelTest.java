@@ -0,0 +1,68 @@
+package mcc.survey.creator.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void advance_expiresItemsWhenTheirTickPasses() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+        wheel.schedule("c", 700);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(299, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advance(300, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+        wheel.advance(700, expired::add);
+        assertEquals(List.of("a", "b", "c"), expired);
+    }
+
+    @Test
+    void advance_keepsItemsOfLaterRotations() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 4, 0);
+        wheel.schedule("soon", 200);
+        wheel.schedule("later", 600); // Same bucket, next rotation
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(200, expired::add);
+        assertEquals(List.of("soon"), expired);
+        wheel.advance(500, expired::add);
+        assertEquals(List.of("soon"), expired);
+        wheel.advance(600, expired::add);
+        assertEquals(List.of("soon", "later"), expired);
+    }
+
+    @Test
+    void advance_afterLongPauseExpiresEverythingDue() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 4, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(i, i * 10L);
+        }
+        wheel.schedule(99, 100_000);
+        List<Integer> expired = new ArrayList<>();
+
+        wheel.advance(10_000, expired::add);
+
+        assertEquals(20, expired.size());
+        assertFalse(expired.contains(99));
+    }
+
+    @Test
+    void schedule_pastDeadlineExpiresWithNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 1_000);
+        wheel.schedule("late", 500);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(1_100, expired::add);
+
+        assertEquals(List.of("late"), expired);
+    }
+}
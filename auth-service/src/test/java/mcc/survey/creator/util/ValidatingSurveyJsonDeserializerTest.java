@@ -0,0 +1,60 @@
+package mcc.survey.creator.util;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mcc.survey.creator.dto.SurveyDTO;
+import mcc.survey.creator.service.SurveyDefinitionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.SpringHandlerInstantiator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatingSurveyJsonDeserializerTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("surveyDefinitionValidator",
+                new SurveyDefinitionValidator(new ClassPathResource("schema/survey-definition.schema.json"), 4096, 10, 200));
+        objectMapper = new ObjectMapper();
+        objectMapper.setHandlerInstantiator(new SpringHandlerInstantiator(beanFactory));
+    }
+
+    @Test
+    void deserialize_validDefinition_bindsTreeAndFollowingFields() throws Exception {
+        SurveyDTO dto = objectMapper.readValue("{\"title\":\"T\",\"surveyJson\":{\"pages\":[{\"name\":\"p1\",\"elements\":" +
+                "[{\"type\":\"text\",\"name\":\"q1\"}]}]},\"status\":\"draft\"}", SurveyDTO.class);
+
+        assertEquals("q1", dto.getSurveyJson().at("/pages/0/elements/0/name").asText());
+        assertEquals("T", dto.getTitle());
+        assertEquals("draft", dto.getStatus());
+    }
+
+    @Test
+    void deserialize_nullDefinition_isLeftUnset() throws Exception {
+        assertNull(objectMapper.readValue("{\"surveyJson\":null}", SurveyDTO.class).getSurveyJson());
+    }
+
+    @Test
+    void deserialize_schemaViolation_isRejectedWithPointer() {
+        JsonMappingException e = assertThrows(JsonMappingException.class, () -> objectMapper.readValue(
+                "{\"surveyJson\":{\"pages\":[{\"elements\":[{\"type\":\"text\"}]}]}}", SurveyDTO.class));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("/pages/0/elements/0"), e.getCause().getMessage());
+    }
+
+    @Test
+    void deserialize_definitionLargerThanLimit_isRejectedWhileReading() {
+        String body = "{\"title\":\"" + "t".repeat(8000) + "\",\"surveyJson\":{\"pages\":[],\"padding\":[\""
+                + "x".repeat(3000) + "\",\"" + "y".repeat(3000) + "\"]}}";
+
+        JsonMappingException e = assertThrows(JsonMappingException.class,
+                () -> objectMapper.readValue(body.getBytes(), SurveyDTO.class));
+        assertTrue(e.getCause().getMessage().contains("larger than 4096 bytes"), e.getCause().getMessage());
+    }
+}
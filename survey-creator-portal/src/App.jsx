@@ -19,6 +19,10 @@ import {
     getSurvey,
     createSurvey,
     updateSurvey,
+    autosaveSurvey,
+    acquireEditLease,
+    renewEditLease,
+    releaseEditLease,
     fetchSharedUsers, // Placeholder: To be implemented in surveyService.js
     shareSurvey,      // Placeholder: To be implemented in surveyService.js
     unshareSurvey     // Placeholder: To be implemented in surveyService.js
@@ -125,6 +129,10 @@ function AppContent() {
                 onGetSurvey={getSurvey}
                 onCreateSurvey={createSurvey}
                 onUpdateSurvey={updateSurvey}
+                onAutosaveSurvey={autosaveSurvey}
+                onAcquireEditLease={acquireEditLease}
+                onRenewEditLease={renewEditLease}
+                onReleaseEditLease={releaseEditLease}
                 onFetchSharedUsers={fetchSharedUsers} // Pass placeholder
                 onShareSurvey={shareSurvey}         // Pass placeholder
                 onUnshareSurvey={unshareSurvey}     // Pass placeholder
@@ -24,6 +24,7 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
   const [searchQuery, setSearchQuery] = useState('');
   const [searchResults, setSearchResults] = useState([]);
   const [sharedUsers, setSharedUsers] = useState([]);
+  const [pendingUsers, setPendingUsers] = useState([]); // Picked from search, shared together with Share
   const [isLoading, setIsLoading] = useState(false); // Used for initial load and sharing actions
   const [isSearching, setIsSearching] = useState(false); // Used specifically for search operation
   const [error, setError] = useState(null);
@@ -49,6 +50,7 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
       loadSharedUsers();
     } else if (!open) {
       setSharedUsers([]);
+      setPendingUsers([]);
       setSearchQuery('');
       setSearchResults([]);
       setError(null);
@@ -68,7 +70,7 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
       setError(null);
       try {
         const results = await searchUsers(searchQuery);
-        const sharedUserIds = sharedUsers.map(user => user.id);
+        const sharedUserIds = [...sharedUsers, ...pendingUsers].map(user => user.id);
         const filteredResults = results.filter(user => !sharedUserIds.includes(user.id));
         setSearchResults(filteredResults);
       } catch (err) {
@@ -81,20 +83,37 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
     }, 500); // 500ms debounce
 
     return () => clearTimeout(timerId);
-  }, [searchQuery, sharedUsers]); // Added sharedUsers dependency
+  }, [searchQuery, sharedUsers, pendingUsers]);
 
-  // Step 6: Handle Adding User (handleAddUser function)
-  const handleAddUser = async (userToAdd) => {
+  const handleAddUser = (userToAdd) => {
+    setPendingUsers((current) => [...current, userToAdd]);
+    setSearchQuery('');
+    setSearchResults([]);
+  };
+
+  const handleRemovePendingUser = (userId) => {
+    setPendingUsers((current) => current.filter((user) => user.id !== userId));
+  };
+
+  // One request for all picked users; those that could not be added stay picked with the reason
+  const handleShare = async () => {
+    if (pendingUsers.length === 0) {
+      onClose();
+      return;
+    }
     setIsLoading(true);
     setError(null);
     try {
-      await shareSurvey(surveyId, userToAdd.username);
-      setSearchQuery('');
-      setSearchResults([]);
+      const { results } = await shareSurvey(surveyId, pendingUsers.map((user) => user.username));
+      const failed = results.filter((result) => result.outcome === 'not_found' || result.outcome === 'owner');
+      setPendingUsers((current) => current.filter((user) => failed.some((result) => result.requested === user.username)));
+      if (failed.length > 0) {
+        setError(`Could not share with ${failed.map((result) => `${result.requested} (${result.outcome === 'owner' ? 'owner' : 'not found'})`).join(', ')}.`);
+      }
       await loadSharedUsers();
     } catch (err) {
-      console.error(`Failed to share survey with ${userToAdd.username}:`, err);
-      setError(`Failed to share survey with ${userToAdd.username}. ${err.message || ''}`);
+      console.error('Failed to share survey:', err);
+      setError(`Failed to share survey. ${err.message || ''}`);
     } finally {
       setIsLoading(false);
     }
@@ -158,6 +177,26 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
           <Typography sx={{ mt: 2 }}>No new users found.</Typography>
         )}
 
+        {/* Picked users, shared together */}
+        {pendingUsers.length > 0 && (
+          <>
+            <Typography sx={{ mt: 2, mb: 1 }}>To Share:</Typography>
+            <Box sx={{ display: 'flex', flexWrap: 'wrap', gap: 1, p: 1, border: '1px dashed #ccc', borderRadius: '4px', maxHeight: 150, overflow: 'auto' }}>
+              {pendingUsers.map((user) => (
+                <Chip
+                  key={user.id}
+                  label={user.username}
+                  color="primary"
+                  variant="outlined"
+                  onDelete={() => handleRemovePendingUser(user.id)}
+                  deleteIcon={<ClearIcon />}
+                  disabled={isLoading}
+                />
+              ))}
+            </Box>
+          </>
+        )}
+
         <Divider sx={{ my: 2 }} />
 
         {/* Shared Users List */}
@@ -185,9 +224,8 @@ const ShareSurveyDialog = ({ open, onClose, surveyId }) => {
       </DialogContent>
       <DialogActions>
         <Button onClick={onClose} disabled={isLoading}>Cancel</Button>
-        {/* The main "Share" button might be repurposed or removed if sharing is done per user */}
-        {/* For now, let's assume the original "Share" button is more of a "Done" or "Close" button */}
-        <Button onClick={onClose} disabled={isLoading}>Done</Button>
+        {/* Shares the picked users in one request; with none picked it just closes */}
+        <Button onClick={handleShare} disabled={isLoading} variant="contained">Share</Button>
       </DialogActions>
     </Dialog>
   );
@@ -1,4 +1,4 @@
-import React, { useContext, useEffect, useState } from 'react';
+import React, { useContext, useEffect, useRef, useState } from 'react';
 import { useParams } from 'react-router-dom';
 // import { getSurvey } from '../services/surveyService.js'; // Removed as per refactor
 import { SurveyCreatorModel  } from 'survey-creator-core';
@@ -33,17 +33,21 @@ const defaultCreatorOptions = {
   collapseOnDrag: true
 };
 
-function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey, onUpdateSurvey, onFetchSharedUsers, onShareSurvey, onUnshareSurvey }) {
+function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey, onUpdateSurvey, onAutosaveSurvey, onAcquireEditLease, onRenewEditLease, onReleaseEditLease, onFetchSharedUsers, onShareSurvey, onUnshareSurvey }) {
   
   const { user } = useContext(AuthContext); // Removed token, user might still be needed for ownership check
   const { surveyId: surveyIdFromParams } = useParams();
   const [surveyId, setSurveyId] = useState(null);
   const [surveyMode, setSurveyMode] = useState('public');
   const [dataClassification, setDataClassification] = useState('public');
-  const [status, setStatus] = useState('drafted');
+  const [status, setStatus] = useState('draft');
   const [shareWithUsername, setShareWithUsername] = useState('');
   const [sharedUsersList, setSharedUsersList] = useState([]);
   const [showPreviewModal, setShowPreviewModal] = useState(false);
+  // Title and description of the last full save; while they are unchanged, edits only need an autosave
+  const lastSavedMeta = useRef(null);
+  // Who holds the edit lease when it is not us; the editor is read-only meanwhile
+  const [leaseHolder, setLeaseHolder] = useState(null);
   let [creator, setCreator] = useState();
 
   if (!creator) {
@@ -69,7 +73,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                         setSurveyId(null);
                         setSurveyMode('public');
                         setDataClassification('public');
-                        setStatus('drafted');
+                        setStatus('draft');
                         setSharedUsersList([]);
                         return;
                     }
@@ -94,7 +98,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                     setSurveyId(null);
                     setSurveyMode('public');
                     setDataClassification('public');
-                    setStatus('drafted');
+                    setStatus('draft');
                     setSharedUsersList([]);
                 }
             } else if (!surveyIdFromParams) {
@@ -103,7 +107,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                 setSurveyId(null);
                 setSurveyMode('public');
                 setDataClassification('public');
-                setStatus('drafted');
+                setStatus('draft');
                 setSharedUsersList([]);
             }
         };
@@ -122,7 +126,50 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
             setSharedUsersList([]); // Clear if no surveyId
         }
     }, [surveyId, onFetchSharedUsers]); // Depends on surveyId and onFetchSharedUsers
+    // Hold the survey's edit lease while it is open, renewing it well before it runs out
+    useEffect(() => {
+        if (!surveyId || !creator || !onAcquireEditLease) {
+            return undefined;
+        }
+        let cancelled = false;
+        let timer;
+        const apply = (lease) => {
+            if (cancelled) return;
+            setLeaseHolder(lease.readOnly ? lease.holder : null);
+            creator.readOnly = lease.readOnly;
+            timer = setTimeout(renew, Math.max(1000, (lease.leaseSeconds || 30) * 1000 / 3));
+        };
+        const renew = () => {
+            (onRenewEditLease || onAcquireEditLease)(surveyId)
+                .then(apply)
+                .catch(error => {
+                    console.error("Error renewing edit lease:", error);
+                    if (!cancelled) timer = setTimeout(renew, 5000);
+                });
+        };
+        onAcquireEditLease(surveyId)
+            .then(apply)
+            .catch(error => {
+                console.error("Error acquiring edit lease:", error);
+                // Only those who may save get a lease; anyone else views the survey read-only
+                if (!cancelled && error.response && error.response.status === 403) {
+                    creator.readOnly = true;
+                }
+            });
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+            if (onReleaseEditLease) {
+                onReleaseEditLease(surveyId).catch(error => console.error("Error releasing edit lease:", error));
+            }
+        };
+    }, [surveyId, creator, onAcquireEditLease, onRenewEditLease, onReleaseEditLease]);
+
     creator.saveSurveyFunc = (saveNo, callback) => {
+        if (leaseHolder) {
+            callback(saveNo, false); // Read-only: another editor holds the lease
+            return;
+        }
         // Inside creator.saveSurveyFunc
         const currentSurveyJsonAsObject = creator.JSON;
         console.log("Attempting to save survey JSON (object):", currentSurveyJsonAsObject);
@@ -138,7 +185,15 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
 
         // The rest of the logic (calling onUpdateSurvey or onCreateSurvey) remains the same,
         // but now 'surveyData' has a stringified 'surveyJson' and includes title/description.
-        if (surveyId) {
+        const meta = `${surveyData.title}\n${surveyData.description}`;
+        if (surveyId && onAutosaveSurvey && lastSavedMeta.current === meta) {
+            onAutosaveSurvey(surveyId, currentSurveyJsonAsObject)
+                .then(() => callback(saveNo, true))
+                .catch(error => {
+                    console.error("Error during survey autosave:", error);
+                    callback(saveNo, false);
+                });
+        } else if (surveyId) {
             if (onUpdateSurvey) {
                 onUpdateSurvey(surveyId, surveyData) // surveyData now contains stringified surveyJson
                     .then(savedSurvey => {
@@ -148,6 +203,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                         setSurveyMode(savedSurvey.surveyMode);
                         setDataClassification(savedSurvey.dataClassification);
                         setStatus(savedSurvey.status);
+                        lastSavedMeta.current = meta;
                         // Optionally reload creator.JSON if backend could modify it, e.g.
                         if (savedSurvey.surveyJson) creator.JSON = JSON.parse(savedSurvey.surveyJson);
                         callback(saveNo, true);
@@ -170,6 +226,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                          setSurveyMode(savedSurvey.surveyMode);
                          setDataClassification(savedSurvey.dataClassification);
                          setStatus(savedSurvey.status);
+                         lastSavedMeta.current = meta;
                         // Optionally reload creator.JSON, e.g.
                         if (savedSurvey.surveyJson) creator.JSON = JSON.parse(savedSurvey.surveyJson);
                          callback(saveNo, true);
@@ -209,25 +266,25 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
       return;
     }
 
+    // Several usernames, separated by commas or spaces, are shared in one request
+    const usernames = shareWithUsername.split(/[\s,;]+/).filter(Boolean);
     try {
-      await onShareSurvey(surveyId, shareWithUsername.trim());
-      alert(`Survey shared successfully with ${shareWithUsername.trim()}!`);
+      const result = await onShareSurvey(surveyId, usernames);
+      const failures = (result?.results || [])
+        .filter((outcome) => outcome.outcome !== 'shared')
+        .map((outcome) => {
+          if (outcome.outcome === 'already_shared') return `already shared with ${outcome.requested}`;
+          if (outcome.outcome === 'owner') return `cannot share with its owner (${outcome.requested})`;
+          return `user "${outcome.requested}" not found`;
+        });
+      alert(failures.length === 0
+        ? `Survey shared successfully with ${usernames.join(', ')}!`
+        : `Survey shared, except: ${failures.join('; ')}.`);
       setShareWithUsername(''); // Clear input
       fetchSharedUsers(surveyId); // Refresh list
     } catch (error) {
       console.error("Error sharing survey:", error);
-      // Assuming error object might have a message from the backend or a generic one
-      const errorMessage = error.response?.data?.message || error.message || "An error occurred while trying to share the survey.";
-      if (errorMessage.includes("already shared")) {
-           alert(`Survey is already shared with user ${shareWithUsername.trim()}.`);
-      } else if (errorMessage.includes("cannot share with the owner")) {
-          alert(`Cannot share the survey with its owner (${shareWithUsername.trim()}).`);
-      } else if (errorMessage.includes("not found")) {
-          alert(`User "${shareWithUsername.trim()}" not found.`);
-      }
-      else {
-          alert(errorMessage);
-      }
+      alert(error.response?.data?.message || error.message || "An error occurred while trying to share the survey.");
     }
   };
 
@@ -258,6 +315,11 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
                     {/* Existing settings can be grouped or styled as needed */}
                 </div>
             </div>
+            {leaseHolder && (
+                <div role="status" style={{ padding: '10px', backgroundColor: '#fff4e5', marginBottom: '10px' }}>
+                    Read-only: {leaseHolder} is editing this survey. Editing resumes when they close it.
+                </div>
+            )}
             <div style={{ padding: '10px', backgroundColor: '#f0f0f0', marginBottom: '10px' }}>
                 <label htmlFor="surveyIdDisplay" style={{ marginRight: '10px' }}>Survey ID: </label>
                 <span id="surveyIdDisplay" style={{ marginRight: '20px', fontWeight:'bold' }}>{surveyId || 'New Survey'}</span>
@@ -278,7 +340,7 @@ function SurveyJsCreatorComponent({ json, options, onGetSurvey, onCreateSurvey,
 
                 <label htmlFor="status" style={{ marginRight: '10px' }}>Status:</label>
                 <select id="status" value={status} onChange={(e) => setStatus(e.target.value)}>
-                    <option value="drafted">Drafted</option>
+                    <option value="draft">Draft</option>
                     <option value="published">Published</option>
                     <option value="expired">Expired</option>
                 </select>
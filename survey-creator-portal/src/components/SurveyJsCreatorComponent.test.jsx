@@ -81,6 +81,8 @@ const renderComponent = (params = {}) => {
     onGetSurvey: mockOnGetSurvey,
     onCreateSurvey: mockOnCreateSurvey,
     onUpdateSurvey: mockOnUpdateSurvey,
+    onAutosaveSurvey: otherParams.onAutosaveSurvey, // Only some tests autosave
+    onAcquireEditLease: otherParams.onAcquireEditLease, // Only some tests lease
     onFetchSharedUsers: mockOnFetchSharedUsers,
     onShareSurvey: mockOnShareSurvey,
     onUnshareSurvey: mockOnUnshareSurvey,
@@ -100,8 +102,8 @@ describe('SurveyJsCreatorComponent', () => {
     vi.clearAllMocks();
     // Default mock implementations
     mockOnGetSurvey.mockResolvedValue({ id: 'survey1', surveyJson: { title: 'Existing Survey' }, ownerUsername: 'testuser', sharedWithUsers: [] });
-    mockOnCreateSurvey.mockResolvedValue({ id: 'newSurvey123', surveyJson: { title: 'New Survey' }, surveyMode: 'public', dataClassification: 'public', status: 'drafted' });
-    mockOnUpdateSurvey.mockResolvedValue({ id: 'survey1', surveyJson: { title: 'Updated Survey' }, surveyMode: 'public', dataClassification: 'public', status: 'drafted' });
+    mockOnCreateSurvey.mockResolvedValue({ id: 'newSurvey123', surveyJson: { title: 'New Survey' }, surveyMode: 'public', dataClassification: 'public', status: 'draft' });
+    mockOnUpdateSurvey.mockResolvedValue({ id: 'survey1', surveyJson: { title: 'Updated Survey' }, surveyMode: 'public', dataClassification: 'public', status: 'draft' });
     mockOnFetchSharedUsers.mockResolvedValue({ sharedWithUsers: [{ id: 'user2', username: 'sharedUser' }] });
     mockOnShareSurvey.mockResolvedValue({});
     mockOnUnshareSurvey.mockResolvedValue({});
@@ -226,6 +228,58 @@ describe('SurveyJsCreatorComponent', () => {
     });
   });
 
+  describe('Autosave', () => {
+    it('autosaves the definition while the title is unchanged since the last full save', async () => {
+      const mockOnAutosaveSurvey = vi.fn().mockResolvedValue(undefined);
+      mockOnGetSurvey.mockResolvedValue({ id: 'survey1', surveyJson: { title: 'Initial Title' }, owner: { username: 'testuser' } });
+
+      renderComponent({ surveyIdFromParams: 'survey1', onAutosaveSurvey: mockOnAutosaveSurvey });
+
+      await waitFor(() => {
+        expect(mockOnGetSurvey).toHaveBeenCalledWith('survey1');
+      });
+
+      const mockSaveCallback = vi.fn();
+      mockCoreCreatorInstance.JSON = { title: 'Updated Title' };
+      await act(async () => {
+        mockCoreCreatorInstance.saveSurveyFunc(1, mockSaveCallback);
+      });
+      await waitFor(() => expect(mockOnUpdateSurvey).toHaveBeenCalledTimes(1));
+
+      mockCoreCreatorInstance.JSON = { title: 'Updated Title', pages: [{ name: 'page1' }] };
+      await act(async () => {
+        mockCoreCreatorInstance.saveSurveyFunc(2, mockSaveCallback);
+      });
+
+      await waitFor(() => {
+        expect(mockOnAutosaveSurvey).toHaveBeenCalledWith('survey1', { title: 'Updated Title', pages: [{ name: 'page1' }] });
+      });
+      expect(mockOnUpdateSurvey).toHaveBeenCalledTimes(1);
+      expect(mockSaveCallback).toHaveBeenCalledWith(2, true);
+    });
+  });
+
+  describe('Edit lease', () => {
+    it('goes read-only while another editor holds the lease', async () => {
+      const mockOnAcquireEditLease = vi.fn().mockResolvedValue({ surveyId: 'survey1', holder: 'otheruser', readOnly: true, leaseSeconds: 30 });
+      mockOnGetSurvey.mockResolvedValue({ id: 'survey1', surveyJson: { title: 'Existing Survey' }, owner: { username: 'testuser' } });
+
+      renderComponent({ surveyIdFromParams: 'survey1', onAcquireEditLease: mockOnAcquireEditLease });
+
+      await waitFor(() => {
+        expect(screen.getByRole('status')).toHaveTextContent('otheruser is editing this survey');
+      });
+      expect(mockCoreCreatorInstance.readOnly).toBe(true);
+
+      const mockSaveCallback = vi.fn();
+      await act(async () => {
+        mockCoreCreatorInstance.saveSurveyFunc(1, mockSaveCallback);
+      });
+      expect(mockSaveCallback).toHaveBeenCalledWith(1, false);
+      expect(mockOnUpdateSurvey).not.toHaveBeenCalled();
+    });
+  });
+
   describe('onFetchSharedUsers Interaction', () => {
     it('calls onFetchSharedUsers after a survey is successfully loaded', async () => {
       const surveyData = { id: 'survey123', surveyJson: { title: 'Test' }, ownerUsername: 'testuser', sharedWithUsers: [] };
@@ -244,7 +298,7 @@ describe('SurveyJsCreatorComponent', () => {
     });
 
      it('calls onFetchSharedUsers after a new survey is successfully created', async () => {
-      const createdSurveyData = { id: 'newSurvey789', surveyJson: { title: 'New' }, ownerUsername: 'testuser', surveyMode: 'public', dataClassification: 'public', status: 'drafted' };
+      const createdSurveyData = { id: 'newSurvey789', surveyJson: { title: 'New' }, ownerUsername: 'testuser', surveyMode: 'public', dataClassification: 'public', status: 'draft' };
       mockOnCreateSurvey.mockResolvedValue(createdSurveyData);
 
       renderComponent(); // New survey
@@ -293,7 +347,7 @@ describe('SurveyJsCreatorComponent', () => {
       fireEvent.click(shareButton);
 
       await waitFor(() => {
-        expect(mockOnShareSurvey).toHaveBeenCalledWith('shareTestSurvey', 'newUserToShare');
+        expect(mockOnShareSurvey).toHaveBeenCalledWith('shareTestSurvey', ['newUserToShare']);
       });
 
       // Check if list refreshes (onFetchSharedUsers is called again)
@@ -322,7 +376,7 @@ describe('SurveyJsCreatorComponent', () => {
       fireEvent.change(screen.getByPlaceholderText('Enter username to share with'), { target: { value: 'userOne' } });
       fireEvent.click(screen.getByRole('button', { name: 'Share' }));
 
-      await waitFor(() => expect(mockOnShareSurvey).toHaveBeenCalledWith('shareTestSurvey', 'userOne'));
+      await waitFor(() => expect(mockOnShareSurvey).toHaveBeenCalledWith('shareTestSurvey', ['userOne']));
       await waitFor(() => expect(screen.getByText('userOne')).toBeInTheDocument()); // User appears in list
 
       // 2. Now unshare that user
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { getSurveysByUser } from '../services/surveyService.js';
-import { Button, List, ListItem, ListItemText, Typography, Box, Paper, IconButton } from '@mui/material';
+import { syncSurveyList, searchSurveys } from '../services/surveyService.js';
+import { Button, List, ListItem, ListItemText, Typography, Box, Paper, IconButton, TextField } from '@mui/material';
 import EditIcon from '@mui/icons-material/Edit';
 import DeleteIcon from '@mui/icons-material/Delete';
 import PublishIcon from '@mui/icons-material/Publish';
@@ -9,6 +9,8 @@ import UnpublishedIcon from '@mui/icons-material/Unpublished';
 import ShareIcon from '@mui/icons-material/Share';
 import ShareSurveyDialog from './ShareSurveyDialog';
 
+const PAGE_SIZE = 20;
+
 const SurveyList = () => {
   const navigate = useNavigate();
   const [surveys, setSurveys] = useState([]);
@@ -16,16 +18,17 @@ const SurveyList = () => {
   const [error, setError] = useState(null);
   const [shareDialogOpen, setShareDialogOpen] = useState(false);
   const [selectedSurveyId, setSelectedSurveyId] = useState(null);
-
-  // Mock userId - in a real app, this would come from an auth context
-  const userId = 'user1';
+  const [visibleCount, setVisibleCount] = useState(PAGE_SIZE);
+  const [searchQuery, setSearchQuery] = useState('');
+  const [searchResults, setSearchResults] = useState(null); // null when not searching
 
   useEffect(() => {
     const fetchSurveys = async () => {
       try {
         setLoading(true);
-        const userSurveys = await getSurveysByUser(userId);
-        setSurveys(userSurveys);
+        // Only what changed since the last visit is fetched; the rest comes from the local cache
+        const allSurveys = await syncSurveyList();
+        setSurveys(allSurveys.filter((survey) => !survey.shared));
         setError(null);
       } catch (err) {
         console.error("Error fetching surveys:", err);
@@ -37,7 +40,31 @@ const SurveyList = () => {
     };
 
     fetchSurveys();
-  }, [userId]);
+  }, []);
+
+  const handleLoadMore = () => {
+    setVisibleCount((count) => count + PAGE_SIZE);
+  };
+
+  useEffect(() => {
+    const query = searchQuery.trim();
+    if (!query) {
+      setSearchResults(null);
+      return undefined;
+    }
+    // Debounce so typing does not fire a request per keystroke
+    const timer = setTimeout(async () => {
+      try {
+        setSearchResults(await searchSurveys(query));
+      } catch (err) {
+        console.error("Error searching surveys:", err);
+        setSearchResults([]);
+      }
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchQuery]);
+
+  const visibleSurveys = searchResults ?? surveys.slice(0, visibleCount);
 
   const handleShareClick = (surveyId) => {
     setSelectedSurveyId(surveyId);
@@ -60,13 +87,22 @@ const SurveyList = () => {
         </Button>
       </Box>
 
+      <TextField
+        fullWidth
+        size="small"
+        label="Search surveys"
+        value={searchQuery}
+        onChange={(e) => setSearchQuery(e.target.value)}
+        sx={{ mb: 2 }}
+      />
+
       {loading && <Typography>Loading surveys...</Typography>}
       {error && <Typography color="error">{error}</Typography>}
-      {!loading && !error && surveys.length === 0 && <Typography>No surveys found.</Typography>}
+      {!loading && !error && visibleSurveys.length === 0 && <Typography>No surveys found.</Typography>}
 
-      {!loading && !error && surveys.length > 0 && (
+      {!loading && !error && visibleSurveys.length > 0 && (
         <List>
-          {surveys.map((survey) => (
+          {visibleSurveys.map((survey) => (
             <ListItem
               key={survey.id}
               divider
@@ -89,12 +125,21 @@ const SurveyList = () => {
             >
               <ListItemText
                 primary={survey.title}
-                secondary={`Status: ${survey.status}`}
+                secondary={`Status: ${survey.status}`
+                  + (survey.questionCount != null ? ` · ${survey.questionCount} questions on ${survey.pageCount} pages` : '')
+                  + (survey.shareCount > 0 ? ` · Shared with ${survey.shareCount}` : '')}
               />
             </ListItem>
           ))}
         </List>
       )}
+      {!loading && !error && !searchResults && surveys.length > visibleCount && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+          <Button variant="outlined" onClick={handleLoadMore}>
+            Load more
+          </Button>
+        </Box>
+      )}
       {selectedSurveyId && (
         <ShareSurveyDialog
           open={shareDialogOpen}
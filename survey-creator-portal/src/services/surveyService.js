@@ -2,10 +2,27 @@ import { apiClient } from '../contexts/AuthContext'; // Corrected import path if
 
 // The userId parameter is kept for potential future use or if API requires it,
 // even if the backend currently gets the user from the security context.
+// Edit lease token per survey, sent with saves; while another editor holds the lease, saves get a 409.
+const editLeaseTokens = new Map();
+
+const editLeaseConfig = (surveyId) => {
+  const token = editLeaseTokens.get(String(surveyId));
+  return token ? { headers: { 'X-Edit-Lease': token } } : undefined;
+};
+
+const rememberEditLease = (surveyId, lease) => {
+  if (lease.readOnly) {
+    editLeaseTokens.delete(String(surveyId));
+  } else {
+    editLeaseTokens.set(String(surveyId), lease.token);
+  }
+  return lease;
+};
+
 export const getSurveysByUser = async (userId) => {
   try {
-    // Assuming the backend endpoint /api/surveys is secured and returns surveys for the authenticated user.
-    // If the backend specifically needs the userId in the query params: apiClient.get(`/api/surveys?userId=${userId}`);
+    // /api/surveys returns lightweight summaries (id, title, status, surveyMode, dataClassification,
+    // createdAt, updatedAt, shareCount) for the authenticated user; use getSurvey for the full definition.
     const response = await apiClient.get('/surveys');
     return response.data;
   } catch (error) {
@@ -14,6 +31,78 @@ export const getSurveysByUser = async (userId) => {
   }
 };
 
+// Fetches one keyset page of survey summaries. Pass the nextCursor from the previous
+// page to continue; filters (status, surveyMode, dataClassification, titlePrefix,
+// min/maxQuestions, min/maxPages, min/maxBytes, hasLogic) are optional. sort is one of
+// 'updated' (default), 'questions', 'pages' or 'size'; a cursor only continues its own sort.
+export const getSurveyPage = async ({ cursor, size, direction, sort, ...filters } = {}) => {
+  try {
+    const params = { ...filters, size, direction, sort };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    const response = await apiClient.get('/surveys/page', { params });
+    return response.data; // { items: [...], nextCursor: string | null }
+  } catch (error) {
+    // Optional: console.error('Error fetching survey page:', error);
+    throw error;
+  }
+};
+
+// What changed in the user's owned and shared surveys since the cursor of an earlier call (or
+// everything, with reset set, when since is omitted or can no longer be continued).
+export const getSurveyChanges = async (since) => {
+  try {
+    const response = await apiClient.get('/surveys/changes', { params: since ? { since } : {} });
+    return response.data; // { cursor, reset, changed: [...], sharedIds: [...], removed: [...] }
+  } catch (error) {
+    // Optional: console.error('Error fetching survey changes:', error);
+    throw error;
+  }
+};
+
+const SURVEY_LIST_CACHE_KEY = 'surveyListCache';
+
+const readSurveyListCache = () => {
+  try {
+    const cached = JSON.parse(localStorage.getItem(SURVEY_LIST_CACHE_KEY));
+    return cached && cached.cursor && Array.isArray(cached.surveys) ? cached : null;
+  } catch {
+    return null;
+  }
+};
+
+// Brings the locally cached survey list up to date with one delta request and returns it, most
+// recently updated first. Surveys seen through a share are marked shared.
+export const syncSurveyList = async () => {
+  const cached = readSurveyListCache();
+  const changes = await getSurveyChanges(cached?.cursor);
+  const byId = new Map(changes.reset || !cached ? [] : cached.surveys.map((survey) => [survey.id, survey]));
+  changes.removed.forEach((id) => byId.delete(id));
+  const sharedIds = new Set(changes.sharedIds);
+  changes.changed.forEach((survey) => byId.set(survey.id, { ...survey, shared: sharedIds.has(survey.id) }));
+  const surveys = [...byId.values()]
+    .sort((a, b) => String(b.updatedAt ?? '').localeCompare(String(a.updatedAt ?? '')));
+  try {
+    localStorage.setItem(SURVEY_LIST_CACHE_KEY, JSON.stringify({ cursor: changes.cursor, surveys }));
+  } catch {
+    // Storage full or unavailable: the next sync starts over
+  }
+  return surveys;
+};
+
+// Full-text search over titles, descriptions and question text of surveys the user owns or
+// has been shared. Returns survey summaries, best matches first.
+export const searchSurveys = async (query, limit = 20) => {
+  try {
+    const response = await apiClient.get('/surveys/search', { params: { q: query, limit } });
+    return response.data;
+  } catch (error) {
+    // Optional: console.error(`Error searching surveys for "${query}":`, error);
+    throw error;
+  }
+};
+
 // New function to get a list of users a survey is shared with
 export const getSharedUsers = async (surveyId) => {
   // Mock implementation for now
@@ -51,21 +140,16 @@ export const fetchSharedUsers = async (surveyId) => {
   }
 };
 
-export const shareSurvey = async (surveyId, username) => {
+// Shares the survey with one or many usernames in a single request. Resolves to
+// { surveyId, sharedCount, results: [{ requested, userId, username, outcome }] }, where outcome is
+// 'shared', 'already_shared', 'owner' or 'not_found' for each requested user.
+export const shareSurvey = async (surveyId, usernames) => {
   try {
-    // Step 1: Get User ID by Username
-    const userResponse = await apiClient.get(`/auth/users/by-username/${username.trim()}`);
-    const userIdToShare = userResponse.data.id;
-
-    if (!userIdToShare) {
-      throw new Error(`User ID not found for username: ${username.trim()}`);
-    }
-
-    // Step 2: Share the Survey
-    const shareResponse = await apiClient.post(`/surveys/${surveyId}/share/${userIdToShare}`, {});
-    return shareResponse.data;
+    const list = (Array.isArray(usernames) ? usernames : [usernames]).map((username) => username.trim());
+    const response = await apiClient.post(`/surveys/${surveyId}/shares`, { usernames: list });
+    return response.data;
   } catch (error) {
-    // Optional: console.error(`Error sharing survey ID ${surveyId} with username ${username}:`, error);
+    // Optional: console.error(`Error sharing survey ID ${surveyId} with ${usernames}:`, error);
     throw error;
   }
 };
@@ -104,7 +188,7 @@ export const createSurvey = async (surveyData) => {
 
 export const updateSurvey = async (surveyId, surveyData) => {
   try {
-    const response = await apiClient.put(`/surveys/${surveyId}`, surveyData);
+    const response = await apiClient.put(`/surveys/${surveyId}`, surveyData, editLeaseConfig(surveyId));
     return response.data;
   } catch (error) {
     // Optional: console.error(`Error updating survey with ID ${surveyId}:`, error);
@@ -112,6 +196,53 @@ export const updateSurvey = async (surveyId, surveyData) => {
   }
 };
 
+// Only the definition; the server keeps the latest draft and writes it to the database on an interval.
+export const autosaveSurvey = async (surveyId, surveyJson) => {
+  try {
+    await apiClient.put(`/surveys/${surveyId}/autosave`, surveyJson, editLeaseConfig(surveyId));
+  } catch (error) {
+    // Optional: console.error(`Error autosaving survey with ID ${surveyId}:`, error);
+    throw error;
+  }
+};
+
+// Returns { holder, readOnly, leaseSeconds, ... }; with readOnly set someone else is editing the survey.
+export const acquireEditLease = async (surveyId) => {
+  try {
+    const response = await apiClient.post(`/surveys/${surveyId}/lease`);
+    return rememberEditLease(surveyId, response.data);
+  } catch (error) {
+    throw error;
+  }
+};
+
+// Renew every leaseSeconds / 3 or so; without a lease this asks for one again.
+export const renewEditLease = async (surveyId) => {
+  const token = editLeaseTokens.get(String(surveyId));
+  if (!token) {
+    return acquireEditLease(surveyId);
+  }
+  try {
+    const response = await apiClient.put(`/surveys/${surveyId}/lease/${token}`);
+    return rememberEditLease(surveyId, response.data);
+  } catch (error) {
+    throw error;
+  }
+};
+
+export const releaseEditLease = async (surveyId) => {
+  const token = editLeaseTokens.get(String(surveyId));
+  editLeaseTokens.delete(String(surveyId));
+  if (!token) {
+    return;
+  }
+  try {
+    await apiClient.delete(`/surveys/${surveyId}/lease/${token}`);
+  } catch (error) {
+    throw error;
+  }
+};
+
 export const deleteSurvey = async (surveyId) => {
   try {
     const response = await apiClient.delete(`/surveys/${surveyId}`);
@@ -122,26 +253,62 @@ export const deleteSurvey = async (surveyId) => {
   }
 };
 
-export const publishSurvey = async (surveyId) => {
+// Deleted surveys stay restorable until the server purges them; list them with getSurveyPage({ status: 'deleted' }).
+export const restoreSurvey = async (surveyId) => {
+  try {
+    const response = await apiClient.post(`/surveys/${surveyId}/restore`);
+    return response.data;
+  } catch (error) {
+    // Optional: console.error(`Error restoring survey with ID ${surveyId}:`, error);
+    throw error;
+  }
+};
+
+// Status changes are a single UPDATE on the server; the definition is not sent or rewritten.
+// Allowed moves: draft -> published/deleted, published -> draft/expired/deleted,
+// expired -> draft/published/deleted, deleted -> draft.
+export const changeSurveyStatus = async (surveyId, status) => {
+  try {
+    const response = await apiClient.post(`/surveys/${surveyId}/status`, { status });
+    return response.data; // { status, updatedIds, rejectedIds }
+  } catch (error) {
+    // Optional: console.error(`Error changing status of survey with ID ${surveyId}:`, error);
+    throw error;
+  }
+};
+
+// Moves several surveys at once; surveys that cannot make the move come back in rejectedIds.
+export const changeSurveyStatuses = async (surveyIds, status) => {
   try {
-    const survey = await getSurvey(surveyId);
-    const updatedSurveyData = { ...survey, status: 'published' };
-    // The backend might re-validate or only take specific fields,
-    // ensure survey object structure matches what updateSurvey endpoint expects.
-    return await updateSurvey(surveyId, updatedSurveyData);
+    const response = await apiClient.post('/surveys/status', { ids: surveyIds, status });
+    return response.data; // { status, updatedIds, rejectedIds }
   } catch (error) {
-    // Optional: console.error(`Error publishing survey with ID ${surveyId}:`, error);
+    // Optional: console.error('Error changing survey statuses:', error);
     throw error;
   }
 };
 
-export const unpublishSurvey = async (surveyId) => {
+export const publishSurvey = async (surveyId) => changeSurveyStatus(surveyId, 'published');
+
+export const unpublishSurvey = async (surveyId) => changeSurveyStatus(surveyId, 'draft');
+
+// Server-side copy: the clone shares the source's stored definition until one of them is edited.
+export const cloneSurvey = async (surveyId) => {
   try {
-    const survey = await getSurvey(surveyId);
-    const updatedSurveyData = { ...survey, status: 'draft' };
-    return await updateSurvey(surveyId, updatedSurveyData);
+    const response = await apiClient.post(`/surveys/${surveyId}/clone`);
+    return response.data;
+  } catch (error) {
+    // Optional: console.error(`Error cloning survey with ID ${surveyId}:`, error);
+    throw error;
+  }
+};
+
+export const getTemplates = async () => {
+  try {
+    const response = await apiClient.get('/surveys/templates');
+    return response.data;
   } catch (error) {
-    // Optional: console.error(`Error unpublishing survey with ID ${surveyId}:`, error);
+    // Optional: console.error('Error fetching survey templates:', error);
     throw error;
   }
 };